@@ -0,0 +1,138 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.animation.benchmark;
+
+import androidx.animation.FloatProperty;
+import androidx.animation.ObjectAnimator;
+import androidx.animation.PropertyRegistry;
+import androidx.benchmark.BenchmarkRule;
+import androidx.benchmark.BenchmarkState;
+import androidx.test.filters.LargeTest;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Measures one frame of {@link #ANIMATOR_COUNT} object animators that animate a float property
+ * given by name, with the setter called through reflection or through a property found in the
+ * {@link PropertyRegistry}, and with a {@link FloatProperty} given explicitly as the baseline.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class ObjectAnimatorBenchmark {
+
+    private static final int ANIMATOR_COUNT = 2000;
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    @BeforeClass
+    public static void registerProperty() {
+        PropertyRegistry.registerProperty(RegisteredTarget.class, RegisteredTarget.VALUE);
+    }
+
+    @Test
+    public void frameReflective() {
+        ObjectAnimator[] animators = new ObjectAnimator[ANIMATOR_COUNT];
+        for (int i = 0; i < ANIMATOR_COUNT; i++) {
+            animators[i] = ObjectAnimator.ofFloat(new ReflectiveTarget(), "value", 0f, 1f);
+        }
+        runFrames(animators);
+    }
+
+    @Test
+    public void frameRegistered() {
+        ObjectAnimator[] animators = new ObjectAnimator[ANIMATOR_COUNT];
+        for (int i = 0; i < ANIMATOR_COUNT; i++) {
+            animators[i] = ObjectAnimator.ofFloat(new RegisteredTarget(), "value", 0f, 1f);
+        }
+        runFrames(animators);
+    }
+
+    @Test
+    public void frameFloatProperty() {
+        ObjectAnimator[] animators = new ObjectAnimator[ANIMATOR_COUNT];
+        for (int i = 0; i < ANIMATOR_COUNT; i++) {
+            animators[i] = ObjectAnimator.ofFloat(new RegisteredTarget(), RegisteredTarget.VALUE,
+                    0f, 1f);
+        }
+        runFrames(animators);
+    }
+
+    @Test
+    public void setupReflective() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (int i = 0; i < ANIMATOR_COUNT; i++) {
+                ObjectAnimator.ofFloat(new ReflectiveTarget(), "value", 1f).setCurrentFraction(0f);
+            }
+        }
+    }
+
+    @Test
+    public void setupRegistered() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (int i = 0; i < ANIMATOR_COUNT; i++) {
+                ObjectAnimator.ofFloat(new RegisteredTarget(), "value", 1f).setCurrentFraction(0f);
+            }
+        }
+    }
+
+    private void runFrames(ObjectAnimator[] animators) {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        float fraction = 0f;
+        while (state.keepRunning()) {
+            fraction = fraction >= 1f ? 0f : fraction + 1f / 60;
+            for (int i = 0; i < animators.length; i++) {
+                animators[i].setCurrentFraction(fraction);
+            }
+        }
+    }
+
+    public static class ReflectiveTarget {
+        private float mValue;
+
+        public void setValue(float value) {
+            mValue = value;
+        }
+
+        public float getValue() {
+            return mValue;
+        }
+    }
+
+    public static class RegisteredTarget {
+        static final FloatProperty<RegisteredTarget> VALUE =
+                new FloatProperty<RegisteredTarget>("value") {
+                    @Override
+                    public void setValue(RegisteredTarget target, float value) {
+                        target.mValue = value;
+                    }
+
+                    @Override
+                    public Float get(RegisteredTarget target) {
+                        return target.mValue;
+                    }
+                };
+
+        float mValue;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.animation;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.filters.SmallTest;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class BatchAnimatorTest {
+    private static final float EPSILON = 0.001f;
+
+    @ClassRule
+    public static AnimationTestRule sAnimationTestRule = new AnimationTestRule();
+
+    private float mPreviousDurationScale = 1.0f;
+
+    @Before
+    public void setup() {
+        mPreviousDurationScale = ValueAnimator.getDurationScale();
+        ValueAnimator.setDurationScale(1.0f);
+    }
+
+    @After
+    public void tearDown() {
+        ValueAnimator.setDurationScale(mPreviousDurationScale);
+    }
+
+    @UiThreadTest
+    @Test
+    public void testValuesMatchInterpolators() {
+        BatchAnimator batch = new BatchAnimator(2);
+        Interpolator cycle = new CycleInterpolator(1);
+        int cycleId = batch.addInterpolator(cycle);
+        int linear = batch.add(0f, 100f, 100);
+        int accelerate = batch.add(0f, 100f, 100, 0, BatchAnimator.INTERPOLATOR_ACCELERATE);
+        int decelerate = batch.add(0f, 100f, 100, 0, BatchAnimator.INTERPOLATOR_DECELERATE);
+        int accelerateDecelerate = batch.add(0f, 100f, 100, 0,
+                BatchAnimator.INTERPOLATOR_ACCELERATE_DECELERATE);
+        int custom = batch.add(0f, 100f, 100, 0, cycleId);
+        assertEquals(5, batch.getRunningCount());
+        // Values added after the first one start on the next frame.
+        sAnimationTestRule.advanceTimeBy(0);
+
+        for (int time = 0; time < 100; time += 10) {
+            float fraction = time / 100f;
+            assertEquals(100f * fraction, batch.getValue(linear), EPSILON);
+            assertEquals(100f * new AccelerateInterpolator().getInterpolation(fraction),
+                    batch.getValue(accelerate), EPSILON);
+            assertEquals(100f * new DecelerateInterpolator().getInterpolation(fraction),
+                    batch.getValue(decelerate), EPSILON);
+            assertEquals(100f * new AccelerateDecelerateInterpolator().getInterpolation(fraction),
+                    batch.getValue(accelerateDecelerate), EPSILON);
+            assertEquals(100f * cycle.getInterpolation(fraction), batch.getValue(custom),
+                    EPSILON);
+            sAnimationTestRule.advanceTimeBy(10);
+        }
+        assertFalse(batch.isRunning());
+        assertEquals(100f, batch.getValue(linear), EPSILON);
+        assertEquals(100f, batch.getValue(accelerate), EPSILON);
+    }
+
+    @UiThreadTest
+    @Test
+    public void testStartDelayAndDuration() {
+        BatchAnimator batch = new BatchAnimator();
+        int delayed = batch.add(10f, 20f, 100, 50, BatchAnimator.INTERPOLATOR_LINEAR);
+        int instant = batch.add(0f, 1f, 0);
+        sAnimationTestRule.advanceTimeBy(0);
+
+        assertTrue(batch.isRunning(delayed));
+        assertFalse(batch.isRunning(instant));
+        assertEquals(1f, batch.getValue(instant), EPSILON);
+
+        sAnimationTestRule.advanceTimeBy(40);
+        assertEquals(10f, batch.getValue(delayed), EPSILON);
+        sAnimationTestRule.advanceTimeBy(60);
+        assertEquals(15f, batch.getValue(delayed), EPSILON);
+        sAnimationTestRule.advanceTimeBy(100);
+        assertEquals(20f, batch.getValue(delayed), EPSILON);
+        assertFalse(batch.isRunning());
+    }
+
+    @UiThreadTest
+    @Test
+    public void testRemoveReusesIndex() {
+        BatchAnimator batch = new BatchAnimator();
+        final int[] updates = new int[1];
+        batch.setUpdateListener(new BatchAnimator.UpdateListener() {
+            @Override
+            public void onBatchUpdate(BatchAnimator animator) {
+                updates[0]++;
+            }
+        });
+        int first = batch.add(0f, 1f, 100);
+        int second = batch.add(0f, 1f, 100);
+        batch.remove(first);
+        assertEquals(1, batch.getRunningCount());
+        assertEquals(first, batch.add(5f, 6f, 100));
+
+        int before = updates[0];
+        batch.end();
+        assertEquals(before + 1, updates[0]);
+        assertEquals(6f, batch.getValue(first), EPSILON);
+        assertEquals(1f, batch.getValue(second), EPSILON);
+        assertEquals(0, AnimationHandler.getAnimationCount());
+
+        // No frame is received once all the values have ended.
+        sAnimationTestRule.advanceTimeBy(10);
+        assertEquals(before + 1, updates[0]);
+    }
+
+    @UiThreadTest
+    @Test
+    public void testManyValuesAreOneCallback() {
+        BatchAnimator batch = new BatchAnimator();
+        for (int i = 0; i < 1000; i++) {
+            batch.add(0f, i, 100);
+        }
+        assertEquals(1, AnimationHandler.getAnimationCount());
+        sAnimationTestRule.advanceTimeBy(0);
+        sAnimationTestRule.advanceTimeBy(50);
+        float[] values = batch.getValues();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i / 2f, values[i], EPSILON);
+        }
+        batch.clear();
+        assertEquals(0, AnimationHandler.getAnimationCount());
+    }
+}
@@ -103,6 +103,26 @@ public class ObjectAnimatorTest {
 
     }
 
+    static class RegisteredObject {
+        // No setter nor getter, so the property can only be animated through the registry.
+        float mValue = 0f;
+        int mSetCount = 0;
+    }
+
+    static final FloatProperty<RegisteredObject> REGISTERED_VALUE =
+            new FloatProperty<RegisteredObject>("registeredValue") {
+                @Override
+                public void setValue(RegisteredObject obj, float value) {
+                    obj.mValue = value;
+                    obj.mSetCount++;
+                }
+
+                @Override
+                public Float get(RegisteredObject obj) {
+                    return obj.mValue;
+                }
+            };
+
     /**
      * Tests that an object animator finishes within the duration defined by setDuration.
      */
@@ -764,4 +784,30 @@ public class ObjectAnimatorTest {
         sAnimationTestRule.advanceTimeBy(anim1.getDuration());
         assertEquals(endValue, target.y, EPSILON);
     }
+
+    /**
+     * Tests that an object animator created with a property name uses the property registered
+     * for the class of the target, both to set and to read the value.
+     */
+    @UiThreadTest
+    @Test
+    public void testOfFloat_RegisteredProperty() {
+        PropertyRegistry.registerProperty(RegisteredObject.class, REGISTERED_VALUE);
+        assertEquals(REGISTERED_VALUE,
+                PropertyRegistry.getProperty(RegisteredObject.class, "registeredValue"));
+
+        RegisteredObject target = new RegisteredObject();
+        target.mValue = 20f;
+        ObjectAnimator anim = ObjectAnimator.ofFloat(target, "registeredValue", 100f);
+        anim.setDuration(100);
+        anim.setInterpolator(null);
+
+        anim.start();
+        assertEquals(20f, target.mValue, EPSILON);
+        assertTrue(target.mSetCount > 0);
+        sAnimationTestRule.advanceTimeBy(50);
+        assertEquals(60f, target.mValue, EPSILON);
+        sAnimationTestRule.advanceTimeBy(50);
+        assertEquals(100f, target.mValue, EPSILON);
+    }
 }
@@ -0,0 +1,380 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.animation;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+import java.util.Arrays;
+
+/**
+ * This class animates a large number of float values, such as the positions of particles, as a
+ * single animation.
+ * <p>
+ * Each value animates from a start to an end value over its own duration, with an optional start
+ * delay and one of the built-in interpolators or an interpolator added with
+ * {@link #addInterpolator(Interpolator)}. Instead of one {@link ValueAnimator} object per value,
+ * the start and end values, timing, interpolator IDs and current values are kept in primitive
+ * arrays, and all of them are advanced in a single loop on each animation frame. The batch only
+ * receives frames while at least one of its values is running.
+ * <p>
+ * A value is identified by the index returned by {@link #add}, which stays valid until the value
+ * is {@link #remove removed}. Indices of removed values are reused by later additions. Like other
+ * animators, a batch animator must be used on a thread with a {@link android.os.Looper}.
+ */
+public final class BatchAnimator implements AnimationHandler.AnimationFrameCallback {
+
+    /**
+     * Listener notified after the values of a {@link BatchAnimator} are updated on each frame.
+     */
+    public interface UpdateListener {
+        /**
+         * Called after all the running values have been advanced to the current frame.
+         *
+         * @param animator the batch animator that was updated
+         */
+        void onBatchUpdate(@NonNull BatchAnimator animator);
+    }
+
+    /** Interpolator ID of a linear interpolation, see {@link LinearInterpolator}. */
+    public static final int INTERPOLATOR_LINEAR = 0;
+    /** Interpolator ID of an {@link AccelerateInterpolator} with the default factor. */
+    public static final int INTERPOLATOR_ACCELERATE = 1;
+    /** Interpolator ID of a {@link DecelerateInterpolator} with the default factor. */
+    public static final int INTERPOLATOR_DECELERATE = 2;
+    /** Interpolator ID of an {@link AccelerateDecelerateInterpolator}. */
+    public static final int INTERPOLATOR_ACCELERATE_DECELERATE = 3;
+    // IDs from this one on are interpolators added with addInterpolator().
+    private static final int FIRST_CUSTOM_INTERPOLATOR = 4;
+
+    private static final byte STATE_FREE = 0;
+    private static final byte STATE_PENDING = 1;
+    private static final byte STATE_RUNNING = 2;
+    private static final byte STATE_ENDED = 3;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private float[] mStartValues;
+    private float[] mEndValues;
+    private float[] mValues;
+    private long[] mStartTimes;
+    private long[] mDurations;
+    private long[] mStartDelays;
+    private int[] mInterpolatorIds;
+    private byte[] mStates;
+    // Number of slots in use or freed, slots from mSize on have never been used.
+    private int mSize;
+    private int[] mFreeSlots = new int[DEFAULT_CAPACITY];
+    private int mFreeSlotCount;
+    private int mRunningCount;
+
+    private Interpolator[] mInterpolators = new Interpolator[0];
+    private UpdateListener mUpdateListener;
+    private boolean mCallbackAdded;
+
+    /**
+     * Creates an empty batch animator.
+     */
+    public BatchAnimator() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty batch animator with room for the given number of values.
+     *
+     * @param initialCapacity the number of values that can be added before the arrays grow
+     */
+    public BatchAnimator(@IntRange(from = 0) int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must not be negative");
+        }
+        mStartValues = new float[initialCapacity];
+        mEndValues = new float[initialCapacity];
+        mValues = new float[initialCapacity];
+        mStartTimes = new long[initialCapacity];
+        mDurations = new long[initialCapacity];
+        mStartDelays = new long[initialCapacity];
+        mInterpolatorIds = new int[initialCapacity];
+        mStates = new byte[initialCapacity];
+    }
+
+    /**
+     * Adds an interpolator that values of this batch can use, besides the built-in ones.
+     *
+     * @param interpolator the interpolator
+     * @return the interpolator ID to pass to {@link #add}
+     */
+    public int addInterpolator(@NonNull Interpolator interpolator) {
+        int count = mInterpolators.length;
+        mInterpolators = Arrays.copyOf(mInterpolators, count + 1);
+        mInterpolators[count] = interpolator;
+        return FIRST_CUSTOM_INTERPOLATOR + count;
+    }
+
+    /**
+     * Sets the listener that is notified after each frame of this batch.
+     *
+     * @param listener the listener, or {@code null} to remove it
+     */
+    public void setUpdateListener(@Nullable UpdateListener listener) {
+        mUpdateListener = listener;
+    }
+
+    /**
+     * Adds a value that animates linearly and starts on the next frame.
+     *
+     * @see #add(float, float, long, long, int)
+     */
+    public int add(float startValue, float endValue, @IntRange(from = 0) long duration) {
+        return add(startValue, endValue, duration, 0, INTERPOLATOR_LINEAR);
+    }
+
+    /**
+     * Adds a value to animate. The value starts animating on the next frame, after the start
+     * delay. The duration and start delay are scaled like those of a {@link ValueAnimator}.
+     *
+     * @param startValue the value at the start of the animation
+     * @param endValue the value at the end of the animation
+     * @param duration the duration of the animation, in milliseconds
+     * @param startDelay the delay before the animation starts, in milliseconds
+     * @param interpolatorId one of the {@code INTERPOLATOR_} constants, or an ID returned by
+     *                       {@link #addInterpolator(Interpolator)}
+     * @return the index of the value
+     */
+    public int add(float startValue, float endValue, @IntRange(from = 0) long duration,
+            @IntRange(from = 0) long startDelay, int interpolatorId) {
+        if (duration < 0 || startDelay < 0) {
+            throw new IllegalArgumentException("duration and startDelay must not be negative");
+        }
+        if (interpolatorId < 0
+                || interpolatorId >= FIRST_CUSTOM_INTERPOLATOR + mInterpolators.length) {
+            throw new IllegalArgumentException("Unknown interpolator ID " + interpolatorId);
+        }
+        final int index;
+        if (mFreeSlotCount > 0) {
+            index = mFreeSlots[--mFreeSlotCount];
+        } else {
+            if (mSize == mStates.length) {
+                grow();
+            }
+            index = mSize++;
+        }
+        mStartValues[index] = startValue;
+        mEndValues[index] = endValue;
+        mValues[index] = startValue;
+        mDurations[index] = duration;
+        mStartDelays[index] = startDelay;
+        mInterpolatorIds[index] = interpolatorId;
+        mStates[index] = STATE_PENDING;
+        mRunningCount++;
+        if (!mCallbackAdded) {
+            mCallbackAdded = true;
+            Animator.addAnimationCallback(this);
+        }
+        return index;
+    }
+
+    /**
+     * Removes a value. Its index may be returned by a later call to {@link #add}.
+     *
+     * @param index the index of the value
+     */
+    public void remove(int index) {
+        checkIndex(index);
+        if (isRunning(index)) {
+            mRunningCount--;
+        }
+        mStates[index] = STATE_FREE;
+        if (mFreeSlotCount == mFreeSlots.length) {
+            mFreeSlots = Arrays.copyOf(mFreeSlots, mFreeSlotCount * 2);
+        }
+        mFreeSlots[mFreeSlotCount++] = index;
+        if (mRunningCount == 0) {
+            removeCallback();
+        }
+    }
+
+    /**
+     * Removes all the values.
+     */
+    public void clear() {
+        Arrays.fill(mStates, 0, mSize, STATE_FREE);
+        mSize = 0;
+        mFreeSlotCount = 0;
+        mRunningCount = 0;
+        removeCallback();
+    }
+
+    /**
+     * Ends the animation of all the values, which are set to their end values.
+     */
+    public void end() {
+        for (int i = 0; i < mSize; i++) {
+            if (mStates[i] == STATE_PENDING || mStates[i] == STATE_RUNNING) {
+                mValues[i] = mEndValues[i];
+                mStates[i] = STATE_ENDED;
+            }
+        }
+        mRunningCount = 0;
+        removeCallback();
+        if (mUpdateListener != null) {
+            mUpdateListener.onBatchUpdate(this);
+        }
+    }
+
+    /**
+     * Returns the current value at the given index.
+     *
+     * @param index the index of the value
+     */
+    public float getValue(int index) {
+        checkIndex(index);
+        return mValues[index];
+    }
+
+    /**
+     * Returns the array of the current values, which is read directly to avoid a call per value.
+     * Only the indices returned by {@link #add} that haven't been removed hold values, and the
+     * array is replaced when the batch grows, so it must not be kept after adding values.
+     */
+    @NonNull
+    public float[] getValues() {
+        return mValues;
+    }
+
+    /**
+     * Returns whether the value at the given index is still animating, or waiting for its start
+     * delay.
+     *
+     * @param index the index of the value
+     */
+    public boolean isRunning(int index) {
+        checkIndex(index);
+        return mStates[index] == STATE_PENDING || mStates[index] == STATE_RUNNING;
+    }
+
+    /**
+     * Returns whether any value of this batch is still animating.
+     */
+    public boolean isRunning() {
+        return mRunningCount > 0;
+    }
+
+    /**
+     * Returns the number of values that are still animating.
+     */
+    public int getRunningCount() {
+        return mRunningCount;
+    }
+
+    /**
+     * Advances all the running values to the frame time.
+     *
+     * @param frameTime The frame time.
+     * @return true if all the values have ended.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    @Override
+    public boolean doAnimationFrame(long frameTime) {
+        final float durationScale = ValueAnimator.getDurationScale();
+        final float[] startValues = mStartValues;
+        final float[] endValues = mEndValues;
+        final float[] values = mValues;
+        final long[] startTimes = mStartTimes;
+        final long[] durations = mDurations;
+        final int[] interpolatorIds = mInterpolatorIds;
+        final byte[] states = mStates;
+        int running = 0;
+        for (int i = 0, size = mSize; i < size; i++) {
+            final byte state = states[i];
+            if (state == STATE_PENDING) {
+                startTimes[i] = frameTime + (long) (mStartDelays[i] * durationScale);
+                states[i] = STATE_RUNNING;
+            } else if (state != STATE_RUNNING) {
+                continue;
+            }
+            final long playTime = frameTime - startTimes[i];
+            if (playTime < 0) {
+                // Still in its start delay.
+                running++;
+                continue;
+            }
+            final float duration = durations[i] * durationScale;
+            float fraction = duration > 0 ? playTime / duration : 1f;
+            if (fraction >= 1f) {
+                fraction = 1f;
+                states[i] = STATE_ENDED;
+            } else {
+                running++;
+            }
+            switch (interpolatorIds[i]) {
+                case INTERPOLATOR_LINEAR:
+                    break;
+                case INTERPOLATOR_ACCELERATE:
+                    fraction = fraction * fraction;
+                    break;
+                case INTERPOLATOR_DECELERATE:
+                    fraction = 1f - (1f - fraction) * (1f - fraction);
+                    break;
+                case INTERPOLATOR_ACCELERATE_DECELERATE:
+                    fraction = (float) (Math.cos((fraction + 1) * Math.PI) / 2.0f) + 0.5f;
+                    break;
+                default:
+                    fraction = mInterpolators[interpolatorIds[i] - FIRST_CUSTOM_INTERPOLATOR]
+                            .getInterpolation(fraction);
+                    break;
+            }
+            values[i] = startValues[i] + fraction * (endValues[i] - startValues[i]);
+        }
+        mRunningCount = running;
+        if (running == 0) {
+            removeCallback();
+        }
+        if (mUpdateListener != null) {
+            mUpdateListener.onBatchUpdate(this);
+        }
+        return running == 0;
+    }
+
+    private void removeCallback() {
+        if (mCallbackAdded) {
+            mCallbackAdded = false;
+            Animator.removeAnimationCallback(this);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mSize || mStates[index] == STATE_FREE) {
+            throw new IndexOutOfBoundsException("No value at index " + index);
+        }
+    }
+
+    private void grow() {
+        int capacity = Math.max(DEFAULT_CAPACITY, mStates.length * 2);
+        mStartValues = Arrays.copyOf(mStartValues, capacity);
+        mEndValues = Arrays.copyOf(mEndValues, capacity);
+        mValues = Arrays.copyOf(mValues, capacity);
+        mStartTimes = Arrays.copyOf(mStartTimes, capacity);
+        mDurations = Arrays.copyOf(mDurations, capacity);
+        mStartDelays = Arrays.copyOf(mStartDelays, capacity);
+        mInterpolatorIds = Arrays.copyOf(mInterpolatorIds, capacity);
+        mStates = Arrays.copyOf(mStates, capacity);
+    }
+}
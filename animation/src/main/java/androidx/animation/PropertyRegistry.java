@@ -0,0 +1,269 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.animation;
+
+import android.os.Build;
+import android.util.Property;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+
+/**
+ * Registry of the {@link Property} objects used for properties that are given by name.
+ * <p>
+ * When an {@link ObjectAnimator} or a {@link PropertyValuesHolder} is created with a property
+ * name, such as in <code>ObjectAnimator.ofFloat(view, "alpha", 0f, 1f)</code>, the setter and
+ * getter are normally found through reflection and called with boxed values on every frame. If a
+ * property of that name is registered for the class of the target, or one of its super classes,
+ * it is used instead. A {@link FloatProperty} or an {@link IntProperty} is then called with the
+ * primitive value, without any reflection or boxing.
+ * <p>
+ * The common properties of {@link View} (<code>alpha</code>, <code>translationX</code>,
+ * <code>scaleX</code>, <code>rotation</code>, <code>x</code>, etc.) are registered by default.
+ */
+public final class PropertyRegistry {
+
+    private static final Object sLock = new Object();
+    // Registered properties, by target class and name.
+    private static final HashMap<Class, HashMap<String, Property>> sProperties = new HashMap<>();
+    // Properties resolved for a target class, including those of its super classes, or null if
+    // there is none.
+    private static final HashMap<Class, HashMap<String, Property>> sResolvedProperties =
+            new HashMap<>();
+
+    static {
+        registerViewProperties();
+    }
+
+    private PropertyRegistry() {
+    }
+
+    /**
+     * Registers a property for the given class and its subclasses. The property is used by
+     * {@link ObjectAnimator} for targets of that class that are animated by the name of the
+     * property, instead of calling its setter and getter through reflection. A property
+     * registered for a subclass takes precedence over the one registered for its super class.
+     *
+     * @param targetClass the class on which the property is declared
+     * @param property the property, which must have the name used to animate it
+     */
+    public static <T> void registerProperty(@NonNull Class<T> targetClass,
+            @NonNull Property<T, ?> property) {
+        String name = property.getName();
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Property must have a name");
+        }
+        synchronized (sLock) {
+            HashMap<String, Property> properties = sProperties.get(targetClass);
+            if (properties == null) {
+                properties = new HashMap<>();
+                sProperties.put(targetClass, properties);
+            }
+            properties.put(name, property);
+            sResolvedProperties.clear();
+        }
+    }
+
+    /**
+     * Returns the property of the given name that is registered for the class, or for the closest
+     * of its super classes.
+     *
+     * @param targetClass the class of the animated object
+     * @param name the name of the property
+     * @return the registered property, or {@code null} if there is none
+     */
+    @Nullable
+    public static Property getProperty(@NonNull Class targetClass, @NonNull String name) {
+        synchronized (sLock) {
+            HashMap<String, Property> resolved = sResolvedProperties.get(targetClass);
+            if (resolved == null) {
+                resolved = new HashMap<>();
+                sResolvedProperties.put(targetClass, resolved);
+            } else if (resolved.containsKey(name)) {
+                return resolved.get(name);
+            }
+            Property property = null;
+            for (Class c = targetClass; c != null && property == null; c = c.getSuperclass()) {
+                HashMap<String, Property> properties = sProperties.get(c);
+                if (properties != null) {
+                    property = properties.get(name);
+                }
+            }
+            resolved.put(name, property);
+            return property;
+        }
+    }
+
+    /**
+     * Returns the property of the given name that is registered for the class, if it takes values
+     * of the given type.
+     */
+    @Nullable
+    static Property getProperty(@NonNull Class targetClass, @NonNull String name,
+            @Nullable Class valueType) {
+        Property property = getProperty(targetClass, name);
+        if (property == null || valueType == null) {
+            return property;
+        }
+        if (valueType == float.class) {
+            valueType = Float.class;
+        } else if (valueType == int.class) {
+            valueType = Integer.class;
+        }
+        return property.getType().isAssignableFrom(valueType) ? property : null;
+    }
+
+    private static void registerViewProperties() {
+        registerProperty(View.class, new FloatProperty<View>("alpha") {
+            @Override
+            public void setValue(@NonNull View view, float value) {
+                view.setAlpha(value);
+            }
+
+            @Override
+            public Float get(View view) {
+                return view.getAlpha();
+            }
+        });
+        registerProperty(View.class, new FloatProperty<View>("translationX") {
+            @Override
+            public void setValue(@NonNull View view, float value) {
+                view.setTranslationX(value);
+            }
+
+            @Override
+            public Float get(View view) {
+                return view.getTranslationX();
+            }
+        });
+        registerProperty(View.class, new FloatProperty<View>("translationY") {
+            @Override
+            public void setValue(@NonNull View view, float value) {
+                view.setTranslationY(value);
+            }
+
+            @Override
+            public Float get(View view) {
+                return view.getTranslationY();
+            }
+        });
+        registerProperty(View.class, new FloatProperty<View>("x") {
+            @Override
+            public void setValue(@NonNull View view, float value) {
+                view.setX(value);
+            }
+
+            @Override
+            public Float get(View view) {
+                return view.getX();
+            }
+        });
+        registerProperty(View.class, new FloatProperty<View>("y") {
+            @Override
+            public void setValue(@NonNull View view, float value) {
+                view.setY(value);
+            }
+
+            @Override
+            public Float get(View view) {
+                return view.getY();
+            }
+        });
+        registerProperty(View.class, new FloatProperty<View>("rotation") {
+            @Override
+            public void setValue(@NonNull View view, float value) {
+                view.setRotation(value);
+            }
+
+            @Override
+            public Float get(View view) {
+                return view.getRotation();
+            }
+        });
+        registerProperty(View.class, new FloatProperty<View>("rotationX") {
+            @Override
+            public void setValue(@NonNull View view, float value) {
+                view.setRotationX(value);
+            }
+
+            @Override
+            public Float get(View view) {
+                return view.getRotationX();
+            }
+        });
+        registerProperty(View.class, new FloatProperty<View>("rotationY") {
+            @Override
+            public void setValue(@NonNull View view, float value) {
+                view.setRotationY(value);
+            }
+
+            @Override
+            public Float get(View view) {
+                return view.getRotationY();
+            }
+        });
+        registerProperty(View.class, new FloatProperty<View>("scaleX") {
+            @Override
+            public void setValue(@NonNull View view, float value) {
+                view.setScaleX(value);
+            }
+
+            @Override
+            public Float get(View view) {
+                return view.getScaleX();
+            }
+        });
+        registerProperty(View.class, new FloatProperty<View>("scaleY") {
+            @Override
+            public void setValue(@NonNull View view, float value) {
+                view.setScaleY(value);
+            }
+
+            @Override
+            public Float get(View view) {
+                return view.getScaleY();
+            }
+        });
+        if (Build.VERSION.SDK_INT >= 21) {
+            registerProperty(View.class, new FloatProperty<View>("translationZ") {
+                @Override
+                public void setValue(@NonNull View view, float value) {
+                    view.setTranslationZ(value);
+                }
+
+                @Override
+                public Float get(View view) {
+                    return view.getTranslationZ();
+                }
+            });
+            registerProperty(View.class, new FloatProperty<View>("z") {
+                @Override
+                public void setValue(@NonNull View view, float value) {
+                    view.setZ(value);
+                }
+
+                @Override
+                public Float get(View view) {
+                    return view.getZ();
+                }
+            });
+        }
+    }
+}
@@ -46,6 +46,12 @@ public class PropertyValuesHolder implements Cloneable {
 
     Property mProperty;
 
+    /**
+     * Whether mProperty was found in the {@link PropertyRegistry} by the property name, rather
+     * than given to this holder. It is then looked up again for each target.
+     */
+    private boolean mPropertyFromRegistry;
+
     /**
      * The setter function, if needed. ObjectAnimator hands off this functionality to
      * PropertyValuesHolder, since it holds all of the per-property information. This
@@ -838,6 +844,7 @@ public class PropertyValuesHolder implements Cloneable {
      * @param target The object on which the setter (and possibly getter) exist.
      */
     void setupSetterAndGetter(Object target) {
+        setupRegisteredProperty(target);
         if (mProperty != null) {
             // check to make sure that mProperty is on the class of target
             try {
@@ -893,6 +900,48 @@ public class PropertyValuesHolder implements Cloneable {
         }
     }
 
+    /**
+     * Uses the property registered in {@link PropertyRegistry} for the class of the target and
+     * the property name, if any, so that the setter and getter don't need to be found and
+     * called through reflection.
+     */
+    private void setupRegisteredProperty(Object target) {
+        // The target may be of another class than the one the property was found for.
+        clearRegisteredProperty();
+        if (hasProperty() || mSetter != null || mConverter != null || mPropertyName == null) {
+            return;
+        }
+        Property property = PropertyRegistry.getProperty(target.getClass(), mPropertyName,
+                mValueType);
+        if (property != null) {
+            setRegisteredProperty(property);
+        }
+    }
+
+    /**
+     * Returns whether a property was given to, or found for, this holder.
+     */
+    boolean hasProperty() {
+        return mProperty != null;
+    }
+
+    /**
+     * Clears the property found in {@link PropertyRegistry}, if any.
+     */
+    void clearRegisteredProperty() {
+        if (mPropertyFromRegistry) {
+            setRegisteredProperty(null);
+        }
+    }
+
+    /**
+     * Sets the property found in {@link PropertyRegistry}, or clears it if {@code null}.
+     */
+    void setRegisteredProperty(Property property) {
+        mProperty = property;
+        mPropertyFromRegistry = property != null;
+    }
+
     private Object convertBack(Object value) {
         if (mConverter != null) {
             if (!(mConverter instanceof BidirectionalTypeConverter)) {
@@ -1077,6 +1126,7 @@ public class PropertyValuesHolder implements Cloneable {
      * @param property The property being animated.
      */
     public void setProperty(@NonNull Property property) {
+        clearRegisteredProperty();
         mProperty = property;
     }
 
@@ -1173,6 +1223,7 @@ public class PropertyValuesHolder implements Cloneable {
 
         @Override
         public void setProperty(Property property) {
+            clearRegisteredProperty();
             if (property instanceof IntProperty) {
                 mIntProperty = (IntProperty) property;
             } else {
@@ -1186,6 +1237,17 @@ public class PropertyValuesHolder implements Cloneable {
             mIntKeyframes = (Keyframes.IntKeyframes) mKeyframes;
         }
 
+        @Override
+        boolean hasProperty() {
+            return mIntProperty != null || super.hasProperty();
+        }
+
+        @Override
+        void setRegisteredProperty(Property property) {
+            super.setRegisteredProperty(property);
+            mIntProperty = property instanceof IntProperty ? (IntProperty) property : null;
+        }
+
         @Override
         void calculateValue(float fraction) {
             mIntAnimatedValue = mIntKeyframes.getIntValue(fraction);
@@ -1271,6 +1333,7 @@ public class PropertyValuesHolder implements Cloneable {
 
         @Override
         public void setProperty(Property property) {
+            clearRegisteredProperty();
             if (property instanceof FloatProperty) {
                 mFloatProperty = (FloatProperty) property;
             } else {
@@ -1284,6 +1347,17 @@ public class PropertyValuesHolder implements Cloneable {
             mFloatKeyframes = (Keyframes.FloatKeyframes) mKeyframes;
         }
 
+        @Override
+        boolean hasProperty() {
+            return mFloatProperty != null || super.hasProperty();
+        }
+
+        @Override
+        void setRegisteredProperty(Property property) {
+            super.setRegisteredProperty(property);
+            mFloatProperty = property instanceof FloatProperty ? (FloatProperty) property : null;
+        }
+
         @Override
         void calculateValue(float fraction) {
             mFloatAnimatedValue = mFloatKeyframes.getFloatValue(fraction);
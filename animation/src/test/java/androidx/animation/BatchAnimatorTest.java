@@ -0,0 +1,192 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.animation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Drives the frames of a {@link BatchAnimator} through a fake
+ * {@link AnimationHandler.AnimationFrameCallbackProvider}.
+ */
+@RunWith(JUnit4.class)
+public class BatchAnimatorTest {
+    private static final float DELTA = 1e-4f;
+
+    private final FakeFrameCallbackProvider mProvider = new FakeFrameCallbackProvider();
+    private AnimationHandler mHandler;
+
+    @Before
+    public void setUp() {
+        mHandler = new AnimationHandler(mProvider);
+        AnimationHandler.setTestHandler(mHandler);
+    }
+
+    @After
+    public void tearDown() {
+        AnimationHandler.setTestHandler(null);
+    }
+
+    @Test
+    public void testLinearValues() {
+        BatchAnimator animator = new BatchAnimator();
+        int up = animator.add(0f, 100f, 100);
+        int down = animator.add(10f, 0f, 200);
+        assertTrue(animator.isRunning());
+
+        // The values start on the first frame after they are added.
+        frame(1000);
+        assertEquals(0f, animator.getValue(up), DELTA);
+        assertEquals(10f, animator.getValue(down), DELTA);
+
+        frame(1050);
+        assertEquals(50f, animator.getValue(up), DELTA);
+        assertEquals(7.5f, animator.getValue(down), DELTA);
+
+        frame(1100);
+        assertEquals(100f, animator.getValue(up), DELTA);
+        assertFalse(animator.isRunning(up));
+        assertTrue(animator.isRunning(down));
+        assertEquals(1, animator.getRunningCount());
+
+        frame(1200);
+        assertEquals(0f, animator.getValue(down), DELTA);
+        assertFalse(animator.isRunning());
+        // No more frames are requested once all the values have ended.
+        assertFalse(mProvider.mFramePosted);
+        assertEquals(0, AnimationHandler.getAnimationCount());
+    }
+
+    @Test
+    public void testStartDelayAndInterpolators() {
+        BatchAnimator animator = new BatchAnimator();
+        int delayed = animator.add(0f, 1f, 100, 50, BatchAnimator.INTERPOLATOR_ACCELERATE);
+        int decelerated = animator.add(0f, 1f, 100, 0, BatchAnimator.INTERPOLATOR_DECELERATE);
+        int custom = animator.add(0f, 1f, 100, 0,
+                animator.addInterpolator(new Interpolator() {
+                    @Override
+                    public float getInterpolation(float input) {
+                        return 1f - input;
+                    }
+                }));
+
+        frame(0);
+        frame(50);
+        assertEquals(0f, animator.getValue(delayed), DELTA);
+        assertTrue(animator.isRunning(delayed));
+        assertEquals(0.75f, animator.getValue(decelerated), DELTA);
+        assertEquals(0.5f, animator.getValue(custom), DELTA);
+
+        frame(100);
+        assertEquals(0.25f, animator.getValue(delayed), DELTA);
+        assertEquals(1f, animator.getValue(decelerated), DELTA);
+        assertEquals(0f, animator.getValue(custom), DELTA);
+    }
+
+    @Test
+    public void testUpdateListenerCalledOnEachFrame() {
+        BatchAnimator animator = new BatchAnimator();
+        final int[] updates = new int[1];
+        animator.setUpdateListener(new BatchAnimator.UpdateListener() {
+            @Override
+            public void onBatchUpdate(@NonNull BatchAnimator animator) {
+                updates[0]++;
+            }
+        });
+        animator.add(0f, 1f, 32);
+
+        frame(0);
+        frame(16);
+        frame(32);
+        assertEquals(3, updates[0]);
+        assertFalse(mProvider.mFramePosted);
+    }
+
+    @Test
+    public void testRemoveLastRunningValueStopsFrames() {
+        BatchAnimator animator = new BatchAnimator();
+        int index = animator.add(0f, 1f, 100);
+        frame(0);
+        animator.remove(index);
+        assertEquals(0, AnimationHandler.getAnimationCount());
+
+        // Removed indices are reused. The new value runs on the frame that was requested before
+        // the removal.
+        assertEquals(index, animator.add(1f, 2f, 100));
+        frame(100);
+        assertEquals(1f, animator.getValue(index), DELTA);
+        frame(150);
+        assertEquals(1.5f, animator.getValue(index), DELTA);
+    }
+
+    @Test
+    public void testEndSetsEndValues() {
+        BatchAnimator animator = new BatchAnimator(1);
+        int first = animator.add(0f, 1f, 100);
+        int second = animator.add(5f, 10f, 100, 100, BatchAnimator.INTERPOLATOR_LINEAR);
+        frame(0);
+
+        animator.end();
+        assertEquals(1f, animator.getValue(first), DELTA);
+        assertEquals(10f, animator.getValue(second), DELTA);
+        assertFalse(animator.isRunning());
+        assertEquals(0, AnimationHandler.getAnimationCount());
+    }
+
+    /**
+     * Runs the frame that the animator has requested.
+     */
+    private void frame(long frameTime) {
+        assertTrue("No frame was requested", mProvider.mFramePosted);
+        mProvider.mFramePosted = false;
+        mHandler.onAnimationFrame(frameTime);
+    }
+
+    private static class FakeFrameCallbackProvider
+            implements AnimationHandler.AnimationFrameCallbackProvider {
+        boolean mFramePosted;
+        private long mFrameDelay = 16;
+
+        @Override
+        public void onNewCallbackAdded(AnimationHandler.AnimationFrameCallback callback) {
+        }
+
+        @Override
+        public void postFrameCallback() {
+            mFramePosted = true;
+        }
+
+        @Override
+        public void setFrameDelay(long delay) {
+            mFrameDelay = delay;
+        }
+
+        @Override
+        public long getFrameDelay() {
+            return mFrameDelay;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.appcompat.benchmark;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.ViewFactoryRegistry;
+import androidx.appcompat.benchmark.test.R;
+import androidx.benchmark.BenchmarkRule;
+import androidx.benchmark.BenchmarkState;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.filters.LargeTest;
+import androidx.test.rule.ActivityTestRule;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Measures inflating a layout of nested layouts and AppCompat widgets, whose layouts and custom
+ * views are created through reflection or by factories registered in the
+ * {@link ViewFactoryRegistry}.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class InflateBenchmark {
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    @Rule
+    public ActivityTestRule<InflateActivity> mActivityRule =
+            new ActivityTestRule<>(InflateActivity.class);
+
+    private LayoutInflater mInflater;
+    private FrameLayout mParent;
+    private ViewFactoryRegistry.ViewFactory mLinearLayoutFactory;
+
+    @Before
+    public void setup() {
+        mInflater = mActivityRule.getActivity().getLayoutInflater();
+        mParent = new FrameLayout(mActivityRule.getActivity());
+        mLinearLayoutFactory = ViewFactoryRegistry.getViewFactory("LinearLayout");
+    }
+
+    @After
+    public void tearDown() {
+        // Restore the default framework factory
+        ViewFactoryRegistry.registerViewFactory("LinearLayout", mLinearLayoutFactory);
+        ViewFactoryRegistry.unregisterViewFactory(CustomView.class.getName());
+    }
+
+    @UiThreadTest
+    @Test
+    public void inflateReflective() {
+        ViewFactoryRegistry.unregisterViewFactory("LinearLayout");
+        inflate(R.layout.inflate_layout);
+    }
+
+    @UiThreadTest
+    @Test
+    public void inflateRegistered() {
+        // LinearLayout has a factory by default
+        ViewFactoryRegistry.registerViewFactory(CustomView.class.getName(),
+                new ViewFactoryRegistry.ViewFactory() {
+                    @NonNull
+                    @Override
+                    public View createView(@NonNull Context context,
+                            @NonNull AttributeSet attrs) {
+                        return new CustomView(context, attrs);
+                    }
+                });
+        inflate(R.layout.inflate_layout);
+    }
+
+    private void inflate(int layoutId) {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            mInflater.inflate(layoutId, mParent, false);
+        }
+    }
+}
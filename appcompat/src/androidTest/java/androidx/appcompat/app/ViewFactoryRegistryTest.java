@@ -0,0 +1,120 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.appcompat.app;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.util.Xml;
+import android.view.View;
+import android.widget.LinearLayout;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.test.R;
+import androidx.appcompat.widget.AppCompatTextView;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.filters.SmallTest;
+import androidx.test.rule.ActivityTestRule;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParser;
+
+@SmallTest
+public class ViewFactoryRegistryTest {
+    private static final String NAME = "androidx.appcompat.app.ViewFactoryRegistryTest.Custom";
+
+    @Rule
+    public final ActivityTestRule<AppCompatInflaterCustomActivity> mActivityTestRule =
+            new ActivityTestRule<>(AppCompatInflaterCustomActivity.class);
+
+    private AppCompatActivity mActivity;
+    private AttributeSet mAttrs;
+
+    @Before
+    public void setUp() throws Exception {
+        mActivity = mActivityTestRule.getActivity();
+        XmlPullParser parser = mActivity.getResources().getLayout(R.layout.layout_children);
+        while (parser.next() != XmlPullParser.START_TAG) {
+            // Empty loop
+        }
+        mAttrs = Xml.asAttributeSet(parser);
+    }
+
+    @After
+    public void tearDown() {
+        ViewFactoryRegistry.unregisterViewFactory(NAME);
+    }
+
+    @UiThreadTest
+    @Test
+    public void testRegisteredFactoryCreatesView() {
+        final View[] created = new View[1];
+        ViewFactoryRegistry.registerViewFactory(NAME, new ViewFactoryRegistry.ViewFactory() {
+            @NonNull
+            @Override
+            public View createView(@NonNull Context context, @NonNull AttributeSet attrs) {
+                created[0] = new View(context, attrs);
+                return created[0];
+            }
+        });
+
+        View view = mActivity.getDelegate().createView(null, NAME, mActivity, mAttrs);
+        assertSame(created[0], view);
+    }
+
+    @UiThreadTest
+    @Test
+    public void testUnregisteredFactoryIsNotUsed() {
+        final View[] created = new View[1];
+        ViewFactoryRegistry.registerViewFactory(NAME, new ViewFactoryRegistry.ViewFactory() {
+            @NonNull
+            @Override
+            public View createView(@NonNull Context context, @NonNull AttributeSet attrs) {
+                created[0] = new View(context, attrs);
+                return created[0];
+            }
+        });
+        ViewFactoryRegistry.unregisterViewFactory(NAME);
+
+        assertNull(ViewFactoryRegistry.getViewFactory(NAME));
+        mActivity.getDelegate().createView(null, NAME, mActivity, mAttrs);
+        assertNull(created[0]);
+    }
+
+    @UiThreadTest
+    @Test
+    public void testFrameworkFactoriesRegisteredByDefault() {
+        final ViewFactoryRegistry.ViewFactory factory =
+                ViewFactoryRegistry.getViewFactory("LinearLayout");
+        assertNotNull(factory);
+        assertTrue(factory.createView(mActivity, mAttrs) instanceof LinearLayout);
+        assertTrue(mActivity.getDelegate().createView(null, "LinearLayout", mActivity, mAttrs)
+                instanceof LinearLayout);
+        assertNull(ViewFactoryRegistry.getViewFactory("androidx.appcompat.app.Unregistered"));
+
+        // AppCompat widgets are still created by the view inflater
+        View view = mActivity.getDelegate().createView(null, "TextView", mActivity, mAttrs);
+        assertTrue(view instanceof AppCompatTextView);
+    }
+}
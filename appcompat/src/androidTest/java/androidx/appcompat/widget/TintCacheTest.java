@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.appcompat.widget;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.res.ColorStateList;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffColorFilter;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.ColorDrawable;
+
+import androidx.test.InstrumentationRegistry;
+import androidx.test.filters.SmallTest;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class TintCacheTest {
+    private Context mContext;
+    private TintCache mCache;
+
+    @Before
+    public void setup() {
+        mContext = InstrumentationRegistry.getTargetContext();
+        mCache = new TintCache(TintCache.DEFAULT_MAX_SIZE_BYTES);
+    }
+
+    @Test
+    public void testTintListsAreKeyedByContext() {
+        final Context other = new ContextWrapper(mContext);
+        final ColorStateList tint = ColorStateList.valueOf(Color.RED);
+        mCache.putTintList(mContext, 1, tint);
+
+        assertSame(tint, mCache.getTintList(mContext, 1));
+        assertNull(mCache.getTintList(mContext, 2));
+        assertNull(mCache.getTintList(other, 1));
+        assertEquals(1, mCache.getHitCount());
+        assertEquals(2, mCache.getMissCount());
+
+        mCache.clear(mContext);
+        assertNull(mCache.getTintList(mContext, 1));
+    }
+
+    @Test
+    public void testDrawablesAreCreatedFromConstantState() {
+        final ColorDrawable drawable = new ColorDrawable(Color.BLUE);
+        assertTrue(mCache.putDrawable(mContext, 42L, drawable));
+
+        final ColorDrawable cached = (ColorDrawable) mCache.getDrawable(mContext, 42L);
+        assertNotNull(cached);
+        assertEquals(Color.BLUE, cached.getColor());
+    }
+
+    @Test
+    public void testColorFilters() {
+        final PorterDuffColorFilter filter =
+                new PorterDuffColorFilter(Color.GREEN, PorterDuff.Mode.SRC_IN);
+        mCache.putColorFilter(Color.GREEN, PorterDuff.Mode.SRC_IN, filter);
+
+        assertSame(filter, mCache.getColorFilter(Color.GREEN, PorterDuff.Mode.SRC_IN));
+        assertNull(mCache.getColorFilter(Color.GREEN, PorterDuff.Mode.MULTIPLY));
+    }
+
+    @Test
+    public void testWorkingSetOfContextStaysResident() {
+        // The tint lists and drawables of the widgets of a typical screen, all for one context.
+        final int resourceCount = 64;
+        final ColorDrawable[] drawables = new ColorDrawable[resourceCount];
+        for (int i = 0; i < resourceCount; i++) {
+            mCache.putTintList(mContext, 0x7f060000 + i, ColorStateList.valueOf(i));
+            drawables[i] = new ColorDrawable(i);
+            assertTrue(mCache.putDrawable(mContext, 0x7f080000L + i, drawables[i]));
+        }
+
+        for (int i = 0; i < resourceCount; i++) {
+            assertNotNull(mCache.getTintList(mContext, 0x7f060000 + i));
+            assertNotNull(mCache.getDrawable(mContext, 0x7f080000L + i));
+        }
+        assertEquals(0, mCache.getEvictionCount());
+        assertEquals(0, mCache.getMissCount());
+
+        mCache.clear(mContext);
+        assertEquals(0, mCache.getSize());
+    }
+
+    @Test
+    public void testEntriesAreSizedByContent() {
+        mCache.putTintList(mContext, 1, ColorStateList.valueOf(Color.RED));
+        final int singleColorSize = mCache.getSize();
+
+        mCache.putTintList(mContext, 2, new ColorStateList(
+                new int[][] {
+                        new int[] {-android.R.attr.state_enabled},
+                        new int[] {android.R.attr.state_pressed},
+                        new int[] {android.R.attr.state_checked},
+                        new int[0]},
+                new int[] {Color.GRAY, Color.BLUE, Color.GREEN, Color.RED}));
+        assertTrue(mCache.getSize() - singleColorSize > singleColorSize);
+
+        final int sizeBefore = mCache.getSize();
+        final Bitmap bitmap = Bitmap.createBitmap(64, 64, Bitmap.Config.ARGB_8888);
+        assertTrue(mCache.putDrawable(mContext, 42L,
+                new BitmapDrawable(mContext.getResources(), bitmap)));
+        assertTrue(mCache.getSize() - sizeBefore >= 64 * 64 * 4);
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        mCache.setMaxSize(1024);
+        for (int color = 0; color < 1000; color++) {
+            mCache.putColorFilter(color, PorterDuff.Mode.SRC_IN,
+                    new PorterDuffColorFilter(color, PorterDuff.Mode.SRC_IN));
+        }
+        assertTrue(mCache.getSize() <= 1024);
+        assertTrue(mCache.getEvictionCount() > 0);
+    }
+}
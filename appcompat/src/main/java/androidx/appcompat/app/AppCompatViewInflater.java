@@ -163,6 +163,11 @@ public class AppCompatViewInflater {
                 view = createView(context, name, attrs);
         }
 
+        if (view == null) {
+            // Create the view without reflection if it has a registered factory
+            view = createViewFromFactory(context, name, attrs);
+        }
+
         if (view == null && originalContext != context) {
             // If the original context does not equal our themed context, then we need to manually
             // inflate it using the name so that android:theme takes effect.
@@ -261,6 +266,18 @@ public class AppCompatViewInflater {
         return null;
     }
 
+    @Nullable
+    private static View createViewFromFactory(Context context, String name, AttributeSet attrs) {
+        if (name.equals("view")) {
+            name = attrs.getAttributeValue(null, "class");
+            if (name == null) {
+                return null;
+            }
+        }
+        final ViewFactoryRegistry.ViewFactory factory = ViewFactoryRegistry.getViewFactory(name);
+        return factory != null ? factory.createView(context, attrs) : null;
+    }
+
     private View createViewFromTag(Context context, String name, AttributeSet attrs) {
         if (name.equals("view")) {
             name = attrs.getAttributeValue(null, "class");
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.appcompat.app;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.View;
+import android.widget.FrameLayout;
+import android.widget.GridLayout;
+import android.widget.GridView;
+import android.widget.HorizontalScrollView;
+import android.widget.LinearLayout;
+import android.widget.ListView;
+import android.widget.ProgressBar;
+import android.widget.RelativeLayout;
+import android.widget.ScrollView;
+import android.widget.Space;
+import android.widget.Switch;
+import android.widget.TableLayout;
+import android.widget.TableRow;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the factories that {@link AppCompatViewInflater} uses to create the views of the
+ * layouts it inflates, by tag name.
+ * <p>
+ * Views are otherwise created through reflection: their class is looked up by name and their
+ * {@code (Context, AttributeSet)} constructor is called with {@link
+ * java.lang.reflect.Constructor#newInstance(Object...)}. A factory creates the view with a direct
+ * call to its constructor instead. The AppCompat widgets are created by
+ * {@link AppCompatViewInflater} itself. Factories are registered by default for the common
+ * framework layouts and widgets that it doesn't replace, such as {@code LinearLayout} and
+ * {@code ProgressBar}, and can be replaced or unregistered. Apps register the factories of their
+ * own views, typically from code generated at build time for the views their layouts use:
+ * <pre>
+ * ViewFactoryRegistry.registerViewFactory("com.example.ProfileView",
+ *         new ViewFactoryRegistry.ViewFactory() {
+ *             public View createView(Context context, AttributeSet attrs) {
+ *                 return new ProfileView(context, attrs);
+ *             }
+ *         });
+ * </pre>
+ */
+public final class ViewFactoryRegistry {
+
+    /**
+     * Creates a view for a tag of a layout.
+     */
+    public interface ViewFactory {
+        /**
+         * Creates the view, in the same way as its {@code (Context, AttributeSet)} constructor.
+         *
+         * @param context the context the view is running in, through which it can access the
+         *                current theme, resources, etc.
+         * @param attrs the attributes of the XML tag that is inflating the view
+         */
+        @NonNull
+        View createView(@NonNull Context context, @NonNull AttributeSet attrs);
+    }
+
+    private static final ConcurrentHashMap<String, ViewFactory> sFactories =
+            new ConcurrentHashMap<>();
+
+    static {
+        registerFrameworkViewFactories();
+    }
+
+    private ViewFactoryRegistry() {
+    }
+
+    /**
+     * Registers the factory of the views inflated from the given tag name. A factory that was
+     * already registered for the name is replaced.
+     *
+     * @param name the tag name, which is the fully qualified class name for custom views, such as
+     *             {@code "com.example.ProfileView"}, and the simple class name for views of the
+     *             {@code android.widget}, {@code android.view} and {@code android.webkit}
+     *             packages
+     * @param factory the factory that creates the views
+     */
+    public static void registerViewFactory(@NonNull String name, @NonNull ViewFactory factory) {
+        if (name == null || factory == null) {
+            throw new IllegalArgumentException("name and factory must not be null");
+        }
+        sFactories.put(name, factory);
+    }
+
+    /**
+     * Unregisters the factory of the views inflated from the given tag name, if there is one.
+     * The views are then created through reflection again.
+     *
+     * @param name the tag name the factory was registered for
+     */
+    public static void unregisterViewFactory(@NonNull String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("name must not be null");
+        }
+        sFactories.remove(name);
+    }
+
+    /**
+     * Returns the factory registered for the given tag name.
+     *
+     * @return the factory, or {@code null} if there is none
+     */
+    @Nullable
+    public static ViewFactory getViewFactory(@NonNull String name) {
+        return sFactories.get(name);
+    }
+
+    private static void registerFrameworkViewFactories() {
+        // The framework views that AppCompatViewInflater doesn't replace, which LayoutInflater
+        // would otherwise create by trying each of the class name prefixes through reflection.
+        // ViewStub is left out since LayoutInflater gives it an inflater after creating it.
+        registerViewFactory("View", new ViewFactory() {
+            @NonNull
+            @Override
+            public View createView(@NonNull Context context, @NonNull AttributeSet attrs) {
+                return new View(context, attrs);
+            }
+        });
+        registerViewFactory("FrameLayout", new ViewFactory() {
+            @NonNull
+            @Override
+            public View createView(@NonNull Context context, @NonNull AttributeSet attrs) {
+                return new FrameLayout(context, attrs);
+            }
+        });
+        registerViewFactory("LinearLayout", new ViewFactory() {
+            @NonNull
+            @Override
+            public View createView(@NonNull Context context, @NonNull AttributeSet attrs) {
+                return new LinearLayout(context, attrs);
+            }
+        });
+        registerViewFactory("RelativeLayout", new ViewFactory() {
+            @NonNull
+            @Override
+            public View createView(@NonNull Context context, @NonNull AttributeSet attrs) {
+                return new RelativeLayout(context, attrs);
+            }
+        });
+        registerViewFactory("TableLayout", new ViewFactory() {
+            @NonNull
+            @Override
+            public View createView(@NonNull Context context, @NonNull AttributeSet attrs) {
+                return new TableLayout(context, attrs);
+            }
+        });
+        registerViewFactory("TableRow", new ViewFactory() {
+            @NonNull
+            @Override
+            public View createView(@NonNull Context context, @NonNull AttributeSet attrs) {
+                return new TableRow(context, attrs);
+            }
+        });
+        registerViewFactory("GridLayout", new ViewFactory() {
+            @NonNull
+            @Override
+            public View createView(@NonNull Context context, @NonNull AttributeSet attrs) {
+                return new GridLayout(context, attrs);
+            }
+        });
+        registerViewFactory("ScrollView", new ViewFactory() {
+            @NonNull
+            @Override
+            public View createView(@NonNull Context context, @NonNull AttributeSet attrs) {
+                return new ScrollView(context, attrs);
+            }
+        });
+        registerViewFactory("HorizontalScrollView", new ViewFactory() {
+            @NonNull
+            @Override
+            public View createView(@NonNull Context context, @NonNull AttributeSet attrs) {
+                return new HorizontalScrollView(context, attrs);
+            }
+        });
+        registerViewFactory("ListView", new ViewFactory() {
+            @NonNull
+            @Override
+            public View createView(@NonNull Context context, @NonNull AttributeSet attrs) {
+                return new ListView(context, attrs);
+            }
+        });
+        registerViewFactory("GridView", new ViewFactory() {
+            @NonNull
+            @Override
+            public View createView(@NonNull Context context, @NonNull AttributeSet attrs) {
+                return new GridView(context, attrs);
+            }
+        });
+        registerViewFactory("ProgressBar", new ViewFactory() {
+            @NonNull
+            @Override
+            public View createView(@NonNull Context context, @NonNull AttributeSet attrs) {
+                return new ProgressBar(context, attrs);
+            }
+        });
+        registerViewFactory("Space", new ViewFactory() {
+            @NonNull
+            @Override
+            public View createView(@NonNull Context context, @NonNull AttributeSet attrs) {
+                return new Space(context, attrs);
+            }
+        });
+        registerViewFactory("Switch", new ViewFactory() {
+            @NonNull
+            @Override
+            public View createView(@NonNull Context context, @NonNull AttributeSet attrs) {
+                return new Switch(context, attrs);
+            }
+        });
+    }
+}
@@ -31,7 +31,6 @@ import android.graphics.Color;
 import android.graphics.PorterDuff;
 import android.graphics.PorterDuffColorFilter;
 import android.graphics.drawable.Drawable;
-import android.graphics.drawable.Drawable.ConstantState;
 import android.graphics.drawable.LayerDrawable;
 import android.os.Build;
 import android.util.AttributeSet;
@@ -48,8 +47,6 @@ import androidx.annotation.RestrictTo;
 import androidx.appcompat.R;
 import androidx.appcompat.graphics.drawable.AnimatedStateListDrawableCompat;
 import androidx.collection.ArrayMap;
-import androidx.collection.LongSparseArray;
-import androidx.collection.LruCache;
 import androidx.collection.SparseArrayCompat;
 import androidx.core.content.ContextCompat;
 import androidx.core.graphics.drawable.DrawableCompat;
@@ -59,9 +56,6 @@ import androidx.vectordrawable.graphics.drawable.VectorDrawableCompat;
 import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
-import java.lang.ref.WeakReference;
-import java.util.WeakHashMap;
-
 /**
  * @hide
  */
@@ -104,7 +98,8 @@ public final class AppCompatDrawableManager {
         }
     }
 
-    private static final ColorFilterLruCache COLOR_FILTER_CACHE = new ColorFilterLruCache(6);
+    // Static like getPorterDuffColorFilter(). Drawables and tint lists are keyed by context.
+    private static final TintCache CACHE = new TintCache(TintCache.DEFAULT_MAX_SIZE_BYTES);
 
     /**
      * Drawables which should be tinted with the value of {@code R.attr.colorControlNormal},
@@ -178,13 +173,9 @@ public final class AppCompatDrawableManager {
             R.drawable.abc_btn_radio_material_anim
     };
 
-    private WeakHashMap<Context, SparseArrayCompat<ColorStateList>> mTintLists;
     private ArrayMap<String, InflateDelegate> mDelegates;
     private SparseArrayCompat<String> mKnownDrawableIdTags;
 
-    private final WeakHashMap<Context, LongSparseArray<WeakReference<Drawable.ConstantState>>>
-            mDrawableCaches = new WeakHashMap<>(0);
-
     private TypedValue mTypedValue;
 
     private boolean mHasCheckedVectorDrawableSetup;
@@ -216,12 +207,61 @@ public final class AppCompatDrawableManager {
         return drawable;
     }
 
-    public synchronized void onConfigurationChanged(@NonNull Context context) {
-        LongSparseArray<WeakReference<ConstantState>> cache = mDrawableCaches.get(context);
-        if (cache != null) {
-            // Crude, but we'll just clear the cache when the configuration changes
-            cache.clear();
-        }
+    public void onConfigurationChanged(@NonNull Context context) {
+        // Crude, but we'll just clear the cache when the configuration changes
+        CACHE.clear(context);
+    }
+
+    /**
+     * Sets the number of bytes that the cached drawables, tint lists and color filters may use.
+     * Drawables are sized by the pixels they hold or render at their intrinsic size, even though
+     * the cache only weakly references them.
+     *
+     * @hide
+     */
+    @RestrictTo(LIBRARY_GROUP)
+    public static void setCacheMaxSize(int maxSizeBytes) {
+        CACHE.setMaxSize(maxSizeBytes);
+    }
+
+    /**
+     * Returns the number of lookups that were served from the cache.
+     *
+     * @hide
+     */
+    @RestrictTo(LIBRARY_GROUP)
+    public static long getCacheHitCount() {
+        return CACHE.getHitCount();
+    }
+
+    /**
+     * Returns the number of lookups that were not served from the cache.
+     *
+     * @hide
+     */
+    @RestrictTo(LIBRARY_GROUP)
+    public static long getCacheMissCount() {
+        return CACHE.getMissCount();
+    }
+
+    /**
+     * Returns the number of entries evicted from the cache to stay within its size.
+     *
+     * @hide
+     */
+    @RestrictTo(LIBRARY_GROUP)
+    public static long getCacheEvictionCount() {
+        return CACHE.getEvictionCount();
+    }
+
+    /**
+     * Returns the number of bytes used by the entries of the cache.
+     *
+     * @hide
+     */
+    @RestrictTo(LIBRARY_GROUP)
+    public static int getCacheSize() {
+        return CACHE.getSize();
     }
 
     private static long createCacheKey(TypedValue tv) {
@@ -391,40 +431,13 @@ public final class AppCompatDrawableManager {
         return null;
     }
 
-    private synchronized Drawable getCachedDrawable(@NonNull final Context context,
-            final long key) {
-        final LongSparseArray<WeakReference<ConstantState>> cache = mDrawableCaches.get(context);
-        if (cache == null) {
-            return null;
-        }
-
-        final WeakReference<ConstantState> wr = cache.get(key);
-        if (wr != null) {
-            // We have the key, and the secret
-            ConstantState entry = wr.get();
-            if (entry != null) {
-                return entry.newDrawable(context.getResources());
-            } else {
-                // Our entry has been purged
-                cache.delete(key);
-            }
-        }
-        return null;
+    private Drawable getCachedDrawable(@NonNull final Context context, final long key) {
+        return CACHE.getDrawable(context, key);
     }
 
-    private synchronized boolean addDrawableToCache(@NonNull final Context context, final long key,
+    private boolean addDrawableToCache(@NonNull final Context context, final long key,
             @NonNull final Drawable drawable) {
-        final ConstantState cs = drawable.getConstantState();
-        if (cs != null) {
-            LongSparseArray<WeakReference<ConstantState>> cache = mDrawableCaches.get(context);
-            if (cache == null) {
-                cache = new LongSparseArray<>();
-                mDrawableCaches.put(context, cache);
-            }
-            cache.put(key, new WeakReference<>(cs));
-            return true;
-        }
-        return false;
+        return CACHE.putDrawable(context, key, drawable);
     }
 
     synchronized Drawable onDrawableLoadedFromResources(@NonNull Context context,
@@ -519,9 +532,10 @@ public final class AppCompatDrawableManager {
         return mode;
     }
 
-    synchronized ColorStateList getTintList(@NonNull Context context, @DrawableRes int resId) {
-        // Try the cache first (if it exists)
-        ColorStateList tint = getTintListFromCache(context, resId);
+    ColorStateList getTintList(@NonNull Context context, @DrawableRes int resId) {
+        // Try the cache first. Tint lists only depend on the context and are immutable, so when two
+        // threads miss at once they create equal lists, and the one put last is kept.
+        ColorStateList tint = CACHE.getTintList(context, resId);
 
         if (tint == null) {
             // ...if the cache did not contain a color state list, try and create one
@@ -551,33 +565,12 @@ public final class AppCompatDrawableManager {
             }
 
             if (tint != null) {
-                addTintListToCache(context, resId, tint);
+                CACHE.putTintList(context, resId, tint);
             }
         }
         return tint;
     }
 
-    private ColorStateList getTintListFromCache(@NonNull Context context, @DrawableRes int resId) {
-        if (mTintLists != null) {
-            final SparseArrayCompat<ColorStateList> tints = mTintLists.get(context);
-            return tints != null ? tints.get(resId) : null;
-        }
-        return null;
-    }
-
-    private void addTintListToCache(@NonNull Context context, @DrawableRes int resId,
-            @NonNull ColorStateList tintList) {
-        if (mTintLists == null) {
-            mTintLists = new WeakHashMap<>();
-        }
-        SparseArrayCompat<ColorStateList> themeTints = mTintLists.get(context);
-        if (themeTints == null) {
-            themeTints = new SparseArrayCompat<>();
-            mTintLists.put(context, themeTints);
-        }
-        themeTints.append(resId, tintList);
-    }
-
     private ColorStateList createDefaultButtonColorStateList(@NonNull Context context) {
         return createButtonColorStateList(context,
                 getThemeAttrColor(context, R.attr.colorButtonNormal));
@@ -669,28 +662,6 @@ public final class AppCompatDrawableManager {
         return new ColorStateList(states, colors);
     }
 
-    private static class ColorFilterLruCache extends LruCache<Integer, PorterDuffColorFilter> {
-
-        public ColorFilterLruCache(int maxSize) {
-            super(maxSize);
-        }
-
-        PorterDuffColorFilter get(int color, PorterDuff.Mode mode) {
-            return get(generateCacheKey(color, mode));
-        }
-
-        PorterDuffColorFilter put(int color, PorterDuff.Mode mode, PorterDuffColorFilter filter) {
-            return put(generateCacheKey(color, mode), filter);
-        }
-
-        private static int generateCacheKey(int color, PorterDuff.Mode mode) {
-            int hashCode = 1;
-            hashCode = 31 * hashCode + color;
-            hashCode = 31 * hashCode + mode.hashCode();
-            return hashCode;
-        }
-    }
-
     static void tintDrawable(Drawable drawable, TintInfo tint, int[] state) {
         if (DrawableUtils.canSafelyMutateDrawable(drawable)
                 && drawable.mutate() != drawable) {
@@ -723,15 +694,15 @@ public final class AppCompatDrawableManager {
         return getPorterDuffColorFilter(color, tintMode);
     }
 
-    public static synchronized PorterDuffColorFilter getPorterDuffColorFilter(
+    public static PorterDuffColorFilter getPorterDuffColorFilter(
             int color, PorterDuff.Mode mode) {
         // First, let's see if the cache already contains the color filter
-        PorterDuffColorFilter filter = COLOR_FILTER_CACHE.get(color, mode);
+        PorterDuffColorFilter filter = CACHE.getColorFilter(color, mode);
 
         if (filter == null) {
             // Cache miss, so create a color filter and add it to the cache
             filter = new PorterDuffColorFilter(color, mode);
-            COLOR_FILTER_CACHE.put(color, mode, filter);
+            CACHE.putColorFilter(color, mode, filter);
         }
 
         return filter;
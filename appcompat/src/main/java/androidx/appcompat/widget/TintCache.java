@@ -0,0 +1,325 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.appcompat.widget;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.graphics.Bitmap;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffColorFilter;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.Drawable.ConstantState;
+import android.os.Parcel;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.LruCache;
+import androidx.core.graphics.BitmapCompat;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the drawables, tint lists and color filters created by
+ * {@link AppCompatDrawableManager}, which can be used from several threads at once.
+ * <p>
+ * The entries are split into stripes by the hash of their key, each an {@link LruCache} with its
+ * own lock and an equal share of the byte budget, so that threads looking up different resources
+ * rarely contend. Since the keys of a context spread over all the stripes, a single context can
+ * use the whole budget. Contexts are only weakly referenced, as with the {@code WeakHashMap}s
+ * this replaces.
+ * <p>
+ * Entries are sized when they are put: a tint list by its flattened states and colors, and a
+ * drawable by the pixels it holds or renders at its intrinsic size. The pixels of a drawable are
+ * owned by the drawables created from its constant state, which the cache only weakly
+ * references, so the budget bounds the working set of drawables the cache keeps reachable
+ * rather than memory held by the cache itself.
+ */
+final class TintCache {
+    static final int DEFAULT_MAX_SIZE_BYTES = 4 * 1024 * 1024;
+
+    // Must be a power of two.
+    private static final int STRIPE_COUNT = 8;
+
+    private static final int TYPE_DRAWABLE = 0;
+    private static final int TYPE_TINT_LIST = 1;
+    private static final int TYPE_COLOR_FILTER = 2;
+
+    // Estimated size of the key and the cache node of an entry, and of a color filter.
+    private static final int SIZE_ENTRY = 96;
+
+    private final Stripe[] mStripes = new Stripe[STRIPE_COUNT];
+
+    private final AtomicLong mHitCount = new AtomicLong();
+    private final AtomicLong mMissCount = new AtomicLong();
+
+    TintCache(int maxSizeBytes) {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            mStripes[i] = new Stripe(stripeSize(maxSizeBytes));
+        }
+    }
+
+    /**
+     * Sets the number of bytes that the entries of the cache may use, evicting the least recently
+     * used entries if they use more.
+     */
+    void setMaxSize(int maxSizeBytes) {
+        final int stripeSize = stripeSize(maxSizeBytes);
+        for (Stripe stripe : mStripes) {
+            stripe.resize(stripeSize);
+        }
+    }
+
+    /**
+     * Returns a new drawable from the cached constant state of the given key, or {@code null}.
+     */
+    @Nullable
+    Drawable getDrawable(@NonNull Context context, long key) {
+        final Key lookup = new Key(TYPE_DRAWABLE, context, key);
+        final Stripe stripe = stripeFor(lookup);
+        @SuppressWarnings("unchecked")
+        final WeakReference<ConstantState> wr = (WeakReference<ConstantState>) stripe.get(lookup);
+        if (wr != null) {
+            final ConstantState entry = wr.get();
+            if (entry != null) {
+                mHitCount.incrementAndGet();
+                return entry.newDrawable(context.getResources());
+            }
+            // Our entry has been purged
+            stripe.remove(lookup);
+        }
+        mMissCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Caches the constant state of the drawable, if it has one.
+     *
+     * @return whether the drawable was cached
+     */
+    boolean putDrawable(@NonNull Context context, long key, @NonNull Drawable drawable) {
+        final ConstantState cs = drawable.getConstantState();
+        if (cs == null) {
+            return false;
+        }
+        final Key lookup = new Key(TYPE_DRAWABLE, context, key);
+        stripeFor(lookup).put(lookup.stored(sizeOf(drawable)), new WeakReference<>(cs));
+        return true;
+    }
+
+    @Nullable
+    ColorStateList getTintList(@NonNull Context context, int resId) {
+        final Key key = new Key(TYPE_TINT_LIST, context, resId);
+        return (ColorStateList) count(stripeFor(key).get(key));
+    }
+
+    void putTintList(@NonNull Context context, int resId, @NonNull ColorStateList tintList) {
+        final Key key = new Key(TYPE_TINT_LIST, context, resId);
+        stripeFor(key).put(key.stored(sizeOf(tintList)), tintList);
+    }
+
+    @Nullable
+    PorterDuffColorFilter getColorFilter(int color, @NonNull PorterDuff.Mode mode) {
+        final Key key = new Key(TYPE_COLOR_FILTER, null, colorFilterKey(color, mode));
+        return (PorterDuffColorFilter) count(stripeFor(key).get(key));
+    }
+
+    void putColorFilter(int color, @NonNull PorterDuff.Mode mode,
+            @NonNull PorterDuffColorFilter filter) {
+        final Key key = new Key(TYPE_COLOR_FILTER, null, colorFilterKey(color, mode));
+        stripeFor(key).put(key.stored(SIZE_ENTRY), filter);
+    }
+
+    /**
+     * Removes the drawables and tint lists cached for the context, along with those of contexts
+     * that are no longer referenced.
+     */
+    void clear(@NonNull Context context) {
+        for (Stripe stripe : mStripes) {
+            for (Key key : stripe.snapshot().keySet()) {
+                final Context keyContext = key.getContext();
+                if (key.mType != TYPE_COLOR_FILTER
+                        && (keyContext == context || keyContext == null)) {
+                    stripe.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of lookups that found an entry.
+     */
+    long getHitCount() {
+        return mHitCount.get();
+    }
+
+    /**
+     * Returns the number of lookups that didn't find an entry, or found a drawable whose constant
+     * state was no longer referenced.
+     */
+    long getMissCount() {
+        return mMissCount.get();
+    }
+
+    /**
+     * Returns the number of entries evicted to stay within the byte budget.
+     */
+    long getEvictionCount() {
+        long count = 0;
+        for (Stripe stripe : mStripes) {
+            count += stripe.evictionCount();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of bytes used by the entries of the cache, as sized when they were put.
+     */
+    int getSize() {
+        int size = 0;
+        for (Stripe stripe : mStripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private Object count(@Nullable Object value) {
+        if (value != null) {
+            mHitCount.incrementAndGet();
+        } else {
+            mMissCount.incrementAndGet();
+        }
+        return value;
+    }
+
+    private static int sizeOf(@NonNull ColorStateList tintList) {
+        final Parcel parcel = Parcel.obtain();
+        try {
+            // The state specs and colors, which make up most of the list
+            tintList.writeToParcel(parcel, 0);
+            return SIZE_ENTRY + parcel.dataSize();
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    private static int sizeOf(@NonNull Drawable drawable) {
+        if (drawable instanceof BitmapDrawable) {
+            final Bitmap bitmap = ((BitmapDrawable) drawable).getBitmap();
+            if (bitmap != null) {
+                return SIZE_ENTRY + BitmapCompat.getAllocationByteCount(bitmap);
+            }
+        }
+        // Vector drawables render into an ARGB_8888 bitmap of their intrinsic size
+        final int width = drawable.getIntrinsicWidth();
+        final int height = drawable.getIntrinsicHeight();
+        return SIZE_ENTRY + (width > 0 && height > 0 ? width * height * 4 : 0);
+    }
+
+    private Stripe stripeFor(@NonNull Key key) {
+        return mStripes[spread(key.hashCode())];
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) & (STRIPE_COUNT - 1);
+    }
+
+    private static int stripeSize(int maxSizeBytes) {
+        if (maxSizeBytes <= 0) {
+            throw new IllegalArgumentException("maxSizeBytes <= 0");
+        }
+        return Math.max(1, maxSizeBytes / STRIPE_COUNT);
+    }
+
+    private static long colorFilterKey(int color, @NonNull PorterDuff.Mode mode) {
+        return (((long) mode.ordinal()) << 32) | (color & 0xFFFFFFFFL);
+    }
+
+    private static class Stripe extends LruCache<Key, Object> {
+        Stripe(int maxSize) {
+            super(maxSize);
+        }
+
+        @Override
+        protected int sizeOf(@NonNull Key key, @NonNull Object value) {
+            // Drawables are only weakly referenced, so their size is kept by the key.
+            return key.mSize;
+        }
+    }
+
+    /**
+     * Key of an entry. Keys used for lookups hold their context directly, while the keys stored
+     * in the cache only hold a weak reference to it, along with the size of their entry.
+     */
+    private static final class Key {
+        final int mType;
+        final long mKey;
+        final int mSize;
+        private final int mHash;
+        private final Context mContext;
+        private final WeakReference<Context> mContextRef;
+
+        Key(int type, @Nullable Context context, long key) {
+            this(type, context, null, key,
+                    31 * (31 * type + System.identityHashCode(context))
+                            + (int) (key ^ (key >>> 32)), 0);
+        }
+
+        private Key(int type, Context context, WeakReference<Context> contextRef, long key,
+                int hash, int size) {
+            mType = type;
+            mContext = context;
+            mContextRef = contextRef;
+            mKey = key;
+            mHash = hash;
+            mSize = size;
+        }
+
+        /**
+         * Returns the key to store an entry of the given size with.
+         */
+        Key stored(int size) {
+            return new Key(mType, null, mContext == null ? null : new WeakReference<>(mContext),
+                    mKey, mHash, size);
+        }
+
+        Context getContext() {
+            return mContextRef != null ? mContextRef.get() : mContext;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return mHash == other.mHash && mType == other.mType && mKey == other.mKey
+                    && getContext() == other.getContext()
+                    // Two keys whose contexts have been collected are not the same.
+                    && (getContext() != null || mType == TYPE_COLOR_FILTER);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHash;
+        }
+    }
+}
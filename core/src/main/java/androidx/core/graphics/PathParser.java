@@ -349,7 +349,11 @@ public class PathParser {
          */
         public float[] mParams;
 
-        PathDataNode(char type, float[] params) {
+        /**
+         * @param type The command of the node, such as 'M' or 'c'.
+         * @param params The parameters of the command, which are not copied.
+         */
+        public PathDataNode(char type, float[] params) {
             this.mType = type;
             this.mParams = params;
         }
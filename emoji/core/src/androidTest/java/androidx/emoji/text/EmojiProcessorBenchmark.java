@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.emoji.text;
+
+import static org.junit.Assert.assertEquals;
+
+import android.text.Spanned;
+
+import androidx.benchmark.BenchmarkRule;
+import androidx.benchmark.BenchmarkState;
+import androidx.test.filters.LargeTest;
+import androidx.test.filters.SdkSuppress;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Measures {@link EmojiProcessor#process} over a long chat history. Each iteration adds
+ * {@link #SPAN_COUNT} EmojiSpans, so spans per second is {@code SPAN_COUNT * 1e9 / median ns}.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+@SdkSuppress(minSdkVersion = 19)
+public class EmojiProcessorBenchmark {
+
+    private static final int MESSAGE_COUNT = 500;
+
+    private static final int[][] EMOJIS = new int[][]{
+            {0x1F600},
+            {0x1F44D, 0x1F3FD},
+            {0x1F1FA, 0x1F1F8},
+            {0x2764, 0xFE0F},
+    };
+
+    private static final int SPAN_COUNT = MESSAGE_COUNT * EMOJIS.length;
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    @BeforeClass
+    public static void setup() {
+        EmojiCompat.reset(TestConfigBuilder.config());
+    }
+
+    @Test
+    public void processChatHistory() {
+        final String text = createChatHistory();
+        final EmojiCompat emojiCompat = EmojiCompat.get();
+
+        final Spanned result = (Spanned) emojiCompat.process(text, 0, text.length(),
+                EmojiCompat.EMOJI_COUNT_UNLIMITED, EmojiCompat.REPLACE_STRATEGY_ALL);
+        assertEquals(SPAN_COUNT, result.getSpans(0, result.length(), EmojiSpan.class).length);
+
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            emojiCompat.process(text, 0, text.length(), EmojiCompat.EMOJI_COUNT_UNLIMITED,
+                    EmojiCompat.REPLACE_STRATEGY_ALL);
+        }
+    }
+
+    private static String createChatHistory() {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            builder.append("message ").append(i).append(' ');
+            for (int[] emoji : EMOJIS) {
+                for (int codepoint : emoji) {
+                    builder.appendCodePoint(codepoint);
+                }
+                builder.append(" text ");
+            }
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+}
@@ -26,7 +26,9 @@ import static androidx.core.provider.FontsContractCompat.FontFamilyResult.STATUS
 import static androidx.core.provider.FontsContractCompat.FontFamilyResult.STATUS_WRONG_CERTIFICATES;
 
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
@@ -200,7 +202,12 @@ public class FontRequestEmojiCompatConfigTest {
 
         config.getMetadataRepoLoader().load(callback);
         callback.await(DEFAULT_TIMEOUT_MILLIS);
-        verify(callback, times(1)).onLoaded(any(MetadataRepo.class));
+        final ArgumentCaptor<MetadataRepo> metadataRepo =
+                ArgumentCaptor.forClass(MetadataRepo.class);
+        verify(callback, times(1)).onLoaded(metadataRepo.capture());
+        // The font file is mapped and closed by the loader, the metadata stays readable.
+        assertTrue(metadataRepo.getValue().getMetadataList().listLength() > 0);
+        assertNotNull(metadataRepo.getValue().getFlatIndex());
     }
 
     @Test
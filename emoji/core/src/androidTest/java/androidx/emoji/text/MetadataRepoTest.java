@@ -16,8 +16,14 @@
 package androidx.emoji.text;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
+import android.content.Context;
+import android.graphics.Typeface;
+
+import androidx.test.InstrumentationRegistry;
 import androidx.test.filters.SdkSuppress;
 import androidx.test.filters.SmallTest;
 import androidx.test.runner.AndroidJUnit4;
@@ -26,6 +32,10 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
 @SmallTest
 @RunWith(AndroidJUnit4.class)
 @SdkSuppress(minSdkVersion = 19)
@@ -92,16 +102,77 @@ public class MetadataRepoTest {
         assertEquals(null, getNode(new int[]{1, 2, 3, 4, 5}));
     }
 
-    final EmojiMetadata getNode(final int[] codepoints) {
-        return getNode(mMetadataRepo.getRootNode(), codepoints, 0);
+    @Test
+    public void testFlatIndex_sharesPrefixes() {
+        final int[] codePoint1 = new int[]{1, 2, 3, 4};
+        final EmojiMetadata metadata1 = new TestEmojiMetadata(codePoint1);
+        final int[] codePoint2 = new int[]{1, 2};
+        final EmojiMetadata metadata2 = new TestEmojiMetadata(codePoint2);
+        final int[] codePoint3 = new int[]{5};
+        final EmojiMetadata metadata3 = new TestEmojiMetadata(codePoint3);
+
+        mMetadataRepo.put(metadata1);
+        mMetadataRepo.put(metadata2);
+        mMetadataRepo.put(metadata3);
+
+        assertSame(metadata1, getNode(codePoint1));
+        assertSame(metadata2, getNode(codePoint2));
+        assertSame(metadata3, getNode(codePoint3));
+
+        assertEquals(null, getNode(new int[]{1}));
+        assertEquals(null, getNode(new int[]{1, 2, 3}));
+        assertEquals(null, getNode(new int[]{1, 2, 3, 4, 5}));
+        assertEquals(null, getNode(new int[]{6}));
+        assertEquals(6, mMetadataRepo.getFlatIndex().getNodeCount());
     }
 
-    final EmojiMetadata getNode(MetadataRepo.Node node, final int[] codepoints, int start) {
-        if (codepoints.length < start) return null;
-        if (codepoints.length == start) return node.getData();
+    @Test
+    public void testPut_sameCodePointsKeepsLast() {
+        final int[] codePoint = new int[]{1, 2};
+        final EmojiMetadata metadata1 = new TestEmojiMetadata(codePoint);
+        final EmojiMetadata metadata2 = new TestEmojiMetadata(codePoint);
+        mMetadataRepo.put(metadata1);
+        mMetadataRepo.put(metadata2);
+
+        assertSame(metadata2, getNode(codePoint));
+        assertEquals(3, mMetadataRepo.getFlatIndex().getNodeCount());
+    }
+
+    @Test
+    public void testCreateFromFileDescriptor() throws IOException {
+        final Context context = InstrumentationRegistry.getTargetContext();
+        final File file = FontRequestEmojiCompatConfigTest.loadFont(context,
+                "NotoColorEmojiCompat.ttf");
+        final Typeface typeface = Typeface.createFromFile(file);
+        final MetadataRepo metadataRepo;
+        try (FileInputStream inputStream = new FileInputStream(file)) {
+            metadataRepo = MetadataRepo.create(typeface, inputStream.getFD());
+        }
+
+        // The metadata list stays readable after the descriptor is closed, and the index is
+        // constructed before the repo is returned.
+        assertTrue(metadataRepo.getMetadataList().listLength() > 0);
+        final EmojiMetadata firstEmoji = new EmojiMetadata(metadataRepo, 0);
+        final int[] codepoints = new int[firstEmoji.getCodepointsLength()];
+        for (int i = 0; i < codepoints.length; i++) {
+            codepoints[i] = firstEmoji.getCodepointAt(i);
+        }
+        final EmojiMetadata metadata = getNode(metadataRepo, codepoints);
+        assertNotNull(metadata);
+        assertEquals(firstEmoji.getId(), metadata.getId());
+    }
+
+    final EmojiMetadata getNode(final int[] codepoints) {
+        return getNode(mMetadataRepo, codepoints);
+    }
 
-        final MetadataRepo.Node childNode = node.get(codepoints[start]);
-        if (childNode == null) return null;
-        return getNode(childNode, codepoints, start + 1);
+    final EmojiMetadata getNode(final MetadataRepo metadataRepo, final int[] codepoints) {
+        final FlatMetadataIndex index = metadataRepo.getFlatIndex();
+        int node = FlatMetadataIndex.ROOT;
+        for (int codepoint : codepoints) {
+            node = index.get(node, codepoint);
+            if (node == FlatMetadataIndex.NO_NODE) return null;
+        }
+        return index.getData(node);
     }
 }
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.emoji.text;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import androidx.annotation.RestrictTo;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Immutable, array based trie that maps emoji codepoint sequences to {@link EmojiMetadata}.
+ * <p>
+ * Nodes are numbered in breadth first order, the root being {@code 0}. The outgoing edges of a
+ * node are stored next to each other, sorted by codepoint, so a lookup is a binary search over a
+ * slice of a primitive array and walking the trie does not allocate or dereference any objects.
+ *
+ * @hide
+ */
+@AnyThread
+@RestrictTo(LIBRARY_GROUP)
+@RequiresApi(19)
+final class FlatMetadataIndex {
+    /**
+     * Id of the root node.
+     */
+    static final int ROOT = 0;
+
+    /**
+     * Returned by {@link #get(int, int)} when there is no transition for the codepoint.
+     */
+    static final int NO_NODE = -1;
+
+    /**
+     * Edges of node {@code n} are in the range [mEdgeStart[n], mEdgeStart[n + 1]).
+     */
+    private final int[] mEdgeStart;
+
+    /**
+     * Codepoint of each edge.
+     */
+    private final int[] mEdgeKeys;
+
+    /**
+     * Target node id of each edge.
+     */
+    private final int[] mEdgeTargets;
+
+    /**
+     * EmojiMetadata of each node, {@code null} if no emoji ends at the node.
+     */
+    private final EmojiMetadata[] mData;
+
+    private FlatMetadataIndex(final int[] edgeStart, final int[] edgeKeys,
+            final int[] edgeTargets, final EmojiMetadata[] data) {
+        mEdgeStart = edgeStart;
+        mEdgeKeys = edgeKeys;
+        mEdgeTargets = edgeTargets;
+        mData = data;
+    }
+
+    /**
+     * Builds the index of the given emojis. If more than one emoji has the same codepoints, the
+     * last one is kept.
+     */
+    static FlatMetadataIndex create(@NonNull final EmojiMetadata[] metadata) {
+        final int count = metadata.length;
+        final int[][] codepoints = new int[count][];
+        final Integer[] order = new Integer[count];
+        int codepointCount = 0;
+        for (int i = 0; i < count; i++) {
+            final int length = metadata[i].getCodepointsLength();
+            codepoints[i] = new int[length];
+            for (int j = 0; j < length; j++) {
+                codepoints[i][j] = metadata[i].getCodepointAt(j);
+            }
+            order[i] = i;
+            codepointCount += length;
+        }
+        // sort lexicographically so that the emojis below a node are a contiguous range, and the
+        // children of a node are in codepoint order. The sort is stable, therefore emojis with
+        // the same codepoints keep their order.
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer lhs, Integer rhs) {
+                final int[] left = codepoints[lhs];
+                final int[] right = codepoints[rhs];
+                final int length = Math.min(left.length, right.length);
+                for (int i = 0; i < length; i++) {
+                    if (left[i] != right[i]) {
+                        return left[i] < right[i] ? -1 : 1;
+                    }
+                }
+                return left.length - right.length;
+            }
+        });
+
+        // every codepoint adds at most one node
+        final int maxNodeCount = codepointCount + 1;
+        final int[] edgeStart = new int[maxNodeCount + 1];
+        final int[] edgeKeys = new int[codepointCount];
+        final int[] edgeTargets = new int[codepointCount];
+        final EmojiMetadata[] data = new EmojiMetadata[maxNodeCount];
+        // node n matches the first depth[n] codepoints of the emojis in
+        // order[rangeStart[n], rangeEnd[n])
+        final int[] rangeStart = new int[maxNodeCount];
+        final int[] rangeEnd = new int[maxNodeCount];
+        final int[] depth = new int[maxNodeCount];
+        rangeEnd[ROOT] = count;
+        int nodeCount = 1;
+        int edge = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            edgeStart[node] = edge;
+            final int end = rangeEnd[node];
+            final int level = depth[node];
+            int start = rangeStart[node];
+            // emojis that end at this node are sorted before the ones that continue
+            while (start < end && codepoints[order[start]].length == level) {
+                data[node] = metadata[order[start]];
+                start++;
+            }
+            while (start < end) {
+                final int key = codepoints[order[start]][level];
+                int childEnd = start + 1;
+                while (childEnd < end && codepoints[order[childEnd]][level] == key) {
+                    childEnd++;
+                }
+                // children are appended in breadth first order, therefore the id of the next
+                // child is a running counter
+                edgeKeys[edge] = key;
+                edgeTargets[edge] = nodeCount;
+                edge++;
+                rangeStart[nodeCount] = start;
+                rangeEnd[nodeCount] = childEnd;
+                depth[nodeCount] = level + 1;
+                nodeCount++;
+                start = childEnd;
+            }
+        }
+        edgeStart[nodeCount] = edge;
+        return new FlatMetadataIndex(Arrays.copyOf(edgeStart, nodeCount + 1),
+                Arrays.copyOf(edgeKeys, edge), Arrays.copyOf(edgeTargets, edge),
+                Arrays.copyOf(data, nodeCount));
+    }
+
+    /**
+     * @param node id of the current node
+     * @param codePoint codepoint to follow
+     *
+     * @return id of the child node for the codepoint, or {@link #NO_NODE}
+     */
+    int get(final int node, final int codePoint) {
+        int low = mEdgeStart[node];
+        int high = mEdgeStart[node + 1] - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int key = mEdgeKeys[mid];
+            if (key < codePoint) {
+                low = mid + 1;
+            } else if (key > codePoint) {
+                high = mid - 1;
+            } else {
+                return mEdgeTargets[mid];
+            }
+        }
+        return NO_NODE;
+    }
+
+    /**
+     * @param node id of the node
+     *
+     * @return the EmojiMetadata that ends at the node, or {@code null}
+     */
+    @Nullable
+    EmojiMetadata getData(final int node) {
+        return mData[node];
+    }
+
+    /**
+     * @return number of nodes in the index
+     */
+    int getNodeCount() {
+        return mData.length;
+    }
+}
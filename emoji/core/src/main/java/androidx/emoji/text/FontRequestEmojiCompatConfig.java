@@ -23,6 +23,7 @@ import android.graphics.Typeface;
 import android.net.Uri;
 import android.os.Handler;
 import android.os.HandlerThread;
+import android.os.ParcelFileDescriptor;
 import android.os.Process;
 import android.os.SystemClock;
 
@@ -31,13 +32,11 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import androidx.annotation.RestrictTo;
-import androidx.core.graphics.TypefaceCompatUtil;
 import androidx.core.provider.FontRequest;
 import androidx.core.provider.FontsContractCompat;
 import androidx.core.provider.FontsContractCompat.FontFamilyResult;
 import androidx.core.util.Preconditions;
 
-import java.nio.ByteBuffer;
 
 /**
  * {@link EmojiCompat.Config} implementation that asynchronously fetches the required font and the
@@ -312,11 +311,18 @@ public class FontRequestEmojiCompatConfig extends EmojiCompat.Config {
 
                 // TODO: Good to add new API to create Typeface from FD not to open FD twice.
                 final Typeface typeface = mFontProviderHelper.buildTypeface(mContext, font);
-                final ByteBuffer buffer = TypefaceCompatUtil.mmap(mContext, null, font.getUri());
-                if (buffer == null) {
+                final ParcelFileDescriptor pfd = mContext.getContentResolver()
+                        .openFileDescriptor(font.getUri(), "r");
+                if (pfd == null) {
                     throw new RuntimeException("Unable to open file.");
                 }
-                mCallback.onLoaded(MetadataRepo.create(typeface, buffer));
+                final MetadataRepo metadataRepo;
+                try {
+                    metadataRepo = MetadataRepo.create(typeface, pfd.getFileDescriptor());
+                } finally {
+                    pfd.close();
+                }
+                mCallback.onLoaded(metadataRepo);
                 cleanUp();
             } catch (Throwable t) {
                 mCallback.onFailed(t);
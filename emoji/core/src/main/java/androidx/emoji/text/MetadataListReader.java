@@ -17,7 +17,9 @@ package androidx.emoji.text;
 
 import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP;
 
+import android.content.res.AssetFileDescriptor;
 import android.content.res.AssetManager;
+import android.os.ParcelFileDescriptor;
 
 import androidx.annotation.AnyThread;
 import androidx.annotation.IntRange;
@@ -25,10 +27,14 @@ import androidx.annotation.RequiresApi;
 import androidx.annotation.RestrictTo;
 import androidx.text.emoji.flatbuffer.MetadataList;
 
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 
 /**
  * Reads the emoji metadata from a given InputStream or ByteBuffer.
@@ -96,7 +102,25 @@ class MetadataListReader {
     }
 
     /**
-     * Construct MetadataList from an asset.
+     * Construct MetadataList by memory mapping the font file. The metadata is not copied into the
+     * heap, pages are read from the file when a MetadataItem is accessed. The library does not
+     * close the given FileDescriptor, the mapping stays valid after the caller closes it.
+     *
+     * @param fileDescriptor FileDescriptor of the font file to read emoji metadata from
+     */
+    static MetadataList read(FileDescriptor fileDescriptor) throws IOException {
+        // The descriptor is duplicated so that closing the channel does not close the one of the
+        // caller. The mapping stays valid after the channel is closed.
+        try (FileInputStream inputStream = new ParcelFileDescriptor.AutoCloseInputStream(
+                ParcelFileDescriptor.dup(fileDescriptor))) {
+            final FileChannel channel = inputStream.getChannel();
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Construct MetadataList from an asset. If the asset is stored uncompressed it is memory
+     * mapped, otherwise the metadata is read into the heap.
      *
      * @param assetManager AssetManager instance
      * @param assetPath asset manager path of the file that the Typeface and metadata will be
@@ -104,11 +128,35 @@ class MetadataListReader {
      */
     static MetadataList read(AssetManager assetManager, String assetPath)
             throws IOException {
+        final ByteBuffer mappedAsset = mapAsset(assetManager, assetPath);
+        if (mappedAsset != null) {
+            return read(mappedAsset);
+        }
         try (InputStream inputStream = assetManager.open(assetPath)) {
             return read(inputStream);
         }
     }
 
+    /**
+     * Memory maps an uncompressed asset.
+     *
+     * @return the mapped asset, or {@code null} if the asset is compressed
+     */
+    private static ByteBuffer mapAsset(AssetManager assetManager, String assetPath)
+            throws IOException {
+        final AssetFileDescriptor assetFileDescriptor;
+        try {
+            assetFileDescriptor = assetManager.openFd(assetPath);
+        } catch (FileNotFoundException e) {
+            // openFd throws for compressed assets
+            return null;
+        }
+        try (FileInputStream inputStream = assetFileDescriptor.createInputStream()) {
+            return inputStream.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                    assetFileDescriptor.getStartOffset(), assetFileDescriptor.getDeclaredLength());
+        }
+    }
+
     /**
      * Finds the start offset and length of the emoji metadata in the font.
      *
@@ -19,7 +19,6 @@ import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP;
 
 import android.content.res.AssetManager;
 import android.graphics.Typeface;
-import android.util.SparseArray;
 
 import androidx.annotation.AnyThread;
 import androidx.annotation.NonNull;
@@ -29,9 +28,11 @@ import androidx.annotation.VisibleForTesting;
 import androidx.core.util.Preconditions;
 import androidx.text.emoji.flatbuffer.MetadataList;
 
+import java.io.FileDescriptor;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 
 /**
  * Class to hold the emoji metadata required to process and draw emojis.
@@ -39,11 +40,6 @@ import java.nio.ByteBuffer;
 @AnyThread
 @RequiresApi(19)
 public final class MetadataRepo {
-    /**
-     * The default children size of the root node.
-     */
-    private static final int DEFAULT_ROOT_SIZE = 1024;
-
     /**
      * MetadataList that contains the emoji metadata.
      */
@@ -56,14 +52,19 @@ public final class MetadataRepo {
     private final char[] mEmojiCharArray;
 
     /**
-     * Empty root node of the trie.
+     * Typeface to be used to render emojis.
      */
-    private final Node mRootNode;
+    private final Typeface mTypeface;
 
     /**
-     * Typeface to be used to render emojis.
+     * Index of the emoji codepoint sequences that is used by {@link EmojiProcessor}.
      */
-    private final Typeface mTypeface;
+    private FlatMetadataIndex mFlatIndex;
+
+    /**
+     * EmojiMetadata added by {@link #put(EmojiMetadata)}, only used by tests.
+     */
+    private final ArrayList<EmojiMetadata> mTestMetadata;
 
     /**
      * Constructor used for tests.
@@ -74,8 +75,9 @@ public final class MetadataRepo {
     MetadataRepo() {
         mTypeface = null;
         mMetadataList = null;
-        mRootNode = new Node(DEFAULT_ROOT_SIZE);
         mEmojiCharArray = new char[0];
+        mTestMetadata = new ArrayList<>();
+        mFlatIndex = FlatMetadataIndex.create(new EmojiMetadata[0]);
     }
 
     /**
@@ -88,8 +90,8 @@ public final class MetadataRepo {
             @NonNull final MetadataList metadataList) {
         mTypeface = typeface;
         mMetadataList = metadataList;
-        mRootNode = new Node(DEFAULT_ROOT_SIZE);
         mEmojiCharArray = new char[mMetadataList.listLength() * 2];
+        mTestMetadata = null;
         constructIndex(mMetadataList);
     }
 
@@ -131,18 +133,32 @@ public final class MetadataRepo {
     }
 
     /**
-     * Read emoji metadata list and construct the trie.
+     * Construct MetadataRepo by memory mapping a font file. The emoji metadata is not copied into
+     * the heap, and entries are decoded when they are accessed. The library does not close the
+     * given FileDescriptor.
+     *
+     * @param typeface Typeface to be used to render emojis
+     * @param fileDescriptor FileDescriptor of the font file to read emoji metadata from
+     */
+    public static MetadataRepo create(@NonNull final Typeface typeface,
+            @NonNull final FileDescriptor fileDescriptor) throws IOException {
+        return new MetadataRepo(typeface, MetadataListReader.read(fileDescriptor));
+    }
+
+    /**
+     * Read emoji metadata list and construct the index.
      */
     private void constructIndex(final MetadataList metadataList) {
         int length = metadataList.listLength();
+        final EmojiMetadata[] metadata = new EmojiMetadata[length];
         for (int i = 0; i < length; i++) {
-            final EmojiMetadata metadata = new EmojiMetadata(this, i);
+            metadata[i] = new EmojiMetadata(this, i);
             //since all emojis are mapped to a single codepoint in Private Use Area A they are 2
             //chars wide
             //noinspection ResultOfMethodCallIgnored
-            Character.toChars(metadata.getId(), mEmojiCharArray, i * 2);
-            put(metadata);
+            Character.toChars(metadata[i].getId(), mEmojiCharArray, i * 2);
         }
+        mFlatIndex = FlatMetadataIndex.create(metadata);
     }
 
     /**
@@ -165,8 +181,8 @@ public final class MetadataRepo {
      * @hide
      */
     @RestrictTo(LIBRARY_GROUP)
-    Node getRootNode() {
-        return mRootNode;
+    FlatMetadataIndex getFlatIndex() {
+        return mFlatIndex;
     }
 
     /**
@@ -186,7 +202,7 @@ public final class MetadataRepo {
     }
 
     /**
-     * Add an EmojiMetadata to the index.
+     * Add an EmojiMetadata to the index of a MetadataRepo that was created for tests.
      *
      * @hide
      */
@@ -196,51 +212,11 @@ public final class MetadataRepo {
         Preconditions.checkNotNull(data, "emoji metadata cannot be null");
         Preconditions.checkArgument(data.getCodepointsLength() > 0,
                 "invalid metadata codepoint length");
+        Preconditions.checkState(mTestMetadata != null,
+                "metadata can only be added to a test MetadataRepo");
 
-        mRootNode.put(data, 0, data.getCodepointsLength() - 1);
-    }
-
-    /**
-     * Trie node that holds mapping from emoji codepoint(s) to EmojiMetadata. A single codepoint
-     * emoji is represented by a child of the root node.
-     *
-     * @hide
-     */
-    @RestrictTo(LIBRARY_GROUP)
-    static class Node {
-        private final SparseArray<Node> mChildren;
-        private EmojiMetadata mData;
-
-        private Node() {
-            this(1);
-        }
-
-        @SuppressWarnings("WeakerAccess") /* synthetic access */
-        Node(final int defaultChildrenSize) {
-            mChildren = new SparseArray<>(defaultChildrenSize);
-        }
-
-        Node get(final int key) {
-            return mChildren == null ? null : mChildren.get(key);
-        }
-
-        final EmojiMetadata getData() {
-            return mData;
-        }
-
-        @SuppressWarnings("WeakerAccess") /* synthetic access */
-        void put(@NonNull final EmojiMetadata data, final int start, final int end) {
-            Node node = get(data.getCodepointAt(start));
-            if (node == null) {
-                node = new Node();
-                mChildren.put(data.getCodepointAt(start), node);
-            }
-
-            if (end > start) {
-                node.put(data, start + 1, end);
-            } else {
-                node.mData = data;
-            }
-        }
+        mTestMetadata.add(data);
+        mFlatIndex = FlatMetadataIndex.create(
+                mTestMetadata.toArray(new EmojiMetadata[mTestMetadata.size()]));
     }
 }
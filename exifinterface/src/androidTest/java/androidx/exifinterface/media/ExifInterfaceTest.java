@@ -18,13 +18,17 @@ package androidx.exifinterface.media;
 
 import static androidx.test.InstrumentationRegistry.getContext;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import android.content.res.TypedArray;
 import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
 import android.location.Location;
 import android.os.Environment;
 import android.util.Log;
@@ -42,6 +46,7 @@ import org.junit.runner.RunWith;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
@@ -49,7 +54,9 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
@@ -628,6 +635,119 @@ public class ExifInterfaceTest {
 
     }
 
+    @Test
+    @LargeTest
+    public void testSaveAttributes_growingExifSegment() throws IOException {
+        File imageFile = new File(Environment.getExternalStorageDirectory(),
+                EXIF_BYTE_ORDER_II_JPEG);
+        // Makes sure that the file starts with the EXIF segment.
+        new ExifInterface(imageFile.getAbsolutePath()).saveAttributes();
+        final byte[] imageData = readAfterExifSegment(imageFile);
+        final long length = imageFile.length();
+
+        // The new EXIF segment is larger than the one it replaces.
+        final char[] description = new char[4096];
+        Arrays.fill(description, 'a');
+        ExifInterface exif = new ExifInterface(imageFile.getAbsolutePath());
+        exif.setAttribute(ExifInterface.TAG_IMAGE_DESCRIPTION, new String(description));
+        exif.saveAttributes();
+
+        assertTrue(imageFile.length() > length);
+        assertArrayEquals(imageData, readAfterExifSegment(imageFile));
+        exif = new ExifInterface(imageFile.getAbsolutePath());
+        assertEquals(new String(description),
+                exif.getAttribute(ExifInterface.TAG_IMAGE_DESCRIPTION));
+        assertNotNull(BitmapFactory.decodeFile(imageFile.getAbsolutePath()));
+    }
+
+    @Test
+    @LargeTest
+    public void testSaveAttributes_exifSegmentNotFirst() throws IOException {
+        // Moves the EXIF segment after a JFIF APP0 segment, so that the whole file is rewritten.
+        File imageFile = new File(Environment.getExternalStorageDirectory(),
+                EXIF_BYTE_ORDER_II_JPEG);
+        final byte[] original = readFile(imageFile);
+        final byte[] app0 = {(byte) 0xff, (byte) 0xe0, 0x00, 0x10, 'J', 'F', 'I', 'F', 0x00,
+                0x01, 0x01, 0x00, 0x00, 0x01, 0x00, 0x01, 0x00, 0x00};
+        FileOutputStream out = null;
+        try {
+            out = new FileOutputStream(imageFile);
+            out.write(original, 0, 2);
+            out.write(app0);
+            out.write(original, 2, original.length - 2);
+        } finally {
+            closeQuietly(out);
+        }
+
+        ExifInterface exif = new ExifInterface(imageFile.getAbsolutePath());
+        final String orientation = exif.getAttribute(ExifInterface.TAG_ORIENTATION);
+        exif.setAttribute(ExifInterface.TAG_MAKE, "abc");
+        exif.saveAttributes();
+
+        exif = new ExifInterface(imageFile.getAbsolutePath());
+        assertEquals("abc", exif.getAttribute(ExifInterface.TAG_MAKE));
+        assertEquals(orientation, exif.getAttribute(ExifInterface.TAG_ORIENTATION));
+        assertNotNull(BitmapFactory.decodeFile(imageFile.getAbsolutePath()));
+        assertFalse(new File(imageFile.getAbsolutePath() + ".tmp").exists());
+    }
+
+    @Test
+    @LargeTest
+    public void testSaveAttributes_duplicateExifSegment() throws IOException {
+        File imageFile = new File(Environment.getExternalStorageDirectory(),
+                EXIF_BYTE_ORDER_II_JPEG);
+        // Makes sure that the file starts with the EXIF segment, then repeats that segment.
+        new ExifInterface(imageFile.getAbsolutePath()).saveAttributes();
+        final byte[] original = readFile(imageFile);
+        final int segmentEnd = original.length - readAfterExifSegment(imageFile).length;
+        FileOutputStream out = null;
+        try {
+            out = new FileOutputStream(imageFile);
+            out.write(original, 0, segmentEnd);
+            out.write(original, 2, segmentEnd - 2);
+            out.write(original, segmentEnd, original.length - segmentEnd);
+        } finally {
+            closeQuietly(out);
+        }
+
+        // The new EXIF segment fits, but the second one still has to be dropped.
+        ExifInterface exif = new ExifInterface(imageFile.getAbsolutePath());
+        exif.setAttribute(ExifInterface.TAG_MAKE, "abc");
+        exif.saveAttributes();
+
+        final byte[] imageData = readAfterExifSegment(imageFile);
+        assertArrayEquals(Arrays.copyOfRange(original, segmentEnd, original.length), imageData);
+        exif = new ExifInterface(imageFile.getAbsolutePath());
+        assertEquals("abc", exif.getAttribute(ExifInterface.TAG_MAKE));
+        assertNotNull(BitmapFactory.decodeFile(imageFile.getAbsolutePath()));
+    }
+
+    @Test
+    @LargeTest
+    public void testReadFromFileDescriptor() throws Exception {
+        File jpeg = new File(Environment.getExternalStorageDirectory(), EXIF_BYTE_ORDER_II_JPEG);
+        ExifInterface exif = assertFileDescriptorReadsSameAsStream(jpeg);
+        assertNotNull(exif.getAttribute(ExifInterface.TAG_MAKE));
+
+        // A PNG file has no EXIF data this version of ExifInterface can read, but reading it
+        // through a file descriptor must not fail either.
+        File png = new File(Environment.getExternalStorageDirectory(), "exif_test_image.png");
+        FileOutputStream out = null;
+        try {
+            out = new FileOutputStream(png);
+            Bitmap.createBitmap(8, 8, Bitmap.Config.ARGB_8888)
+                    .compress(Bitmap.CompressFormat.PNG, 100, out);
+        } finally {
+            closeQuietly(out);
+        }
+        try {
+            exif = assertFileDescriptorReadsSameAsStream(png);
+            assertNull(exif.getAttribute(ExifInterface.TAG_MAKE));
+        } finally {
+            png.delete();
+        }
+    }
+
     @Test
     @SmallTest
     public void testInterchangeabilityBetweenTwoIsoSpeedTags() throws IOException {
@@ -884,6 +1004,67 @@ public class ExifInterfaceTest {
         return total;
     }
 
+    /**
+     * Asserts that reading the file through a file descriptor finds the same tags and thumbnail
+     * as reading it through an input stream, and returns the ExifInterface of the descriptor.
+     */
+    private ExifInterface assertFileDescriptorReadsSameAsStream(File file) throws Exception {
+        InputStream in = null;
+        ExifInterface fromStream;
+        try {
+            in = new BufferedInputStream(new FileInputStream(file));
+            fromStream = new ExifInterface(in);
+        } finally {
+            closeQuietly(in);
+        }
+
+        FileInputStream fdIn = null;
+        ExifInterface fromFd;
+        try {
+            fdIn = new FileInputStream(file);
+            fromFd = new ExifInterface(fdIn.getFD());
+            // The offset of the file descriptor is left as is.
+            assertEquals(0, fdIn.getChannel().position());
+        } finally {
+            closeQuietly(fdIn);
+        }
+
+        for (Field field : ExifInterface.class.getFields()) {
+            if (field.getName().startsWith("TAG_") && field.getType() == String.class) {
+                final String tag = (String) field.get(null);
+                assertEquals(file.getName() + " " + tag, fromStream.getAttribute(tag),
+                        fromFd.getAttribute(tag));
+            }
+        }
+        assertEquals(fromStream.hasThumbnail(), fromFd.hasThumbnail());
+        assertArrayEquals(fromStream.getThumbnailRange(), fromFd.getThumbnailRange());
+        assertArrayEquals(fromStream.getThumbnailBytes(), fromFd.getThumbnailBytes());
+        return fromFd;
+    }
+
+    private byte[] readFile(File file) throws IOException {
+        InputStream in = null;
+        try {
+            in = new FileInputStream(file);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            copy(in, out);
+            return out.toByteArray();
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    /**
+     * Returns the contents of a JPEG file that starts with an EXIF segment, after that segment.
+     */
+    private byte[] readAfterExifSegment(File file) throws IOException {
+        final byte[] bytes = readFile(file);
+        assertEquals((byte) 0xff, bytes[2]);
+        assertEquals((byte) 0xe1, bytes[3]);
+        final int segmentEnd = 4 + (((bytes[4] & 0xff) << 8) | (bytes[5] & 0xff));
+        return Arrays.copyOfRange(bytes, segmentEnd, bytes.length);
+    }
+
     private void assertLatLongValuesAreNotSet(ExifInterface exif) {
         assertNull(exif.getAttribute(ExifInterface.TAG_GPS_LATITUDE));
         assertNull(exif.getAttribute(ExifInterface.TAG_GPS_LATITUDE_REF));
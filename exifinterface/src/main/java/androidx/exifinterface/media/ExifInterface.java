@@ -30,11 +30,13 @@ import androidx.annotation.RestrictTo;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.File;
+import java.io.FileDescriptor;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -42,10 +44,12 @@ import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
@@ -3732,16 +3736,42 @@ public class ExifInterface {
             throw new IllegalArgumentException("filename cannot be null");
         }
         FileInputStream in = null;
+        FileChannelInputStream channelIn = null;
         mAssetInputStream = null;
         mFilename = filename;
         try {
             in = new FileInputStream(filename);
-            loadAttributes(in);
+            channelIn = new FileChannelInputStream(in.getChannel());
+            loadAttributes(channelIn);
         } finally {
+            closeQuietly(channelIn);
             closeQuietly(in);
         }
     }
 
+    /**
+     * Reads Exif tags from the specified image file descriptor. Attribute mutation is not
+     * supported for file descriptors. The file is read from the current offset of the file
+     * descriptor with positioned reads, so the offset is not changed. The file descriptor must be
+     * seekable, and is not closed.
+     */
+    public ExifInterface(@NonNull FileDescriptor fileDescriptor) throws IOException {
+        if (fileDescriptor == null) {
+            throw new IllegalArgumentException("fileDescriptor cannot be null");
+        }
+        mAssetInputStream = null;
+        mFilename = null;
+        FileChannelInputStream channelIn = null;
+        try {
+            // Closing this stream would close the file descriptor, it is only used for its channel.
+            final FileInputStream in = new FileInputStream(fileDescriptor);
+            channelIn = new FileChannelInputStream(in.getChannel());
+            loadAttributes(channelIn);
+        } finally {
+            closeQuietly(channelIn);
+        }
+    }
+
     /**
      * Reads Exif tags from the specified image input stream. Attribute mutation is not supported
      * for input streams. The given input stream will proceed its current position. Developers
@@ -4221,9 +4251,12 @@ public class ExifInterface {
                 mAttributes[i] = new HashMap<>();
             }
 
-            // Check file type
-            in = new BufferedInputStream(in, SIGNATURE_CHECK_SIZE);
-            mMimeType = getMimeType((BufferedInputStream) in);
+            // Check file type. FileChannelInputStream can seek backwards on its own, any other
+            // stream is buffered so that it can be rewound.
+            if (!(in instanceof FileChannelInputStream)) {
+                in = new BufferedInputStream(in, SIGNATURE_CHECK_SIZE);
+            }
+            mMimeType = getMimeType(in);
 
             // Create byte-ordered input stream
             ByteOrderedDataInputStream inputStream = new ByteOrderedDataInputStream(in);
@@ -4294,10 +4327,12 @@ public class ExifInterface {
     }
 
     /**
-     * Save the tag data into the original image file. This is expensive because it involves
-     * copying all the data from one file to another and deleting the old file and renaming the
-     * other. It's best to use {@link #setAttribute(String,String)} to set all attributes to write
-     * and make a single call rather than multiple calls for each attribute.
+     * Save the tag data into the original image file. When the image starts with an EXIF segment
+     * that is large enough to hold the new tag data, only that segment is overwritten. Otherwise
+     * this is expensive because it involves copying all the data from one file to another and
+     * renaming the new file over the old one. It's best to use
+     * {@link #setAttribute(String,String)} to set all attributes to write and make a single call
+     * rather than multiple calls for each attribute.
      * <p>
      * This method is only supported for JPEG files.
      * </p>
@@ -4314,6 +4349,12 @@ public class ExifInterface {
         // Keep the thumbnail in memory
         mThumbnailBytes = getThumbnail();
 
+        if (replaceJpegExifSegment()) {
+            // Discard the thumbnail in memory
+            mThumbnailBytes = null;
+            return;
+        }
+
         File tempFile = new File(mFilename + ".tmp");
         File originalFile = new File(mFilename);
         if (!originalFile.renameTo(tempFile)) {
@@ -4337,6 +4378,172 @@ public class ExifInterface {
         mThumbnailBytes = null;
     }
 
+    /**
+     * Replaces the EXIF APP1 segment of the file if it directly follows the SOI marker and no
+     * other EXIF APP1 segment follows it. If the new segment is not larger than the existing one,
+     * it is padded with zeros up to the existing length, which readers ignore since IFDs are
+     * located by offset, and overwritten in place. Otherwise the new segment and the rest of the
+     * original file are written to a temporary file, which is then renamed over the original, so
+     * that the original is never left partially written.
+     *
+     * @return {@code true} if the attributes were saved, {@code false} if the file has to be
+     *         rewritten by {@link #saveJpegAttributes(InputStream, OutputStream)} instead.
+     */
+    private boolean replaceJpegExifSegment() throws IOException {
+        final byte[] segmentBytes;
+        final int oldLength;
+        RandomAccessFile file = null;
+        try {
+            file = new RandomAccessFile(mFilename, "rw");
+            final FileChannel channel = file.getChannel();
+
+            // SOI, APP1 marker, APP1 length and the EXIF identifier.
+            final byte[] headerBytes = new byte[6 + IDENTIFIER_EXIF_APP1.length];
+            if (!readFully(channel, headerBytes, 0, headerBytes.length)) {
+                return false;
+            }
+            if (headerBytes[0] != MARKER || headerBytes[1] != MARKER_SOI
+                    || headerBytes[2] != MARKER || headerBytes[3] != MARKER_APP1) {
+                return false;
+            }
+            for (int i = 0; i < IDENTIFIER_EXIF_APP1.length; ++i) {
+                if (headerBytes[6 + i] != IDENTIFIER_EXIF_APP1[i]) {
+                    return false;
+                }
+            }
+            // The segment length counts its own two bytes, which follow SOI and the APP1 marker.
+            oldLength = ((headerBytes[4] & 0xff) << 8) | (headerBytes[5] & 0xff);
+            // saveJpegAttributes() drops every other EXIF APP1 segment, which can't be done
+            // without moving the image data.
+            if (hasExifSegmentAfter(channel, 4 + oldLength)) {
+                return false;
+            }
+
+            // Serialize the new segment, starting with its length, in the same way as
+            // saveJpegAttributes() would write it at this position.
+            final ByteArrayOutputStream segment = new ByteArrayOutputStream(oldLength);
+            final ByteOrderedDataOutputStream dataOutputStream =
+                    new ByteOrderedDataOutputStream(segment, ByteOrder.BIG_ENDIAN);
+            final int newLength = writeExifSegment(dataOutputStream, 6);
+            if (newLength <= oldLength) {
+                final byte[] paddedBytes = Arrays.copyOf(segment.toByteArray(), oldLength);
+                paddedBytes[0] = (byte) (oldLength >> 8);
+                paddedBytes[1] = (byte) oldLength;
+
+                final ByteBuffer buffer = ByteBuffer.wrap(paddedBytes);
+                long position = 4;
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                channel.force(false);
+                return true;
+            }
+            segmentBytes = segment.toByteArray();
+        } finally {
+            closeQuietly(file);
+        }
+
+        // The segment grows, so everything after it has to move.
+        final File originalFile = new File(mFilename);
+        final File tempFile = new File(mFilename + ".tmp");
+        FileInputStream in = null;
+        FileOutputStream out = null;
+        boolean saved = false;
+        try {
+            in = new FileInputStream(originalFile);
+            out = new FileOutputStream(tempFile);
+            out.write(new byte[] {MARKER, MARKER_SOI, MARKER, MARKER_APP1});
+            out.write(segmentBytes);
+
+            // Everything after the old segment, including any other APPn segments, is kept.
+            final FileChannel inChannel = in.getChannel();
+            final FileChannel outChannel = out.getChannel();
+            inChannel.position(4 + oldLength);
+            transferRemaining(inChannel, outChannel);
+            outChannel.force(false);
+            saved = true;
+        } finally {
+            closeQuietly(in);
+            closeQuietly(out);
+            if (!saved) {
+                tempFile.delete();
+            }
+        }
+        if (!tempFile.renameTo(originalFile)) {
+            tempFile.delete();
+            throw new IOException("Could not rename to " + originalFile.getAbsolutePath());
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether an EXIF APP1 segment follows {@code position} of a JPEG file, before the
+     * image data starts. Only the segment headers are read.
+     */
+    private static boolean hasExifSegmentAfter(FileChannel channel, long position)
+            throws IOException {
+        final byte[] segmentHeader = new byte[4];
+        final byte[] identifier = new byte[IDENTIFIER_EXIF_APP1.length];
+        while (true) {
+            // EOI has no length, so the marker is read on its own first.
+            if (!readFully(channel, segmentHeader, position, 2)) {
+                throw new IOException("Invalid marker");
+            }
+            if (segmentHeader[0] != MARKER) {
+                throw new IOException("Invalid marker");
+            }
+            if (segmentHeader[1] == MARKER_SOS || segmentHeader[1] == MARKER_EOI) {
+                return false;
+            }
+            if (!readFully(channel, segmentHeader, position, 4)) {
+                throw new IOException("Invalid length");
+            }
+            final int length = ((segmentHeader[2] & 0xff) << 8) | (segmentHeader[3] & 0xff);
+            if (length < 2) {
+                throw new IOException("Invalid length");
+            }
+            if (segmentHeader[1] == MARKER_APP1 && length - 2 >= identifier.length
+                    && readFully(channel, identifier, position + 4, identifier.length)
+                    && Arrays.equals(identifier, IDENTIFIER_EXIF_APP1)) {
+                return true;
+            }
+            position += 2 + length;
+        }
+    }
+
+    /**
+     * Reads the first {@code length} bytes of {@code bytes} from {@code position} of the channel.
+     *
+     * @return {@code false} if the channel ended first.
+     */
+    private static boolean readFully(FileChannel channel, byte[] bytes, long position, int length)
+            throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the rest of {@code in} to {@code out}, letting the kernel move the data.
+     */
+    private static void transferRemaining(FileChannel in, FileChannel out) throws IOException {
+        long position = in.position();
+        final long size = in.size();
+        while (position < size) {
+            final long transferred = in.transferTo(position, size - position, out);
+            if (transferred <= 0) {
+                throw new IOException("Couldn't copy the image data");
+            }
+            position += transferred;
+        }
+        in.position(position);
+    }
+
     /**
      * Returns true if the image file has a thumbnail.
      */
@@ -4705,7 +4912,7 @@ public class ExifInterface {
     }
 
     // Checks the type of image file
-    private int getMimeType(BufferedInputStream in) throws IOException {
+    private int getMimeType(InputStream in) throws IOException {
         in.mark(SIGNATURE_CHECK_SIZE);
         byte[] signatureCheckBytes = new byte[SIGNATURE_CHECK_SIZE];
         in.read(signatureCheckBytes);
@@ -5228,7 +5435,14 @@ public class ExifInterface {
                     dataOutputStream.writeByte(MARKER);
                     dataOutputStream.writeByte(marker);
                     // Copy all the remaining data
-                    copy(dataInputStream, dataOutputStream);
+                    if (inputStream instanceof FileInputStream
+                            && outputStream instanceof FileOutputStream) {
+                        dataOutputStream.flush();
+                        transferRemaining(((FileInputStream) inputStream).getChannel(),
+                                ((FileOutputStream) outputStream).getChannel());
+                    } else {
+                        copy(dataInputStream, dataOutputStream);
+                    }
                     return;
                 }
                 default: {
@@ -6134,6 +6348,157 @@ public class ExifInterface {
         return new Pair<>(IFD_FORMAT_STRING, -1);
     }
 
+    // An input stream that reads a file with positioned reads on its FileChannel. Seeking backwards
+    // with mark()/reset() only moves the position, so unlike BufferedInputStream the data that was
+    // already read does not have to be kept in memory. Read buffers are shared through a small
+    // pool so that reading many files in parallel does not allocate a buffer per file.
+    private static class FileChannelInputStream extends InputStream {
+        private static final int BUFFER_SIZE = 8192;
+        private static final int BUFFER_POOL_SIZE = 4;
+        private static final ByteBuffer[] sBufferPool = new ByteBuffer[BUFFER_POOL_SIZE];
+        private static int sBufferPoolCount;
+
+        private final FileChannel mChannel;
+        private final long mSize;
+        private ByteBuffer mBuffer;
+        // File position of the first byte in mBuffer.
+        private long mBufferStart;
+        private long mPosition;
+        private long mMarkPosition;
+
+        FileChannelInputStream(FileChannel channel) throws IOException {
+            mChannel = channel;
+            mSize = channel.size();
+            mPosition = channel.position();
+            mBuffer = obtainBuffer();
+            // Start with an empty buffer.
+            mBuffer.limit(0);
+        }
+
+        private static ByteBuffer obtainBuffer() {
+            synchronized (sBufferPool) {
+                if (sBufferPoolCount > 0) {
+                    final ByteBuffer buffer = sBufferPool[--sBufferPoolCount];
+                    sBufferPool[sBufferPoolCount] = null;
+                    buffer.clear();
+                    return buffer;
+                }
+            }
+            return ByteBuffer.allocate(BUFFER_SIZE);
+        }
+
+        private static void releaseBuffer(ByteBuffer buffer) {
+            synchronized (sBufferPool) {
+                if (sBufferPoolCount < BUFFER_POOL_SIZE) {
+                    sBufferPool[sBufferPoolCount++] = buffer;
+                }
+            }
+        }
+
+        // Makes sure that mBuffer contains the byte at mPosition. Returns false at end of file.
+        private boolean fill() throws IOException {
+            if (mPosition >= mBufferStart && mPosition < mBufferStart + mBuffer.limit()) {
+                return true;
+            }
+            if (mPosition >= mSize) {
+                return false;
+            }
+            mBuffer.clear();
+            mBufferStart = mPosition;
+            while (mBuffer.hasRemaining()) {
+                final int read = mChannel.read(mBuffer, mBufferStart + mBuffer.position());
+                if (read <= 0) {
+                    break;
+                }
+            }
+            mBuffer.flip();
+            return mBuffer.hasRemaining();
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (mBuffer == null) {
+                throw new IOException("Stream closed");
+            }
+            if (!fill()) {
+                return -1;
+            }
+            final int value = mBuffer.array()[(int) (mPosition - mBufferStart)] & 0xff;
+            ++mPosition;
+            return value;
+        }
+
+        // Unlike FileInputStream, this reads until len bytes are read or the end of the file is
+        // reached, since callers compare the result with the requested length.
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (mBuffer == null) {
+                throw new IOException("Stream closed");
+            }
+            int total = 0;
+            while (total < len) {
+                final int remaining = len - total;
+                final int count;
+                if (remaining >= BUFFER_SIZE) {
+                    // Large reads such as the EXIF segment go straight to the destination array.
+                    count = mChannel.read(ByteBuffer.wrap(b, off + total, remaining), mPosition);
+                    if (count <= 0) {
+                        break;
+                    }
+                } else {
+                    if (!fill()) {
+                        break;
+                    }
+                    final int bufferOffset = (int) (mPosition - mBufferStart);
+                    count = Math.min(remaining, mBuffer.limit() - bufferOffset);
+                    System.arraycopy(mBuffer.array(), bufferOffset, b, off + total, count);
+                }
+                mPosition += count;
+                total += count;
+            }
+            return total == 0 && len > 0 ? -1 : total;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            if (n <= 0) {
+                return 0;
+            }
+            final long skipped = Math.min(n, Math.max(mSize - mPosition, 0));
+            mPosition += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(Math.max(mSize - mPosition, 0), Integer.MAX_VALUE);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(int readLimit) {
+            mMarkPosition = mPosition;
+        }
+
+        @Override
+        public synchronized void reset() throws IOException {
+            mPosition = mMarkPosition;
+        }
+
+        // Does not close the channel, it is owned by the caller.
+        @Override
+        public void close() throws IOException {
+            if (mBuffer != null) {
+                releaseBuffer(mBuffer);
+                mBuffer = null;
+            }
+        }
+    }
+
     // An input stream to parse EXIF data area, which can be written in either little or big endian
     // order.
     private static class ByteOrderedDataInputStream extends InputStream implements DataInput {
@@ -53,6 +53,8 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.xmlpull.v1.XmlPullParserException;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -561,4 +563,26 @@ public class VectorDrawableTest {
         d.draw(canvas);
         assertEquals(color, bitmap.getPixel(32, 32));
     }
+
+    @Test
+    public void testPathDataCacheRoundTrip() throws IOException {
+        VectorDrawableCompat.create(mResources, R.drawable.heart, mTheme);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        VectorDrawableCompat.writePathDataCache(out);
+        VectorDrawableCompat.readPathDataCache(new ByteArrayInputStream(out.toByteArray()));
+
+        // The drawable inflated from the restored path data draws the same.
+        VectorDrawableCompat d =
+                VectorDrawableCompat.create(mResources, R.drawable.heart, mTheme);
+        d.setBounds(0, 0, 64, 64);
+        Bitmap bitmap = Bitmap.createBitmap(64, 64, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        d.draw(canvas);
+        assertEquals(0xff00fff0, bitmap.getPixel(32, 32));
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadPathDataCacheInvalid() throws IOException {
+        VectorDrawableCompat.readPathDataCache(new ByteArrayInputStream(new byte[]{1, 2, 3, 4}));
+    }
 }
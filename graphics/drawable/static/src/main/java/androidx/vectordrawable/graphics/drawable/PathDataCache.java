@@ -0,0 +1,160 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.vectordrawable.graphics.drawable;
+
+import androidx.annotation.NonNull;
+import androidx.collection.LruCache;
+import androidx.core.graphics.PathParser;
+import androidx.core.graphics.PathParser.PathDataNode;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Map;
+
+/**
+ * Process wide cache of the nodes parsed from the pathData of vector drawables, so that the same
+ * path isn't parsed again each time a vector drawable is inflated.
+ * <p>
+ * The nodes are keyed by the pathData string. Resources return the same string for the same
+ * resource and configuration, so this covers re-inflating a drawable, and also the paths shared
+ * by different drawables. The returned nodes are shared and must not be modified.
+ * <p>
+ * The content of the cache can be written to, and read back from, a binary form with
+ * {@link #write(OutputStream)} and {@link #read(InputStream)}, so that the paths of an app don't
+ * need to be parsed again after the process restarts.
+ */
+final class PathDataCache {
+    // "VDPC"
+    private static final int MAGIC = 0x56445043;
+    private static final int VERSION = 1;
+
+    // Maximum number of floats in the cached nodes, each node is counted as one more.
+    private static final int MAX_SIZE = 64 * 1024;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final LruCache<String, PathDataNode[]> sCache =
+            new LruCache<String, PathDataNode[]>(MAX_SIZE) {
+                @Override
+                protected int sizeOf(@NonNull String key, @NonNull PathDataNode[] nodes) {
+                    return PathDataCache.sizeOf(nodes);
+                }
+            };
+
+    private PathDataCache() {
+    }
+
+    /**
+     * Returns the nodes of the path data, from the cache if it was already parsed.
+     *
+     * @param pathData The path data, the same as the "d" string in an svg file.
+     * @return The shared nodes of the path, which must not be modified.
+     */
+    static PathDataNode[] getNodes(@NonNull String pathData) {
+        PathDataNode[] nodes = sCache.get(pathData);
+        if (nodes == null) {
+            // Two threads may parse the same path, which is harmless.
+            nodes = PathParser.createNodesFromPathData(pathData);
+            sCache.put(pathData, nodes);
+        }
+        return nodes;
+    }
+
+    /**
+     * Removes all the cached nodes.
+     */
+    static void clear() {
+        sCache.evictAll();
+    }
+
+    /**
+     * Writes the cached nodes in a binary form that {@link #read(InputStream)} accepts.
+     */
+    static void write(@NonNull OutputStream out) throws IOException {
+        Map<String, PathDataNode[]> snapshot = sCache.snapshot();
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(snapshot.size());
+        for (Map.Entry<String, PathDataNode[]> entry : snapshot.entrySet()) {
+            byte[] key = entry.getKey().getBytes(UTF_8);
+            data.writeInt(key.length);
+            data.write(key);
+            PathDataNode[] nodes = entry.getValue();
+            data.writeInt(nodes.length);
+            for (PathDataNode node : nodes) {
+                data.writeChar(node.mType);
+                data.writeInt(node.mParams.length);
+                for (float param : node.mParams) {
+                    data.writeFloat(param);
+                }
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Adds the nodes written by {@link #write(OutputStream)} to the cache.
+     *
+     * @throws IOException if the stream can't be read or isn't in the expected format
+     */
+    static void read(@NonNull InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a path data cache");
+        }
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported path data cache version " + version);
+        }
+        int count = readCount(data);
+        for (int i = 0; i < count; i++) {
+            byte[] key = new byte[readCount(data)];
+            data.readFully(key);
+            PathDataNode[] nodes = new PathDataNode[readCount(data)];
+            for (int j = 0; j < nodes.length; j++) {
+                char type = data.readChar();
+                float[] params = new float[readCount(data)];
+                for (int k = 0; k < params.length; k++) {
+                    params[k] = data.readFloat();
+                }
+                nodes[j] = new PathDataNode(type, params);
+            }
+            sCache.put(new String(key, UTF_8), nodes);
+        }
+    }
+
+    private static int readCount(DataInputStream data) throws IOException {
+        int count = data.readInt();
+        if (count < 0) {
+            throw new IOException("Invalid path data cache");
+        }
+        return count;
+    }
+
+    static int sizeOf(PathDataNode[] nodes) {
+        int size = nodes.length;
+        for (PathDataNode node : nodes) {
+            size += node.mParams.length;
+        }
+        return size;
+    }
+}
@@ -67,6 +67,8 @@ import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 
@@ -683,6 +685,31 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
         return drawable;
     }
 
+    /**
+     * Writes the path data parsed by the vector drawables inflated so far, so that it can be
+     * restored with {@link #readPathDataCache(InputStream)}, for example in a later process,
+     * instead of being parsed again.
+     * <p>
+     * Path data is only parsed, and so only written, on API levels below 24.
+     *
+     * @param out the stream to write to, which is not closed
+     */
+    public static void writePathDataCache(@NonNull OutputStream out) throws IOException {
+        PathDataCache.write(out);
+    }
+
+    /**
+     * Reads path data written by {@link #writePathDataCache(OutputStream)}, so that it doesn't
+     * need to be parsed again when vector drawables that use it are inflated.
+     *
+     * @param in the stream to read from, which is not closed
+     * @throws IOException if the stream can't be read, or wasn't written by
+     *                     {@link #writePathDataCache(OutputStream)}
+     */
+    public static void readPathDataCache(@NonNull InputStream in) throws IOException {
+        PathDataCache.read(in);
+    }
+
     static int applyAlpha(int color, float alpha) {
         int alphaBytes = alpha(color);
         color &= 0x00FFFFFF;
@@ -1682,6 +1709,9 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
      */
     private abstract static class VPath extends VObject {
         protected PathParser.PathDataNode[] mNodes = null;
+        // Whether mNodes are shared through the PathDataCache, and must be copied before they
+        // are modified.
+        boolean mNodesShared;
         String mPathName;
         int mChangingConfigurations;
 
@@ -1747,9 +1777,11 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
 
         @SuppressWarnings("unused")
         public void setPathData(PathParser.PathDataNode[] nodes) {
-            if (!PathParser.canMorph(mNodes, nodes)) {
-                // This should not happen in the middle of animation.
+            if (!PathParser.canMorph(mNodes, nodes) || mNodesShared) {
+                // This should not happen in the middle of animation, except for the first frame
+                // of a path that is still shared with the cache.
                 mNodes = PathParser.deepCopyNodes(nodes);
+                mNodesShared = false;
             } else {
                 PathParser.updateNodes(mNodes, nodes);
             }
@@ -1793,7 +1825,8 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
             final String pathData =
                     a.getString(AndroidResources.STYLEABLE_VECTOR_DRAWABLE_CLIP_PATH_PATH_DATA);
             if (pathData != null) {
-                mNodes = PathParser.createNodesFromPathData(pathData);
+                mNodes = PathDataCache.getNodes(pathData);
+                mNodesShared = true;
             }
         }
 
@@ -1915,7 +1948,8 @@ public class VectorDrawableCompat extends VectorDrawableCommon {
             final String pathData =
                     a.getString(AndroidResources.STYLEABLE_VECTOR_DRAWABLE_PATH_PATH_DATA);
             if (pathData != null) {
-                mNodes = PathParser.createNodesFromPathData(pathData);
+                mNodes = PathDataCache.getNodes(pathData);
+                mNodesShared = true;
             }
 
             mFillColor = TypedArrayUtils.getNamedComplexColor(a, parser, theme, "fillColor",
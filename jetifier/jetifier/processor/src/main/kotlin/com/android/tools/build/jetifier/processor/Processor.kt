@@ -0,0 +1,503 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.tools.build.jetifier.processor
+
+import com.android.tools.build.jetifier.core.config.Config
+import com.android.tools.build.jetifier.core.config.ConfigParser
+import com.android.tools.build.jetifier.core.pom.DependencyVersions
+import com.android.tools.build.jetifier.core.pom.PomDependency
+import com.android.tools.build.jetifier.core.utils.Log
+import com.android.tools.build.jetifier.processor.archive.Archive
+import com.android.tools.build.jetifier.processor.archive.ArchiveFile
+import com.android.tools.build.jetifier.processor.archive.ArchiveItemVisitor
+import com.android.tools.build.jetifier.processor.archive.ReferenceScanner
+import com.android.tools.build.jetifier.processor.transform.TransformationContext
+import com.android.tools.build.jetifier.processor.transform.Transformer
+import com.android.tools.build.jetifier.processor.transform.bytecode.ByteCodeTransformer
+import com.android.tools.build.jetifier.processor.transform.metainf.MetaInfTransformer
+import com.android.tools.build.jetifier.processor.transform.pom.PomDocument
+import com.android.tools.build.jetifier.processor.transform.pom.PomScanner
+import com.android.tools.build.jetifier.processor.transform.proguard.ProGuardTransformer
+import com.android.tools.build.jetifier.processor.transform.resource.XmlResourcesTransformer
+import java.io.File
+import java.io.FileNotFoundException
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.util.concurrent.Executors
+
+/**
+ * The main entry point to the library. Extracts any given archive recursively and runs all
+ * the registered [Transformer]s over the set and creates new archives that will contain the
+ * transformed files.
+ */
+class Processor private constructor(
+    private val context: TransformationContext,
+    private val transformers: List<Transformer>
+) : ArchiveItemVisitor {
+
+    companion object {
+        private const val TAG = "Processor"
+
+        /**
+         * Transformers to be used when refactoring general libraries.
+         */
+        private fun createTransformers(context: TransformationContext) = listOf(
+            // Register your transformers here
+            ByteCodeTransformer(context),
+            XmlResourcesTransformer(context),
+            ProGuardTransformer(context)
+        )
+
+        /**
+         * Transformers to be used when refactoring the support library itself.
+         */
+        private fun createSLTransformers(context: TransformationContext) = listOf(
+            // Register your transformers here
+            ByteCodeTransformer(context),
+            XmlResourcesTransformer(context),
+            ProGuardTransformer(context),
+            MetaInfTransformer(context)
+        )
+
+        /**
+         * Creates a new instance of the [Processor].
+         *
+         * @param config Transformation configuration
+         * @param reversedMode Whether the processor should run in reversed mode
+         * @param rewritingSupportLib Whether we are rewriting the support library itself
+         * @param useFallbackIfTypeIsMissing Use fallback for types resolving instead of crashing
+         * @param allowAmbiguousPackages Whether Jetifier should not crash when it attempts to
+         * rewrite ambiguous package reference such as android.support.v4.
+         * @param dataBindingVersion The versions to be used for data binding otherwise undefined.
+         */
+        fun createProcessor2(
+            config: Config,
+            reversedMode: Boolean = false,
+            rewritingSupportLib: Boolean = false,
+            useFallbackIfTypeIsMissing: Boolean = true,
+            allowAmbiguousPackages: Boolean = false,
+            dataBindingVersion: String? = null
+        ): Processor {
+            var newConfig = config
+
+            val versionsMap = DependencyVersions
+                .parseFromVersionSetTypeId(
+                    versionsMap = config.versionsMap
+                )
+                .replaceVersionIfAny(
+                    forVariable = DependencyVersions.DATA_BINDING_VAR_NAME,
+                    newVersion = dataBindingVersion
+                )
+
+            if (reversedMode) {
+                newConfig = Config(
+                    restrictToPackagePrefixes = config.reversedRestrictToPackagePrefixes,
+                    reversedRestrictToPackagePrefixes = config.restrictToPackagePrefixes,
+                    rulesMap = config.rulesMap.reverse().appendRules(config.slRules),
+                    slRules = config.slRules,
+                    pomRewriteRules = config.pomRewriteRules.map { it.getReversed() }.toSet(),
+                    typesMap = config.typesMap.reverseMapOrDie(),
+                    proGuardMap = config.proGuardMap.reverseMap(),
+                    versionsMap = config.versionsMap,
+                    packageMap = config.packageMap.reverse()
+                )
+            }
+
+            val context = TransformationContext(
+                config = newConfig,
+                rewritingSupportLib = rewritingSupportLib,
+                isInReversedMode = reversedMode,
+                useFallbackIfTypeIsMissing = useFallbackIfTypeIsMissing,
+                allowAmbiguousPackages = allowAmbiguousPackages,
+                versions = versionsMap)
+            val transformers = if (rewritingSupportLib) {
+                createSLTransformers(context)
+            } else {
+                createTransformers(context)
+            }
+
+            return Processor(context, transformers)
+        }
+
+        /**
+         * Creates a new instance of the [Processor].
+         *
+         * @param config Transformation configuration
+         * @param reversedMode Whether the processor should run in reversed mode
+         * @param rewritingSupportLib Whether we are rewriting the support library itself
+         * @param useFallbackIfTypeIsMissing Use fallback for types resolving instead of crashing
+         * @param versionSetName Versions map for dependencies rewriting
+         * @param dataBindingVersion The versions to be used for data binding otherwise undefined.
+         */
+        @Deprecated(message = "Legacy method that is missing 'allowAmbiguousPackages' attribute " +
+                "and 'versionSetName' attribute is not used anymore.",
+            replaceWith = ReplaceWith(expression = "Processor.createProcessor2"))
+        fun createProcessor(
+            config: Config,
+            reversedMode: Boolean = false,
+            rewritingSupportLib: Boolean = false,
+            useFallbackIfTypeIsMissing: Boolean = true,
+            versionSetName: String? = null,
+            dataBindingVersion: String? = null
+        ): Processor {
+            return createProcessor2(
+                config = config,
+                reversedMode = reversedMode,
+                rewritingSupportLib = rewritingSupportLib,
+                useFallbackIfTypeIsMissing = useFallbackIfTypeIsMissing,
+                allowAmbiguousPackages = false,
+                dataBindingVersion = dataBindingVersion
+            )
+        }
+    }
+
+    private val oldDependenciesRegex: List<Regex> = context.config.pomRewriteRules.map {
+        Regex(".*" +
+            it.from.groupId!!.replace(".", "[./\\\\]") +
+            "[./\\\\]" +
+            it.from.artifactId +
+            "[./\\\\].*")
+    }
+
+    private val newDependenciesRegex: List<Regex> = context.config.pomRewriteRules.map {
+        Regex(".*" +
+            it.to.groupId!!.replace(".", "[./\\\\]") +
+            "[./\\\\]" +
+            it.to.artifactId +
+            "[./\\\\].*")
+    }
+
+    /**
+     * Transforms the input libraries given in [inputLibraries] using all the registered
+     * [Transformer]s and returns a list of replacement libraries (the newly created libraries are
+     * get stored into [outputPath]).
+     *
+     * Currently we have the following transformers:
+     * - [ByteCodeTransformer] for java native code
+     * - [XmlResourcesTransformer] for java native code
+     * - [ProGuardTransformer] for PorGuard files
+     *
+     * @param input Files to process together with a path where they should be saved to.
+     * @param copyUnmodifiedLibsAlso Whether archives that were not modified should be also copied
+     * to their target path.
+     * @return list of files (existing and generated) that should replace the given [input] files.
+     */
+    fun transform(input: Set<FileMapping>, copyUnmodifiedLibsAlso: Boolean = true): Set<File> {
+        val inputLibraries = input.map { it.from }.toSet()
+        if (inputLibraries.size != input.size) {
+            throw IllegalArgumentException("Input files are duplicated!")
+        }
+
+        // 1) Extract and load all libraries
+        val libraries = loadLibraries(input)
+
+        // 2) Search for POM files
+        val pomFiles = scanPomFiles(libraries)
+
+        // 3) Transform all the libraries
+        libraries.forEach { transformLibrary(it) }
+
+        failIfErrorsFound()
+
+        // TODO: Here we might need to modify the POM files if they point at a library that we have
+        // just refactored.
+
+        // 4) Transform the previously discovered POM files
+        transformPomFiles(pomFiles)
+
+        // 5) Repackage the libraries back to archive files
+        val generatedLibraries = libraries
+            .filter { copyUnmodifiedLibsAlso || it.wasChanged }
+            .map {
+                it.writeSelf()
+            }
+            .toSet()
+
+        if (copyUnmodifiedLibsAlso) {
+            return generatedLibraries
+        }
+
+        // 6) Create a set of files that should be removed (because they've been changed).
+        val filesToRemove = libraries
+            .filter { it.wasChanged }
+            .map { it.relativePath.toFile() }
+            .toSet()
+
+        return inputLibraries.minus(filesToRemove).plus(generatedLibraries)
+    }
+
+    /**
+     * Same as [transform], but transforms the libraries one at a time while streaming them from
+     * their input to their output file, instead of extracting all of them in memory first.
+     *
+     * The files of a library are transformed in parallel on [parallelism] threads, with a bounded
+     * number of them held in memory at a time. Libraries which don't reference any of the
+     * rewritten packages are found by scanning the constant pools of their classes, and are not
+     * transformed at all.
+     *
+     * If [cacheDir] is set, the result of every library is stored there and reused for libraries
+     * with the same content, as long as the config and the flags of this processor are the same.
+     *
+     * POM files are validated the same way as in [transform], but as each library is transformed,
+     * so the libraries before the one that fails the validation have already been written.
+     *
+     * Reversed mode and rewriting of the support library need all the files of a library at once,
+     * [transform] is used for them instead.
+     *
+     * @param input Files to process together with a path where they should be saved to.
+     * @param copyUnmodifiedLibsAlso Whether archives that were not modified should be also copied
+     * to their target path.
+     * @param cacheDir Directory to cache transformed libraries in, or null to disable caching.
+     * @param parallelism Number of threads to transform the files of a library on.
+     * @return list of files (existing and generated) that should replace the given [input] files.
+     */
+    fun transformStreaming(
+        input: Set<FileMapping>,
+        copyUnmodifiedLibsAlso: Boolean = true,
+        cacheDir: File? = null,
+        parallelism: Int = Runtime.getRuntime().availableProcessors()
+    ): Set<File> {
+        if (context.isInReversedMode || context.rewritingSupportLib) {
+            return transform(input, copyUnmodifiedLibsAlso)
+        }
+        if (input.map { it.from }.toSet().size != input.size) {
+            throw IllegalArgumentException("Input files are duplicated!")
+        }
+
+        val scanner = ReferenceScanner(context.config)
+        val cache = cacheDir?.let { TransformationCache(it, configHash) }
+        val executor = Executors.newFixedThreadPool(parallelism)
+        try {
+            val archiveProcessor = StreamingArchiveProcessor(
+                context = context,
+                transformers = transformers,
+                executor = executor,
+                maxPendingEntries = parallelism * 4)
+            return input
+                .map { transformLibraryStreaming(it, copyUnmodifiedLibsAlso, scanner, cache,
+                    archiveProcessor) }
+                .toSet()
+        } finally {
+            executor.shutdownNow()
+        }
+    }
+
+    /**
+     * Maps the given dependency (in form of groupId:artifactId:version) to a new set of
+     * dependencies. Used for mapping of old support library artifacts to jetpack ones.
+     *
+     * @return set of new dependencies. Can be empty which means the given dependency should be
+     * removed without replacement. Returns null in case a mapping was not found which means that
+     * the given artifact was unknown.
+     */
+    fun mapDependency(depNotation: String): String? {
+        val parts = depNotation.split(":")
+        val inputDependency = PomDependency(
+            groupId = parts[0],
+            artifactId = parts[1],
+            version = parts[2])
+
+        // TODO: We ignore version check for now
+        val resultRule = context.config.pomRewriteRules
+            .firstOrNull { it.matches(inputDependency) } ?: return null
+
+        return resultRule.to
+            .rewrite(inputDependency, context.versions)
+            .toStringNotation()
+    }
+
+    /**
+     * Returns map of all rewritten dependencies in format "groupId:artifactId"
+     * to "groupId:artifactId:version".
+     *
+     * Don't forget to pass dataBinding version to the constructor to get correct versions.
+     *
+     * @param filterOutBaseLibrary Set true to filter out "baseLibrary" artifact of data binding.
+     */
+    fun getDependenciesMap(filterOutBaseLibrary: Boolean = true): Map<String, String> {
+        return context.config.pomRewriteRules
+            .filter { !filterOutBaseLibrary || !(it.from.artifactId == "baseLibrary" &&
+                    it.from.groupId == "com.android.databinding") }
+            .map {
+                (context.versions.applyOnConfigPomDep(it.from).toStringNotationWithoutVersion()
+                    to context.versions.applyOnConfigPomDep(it.to).toStringNotation()) }
+            .toMap()
+    }
+
+    /**
+     * Returns whether the given artifact file is from the old list of dependencies and should be
+     * replaced by a new one.
+     */
+    fun isOldDependencyFile(aarOrJarFile: File): Boolean {
+        return oldDependenciesRegex.any { it.matches(aarOrJarFile.absolutePath) }
+    }
+
+    /**
+     * Return whether the given artifact file is a new artifact from the new set of dependencies
+     * and should be kept.
+     */
+    fun isNewDependencyFile(aarOrJarFile: File): Boolean {
+        return newDependenciesRegex.any { it.matches(aarOrJarFile.absolutePath) }
+    }
+
+    /**
+     * Hash of everything besides the input which affects the output of a transformation.
+     */
+    private val configHash: String by lazy {
+        TransformationCache.hash(ConfigParser.writeToString(context.config) +
+            "|reversed=${context.isInReversedMode}" +
+            "|supportLib=${context.rewritingSupportLib}" +
+            "|fallback=${context.useFallbackIfTypeIsMissing}" +
+            "|ambiguousPackages=${context.allowAmbiguousPackages}" +
+            "|versions=${context.versions}")
+    }
+
+    private fun failIfErrorsFound() {
+        if (context.errorsTotal() > 0) {
+            if (context.isInReversedMode && context.rewritingSupportLib) {
+                throw IllegalArgumentException("There were ${context.errorsTotal()} errors found " +
+                    "during the de-jetification. You have probably added new androidx types " +
+                    "into support library and dejetifier doesn't know where to move them. " +
+                    "Please update default.config and regenerate default.generated.config via " +
+                    "jetifier/jetifier/preprocessor/scripts/processDefaultConfig.sh")
+            }
+
+            throw IllegalArgumentException("There were ${context.errorsTotal()}" +
+                " errors found during the remapping. Check the logs for more details.")
+        }
+    }
+
+    private fun transformLibraryStreaming(
+        library: FileMapping,
+        copyUnmodifiedLibsAlso: Boolean,
+        scanner: ReferenceScanner,
+        cache: TransformationCache?,
+        archiveProcessor: StreamingArchiveProcessor
+    ): File {
+        if (!library.from.canRead()) {
+            throw FileNotFoundException("Cannot open a library at '$library'")
+        }
+        Log.i(TAG, "Started new transformation")
+        Log.i(TAG, "- Input file: %s", library.from)
+
+        val target = library.to.absoluteFile
+        target.parentFile?.let { Files.createDirectories(it.toPath()) }
+
+        val key = cache?.keyOf(library.from)
+        val cached = if (cache != null && key != null) cache.get(key) else null
+        val changed = when {
+            cached != null -> {
+                if (cached.changed) {
+                    Files.copy(cached.output!!.toPath(), target.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING)
+                }
+                cached.changed
+            }
+            !scanner.hasReferences(library.from) -> {
+                Log.i(TAG, "[Skipped] No references to rewrite")
+                cache?.put(key!!, null)
+                false
+            }
+            else -> {
+                val temp = File.createTempFile("jetifier", ".tmp", target.parentFile)
+                try {
+                    val archiveChanged = archiveProcessor.transform(library.from, temp)
+                    failIfErrorsFound()
+                    if (archiveChanged) {
+                        Files.move(temp.toPath(), target.toPath(),
+                            StandardCopyOption.REPLACE_EXISTING)
+                    }
+                    cache?.put(key!!, if (archiveChanged) target else null)
+                    archiveChanged
+                } finally {
+                    temp.delete()
+                }
+            }
+        }
+
+        if (changed) {
+            return library.to
+        }
+        if (copyUnmodifiedLibsAlso) {
+            Files.copy(library.from.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING)
+            return library.to
+        }
+        return library.from
+    }
+
+    private fun loadLibraries(inputLibraries: Iterable<FileMapping>): List<Archive> {
+        val libraries = mutableListOf<Archive>()
+        for (library in inputLibraries) {
+            if (!library.from.canRead()) {
+                throw FileNotFoundException("Cannot open a library at '$library'")
+            }
+
+            val archive = Archive.Builder.extract(library.from)
+            archive.setTargetPath(library.to.toPath())
+            libraries.add(archive)
+        }
+        return libraries.toList()
+    }
+
+    private fun scanPomFiles(libraries: List<Archive>): List<PomDocument> {
+        val scanner = PomScanner(context)
+
+        libraries.forEach { scanner.scanArchiveForPomFile(it) }
+        if (scanner.wasErrorFound()) {
+            throw IllegalArgumentException("At least one of the libraries depends on an older" +
+                " version of support library. Check the logs for more details.")
+        }
+
+        return scanner.pomFiles
+    }
+
+    private fun transformPomFiles(files: List<PomDocument>) {
+        files.forEach {
+            it.applyRules(context)
+            it.saveBackToFileIfNeeded()
+        }
+    }
+
+    private fun transformLibrary(archive: Archive) {
+        Log.i(TAG, "Started new transformation")
+        Log.i(TAG, "- Input file: %s", archive.relativePath)
+
+        archive.accept(this)
+    }
+
+    override fun visit(archive: Archive) {
+        archive.files.forEach { it.accept(this) }
+
+        // This is an ugly workaround to merge annotations files due to having old and new
+        // namespaces  at the same time
+        if (context.isInReversedMode) {
+            AnnotationFilesMerger.tryMergeFilesInArchive(archive)
+        }
+    }
+
+    override fun visit(archiveFile: ArchiveFile) {
+        val transformer = transformers.firstOrNull { it.canTransform(archiveFile) }
+
+        if (transformer == null) {
+            Log.v(TAG, "[Skipped] %s", archiveFile.relativePath)
+            return
+        }
+
+        Log.v(TAG, "[Applied: %s] %s", transformer.javaClass.simpleName, archiveFile.relativePath)
+        transformer.runTransform(archiveFile)
+    }
+}
\ No newline at end of file
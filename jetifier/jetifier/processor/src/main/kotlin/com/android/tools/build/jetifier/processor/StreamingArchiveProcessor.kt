@@ -0,0 +1,185 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.tools.build.jetifier.processor
+
+import com.android.tools.build.jetifier.core.utils.Log
+import com.android.tools.build.jetifier.processor.archive.Archive
+import com.android.tools.build.jetifier.processor.archive.ArchiveFile
+import com.android.tools.build.jetifier.processor.transform.TransformationContext
+import com.android.tools.build.jetifier.processor.transform.Transformer
+import com.android.tools.build.jetifier.processor.transform.pom.PomDocument
+import java.io.BufferedOutputStream
+import java.io.File
+import java.io.FileInputStream
+import java.io.FileOutputStream
+import java.io.IOException
+import java.io.OutputStream
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.util.ArrayDeque
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Future
+import java.util.zip.ZipEntry
+import java.util.zip.ZipInputStream
+import java.util.zip.ZipOutputStream
+
+/**
+ * Transforms an archive entry by entry while streaming it from the input file to the output
+ * file, instead of extracting it in memory first.
+ *
+ * Entries are transformed on the given [executor] and written in their original order. At most
+ * [maxPendingEntries] entries of an archive are held in memory at a time. Nested archives are
+ * transformed the same way, streamed into their entry of the parent archive.
+ *
+ * POM files are validated as in [Processor.transform]: an [IllegalArgumentException] is thrown
+ * if one depends on an older version of the support library, unless the version check is
+ * disabled.
+ */
+internal class StreamingArchiveProcessor(
+    private val context: TransformationContext,
+    private val transformers: List<Transformer>,
+    private val executor: ExecutorService,
+    private val maxPendingEntries: Int
+) {
+
+    companion object {
+        private const val TAG = "StreamingProcessor"
+    }
+
+    private class Result(
+        val relativePath: Path,
+        val time: Long,
+        val data: ByteArray,
+        val changed: Boolean
+    )
+
+    /**
+     * Transforms the archive at [input] into [output].
+     *
+     * @return whether any entry of the archive was changed
+     */
+    @Throws(IOException::class)
+    fun transform(input: File, output: File): Boolean {
+        FileInputStream(input).use { inputStream ->
+            BufferedOutputStream(FileOutputStream(output)).use { outputStream ->
+                return transformArchive(ZipInputStream(inputStream.buffered()), outputStream)
+            }
+        }
+    }
+
+    private fun transformArchive(zipIn: ZipInputStream, outputStream: OutputStream): Boolean {
+        val zipOut = ZipOutputStream(outputStream)
+        val pending = ArrayDeque<Future<Result>>()
+        var changed = false
+        try {
+            var entry = zipIn.nextEntry
+            while (entry != null) {
+                if (!entry.isDirectory) {
+                    val path = Paths.get(entry.name)
+                    if (isArchive(entry)) {
+                        // Keep the order of the entries, the nested archive is written next.
+                        while (!pending.isEmpty()) {
+                            changed = writeResult(zipOut, pending.removeFirst()) || changed
+                        }
+                        Log.i(TAG, "Transforming nested: %s", path)
+                        zipOut.putNextEntry(createEntry(path, entry.time))
+                        // Neither stream is closed as that would close the parent streams too.
+                        val nestedChanged = transformArchive(ZipInputStream(zipIn), zipOut)
+                        zipOut.closeEntry()
+                        changed = changed || nestedChanged
+                    } else {
+                        val file = ArchiveFile(path, zipIn.readBytes())
+                        val time = entry.time
+                        pending.add(executor.submit(Callable { transformFile(file, time) }))
+                        if (pending.size >= maxPendingEntries) {
+                            changed = writeResult(zipOut, pending.removeFirst()) || changed
+                        }
+                    }
+                }
+                entry = zipIn.nextEntry
+            }
+            while (!pending.isEmpty()) {
+                changed = writeResult(zipOut, pending.removeFirst()) || changed
+            }
+        } finally {
+            pending.forEach { it.cancel(true) }
+        }
+        zipOut.finish()
+        return changed
+    }
+
+    private fun transformFile(file: ArchiveFile, time: Long): Result {
+        if (file.isPomFile()) {
+            val pomFile = PomDocument.loadFrom(file)
+            pomFile.logDocumentDetails()
+            if (!context.ignorePomVersionCheck &&
+                !pomFile.validate(context.config.pomRewriteRules)) {
+                Log.e(TAG, "Version mismatch!")
+                throw IllegalArgumentException("At least one of the libraries depends on an " +
+                    "older version of support library. Check the logs for more details.")
+            }
+            pomFile.applyRules(context)
+            pomFile.saveBackToFileIfNeeded()
+        } else {
+            val transformer = transformers.firstOrNull { it.canTransform(file) }
+            if (transformer == null) {
+                Log.v(TAG, "[Skipped] %s", file.relativePath)
+            } else {
+                Log.v(TAG, "[Applied: %s] %s", transformer.javaClass.simpleName,
+                    file.relativePath)
+                transformer.runTransform(file)
+            }
+        }
+        return Result(file.relativePath, time, file.data, file.wasChanged)
+    }
+
+    private fun writeResult(zipOut: ZipOutputStream, future: Future<Result>): Boolean {
+        val result = try {
+            future.get()
+        } catch (e: ExecutionException) {
+            throw e.cause ?: e
+        }
+        writeEntry(zipOut, result)
+        return result.changed
+    }
+
+    private fun writeEntry(zipOut: ZipOutputStream, result: Result) {
+        Log.v(TAG, "Writing file: %s", result.relativePath)
+        zipOut.putNextEntry(createEntry(result.relativePath, result.time))
+        zipOut.write(result.data)
+        zipOut.closeEntry()
+    }
+
+    /**
+     * Creates the output entry of a source entry modified at [time], as returned by
+     * [ZipEntry.getTime], so that transforming the same archive twice gives the same output.
+     */
+    private fun createEntry(relativePath: Path, time: Long): ZipEntry {
+        // Same as Archive.writeSelfTo, always use '/' as separator.
+        val entry = ZipEntry(relativePath.toString().replace('\\', '/'))
+        if (time != -1L) {
+            entry.time = time
+        }
+        return entry
+    }
+
+    private fun isArchive(zipEntry: ZipEntry): Boolean {
+        return Archive.ARCHIVE_EXTENSIONS.any { zipEntry.name.endsWith(it, ignoreCase = true) }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.tools.build.jetifier.processor
+
+import com.android.tools.build.jetifier.core.utils.Log
+import java.io.File
+import java.io.FileInputStream
+import java.io.IOException
+import java.nio.file.AtomicMoveNotSupportedException
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.security.MessageDigest
+
+/**
+ * On disk cache of transformed archives, keyed by the hash of the input archive and the hash of
+ * everything else that affects the transformation (the config and the processor flags).
+ *
+ * Archives which were not changed by the transformation are recorded with an empty marker file
+ * so that they are not processed again either.
+ *
+ * The cache can be shared by multiple processes, entries are written to a temporary file first
+ * and then moved in place.
+ */
+class TransformationCache(private val directory: File, private val configHash: String) {
+
+    companion object {
+        private const val TAG = "TransformationCache"
+
+        private const val CHANGED_SUFFIX = ".jar"
+        private const val UNCHANGED_SUFFIX = ".unchanged"
+
+        /** Returns the SHA-256 hash of the given string as a hex string. */
+        fun hash(data: String): String {
+            val digest = MessageDigest.getInstance("SHA-256")
+            return digest.digest(data.toByteArray(Charsets.UTF_8)).toHex()
+        }
+
+        /** Returns the SHA-256 hash of the content of the given file as a hex string. */
+        @Throws(IOException::class)
+        fun hash(file: File): String {
+            val digest = MessageDigest.getInstance("SHA-256")
+            val buffer = ByteArray(64 * 1024)
+            FileInputStream(file).use {
+                var read = it.read(buffer)
+                while (read >= 0) {
+                    digest.update(buffer, 0, read)
+                    read = it.read(buffer)
+                }
+            }
+            return digest.digest().toHex()
+        }
+
+        private fun ByteArray.toHex(): String {
+            val builder = StringBuilder(size * 2)
+            for (byte in this) {
+                builder.append(String.format("%02x", byte))
+            }
+            return builder.toString()
+        }
+    }
+
+    /**
+     * Result of a cache lookup.
+     *
+     * @param changed Whether the transformation changed the archive.
+     * @param output The transformed archive if it was changed.
+     */
+    data class Entry(val changed: Boolean, val output: File?)
+
+    /**
+     * Returns the key of the given input archive.
+     */
+    @Throws(IOException::class)
+    fun keyOf(input: File): String = hash(input) + "-" + configHash
+
+    /**
+     * Returns the cached result for the given key, or null if there is none.
+     */
+    fun get(key: String): Entry? {
+        val changed = File(directory, key + CHANGED_SUFFIX)
+        if (changed.isFile) {
+            Log.v(TAG, "Hit: %s", key)
+            return Entry(changed = true, output = changed)
+        }
+        if (File(directory, key + UNCHANGED_SUFFIX).isFile) {
+            Log.v(TAG, "Hit (unchanged): %s", key)
+            return Entry(changed = false, output = null)
+        }
+        return null
+    }
+
+    /**
+     * Stores the transformed archive for the given key, or records that the archive was not
+     * changed if [output] is null.
+     */
+    @Throws(IOException::class)
+    fun put(key: String, output: File?) {
+        Files.createDirectories(directory.toPath())
+        val target = if (output != null) {
+            File(directory, key + CHANGED_SUFFIX)
+        } else {
+            File(directory, key + UNCHANGED_SUFFIX)
+        }
+        val temp = File.createTempFile(key, ".tmp", directory)
+        try {
+            if (output != null) {
+                Files.copy(output.toPath(), temp.toPath(), StandardCopyOption.REPLACE_EXISTING)
+            }
+            try {
+                Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE)
+            } catch (e: AtomicMoveNotSupportedException) {
+                Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING)
+            }
+        } finally {
+            temp.delete()
+        }
+    }
+}
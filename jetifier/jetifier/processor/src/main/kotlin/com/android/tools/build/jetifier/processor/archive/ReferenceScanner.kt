@@ -0,0 +1,197 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.tools.build.jetifier.processor.archive
+
+import com.android.tools.build.jetifier.core.config.Config
+import com.android.tools.build.jetifier.core.utils.Log
+import java.io.File
+import java.io.FileInputStream
+import java.io.IOException
+import java.util.zip.ZipInputStream
+
+/**
+ * Quickly checks whether an archive references any of the packages that are rewritten, without
+ * extracting it.
+ *
+ * Class files are checked by walking their constant pool, where every type they reference is
+ * stored. Other files are searched for the package prefixes both in the internal
+ * (android/support/) and in the dotted (android.support.) form, together with the group ids
+ * of the POM rewrite rules. The scan is conservative: anything it cannot parse is reported as
+ * referencing the packages, and so is every archive if the config has no package prefixes.
+ */
+class ReferenceScanner(config: Config) {
+
+    companion object {
+        private const val TAG = "ReferenceScanner"
+
+        private const val CLASS_MAGIC = 0xCAFEBABE.toInt()
+
+        // Constant pool tags, see JVMS 4.4.
+        private const val CONSTANT_UTF8 = 1
+        private const val CONSTANT_INTEGER = 3
+        private const val CONSTANT_FLOAT = 4
+        private const val CONSTANT_LONG = 5
+        private const val CONSTANT_DOUBLE = 6
+        private const val CONSTANT_CLASS = 7
+        private const val CONSTANT_STRING = 8
+        private const val CONSTANT_FIELD_REF = 9
+        private const val CONSTANT_METHOD_REF = 10
+        private const val CONSTANT_INTERFACE_METHOD_REF = 11
+        private const val CONSTANT_NAME_AND_TYPE = 12
+        private const val CONSTANT_METHOD_HANDLE = 15
+        private const val CONSTANT_METHOD_TYPE = 16
+        private const val CONSTANT_DYNAMIC = 17
+        private const val CONSTANT_INVOKE_DYNAMIC = 18
+        private const val CONSTANT_MODULE = 19
+        private const val CONSTANT_PACKAGE = 20
+    }
+
+    private val classNeedles: List<ByteArray> = config.restrictToPackagePrefixes
+        .map { it.toByteArray(Charsets.UTF_8) }
+
+    private val resourceNeedles: List<ByteArray> = (config.restrictToPackagePrefixes +
+        config.restrictToPackagePrefixesWithDots +
+        config.pomRewriteRules.mapNotNull { it.from.groupId })
+        .toSet()
+        .map { it.toByteArray(Charsets.UTF_8) }
+
+    /**
+     * Returns whether the given archive file, or any archive nested in it, references any of the
+     * packages that are rewritten.
+     */
+    @Throws(IOException::class)
+    fun hasReferences(archiveFile: File): Boolean {
+        if (classNeedles.isEmpty()) {
+            return true
+        }
+        FileInputStream(archiveFile).use {
+            return hasReferences(ZipInputStream(it.buffered()))
+        }
+    }
+
+    private fun hasReferences(zipIn: ZipInputStream): Boolean {
+        var entry = zipIn.nextEntry
+        while (entry != null) {
+            if (!entry.isDirectory) {
+                val name = entry.name
+                val found = when {
+                    Archive.ARCHIVE_EXTENSIONS.any { name.endsWith(it, ignoreCase = true) } ->
+                        // Not closed as that would close the parent stream too.
+                        hasReferences(ZipInputStream(zipIn))
+                    name.endsWith(".class", ignoreCase = true) ->
+                        classHasReferences(zipIn.readBytes())
+                    else -> containsAny(zipIn.readBytes(), 0, -1, resourceNeedles)
+                }
+                if (found) {
+                    Log.v(TAG, "Found references in %s", name)
+                    return true
+                }
+            }
+            entry = zipIn.nextEntry
+        }
+        return false
+    }
+
+    /**
+     * Returns whether any UTF-8 entry of the constant pool of the given class contains one of
+     * the package prefixes.
+     */
+    fun classHasReferences(data: ByteArray): Boolean {
+        if (data.size < 10 || readInt(data, 0) != CLASS_MAGIC) {
+            return true
+        }
+        val count = readUnsignedShort(data, 8)
+        var offset = 10
+        var index = 1
+        while (index < count) {
+            if (offset >= data.size) {
+                return true
+            }
+            val tag = data[offset].toInt()
+            offset += when (tag) {
+                CONSTANT_UTF8 -> {
+                    if (offset + 3 > data.size) {
+                        return true
+                    }
+                    val length = readUnsignedShort(data, offset + 1)
+                    if (containsAny(data, offset + 3, length, classNeedles)) {
+                        return true
+                    }
+                    3 + length
+                }
+                CONSTANT_CLASS, CONSTANT_STRING, CONSTANT_METHOD_TYPE, CONSTANT_MODULE,
+                CONSTANT_PACKAGE -> 3
+                CONSTANT_METHOD_HANDLE -> 4
+                CONSTANT_INTEGER, CONSTANT_FLOAT, CONSTANT_FIELD_REF, CONSTANT_METHOD_REF,
+                CONSTANT_INTERFACE_METHOD_REF, CONSTANT_NAME_AND_TYPE, CONSTANT_DYNAMIC,
+                CONSTANT_INVOKE_DYNAMIC -> 5
+                CONSTANT_LONG, CONSTANT_DOUBLE -> {
+                    // Takes two entries of the pool.
+                    index++
+                    9
+                }
+                else -> return true
+            }
+            index++
+        }
+        return false
+    }
+
+    /**
+     * Returns whether data[start, start + length) contains one of the needles. A negative length
+     * means until the end of the data.
+     */
+    private fun containsAny(
+        data: ByteArray,
+        start: Int,
+        length: Int,
+        needles: List<ByteArray>
+    ): Boolean {
+        val end = if (length < 0) data.size else minOf(start + length, data.size)
+        return needles.any { indexOf(data, start, end, it) >= 0 }
+    }
+
+    private fun indexOf(data: ByteArray, start: Int, end: Int, needle: ByteArray): Int {
+        if (needle.isEmpty()) {
+            return start
+        }
+        val first = needle[0]
+        val last = end - needle.size
+        var i = start
+        while (i <= last) {
+            if (data[i] == first) {
+                var j = 1
+                while (j < needle.size && data[i + j] == needle[j]) {
+                    j++
+                }
+                if (j == needle.size) {
+                    return i
+                }
+            }
+            i++
+        }
+        return -1
+    }
+
+    private fun readUnsignedShort(data: ByteArray, offset: Int): Int {
+        return ((data[offset].toInt() and 0xff) shl 8) or (data[offset + 1].toInt() and 0xff)
+    }
+
+    private fun readInt(data: ByteArray, offset: Int): Int {
+        return (readUnsignedShort(data, offset) shl 16) or readUnsignedShort(data, offset + 2)
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.tools.build.jetifier.processor
+
+import com.android.tools.build.jetifier.core.config.Config
+import com.android.tools.build.jetifier.core.rule.RewriteRule
+import com.android.tools.build.jetifier.core.rule.RewriteRulesMap
+import com.android.tools.build.jetifier.core.type.JavaType
+import com.android.tools.build.jetifier.core.type.TypesMap
+import com.android.tools.build.jetifier.processor.archive.Archive
+import com.android.tools.build.jetifier.processor.archive.ArchiveFile
+import com.android.tools.build.jetifier.processor.archive.ArchiveItem
+import com.android.tools.build.jetifier.processor.archive.ReferenceScanner
+import com.google.common.truth.Truth
+import org.junit.Test
+import java.io.File
+import java.nio.file.Files
+import java.nio.file.Paths
+import java.util.zip.ZipFile
+
+/**
+ * Tests for [Processor.transformStreaming] and the [ReferenceScanner] it uses to skip archives.
+ */
+class StreamingProcessorTest {
+
+    private val prefRewriteConfig = Config.fromOptional(
+        restrictToPackagePrefixes = setOf("android/support/v7/preference"),
+        rulesMap =
+            RewriteRulesMap(
+                RewriteRule(from = "android/support/v7/preference/Preference(.+)", to = "ignore"),
+                RewriteRule(from = "(.*)/R(.*)", to = "ignore")
+            ),
+        typesMap = TypesMap(
+            JavaType("android/support/v7/preference/Preference")
+                to JavaType("android/test/pref/Preference")
+        )
+    )
+
+    private val unrelatedConfig = Config.fromOptional(
+        restrictToPackagePrefixes = setOf("android/support/v4/")
+    )
+
+    private val classData = File(
+        javaClass.getResource("/changeDetectionTest/testPreference.class").file).readBytes()
+
+    @Test
+    fun scanner_findsClassReferences() {
+        Truth.assertThat(ReferenceScanner(prefRewriteConfig).classHasReferences(classData))
+            .isTrue()
+        Truth.assertThat(ReferenceScanner(unrelatedConfig).classHasReferences(classData))
+            .isFalse()
+    }
+
+    @Test
+    fun scanner_findsReferencesInNestedArchives() {
+        val nested = Archive(Paths.get("classes.jar"),
+            listOf(ArchiveFile(Paths.get("preference.class"), classData)))
+        val archive = createArchive(nested, ArchiveFile(Paths.get("test.txt"), byteArrayOf(1)))
+
+        Truth.assertThat(ReferenceScanner(prefRewriteConfig).hasReferences(archive)).isTrue()
+        Truth.assertThat(ReferenceScanner(unrelatedConfig).hasReferences(archive)).isFalse()
+    }
+
+    @Test
+    fun streaming_sameResultAsTransform() {
+        val nested = Archive(Paths.get("classes.jar"),
+            listOf(ArchiveFile(Paths.get("preference.class"), classData)))
+        val source = createArchive(nested, ArchiveFile(Paths.get("test.xml"),
+            ("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" +
+                "<android.support.v7.preference.Preference/>").toByteArray()))
+
+        val expected = Files.createTempFile("expected", ".zip").toFile()
+        Processor.createProcessor2(prefRewriteConfig)
+            .transform(setOf(FileMapping(source, expected)), copyUnmodifiedLibsAlso = false)
+        val actual = Files.createTempFile("actual", ".zip").toFile()
+        val result = Processor.createProcessor2(prefRewriteConfig)
+            .transformStreaming(setOf(FileMapping(source, actual)),
+                copyUnmodifiedLibsAlso = false, parallelism = 2)
+
+        Truth.assertThat(result).containsExactly(actual)
+        Truth.assertThat(readEntries(actual)).isEqualTo(readEntries(expected))
+    }
+
+    @Test
+    fun streaming_keepsEntryTimes() {
+        val nested = Archive(Paths.get("classes.jar"),
+            listOf(ArchiveFile(Paths.get("preference.class"), classData)))
+        val source = createArchive(nested, ArchiveFile(Paths.get("test.txt"), byteArrayOf(1)))
+        val target = Files.createTempFile("target", ".zip").toFile()
+
+        Processor.createProcessor2(prefRewriteConfig)
+            .transformStreaming(setOf(FileMapping(source, target)),
+                copyUnmodifiedLibsAlso = true)
+
+        Truth.assertThat(readEntryTimes(target)).isEqualTo(readEntryTimes(source))
+    }
+
+    @Test
+    fun streaming_archiveWithoutReferencesSkipped() {
+        val source = createArchive(ArchiveFile(Paths.get("preference.class"), classData))
+        val target = Files.createTempFile("target", ".zip").toFile()
+        target.delete()
+
+        val result = Processor.createProcessor2(unrelatedConfig)
+            .transformStreaming(setOf(FileMapping(source, target)),
+                copyUnmodifiedLibsAlso = false)
+
+        Truth.assertThat(result).containsExactly(source)
+        Truth.assertThat(target.exists()).isFalse()
+    }
+
+    @Test
+    fun streaming_cachedResultReused() {
+        val source = createArchive(ArchiveFile(Paths.get("preference.class"), classData))
+        val cacheDir = Files.createTempDirectory("cache").toFile()
+        val first = Files.createTempFile("first", ".zip").toFile()
+        val second = Files.createTempFile("second", ".zip").toFile()
+
+        Processor.createProcessor2(prefRewriteConfig)
+            .transformStreaming(setOf(FileMapping(source, first)), cacheDir = cacheDir)
+        Truth.assertThat(cacheDir.list().filter { it.endsWith(".jar") }).hasSize(1)
+
+        Processor.createProcessor2(prefRewriteConfig)
+            .transformStreaming(setOf(FileMapping(source, second)), cacheDir = cacheDir)
+        Truth.assertThat(second.readBytes()).isEqualTo(first.readBytes())
+
+        // A different config doesn't hit the same entry.
+        Processor.createProcessor2(unrelatedConfig)
+            .transformStreaming(setOf(FileMapping(source, second)), cacheDir = cacheDir)
+        Truth.assertThat(cacheDir.list().filter { it.endsWith(".unchanged") }).hasSize(1)
+
+        cacheDir.deleteRecursively()
+    }
+
+    private fun createArchive(vararg files: ArchiveItem): File {
+        val archive = Archive(Paths.get("some/path"), files.toList())
+        return archive.writeSelfToFile(Files.createTempFile("test", ".zip"))
+    }
+
+    private fun readEntryTimes(file: File): Map<String, Long> {
+        return ZipFile(file).use { zip -> zip.entries().toList().associate { it.name to it.time } }
+    }
+
+    private fun readEntries(file: File): Map<String, List<String>> {
+        val archive = Archive.Builder.extract(file)
+        return archive.files.associate {
+            it.relativePath.toString() to when (it) {
+                is Archive -> it.files.map { nested -> nested.relativePath.toString() }
+                is ArchiveFile -> listOf(it.data.contentHashCode().toString())
+                else -> emptyList()
+            }
+        }
+    }
+}
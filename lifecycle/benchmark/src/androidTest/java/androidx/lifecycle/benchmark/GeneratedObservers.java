@@ -0,0 +1,67 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.lifecycle.benchmark;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.OnLifecycleEvent;
+
+/**
+ * Same observers as {@link ReflectiveObservers}, compiled with the lifecycle compiler and
+ * indexed in {@code BenchmarkAdapterIndex}.
+ */
+public class GeneratedObservers {
+
+    private GeneratedObservers() {
+    }
+
+    public static class Base implements LifecycleObserver {
+        int mEvents;
+
+        @OnLifecycleEvent(Lifecycle.Event.ON_CREATE)
+        public void onCreate() {
+            mEvents++;
+        }
+
+        @OnLifecycleEvent(Lifecycle.Event.ON_START)
+        public void onStart(LifecycleOwner owner) {
+            mEvents++;
+        }
+
+        @OnLifecycleEvent(Lifecycle.Event.ON_ANY)
+        public void onAny(LifecycleOwner owner, Lifecycle.Event event) {
+            mEvents++;
+        }
+    }
+
+    public static class Derived extends Base {
+        @OnLifecycleEvent(Lifecycle.Event.ON_RESUME)
+        public void onResume() {
+            mEvents++;
+        }
+    }
+
+    public static class Other implements LifecycleObserver {
+        int mEvents;
+
+        @OnLifecycleEvent(Lifecycle.Event.ON_RESUME)
+        public void onResume(LifecycleOwner owner) {
+            mEvents++;
+        }
+    }
+}
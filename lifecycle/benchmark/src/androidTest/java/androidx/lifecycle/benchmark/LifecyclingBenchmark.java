@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.lifecycle.benchmark;
+
+import androidx.annotation.NonNull;
+import androidx.benchmark.BenchmarkRule;
+import androidx.benchmark.BenchmarkState;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+import androidx.lifecycle.Lifecycling;
+import androidx.test.filters.LargeTest;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Measures adding the first observers of each class to a lifecycle and moving it to
+ * {@link Lifecycle.State#RESUMED}, as happens during app startup. Lifecycling caches are reset
+ * before each iteration.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class LifecyclingBenchmark {
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    @After
+    public void resetLifecycling() {
+        Lifecycling.reset();
+    }
+
+    /**
+     * No generated adapters, methods are found and invoked through reflection.
+     */
+    @Test
+    public void reflective() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            final LifecycleRegistry registry = createRegistry(state);
+            registry.addObserver(new ReflectiveObservers.Base());
+            registry.addObserver(new ReflectiveObservers.Derived());
+            registry.addObserver(new ReflectiveObservers.Other());
+            registry.handleLifecycleEvent(Lifecycle.Event.ON_RESUME);
+        }
+    }
+
+    /**
+     * Generated adapters, looked up by class name and created through their constructor.
+     */
+    @Test
+    public void generated() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            final LifecycleRegistry registry = createRegistry(state);
+            addGeneratedObservers(registry);
+        }
+    }
+
+    /**
+     * Generated adapters created by the compile time index.
+     */
+    @Test
+    public void generatedIndexed() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            final LifecycleRegistry registry = createRegistry(state);
+            BenchmarkAdapterIndex.install();
+            addGeneratedObservers(registry);
+        }
+    }
+
+    private static void addGeneratedObservers(LifecycleRegistry registry) {
+        registry.addObserver(new GeneratedObservers.Base());
+        registry.addObserver(new GeneratedObservers.Derived());
+        registry.addObserver(new GeneratedObservers.Other());
+        registry.handleLifecycleEvent(Lifecycle.Event.ON_RESUME);
+    }
+
+    private static LifecycleRegistry createRegistry(BenchmarkState state) {
+        state.pauseTiming();
+        Lifecycling.reset();
+        final LifecycleRegistry registry = new TestOwner().mRegistry;
+        state.resumeTiming();
+        return registry;
+    }
+
+    private static class TestOwner implements LifecycleOwner {
+        final LifecycleRegistry mRegistry = new LifecycleRegistry(this);
+
+        @NonNull
+        @Override
+        public Lifecycle getLifecycle() {
+            return mRegistry;
+        }
+    }
+}
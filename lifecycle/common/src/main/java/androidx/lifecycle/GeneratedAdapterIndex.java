@@ -0,0 +1,46 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.lifecycle;
+
+import androidx.annotation.RestrictTo;
+
+/**
+ * Index of the {@link GeneratedAdapter}s of a compilation, generated by the lifecycle compiler
+ * when the {@code lifecycle.adapterIndex} option is set.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public interface GeneratedAdapterIndex {
+
+    /**
+     * Returns the observer classes which have an adapter in this index. The position of a class
+     * in the array is the id of its adapter.
+     *
+     * @return the indexed observer classes
+     */
+    Class<?>[] getObserverClasses();
+
+    /**
+     * Creates the adapter with the given id.
+     *
+     * @param id position of the observer class in {@link #getObserverClasses()}
+     * @param receiver the observer, an instance of the class at {@code id}
+     * @return a new adapter dispatching events to {@code receiver}
+     */
+    GeneratedAdapter createAdapter(int id, Object receiver);
+}
@@ -40,8 +40,8 @@ public class Lifecycling {
     private static final int GENERATED_CALLBACK = 2;
 
     private static Map<Class, Integer> sCallbackCache = new HashMap<>();
-    private static Map<Class, List<Constructor<? extends GeneratedAdapter>>> sClassToAdapters =
-            new HashMap<>();
+    private static Map<Class, List<AdapterFactory>> sClassToAdapters = new HashMap<>();
+    private static Map<Class, AdapterFactory> sIndexedAdapters = new HashMap<>();
 
     // Left for binary compatibility when lifecycle-common goes up 2.1 as transitive dep
     // but lifecycle-runtime stays 2.0
@@ -81,34 +81,60 @@ public class Lifecycling {
         final Class<?> klass = object.getClass();
         int type = getObserverConstructorType(klass);
         if (type == GENERATED_CALLBACK) {
-            List<Constructor<? extends GeneratedAdapter>> constructors =
-                    sClassToAdapters.get(klass);
-            if (constructors.size() == 1) {
-                GeneratedAdapter generatedAdapter = createGeneratedAdapter(
-                        constructors.get(0), object);
+            List<AdapterFactory> factories = sClassToAdapters.get(klass);
+            if (factories.size() == 1) {
+                GeneratedAdapter generatedAdapter = factories.get(0).create(object);
                 return new SingleGeneratedAdapterObserver(generatedAdapter);
             }
-            GeneratedAdapter[] adapters = new GeneratedAdapter[constructors.size()];
-            for (int i = 0; i < constructors.size(); i++) {
-                adapters[i] = createGeneratedAdapter(constructors.get(i), object);
+            GeneratedAdapter[] adapters = new GeneratedAdapter[factories.size()];
+            for (int i = 0; i < factories.size(); i++) {
+                adapters[i] = factories.get(i).create(object);
             }
             return new CompositeGeneratedAdaptersObserver(adapters);
         }
         return new ReflectiveGenericLifecycleObserver(object);
     }
 
-    private static GeneratedAdapter createGeneratedAdapter(
-            Constructor<? extends GeneratedAdapter> constructor, Object object) {
-        //noinspection TryWithIdenticalCatches
-        try {
-            return constructor.newInstance(object);
-        } catch (IllegalAccessException e) {
-            throw new RuntimeException(e);
-        } catch (InstantiationException e) {
-            throw new RuntimeException(e);
-        } catch (InvocationTargetException e) {
-            throw new RuntimeException(e);
+    /**
+     * Registers the adapters of an index generated by the lifecycle compiler, so that they are
+     * created without looking up their class or constructor through reflection.
+     * <p>
+     * Should be called before any of the indexed observers is added to a {@link Lifecycle}, e.g.
+     * in {@code Application.onCreate}. Generated indexes call it from their {@code install}
+     * method.
+     *
+     * @param index the index to register
+     */
+    public static void registerAdapterIndex(@NonNull GeneratedAdapterIndex index) {
+        Class<?>[] observerClasses = index.getObserverClasses();
+        for (int i = 0; i < observerClasses.length; i++) {
+            sIndexedAdapters.put(observerClasses[i], new IndexedAdapterFactory(index, i));
+        }
+        // classes resolved so far may have fallen back to reflection
+        sCallbackCache.clear();
+        sClassToAdapters.clear();
+    }
+
+    /**
+     * Forgets the registered adapter indexes and all resolved observer classes, so that the next
+     * observers are resolved as on a cold start. Only meant for tests and benchmarks.
+     */
+    @RestrictTo(RestrictTo.Scope.TESTS)
+    public static void reset() {
+        sIndexedAdapters.clear();
+        sCallbackCache.clear();
+        sClassToAdapters.clear();
+        ClassesInfoCache.sInstance = new ClassesInfoCache();
+    }
+
+    @Nullable
+    private static AdapterFactory generatedAdapterFactory(Class<?> klass) {
+        AdapterFactory indexed = sIndexedAdapters.get(klass);
+        if (indexed != null) {
+            return indexed;
         }
+        Constructor<? extends GeneratedAdapter> constructor = generatedConstructor(klass);
+        return constructor == null ? null : new ConstructorAdapterFactory(constructor);
     }
 
     @Nullable
@@ -153,10 +179,9 @@ public class Lifecycling {
             return REFLECTIVE_CALLBACK;
         }
 
-        Constructor<? extends GeneratedAdapter> constructor = generatedConstructor(klass);
-        if (constructor != null) {
-            sClassToAdapters.put(klass, Collections
-                    .<Constructor<? extends GeneratedAdapter>>singletonList(constructor));
+        AdapterFactory factory = generatedAdapterFactory(klass);
+        if (factory != null) {
+            sClassToAdapters.put(klass, Collections.singletonList(factory));
             return GENERATED_CALLBACK;
         }
 
@@ -166,12 +191,12 @@ public class Lifecycling {
         }
 
         Class<?> superclass = klass.getSuperclass();
-        List<Constructor<? extends GeneratedAdapter>> adapterConstructors = null;
+        List<AdapterFactory> adapterFactories = null;
         if (isLifecycleParent(superclass)) {
             if (getObserverConstructorType(superclass) == REFLECTIVE_CALLBACK) {
                 return REFLECTIVE_CALLBACK;
             }
-            adapterConstructors = new ArrayList<>(sClassToAdapters.get(superclass));
+            adapterFactories = new ArrayList<>(sClassToAdapters.get(superclass));
         }
 
         for (Class<?> intrface : klass.getInterfaces()) {
@@ -181,13 +206,13 @@ public class Lifecycling {
             if (getObserverConstructorType(intrface) == REFLECTIVE_CALLBACK) {
                 return REFLECTIVE_CALLBACK;
             }
-            if (adapterConstructors == null) {
-                adapterConstructors = new ArrayList<>();
+            if (adapterFactories == null) {
+                adapterFactories = new ArrayList<>();
             }
-            adapterConstructors.addAll(sClassToAdapters.get(intrface));
+            adapterFactories.addAll(sClassToAdapters.get(intrface));
         }
-        if (adapterConstructors != null) {
-            sClassToAdapters.put(klass, adapterConstructors);
+        if (adapterFactories != null) {
+            sClassToAdapters.put(klass, adapterFactories);
             return GENERATED_CALLBACK;
         }
 
@@ -207,4 +232,45 @@ public class Lifecycling {
 
     private Lifecycling() {
     }
+
+    private abstract static class AdapterFactory {
+        abstract GeneratedAdapter create(Object receiver);
+    }
+
+    private static class ConstructorAdapterFactory extends AdapterFactory {
+        private final Constructor<? extends GeneratedAdapter> mConstructor;
+
+        ConstructorAdapterFactory(Constructor<? extends GeneratedAdapter> constructor) {
+            mConstructor = constructor;
+        }
+
+        @Override
+        GeneratedAdapter create(Object receiver) {
+            //noinspection TryWithIdenticalCatches
+            try {
+                return mConstructor.newInstance(receiver);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            } catch (InstantiationException e) {
+                throw new RuntimeException(e);
+            } catch (InvocationTargetException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private static class IndexedAdapterFactory extends AdapterFactory {
+        private final GeneratedAdapterIndex mIndex;
+        private final int mId;
+
+        IndexedAdapterFactory(GeneratedAdapterIndex index, int id) {
+            mIndex = index;
+            mId = id;
+        }
+
+        @Override
+        GeneratedAdapter create(Object receiver) {
+            return mIndex.createAdapter(mId, receiver);
+        }
+    }
 }
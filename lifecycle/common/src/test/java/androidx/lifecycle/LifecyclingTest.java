@@ -188,6 +188,47 @@ public class LifecyclingTest {
     }
 
 
+    @Test
+    public void adapterIndex() {
+        final Lifecycle.Event[] received = new Lifecycle.Event[1];
+        Lifecycling.registerAdapterIndex(new GeneratedAdapterIndex() {
+            @Override
+            public Class<?>[] getObserverClasses() {
+                return new Class<?>[]{IndexedObserver.class};
+            }
+
+            @Override
+            public GeneratedAdapter createAdapter(int id, Object receiver) {
+                assertThat(id, is(0));
+                return new GeneratedAdapter() {
+                    @Override
+                    public void callMethods(LifecycleOwner source, Lifecycle.Event event,
+                            boolean onAny, MethodCallsLogger logger) {
+                        if (!onAny) {
+                            received[0] = event;
+                        }
+                    }
+                };
+            }
+        });
+        LifecycleEventObserver callback = lifecycleEventObserver(new IndexedObserver());
+        assertThat(callback, instanceOf(SingleGeneratedAdapterObserver.class));
+        callback.onStateChanged(new DefaultLifecycleOwner(), Lifecycle.Event.ON_START);
+        assertThat(received[0], is(Lifecycle.Event.ON_START));
+
+        LifecycleEventObserver derived = lifecycleEventObserver(new DerivedIndexedObserver());
+        assertThat(derived, instanceOf(SingleGeneratedAdapterObserver.class));
+    }
+
+    public static class IndexedObserver implements LifecycleObserver {
+        @OnLifecycleEvent(Lifecycle.Event.ON_START)
+        public void onStart() {
+        }
+    }
+
+    public static class DerivedIndexedObserver extends IndexedObserver {
+    }
+
     static class DefaultLifecycleOwner implements LifecycleOwner {
         @NonNull
         @Override
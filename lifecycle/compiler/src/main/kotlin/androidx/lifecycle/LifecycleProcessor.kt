@@ -16,18 +16,57 @@
 
 package androidx.lifecycle
 
+import androidx.lifecycle.model.AdapterClass
 import javax.annotation.processing.AbstractProcessor
 import javax.annotation.processing.RoundEnvironment
 import javax.annotation.processing.SupportedAnnotationTypes
+import javax.annotation.processing.SupportedOptions
 import javax.lang.model.SourceVersion
 import javax.lang.model.element.TypeElement
+import javax.tools.Diagnostic
+
+/**
+ * Fully qualified name of a [GeneratedAdapterIndex] to generate for the adapters of the
+ * compilation. The index creates the adapters without reflection once its `install` method is
+ * called.
+ */
+const val ADAPTER_INDEX_OPTION = "lifecycle.adapterIndex"
 
 @SupportedAnnotationTypes("androidx.lifecycle.OnLifecycleEvent")
+@SupportedOptions(ADAPTER_INDEX_OPTION)
 class LifecycleProcessor : AbstractProcessor() {
+    private val indexedAdapters = mutableListOf<AdapterClass>()
+    private var indexWritten = false
+
     override fun process(annotations: MutableSet<out TypeElement>,
                          roundEnv: RoundEnvironment): Boolean {
+        if (roundEnv.processingOver()) {
+            return true
+        }
+        val indexName = processingEnv.options[ADAPTER_INDEX_OPTION]
         val input = collectAndVerifyInput(processingEnv, roundEnv)
-        writeModels(transformToOutput(processingEnv, input), processingEnv)
+        val adapters = transformToOutput(processingEnv, input)
+        writeModels(adapters, processingEnv, publicConstructors = indexName != null)
+        if (indexName == null) {
+            return true
+        }
+        val indexed = adapters.filter { it.type.isPubliclyAccessible() }
+        if (indexWritten) {
+            // observers generated by other processors after the index was written are still
+            // found by name
+            indexed.forEach {
+                processingEnv.messager.printMessage(Diagnostic.Kind.WARNING,
+                        "Observer is not in the adapter index $indexName, as it was generated " +
+                                "after the index", it.type)
+            }
+        } else if (adapters.isEmpty()) {
+            // The first round without new observers, usually the one compiling the adapters.
+            // Files must not be generated in the final round.
+            writeAdapterIndex(indexName, indexedAdapters, processingEnv)
+            indexWritten = true
+        } else {
+            indexedAdapters.addAll(indexed)
+        }
         return true
     }
 
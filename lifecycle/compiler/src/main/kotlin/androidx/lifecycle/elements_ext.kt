@@ -38,6 +38,21 @@ fun ExecutableElement.isProtected() = modifiers.contains(Modifier.PROTECTED)
 
 fun TypeElement.methods(): List<ExecutableElement> = ElementFilter.methodsIn(enclosedElements)
 
+/**
+ * Whether the type and all its enclosing types are public, so it can be referenced from any
+ * package.
+ */
+fun TypeElement.isPubliclyAccessible(): Boolean {
+    var element: Element = this
+    while (element is TypeElement) {
+        if (!element.modifiers.contains(Modifier.PUBLIC)) {
+            return false
+        }
+        element = element.enclosingElement
+    }
+    return true
+}
+
 private const val SYNTHETIC = "__synthetic_"
 
 fun syntheticName(method: ExecutableElement) = "$SYNTHETIC${method.simpleName}"
@@ -20,20 +20,96 @@ import androidx.lifecycle.model.AdapterClass
 import androidx.lifecycle.model.EventMethodCall
 import androidx.lifecycle.model.getAdapterName
 import com.squareup.javapoet.AnnotationSpec
+import com.squareup.javapoet.ArrayTypeName
 import com.squareup.javapoet.ClassName
+import com.squareup.javapoet.CodeBlock
 import com.squareup.javapoet.FieldSpec
 import com.squareup.javapoet.JavaFile
 import com.squareup.javapoet.MethodSpec
 import com.squareup.javapoet.ParameterSpec
+import com.squareup.javapoet.ParameterizedTypeName
 import com.squareup.javapoet.TypeName
 import com.squareup.javapoet.TypeSpec
+import com.squareup.javapoet.WildcardTypeName
 import javax.annotation.processing.ProcessingEnvironment
 import javax.lang.model.element.Modifier
 import javax.lang.model.element.TypeElement
 import javax.tools.StandardLocation
 
-fun writeModels(infos: List<AdapterClass>, processingEnv: ProcessingEnvironment) {
-    infos.forEach({ writeAdapter(it, processingEnv) })
+fun writeModels(infos: List<AdapterClass>, processingEnv: ProcessingEnvironment,
+                publicConstructors: Boolean = false) {
+    infos.forEach({ writeAdapter(it, processingEnv, publicConstructors) })
+}
+
+/**
+ * Writes a [GeneratedAdapterIndex] which creates the given adapters with a switch, instead of
+ * [Lifecycling] looking up each adapter class and its constructor through reflection.
+ */
+fun writeAdapterIndex(qualifiedName: String, infos: List<AdapterClass>,
+                      processingEnv: ProcessingEnvironment) {
+    val indexClass = ClassName.bestGuess(qualifiedName)
+    val observerClassesField = FieldSpec.builder(CLASS_ARRAY, "OBSERVER_CLASSES",
+            Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer(CodeBlock.builder().apply {
+                add("new $T {", CLASS_ARRAY)
+                infos.forEachIndexed { i, adapter ->
+                    add(if (i == 0) "$T.class" else ", $T.class", ClassName.get(adapter.type))
+                }
+                add("}")
+            }.build())
+            .build()
+
+    val install = MethodSpec.methodBuilder("install")
+            .addJavadoc("Registers the adapters of this index with the lifecycle runtime.\n")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addStatement("$T.registerAdapterIndex(new $T())", Lifecycling::class.java,
+                    indexClass)
+            .build()
+
+    val getObserverClasses = MethodSpec.methodBuilder("getObserverClasses")
+            .addModifiers(Modifier.PUBLIC)
+            .addAnnotation(Override::class.java)
+            .returns(CLASS_ARRAY)
+            .addStatement("return $N", observerClassesField)
+            .build()
+
+    val idParam = ParameterSpec.builder(TypeName.INT, "id").build()
+    val receiverParam = ParameterSpec.builder(TypeName.OBJECT, "receiver").build()
+    val createAdapter = MethodSpec.methodBuilder("createAdapter")
+            .addModifiers(Modifier.PUBLIC)
+            .addAnnotation(Override::class.java)
+            .returns(GeneratedAdapter::class.java)
+            .addParameter(idParam)
+            .addParameter(receiverParam)
+            .apply {
+                beginControlFlow("switch ($N)", idParam)
+                infos.forEachIndexed { i, adapter ->
+                    val adapterClass = ClassName.get(adapter.type.getPackageQName(),
+                            getAdapterName(adapter.type))
+                    addCode("case $L:\n", i)
+                    addStatement("$>return new $T(($T) $N)$<", adapterClass,
+                            ClassName.get(adapter.type), receiverParam)
+                }
+                addCode("default:\n")
+                addStatement("$>throw new $T($S + $N)$<", IllegalArgumentException::class.java,
+                        "Unknown adapter id ", idParam)
+                endControlFlow()
+            }
+            .build()
+
+    val indexTypeSpecBuilder = TypeSpec.classBuilder(indexClass.simpleName())
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addSuperinterface(ClassName.get(GeneratedAdapterIndex::class.java))
+            .addField(observerClassesField)
+            .addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PRIVATE).build())
+            .addMethod(install)
+            .addMethod(getObserverClasses)
+            .addMethod(createAdapter)
+
+    addGeneratedAnnotationIfAvailable(indexTypeSpecBuilder, processingEnv)
+
+    JavaFile.builder(indexClass.packageName(), indexTypeSpecBuilder.build())
+            .build().writeTo(processingEnv.filer)
 }
 
 private val GENERATED_PACKAGE = "javax.annotation"
@@ -49,6 +125,9 @@ private val OWNER_PARAM: ParameterSpec = ParameterSpec.builder(
         ClassName.get(LifecycleOwner::class.java), "owner").build()
 private val EVENT_PARAM: ParameterSpec = ParameterSpec.builder(
         ClassName.get(LIFECYCLE_EVENT), "event").build()
+private val CLASS_ARRAY: TypeName = ArrayTypeName.of(ParameterizedTypeName.get(
+        ClassName.get(Class::class.java), WildcardTypeName.subtypeOf(Object::class.java)))
+
 private val ON_ANY_PARAM: ParameterSpec = ParameterSpec.builder(TypeName.BOOLEAN, "onAny").build()
 
 private val METHODS_LOGGER: ParameterSpec = ParameterSpec.builder(
@@ -56,7 +135,8 @@ private val METHODS_LOGGER: ParameterSpec = ParameterSpec.builder(
 
 private const val HAS_LOGGER_VAR = "hasLogger"
 
-private fun writeAdapter(adapter: AdapterClass, processingEnv: ProcessingEnvironment) {
+private fun writeAdapter(adapter: AdapterClass, processingEnv: ProcessingEnvironment,
+                         publicConstructor: Boolean) {
     val receiverField: FieldSpec = FieldSpec.builder(ClassName.get(adapter.type), "mReceiver",
             Modifier.FINAL).build()
     val dispatchMethodBuilder = MethodSpec.methodBuilder("callMethods")
@@ -108,6 +188,12 @@ private fun writeAdapter(adapter: AdapterClass, processingEnv: ProcessingEnviron
     }
 
     val constructor = MethodSpec.constructorBuilder()
+            .apply {
+                // called by the adapter index, which lives in another package
+                if (publicConstructor && adapter.type.isPubliclyAccessible()) {
+                    addModifiers(Modifier.PUBLIC)
+                }
+            }
             .addParameter(receiverParam)
             .addStatement("this.$N = $N", receiverField, receiverParam)
             .build()
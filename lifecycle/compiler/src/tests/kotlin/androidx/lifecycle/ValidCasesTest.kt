@@ -112,6 +112,18 @@ class ValidCasesTest {
                 .and().generatesProGuardRule("bar.DifferentPackagesDerived2.pro")
     }
 
+    @Test
+    fun testAdapterIndex() {
+        JavaSourcesSubject.assertThat(load("foo.OnAnyMethod", ""))
+                .withCompilerOptions("-A$ADAPTER_INDEX_OPTION=bar.TestAdapterIndex")
+                .processedWith(LifecycleProcessor())
+                // the index is generated before the final round, which would warn
+                .compilesWithoutWarnings().and().generatesSources(
+                        load("foo.OnAnyMethod_LifecycleAdapter", "expected/index"),
+                        load("bar.TestAdapterIndex", "expected")
+                )
+    }
+
     private fun <T> CompileTester.GeneratedPredicateClause<T>.generatesProGuardRule(name: String):
             CompileTester.SuccessfulFileClause<T> {
         return generatesFileNamed(StandardLocation.CLASS_OUTPUT, "", "META-INF/proguard/$name")
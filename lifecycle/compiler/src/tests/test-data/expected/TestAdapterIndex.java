@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package bar;
+
+import androidx.lifecycle.GeneratedAdapter;
+import androidx.lifecycle.GeneratedAdapterIndex;
+import androidx.lifecycle.Lifecycling;
+import foo.OnAnyMethod;
+import foo.OnAnyMethod_LifecycleAdapter;
+import java.lang.Class;
+import java.lang.IllegalArgumentException;
+import java.lang.Object;
+import java.lang.Override;
+import javax.annotation.Generated;
+
+@Generated("androidx.lifecycle.LifecycleProcessor")
+public final class TestAdapterIndex implements GeneratedAdapterIndex {
+  private static final Class<?>[] OBSERVER_CLASSES = new Class<?>[] {OnAnyMethod.class};
+
+  private TestAdapterIndex() {
+  }
+
+  /**
+   * Registers the adapters of this index with the lifecycle runtime.
+   */
+  public static void install() {
+    Lifecycling.registerAdapterIndex(new TestAdapterIndex());
+  }
+
+  @Override
+  public Class<?>[] getObserverClasses() {
+    return OBSERVER_CLASSES;
+  }
+
+  @Override
+  public GeneratedAdapter createAdapter(int id, Object receiver) {
+    switch (id) {
+      case 0:
+        return new OnAnyMethod_LifecycleAdapter((OnAnyMethod) receiver);
+      default:
+        throw new IllegalArgumentException("Unknown adapter id " + id);
+    }
+  }
+}
@@ -27,6 +27,7 @@ import androidx.arch.core.internal.SafeIterableMap;
 
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * LiveData is a data holder class that can be observed within a given lifecycle.
@@ -57,8 +58,6 @@ import java.util.Map;
  * @see ViewModel
  */
 public abstract class LiveData<T> {
-    @SuppressWarnings("WeakerAccess") /* synthetic access */
-    final Object mDataLock = new Object();
     static final int START_VERSION = -1;
     @SuppressWarnings("WeakerAccess") /* synthetic access */
     static final Object NOT_SET = new Object();
@@ -70,10 +69,10 @@ public abstract class LiveData<T> {
     @SuppressWarnings("WeakerAccess") /* synthetic access */
     int mActiveCount = 0;
     private volatile Object mData;
-    // when setData is called, we set the pending data and actual data swap happens on the main
-    // thread
+    // when postValue is called, we set the pending data and actual data swap happens on the main
+    // thread. Whoever swaps it from NOT_SET posts the task, whoever swaps it back consumes it.
     @SuppressWarnings("WeakerAccess") /* synthetic access */
-    volatile Object mPendingData = NOT_SET;
+    final AtomicReference<Object> mPendingData = new AtomicReference<>(NOT_SET);
     private int mVersion;
 
     private boolean mDispatchingValue;
@@ -82,11 +81,7 @@ public abstract class LiveData<T> {
     private final Runnable mPostValueRunnable = new Runnable() {
         @Override
         public void run() {
-            Object newValue;
-            synchronized (mDataLock) {
-                newValue = mPendingData;
-                mPendingData = NOT_SET;
-            }
+            Object newValue = mPendingData.getAndSet(NOT_SET);
             //noinspection unchecked
             setValue((T) newValue);
         }
@@ -276,16 +271,15 @@ public abstract class LiveData<T> {
      * <p>
      * If you called this method multiple times before a main thread executed a posted task, only
      * the last value would be dispatched.
+     * <p>
+     * To update several LiveData instances from a background thread with a single main thread
+     * task, see {@link LiveDataBatch}.
      *
      * @param value The new value
      */
     protected void postValue(T value) {
-        boolean postTask;
-        synchronized (mDataLock) {
-            postTask = mPendingData == NOT_SET;
-            mPendingData = value;
-        }
-        if (!postTask) {
+        if (mPendingData.getAndSet(value) != NOT_SET) {
+            // a task is already posted and will pick up the new value
             return;
         }
         ArchTaskExecutor.getInstance().postToMainThread(mPostValueRunnable);
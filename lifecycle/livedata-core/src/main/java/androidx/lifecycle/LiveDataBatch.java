@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.lifecycle;
+
+import androidx.annotation.NonNull;
+import androidx.arch.core.executor.ArchTaskExecutor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects new values for several {@link MutableLiveData} instances and sets all of them in a
+ * single task on the main thread.
+ * <p>
+ * Calling {@link MutableLiveData#postValue(Object)} on many LiveData instances posts one task per
+ * instance. When a large number of them are updated together, e.g. after a sync, use a batch
+ * instead:
+ * <pre class="prettyprint">
+ * LiveDataBatch batch = new LiveDataBatch();
+ * batch.setValue(userName, "alice");
+ * batch.setValue(unreadCount, 3);
+ * batch.post();
+ * </pre>
+ * If a LiveData is added to the same batch multiple times, only the last value is set, so its
+ * observers are notified once. Values are set in the order their LiveData was first added to the
+ * batch.
+ * <p>
+ * This class is not thread safe, a batch should be filled and posted from a single thread. It
+ * can be reused once it is posted.
+ */
+public final class LiveDataBatch {
+
+    private final LinkedHashMap<MutableLiveData<?>, Object> mValues = new LinkedHashMap<>();
+
+    /**
+     * Adds a value to set on the given LiveData when the batch is posted.
+     *
+     * @param liveData The LiveData to update
+     * @param value    The new value
+     * @param <T>      The type of data held by the LiveData
+     * @return this batch
+     */
+    @NonNull
+    public <T> LiveDataBatch setValue(@NonNull MutableLiveData<T> liveData, T value) {
+        mValues.put(liveData, value);
+        return this;
+    }
+
+    /**
+     * Returns true if no values were added since the batch was created or last posted.
+     *
+     * @return true if the batch is empty
+     */
+    public boolean isEmpty() {
+        return mValues.isEmpty();
+    }
+
+    /**
+     * Posts a single task to the main thread which sets all the values of the batch, and clears
+     * the batch.
+     * <p>
+     * Like {@link LiveData#postValue(Object)}, this can be called from any thread, and a value
+     * set with {@link MutableLiveData#setValue(Object)} before the task runs is overridden.
+     */
+    public void post() {
+        if (mValues.isEmpty()) {
+            return;
+        }
+        final int size = mValues.size();
+        final MutableLiveData<?>[] liveDatas = new MutableLiveData<?>[size];
+        final Object[] values = new Object[size];
+        int i = 0;
+        for (Map.Entry<MutableLiveData<?>, Object> entry : mValues.entrySet()) {
+            liveDatas[i] = entry.getKey();
+            values[i] = entry.getValue();
+            i++;
+        }
+        mValues.clear();
+        ArchTaskExecutor.getInstance().postToMainThread(new Runnable() {
+            @Override
+            public void run() {
+                for (int index = 0; index < size; index++) {
+                    //noinspection unchecked
+                    ((MutableLiveData<Object>) liveDatas[index]).setValue(values[index]);
+                }
+            }
+        });
+    }
+}
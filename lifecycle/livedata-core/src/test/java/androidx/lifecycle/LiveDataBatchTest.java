@@ -0,0 +1,122 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.lifecycle;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import androidx.annotation.NonNull;
+import androidx.arch.core.executor.ArchTaskExecutor;
+import androidx.arch.core.executor.TaskExecutor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@SuppressWarnings("unchecked")
+@RunWith(JUnit4.class)
+public class LiveDataBatchTest {
+
+    private final List<Runnable> mMainThreadTasks = new ArrayList<>();
+
+    @Before
+    public void setDelegate() {
+        ArchTaskExecutor.getInstance().setDelegate(new TaskExecutor() {
+            @Override
+            public void executeOnDiskIO(@NonNull Runnable runnable) {
+                runnable.run();
+            }
+
+            @Override
+            public void postToMainThread(@NonNull Runnable runnable) {
+                mMainThreadTasks.add(runnable);
+            }
+
+            @Override
+            public boolean isMainThread() {
+                return true;
+            }
+        });
+    }
+
+    @After
+    public void removeDelegate() {
+        ArchTaskExecutor.getInstance().setDelegate(null);
+    }
+
+    @Test
+    public void postValueCoalesces() {
+        MutableLiveData<String> liveData = new MutableLiveData<>();
+        Observer<String> observer = mock(Observer.class);
+        liveData.observeForever(observer);
+        liveData.postValue("a");
+        liveData.postValue("b");
+        liveData.postValue(null);
+        assertThat(mMainThreadTasks.size(), is(1));
+        drainMainThread();
+        verify(observer).onChanged(null);
+        verifyNoMoreInteractions(observer);
+
+        liveData.postValue("c");
+        assertThat(mMainThreadTasks.size(), is(1));
+        drainMainThread();
+        verify(observer).onChanged("c");
+    }
+
+    @Test
+    public void batchPostsOnce() {
+        MutableLiveData<String> first = new MutableLiveData<>();
+        MutableLiveData<Integer> second = new MutableLiveData<>();
+        Observer<String> firstObserver = mock(Observer.class);
+        Observer<Integer> secondObserver = mock(Observer.class);
+        first.observeForever(firstObserver);
+        second.observeForever(secondObserver);
+
+        LiveDataBatch batch = new LiveDataBatch();
+        batch.setValue(first, "a").setValue(second, 1).setValue(first, "b");
+        batch.post();
+        assertThat(batch.isEmpty(), is(true));
+        assertThat(mMainThreadTasks.size(), is(1));
+        assertThat(first.getValue(), nullValue());
+
+        drainMainThread();
+        verify(firstObserver).onChanged("b");
+        verify(secondObserver).onChanged(1);
+        verifyNoMoreInteractions(firstObserver, secondObserver);
+    }
+
+    @Test
+    public void emptyBatch() {
+        new LiveDataBatch().post();
+        assertThat(mMainThreadTasks.size(), is(0));
+    }
+
+    private void drainMainThread() {
+        while (!mMainThreadTasks.isEmpty()) {
+            mMainThreadTasks.remove(0).run();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.media2;
+
+import static androidx.media2.ControllerEventFanOut.DELIVERY_THREAD_COUNT;
+import static androidx.media2.ControllerEventFanOut.EVENT_NONE;
+import static androidx.media2.ControllerEventFanOut.EVENT_PLAYER_STATE;
+import static androidx.media2.ControllerEventFanOut.MAX_PENDING_EVENTS;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.media.MediaSessionManager.RemoteUserInfo;
+import androidx.media2.MediaSession.ControllerCb;
+import androidx.media2.MediaSession.ControllerInfo;
+import androidx.media2.MediaSessionImplBase.RemoteControllerCallbackTask;
+import androidx.test.filters.SmallTest;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests {@link ControllerEventFanOut}.
+ */
+@RunWith(AndroidJUnit4.class)
+@SmallTest
+public class ControllerEventFanOutTest {
+    private static final long TIMEOUT_MS = 1000;
+    // Controllers from this uid on block when they receive an event.
+    private static final int BLOCKED_UID = 100;
+
+    private final ControllerInfo mController = createController(1);
+    private final List<Runnable> mExecutorQueue = new ArrayList<>();
+    private final Executor mQueueExecutor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            mExecutorQueue.add(command);
+        }
+    };
+    private final RecordingTarget mTarget = new RecordingTarget();
+
+    @Test
+    public void testEventsArriveInOrder() {
+        ControllerEventFanOut fanOut = new ControllerEventFanOut(mTarget, mQueueExecutor);
+        RemoteControllerCallbackTask task1 = new NoOpTask();
+        RemoteControllerCallbackTask task2 = new NoOpTask();
+        RemoteControllerCallbackTask task3 = new NoOpTask();
+        fanOut.dispatch(mController, EVENT_NONE, task1);
+        fanOut.dispatch(mController, EVENT_NONE, task2);
+        fanOut.dispatch(mController, EVENT_NONE, task3);
+
+        // Only one drain is scheduled for the controller.
+        assertEquals(1, mExecutorQueue.size());
+        runAll();
+        assertEquals(Arrays.asList(task1, task2, task3), mTarget.mDelivered);
+    }
+
+    @Test
+    public void testSameTypeEventsCoalesce() {
+        ControllerEventFanOut fanOut = new ControllerEventFanOut(mTarget, mQueueExecutor);
+        RemoteControllerCallbackTask state1 = new NoOpTask();
+        RemoteControllerCallbackTask other = new NoOpTask();
+        RemoteControllerCallbackTask state2 = new NoOpTask();
+        fanOut.dispatch(mController, EVENT_PLAYER_STATE, state1);
+        fanOut.dispatch(mController, EVENT_NONE, other);
+        fanOut.dispatch(mController, EVENT_PLAYER_STATE, state2);
+
+        runAll();
+        // The latest state replaces the pending one in its place.
+        assertEquals(Arrays.asList(state2, other), mTarget.mDelivered);
+    }
+
+    @Test
+    public void testTooManyPendingEventsDisconnects() {
+        ControllerEventFanOut fanOut = new ControllerEventFanOut(mTarget, mQueueExecutor);
+        for (int i = 0; i < MAX_PENDING_EVENTS; i++) {
+            fanOut.dispatch(mController, EVENT_NONE, new NoOpTask());
+        }
+        assertTrue(mTarget.mStalled.isEmpty());
+
+        fanOut.dispatch(mController, EVENT_NONE, new NoOpTask());
+        assertEquals(Collections.singletonList(mController), mTarget.mStalled);
+        runAll();
+        assertTrue(mTarget.mDelivered.isEmpty());
+    }
+
+    @Test
+    public void testBlockedControllersDontBlockOthers() throws InterruptedException {
+        final CountDownLatch unblock = new CountDownLatch(1);
+        final int otherCount = 8;
+        final CountDownLatch delivered = new CountDownLatch(otherCount);
+        ControllerEventFanOut fanOut = new ControllerEventFanOut(
+                new ControllerEventFanOut.Target() {
+                    @Override
+                    public void deliver(@NonNull ControllerInfo controller,
+                            @NonNull RemoteControllerCallbackTask task) {
+                        if (controller.getRemoteUserInfo().getUid() >= BLOCKED_UID) {
+                            try {
+                                unblock.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        } else {
+                            delivered.countDown();
+                        }
+                    }
+
+                    @Override
+                    public void onControllerStalled(@NonNull ControllerInfo controller) {
+                    }
+                });
+        try {
+            // All but one of the delivery threads are stuck.
+            for (int i = 0; i < DELIVERY_THREAD_COUNT - 1; i++) {
+                fanOut.dispatch(createController(BLOCKED_UID + i), EVENT_NONE, new NoOpTask());
+            }
+            for (int i = 0; i < otherCount; i++) {
+                fanOut.dispatch(createController(i), EVENT_NONE, new NoOpTask());
+            }
+            assertTrue(delivered.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        } finally {
+            unblock.countDown();
+            fanOut.close();
+        }
+    }
+
+    private void runAll() {
+        while (!mExecutorQueue.isEmpty()) {
+            mExecutorQueue.remove(0).run();
+        }
+    }
+
+    private static ControllerInfo createController(int uid) {
+        return new ControllerInfo(new RemoteUserInfo("androidx.media2.test", uid, uid), false,
+                null);
+    }
+
+    private static class RecordingTarget implements ControllerEventFanOut.Target {
+        final List<RemoteControllerCallbackTask> mDelivered = new ArrayList<>();
+        final List<ControllerInfo> mStalled = new ArrayList<>();
+
+        @Override
+        public void deliver(@NonNull ControllerInfo controller,
+                @NonNull RemoteControllerCallbackTask task) {
+            mDelivered.add(task);
+        }
+
+        @Override
+        public void onControllerStalled(@NonNull ControllerInfo controller) {
+            mStalled.add(controller);
+        }
+    }
+
+    private static class NoOpTask implements RemoteControllerCallbackTask {
+        @Override
+        public void run(ControllerCb controller) {
+        }
+    }
+}
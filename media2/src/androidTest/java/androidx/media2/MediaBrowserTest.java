@@ -55,6 +55,8 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
@@ -190,6 +192,86 @@ public class MediaBrowserTest extends MediaControllerTest {
         assertNull(result.getMediaItems());
     }
 
+    @Test
+    public void testGetChildrenPage() throws Exception {
+        prepareLooper();
+        final String parentId = MockMediaLibraryService.PARENT_ID;
+        final int pageSize = 30;
+        final LibraryParams params = TestUtils.createLibraryParams();
+
+        MockMediaLibraryService.setAssertLibraryParams(params);
+        MediaBrowser browser = createBrowser();
+        List<MediaItem> children = new ArrayList<>();
+        String pageToken = null;
+        do {
+            BrowserResult result = browser.getChildrenPage(parentId, pageToken, pageSize, params)
+                    .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            assertEquals(RESULT_CODE_SUCCESS, result.getResultCode());
+            assertTrue(result.getMediaItems().size() <= pageSize);
+            children.addAll(result.getMediaItems());
+            pageToken = result.getNextPageToken();
+        } while (pageToken != null);
+
+        assertEquals(MockMediaLibraryService.CHILDREN_COUNT, children.size());
+        for (int i = 0; i < children.size(); i++) {
+            assertMediaItemEquals(MockMediaLibraryService.GET_CHILDREN_RESULT.get(i),
+                    children.get(i));
+        }
+    }
+
+    @Test
+    public void testGetChildrenPageLimitsPageSize() throws Exception {
+        prepareLooper();
+        final String parentId = MockMediaLibraryService.PARENT_ID_LARGE_CHILDREN;
+        final int pageSize = MockMediaLibraryService.LARGE_CHILDREN_COUNT;
+
+        MediaBrowser browser = createBrowser();
+        BrowserResult result = browser.getChildrenPage(parentId, null, pageSize, null)
+                .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(RESULT_CODE_SUCCESS, result.getResultCode());
+        // The items don't fit in a single transaction, so less are returned.
+        assertTrue(result.getMediaItems().size() > 0);
+        assertTrue(result.getMediaItems().size() < pageSize);
+        String pageToken = result.getNextPageToken();
+        assertNotNull(pageToken);
+
+        result = browser.getChildrenPage(parentId, pageToken, pageSize, null)
+                .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(RESULT_CODE_SUCCESS, result.getResultCode());
+        assertEquals(pageToken, result.getNextPageToken());
+
+        result = browser.closeChildrenCursor(pageToken).get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(RESULT_CODE_SUCCESS, result.getResultCode());
+        result = browser.getChildrenPage(parentId, pageToken, pageSize, null)
+                .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertNotEquals(RESULT_CODE_SUCCESS, result.getResultCode());
+    }
+
+    @Test
+    public void testChildrenIteratorClosed() throws Exception {
+        prepareLooper();
+        final String parentId = MockMediaLibraryService.PARENT_ID_LARGE_CHILDREN;
+        final int pageSize = 10;
+        final CountDownLatch closedLatch = new CountDownLatch(2);
+        MockMediaLibraryService.setIteratorClosedLatch(closedLatch);
+
+        // Closed when the browser closes the cursor.
+        MediaBrowser browser = createBrowser();
+        BrowserResult result = browser.getChildrenPage(parentId, null, pageSize, null)
+                .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(RESULT_CODE_SUCCESS, result.getResultCode());
+        browser.closeChildrenCursor(result.getNextPageToken())
+                .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(1, closedLatch.getCount());
+
+        // Closed when the browser disconnects.
+        result = browser.getChildrenPage(parentId, null, pageSize, null)
+                .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertNotNull(result.getNextPageToken());
+        browser.close();
+        assertTrue(closedLatch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+    }
+
     @Test
     public void testSearch() throws Exception {
         prepareLooper();
@@ -23,6 +23,7 @@ import static androidx.media2.MediaMetadata.BROWSABLE_TYPE_MIXED;
 import static androidx.media2.MediaMetadata.METADATA_KEY_BROWSABLE;
 import static androidx.media2.MediaMetadata.METADATA_KEY_MEDIA_ID;
 import static androidx.media2.MediaMetadata.METADATA_KEY_PLAYABLE;
+import static androidx.media2.MediaMetadata.METADATA_KEY_TITLE;
 import static androidx.media2.TestUtils.assertLibraryParamsEquals;
 
 import static org.junit.Assert.assertEquals;
@@ -38,8 +39,13 @@ import androidx.media2.MediaSession.ControllerInfo;
 import androidx.media2.MediaSession.SessionCallback;
 import androidx.media2.TestUtils.SyncHandler;
 
+import java.io.Closeable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -64,9 +70,12 @@ public class MockMediaLibraryService extends MediaLibraryService {
     public static final String PARENT_ID = "parent_id";
     public static final String PARENT_ID_NO_CHILDREN = "parent_id_no_children";
     public static final String PARENT_ID_ERROR = "parent_id_error";
+    public static final String PARENT_ID_LARGE_CHILDREN = "parent_id_large_children";
 
     public static final List<MediaItem> GET_CHILDREN_RESULT = new ArrayList<>();
     public static final int CHILDREN_COUNT = 100;
+    public static final int LARGE_CHILDREN_COUNT = 1000;
+    public static final int LARGE_CHILDREN_TITLE_LENGTH = 2048;
 
     public static final String SEARCH_QUERY = "search_query";
     public static final String SEARCH_QUERY_TAKES_TIME = "search_query_takes_time";
@@ -93,6 +102,8 @@ public class MockMediaLibraryService extends MediaLibraryService {
     private static SessionToken sToken;
     @GuardedBy("MockMediaLibraryService.class")
     private static LibraryParams sExpectedParams;
+    @GuardedBy("MockMediaLibraryService.class")
+    private static CountDownLatch sIteratorClosedLatch;
 
     private MediaLibrarySession mSession;
 
@@ -150,6 +161,7 @@ public class MockMediaLibraryService extends MediaLibraryService {
     public void onDestroy() {
         super.onDestroy();
         setAssertLibraryParams(null);
+        setIteratorClosedLatch(null);
         TestServiceRegistry.getInstance().cleanUp();
     }
 
@@ -170,6 +182,16 @@ public class MockMediaLibraryService extends MediaLibraryService {
         }
     }
 
+    /**
+     * Sets the latch counted down when an iterator of {@link #PARENT_ID_LARGE_CHILDREN} is
+     * closed.
+     */
+    public static void setIteratorClosedLatch(CountDownLatch latch) {
+        synchronized (MockMediaLibraryService.class) {
+            sIteratorClosedLatch = latch;
+        }
+    }
+
     private class TestLibrarySessionCallback extends MediaLibrarySessionCallback {
         private String mLastQuery;
 
@@ -205,6 +227,16 @@ public class MockMediaLibraryService extends MediaLibraryService {
             return new LibraryResult(RESULT_CODE_SUCCESS, new ArrayList<MediaItem>(), null);
         }
 
+        @Override
+        public Iterator<MediaItem> onGetChildrenIterator(MediaLibrarySession session,
+                ControllerInfo controller, String parentId, LibraryParams params) {
+            assertLibraryParams(params);
+            if (!PARENT_ID_LARGE_CHILDREN.equals(parentId)) {
+                return null;
+            }
+            return new LargeChildrenIterator();
+        }
+
         @Override
         public int onSearch(MediaLibrarySession session,
                 final ControllerInfo controllerInfo, final String query,
@@ -277,6 +309,20 @@ public class MockMediaLibraryService extends MediaLibraryService {
         return paginatedResult;
     }
 
+    private MediaItem createLargeMediaItem(String mediaId) {
+        char[] title = new char[LARGE_CHILDREN_TITLE_LENGTH];
+        Arrays.fill(title, 'a');
+        return new MediaItem.Builder()
+                .setMetadata(
+                        new MediaMetadata.Builder()
+                                .putString(METADATA_KEY_MEDIA_ID, mediaId)
+                                .putString(METADATA_KEY_TITLE, new String(title))
+                                .putLong(METADATA_KEY_BROWSABLE, BROWSABLE_TYPE_MIXED)
+                                .putLong(METADATA_KEY_PLAYABLE, 1)
+                                .build())
+                .build();
+    }
+
     private MediaItem createMediaItem(String mediaId) {
         return new MediaItem.Builder()
                 .setMetadata(
@@ -287,4 +333,38 @@ public class MockMediaLibraryService extends MediaLibraryService {
                                 .build())
                 .build();
     }
+
+    /**
+     * Creates the children of {@link #PARENT_ID_LARGE_CHILDREN} as they are read.
+     */
+    private class LargeChildrenIterator implements Iterator<MediaItem>, Closeable {
+        private int mIndex;
+
+        @Override
+        public boolean hasNext() {
+            return mIndex < LARGE_CHILDREN_COUNT;
+        }
+
+        @Override
+        public MediaItem next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return createLargeMediaItem("large_child_" + mIndex++);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            synchronized (MockMediaLibraryService.class) {
+                if (sIteratorClosedLatch != null) {
+                    sIteratorClosedLatch.countDown();
+                }
+            }
+        }
+    }
 }
@@ -117,6 +117,7 @@ class ConnectedControllersManager<T> {
             Log.d(TAG, "Controller " + controllerInfo + " is disconnected");
         }
         record.sequencedFutureManager.close();
+        mSessionImpl.onControllerDisconnected(controllerInfo);
         mSessionImpl.getCallbackExecutor().execute(new Runnable() {
             @Override
             public void run() {
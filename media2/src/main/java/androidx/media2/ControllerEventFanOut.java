@@ -0,0 +1,274 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.media2;
+
+import android.util.Log;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.collection.ArrayMap;
+import androidx.media2.MediaSession.ControllerInfo;
+import androidx.media2.MediaSessionImplBase.RemoteControllerCallbackTask;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers the events of a session to its connected controllers.
+ * <p>
+ * Each controller has its own queue, which is drained on a small shared pool with at most one
+ * drain per controller at a time. The callbacks of remote controllers are oneway binder calls,
+ * so a drain rarely blocks, and all the events that piled up while a controller was busy are sent
+ * in a single drain.
+ * <p>
+ * Events of the same coalescing type replace each other in place while pending, so a slow
+ * controller only receives the latest player state, buffering state, position and so on, at the
+ * position of the first pending one. Events that aren't coalesced are kept in order, up to
+ * {@link #MAX_PENDING_EVENTS}. A controller that falls further behind than that is disconnected.
+ */
+final class ControllerEventFanOut {
+    private static final String TAG = "ControllerEventFanOut";
+    private static final boolean DEBUG = Log.isLoggable(TAG, Log.DEBUG);
+
+    /**
+     * Event type for events that are delivered as is, without coalescing.
+     */
+    static final int EVENT_NONE = 0;
+    static final int EVENT_PLAYER_STATE = 1;
+    static final int EVENT_BUFFERING_STATE = 2;
+    static final int EVENT_PLAYBACK_SPEED = 3;
+    static final int EVENT_SEEK_COMPLETED = 4;
+    static final int EVENT_CURRENT_MEDIA_ITEM = 5;
+    static final int EVENT_PLAYLIST = 6;
+    static final int EVENT_PLAYLIST_METADATA = 7;
+    static final int EVENT_REPEAT_MODE = 8;
+    static final int EVENT_SHUFFLE_MODE = 9;
+    static final int EVENT_PLAYBACK_INFO = 10;
+    private static final int EVENT_TYPE_COUNT = 11;
+
+    static final int MAX_PENDING_EVENTS = 100;
+
+    static final int DELIVERY_THREAD_COUNT = 4;
+    private static final long DELIVERY_THREAD_KEEP_ALIVE_MS = 10000;
+
+    /**
+     * Receives the events of the fan-out.
+     */
+    interface Target {
+        /**
+         * Runs the task with the controller's callback. Called on a delivery thread.
+         */
+        void deliver(@NonNull ControllerInfo controller,
+                @NonNull RemoteControllerCallbackTask task);
+
+        /**
+         * Called when the controller is too far behind, after its pending events are dropped.
+         * Called on the thread of {@link #dispatch}, which may hold the locks of the session, so
+         * this shouldn't call into the controller directly.
+         */
+        void onControllerStalled(@NonNull ControllerInfo controller);
+    }
+
+    private final Target mTarget;
+    private final Executor mExecutor;
+
+    private final Object mLock = new Object();
+    @GuardedBy("mLock")
+    private final ArrayMap<ControllerInfo, ControllerQueue> mQueues = new ArrayMap<>();
+    @GuardedBy("mLock")
+    private boolean mClosed;
+
+    ControllerEventFanOut(@NonNull Target target) {
+        this(target, createDeliveryExecutor());
+    }
+
+    @VisibleForTesting
+    ControllerEventFanOut(@NonNull Target target, @NonNull Executor executor) {
+        mTarget = target;
+        mExecutor = executor;
+    }
+
+    /**
+     * Queues the task for each of the controllers.
+     *
+     * @param controllers controllers to send the event to
+     * @param eventType one of the {@code EVENT_} constants
+     * @param task task to run with the {@link MediaSession.ControllerCb} of each controller
+     */
+    void dispatch(@NonNull List<ControllerInfo> controllers, int eventType,
+            @NonNull RemoteControllerCallbackTask task) {
+        for (int i = 0; i < controllers.size(); i++) {
+            dispatch(controllers.get(i), eventType, task);
+        }
+    }
+
+    /**
+     * Queues the task for the controller.
+     *
+     * @param controller controller to send the event to
+     * @param eventType one of the {@code EVENT_} constants
+     * @param task task to run with the {@link MediaSession.ControllerCb} of the controller
+     */
+    void dispatch(@NonNull ControllerInfo controller, int eventType,
+            @NonNull RemoteControllerCallbackTask task) {
+        boolean overflow = false;
+        synchronized (mLock) {
+            if (mClosed) {
+                return;
+            }
+            ControllerQueue queue = mQueues.get(controller);
+            if (queue == null) {
+                queue = new ControllerQueue(controller);
+                mQueues.put(controller, queue);
+            }
+            if (queue.offerLocked(eventType, task)) {
+                if (!queue.mScheduled) {
+                    queue.mScheduled = true;
+                    mExecutor.execute(queue);
+                }
+            } else {
+                // Drop everything pending. The queue may still be draining, so it's replaced
+                // rather than reused.
+                queue.mPending.clear();
+                mQueues.remove(controller);
+                overflow = true;
+            }
+        }
+        if (overflow) {
+            Log.w(TAG, "Too many pending events for " + controller + ", disconnecting");
+            mTarget.onControllerStalled(controller);
+        }
+    }
+
+    /**
+     * Stops accepting events. Events that are already queued are still delivered.
+     */
+    void close() {
+        synchronized (mLock) {
+            if (mClosed) {
+                return;
+            }
+            mClosed = true;
+        }
+        if (mExecutor instanceof ExecutorService) {
+            ((ExecutorService) mExecutor).shutdown();
+        }
+    }
+
+    private static ExecutorService createDeliveryExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(DELIVERY_THREAD_COUNT,
+                DELIVERY_THREAD_COUNT, DELIVERY_THREAD_KEEP_ALIVE_MS, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger mCount = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        return new Thread(r, "MediaSession_FanOut_" + mCount.incrementAndGet());
+                    }
+                });
+        // No thread is kept while the session has nothing to send.
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private final class ControllerQueue implements Runnable {
+        private final ControllerInfo mController;
+
+        @GuardedBy("mLock")
+        ArrayDeque<Event> mPending = new ArrayDeque<>();
+        @GuardedBy("mLock")
+        private ArrayDeque<Event> mDelivering = new ArrayDeque<>();
+        // Pending event for each coalescing type, if any.
+        @GuardedBy("mLock")
+        private final Event[] mLatest = new Event[EVENT_TYPE_COUNT];
+        @GuardedBy("mLock")
+        boolean mScheduled;
+
+        ControllerQueue(ControllerInfo controller) {
+            mController = controller;
+        }
+
+        /**
+         * Returns {@code false} if the controller is too far behind to take the event.
+         */
+        @GuardedBy("mLock")
+        boolean offerLocked(int eventType, RemoteControllerCallbackTask task) {
+            if (eventType != EVENT_NONE) {
+                Event previous = mLatest[eventType];
+                if (previous != null) {
+                    // Replace the pending state where it is, which keeps the queue order and
+                    // avoids searching the queue.
+                    previous.mTask = task;
+                    return true;
+                }
+            } else if (mPending.size() >= MAX_PENDING_EVENTS) {
+                return false;
+            }
+            Event event = new Event(task);
+            if (eventType != EVENT_NONE) {
+                mLatest[eventType] = event;
+            }
+            mPending.add(event);
+            return true;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                ArrayDeque<Event> batch;
+                synchronized (mLock) {
+                    if (mPending.isEmpty()) {
+                        mScheduled = false;
+                        if (mQueues.get(mController) == this) {
+                            mQueues.remove(mController);
+                        }
+                        return;
+                    }
+                    batch = mPending;
+                    mPending = mDelivering;
+                    mDelivering = batch;
+                    for (int i = 0; i < mLatest.length; i++) {
+                        mLatest[i] = null;
+                    }
+                }
+                if (DEBUG) {
+                    Log.d(TAG, "Sending " + batch.size() + " events to " + mController);
+                }
+                for (Event event = batch.poll(); event != null; event = batch.poll()) {
+                    mTarget.deliver(mController, event.mTask);
+                }
+            }
+        }
+    }
+
+    private static final class Event {
+        // Only replaced while the event is pending, which is guarded by mLock.
+        RemoteControllerCallbackTask mTask;
+
+        Event(RemoteControllerCallbackTask task) {
+            mTask = task;
+        }
+    }
+}
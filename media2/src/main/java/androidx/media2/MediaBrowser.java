@@ -199,6 +199,62 @@ public class MediaBrowser extends MediaController {
         return createDisconnectedFuture();
     }
 
+    /**
+     * Gets a page of the children under the parent, keeping the position in the children in the
+     * library service for the next page.
+     * <p>
+     * Pass {@code null} as the page token to get the first page, then the
+     * {@link BrowserResult#getNextPageToken() next page token} of each result to get the
+     * following page, until it's {@code null}. The library service only reads the children
+     * needed for each page, and may return less than {@code pageSize} items so that a page is
+     * always sent in a single transaction. Use this rather than
+     * {@link #getChildren(String, int, int, LibraryParams)} for parents with many children.
+     * <p>
+     * If the children aren't read until the end, call {@link #closeChildrenCursor(String)} with
+     * the last page token so that the library service can release them.
+     *
+     * @param parentId non-empty parent id for getting the children
+     * @param pageToken the next page token of the previous page, or {@code null} for the first
+     *                  page
+     * @param pageSize maximum number of items in the page. Should be greater or equal to
+     *                 {@code 1}
+     * @param params library params
+     * @see BrowserResult#getMediaItems()
+     * @see BrowserResult#getNextPageToken()
+     */
+    public @NonNull ListenableFuture<BrowserResult> getChildrenPage(@NonNull String parentId,
+            @Nullable String pageToken, @IntRange(from = 1) int pageSize,
+            @Nullable LibraryParams params) {
+        if (TextUtils.isEmpty(parentId)) {
+            throw new IllegalArgumentException("parentId shouldn't be empty");
+        }
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize shouldn't be less than 1");
+        }
+        if (isConnected()) {
+            return getImpl().getChildrenPage(parentId, pageToken, pageSize, params);
+        }
+        return createDisconnectedFuture();
+    }
+
+    /**
+     * Closes the position in the children kept by the library service for the given page
+     * token, when the remaining children of
+     * {@link #getChildrenPage(String, String, int, LibraryParams)} won't be read.
+     *
+     * @param pageToken non-empty next page token of the last page read
+     */
+    public @NonNull ListenableFuture<BrowserResult> closeChildrenCursor(
+            @NonNull String pageToken) {
+        if (TextUtils.isEmpty(pageToken)) {
+            throw new IllegalArgumentException("pageToken shouldn't be empty");
+        }
+        if (isConnected()) {
+            return getImpl().closeChildrenCursor(pageToken);
+        }
+        return createDisconnectedFuture();
+    }
+
     /**
      * Gets the media item with the given media id.
      * <p>
@@ -321,6 +377,8 @@ public class MediaBrowser extends MediaController {
         List<MediaItem> mItemList;
         @ParcelField(5)
         ParcelImplListSlice mItemListSlice;
+        @ParcelField(6)
+        String mNextPageToken;
 
         // For versioned parcelable.
         BrowserResult() {
@@ -366,8 +424,11 @@ public class MediaBrowser extends MediaController {
             if (result == null) {
                 return null;
             }
-            return new BrowserResult(result.getResultCode(), result.getMediaItem(),
-                    result.getMediaItems(), result.getLibraryParams(), result.getCompletionTime());
+            BrowserResult browserResult = new BrowserResult(result.getResultCode(),
+                    result.getMediaItem(), result.getMediaItems(), result.getLibraryParams(),
+                    result.getCompletionTime());
+            browserResult.mNextPageToken = result.getNextPageToken();
+            return browserResult;
         }
 
         /**
@@ -435,6 +496,19 @@ public class MediaBrowser extends MediaController {
             return mItemList;
         }
 
+        /**
+         * Gets the token of the next page of children.
+         * <p>
+         * Can be {@code null} if an error happened, if there are no more children or if the
+         * command doesn't return a page of children.
+         *
+         * @return next page token
+         * @see MediaBrowser#getChildrenPage(String, String, int, LibraryParams)
+         */
+        public @Nullable String getNextPageToken() {
+            return mNextPageToken;
+        }
+
         /**
          * Gets the library params
          *
@@ -472,6 +546,9 @@ public class MediaBrowser extends MediaController {
         ListenableFuture<BrowserResult> unsubscribe(@NonNull String parentId);
         ListenableFuture<BrowserResult> getChildren(@NonNull String parentId, int page,
                 int pageSize, @Nullable LibraryParams params);
+        ListenableFuture<BrowserResult> getChildrenPage(@NonNull String parentId,
+                @Nullable String pageToken, int pageSize, @Nullable LibraryParams params);
+        ListenableFuture<BrowserResult> closeChildrenCursor(@NonNull String pageToken);
         ListenableFuture<BrowserResult> getItem(@NonNull String mediaId);
         ListenableFuture<BrowserResult> search(@NonNull String query,
                 @Nullable LibraryParams params);
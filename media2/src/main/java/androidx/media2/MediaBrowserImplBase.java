@@ -107,6 +107,30 @@ class MediaBrowserImplBase extends MediaControllerImplBase implements
                 });
     }
 
+    @Override
+    public ListenableFuture<BrowserResult> getChildrenPage(final String parentId,
+            final String pageToken, final int pageSize, final LibraryParams params) {
+        return dispatchRemoteLibrarySessionTask(COMMAND_CODE_LIBRARY_GET_CHILDREN,
+                new RemoteLibrarySessionTask() {
+                    @Override
+                    public void run(IMediaSession iSession, int seq) throws RemoteException {
+                        iSession.getChildrenPage(mControllerStub, seq, parentId, pageToken,
+                                pageSize, MediaUtils.toParcelable(params));
+                    }
+                });
+    }
+
+    @Override
+    public ListenableFuture<BrowserResult> closeChildrenCursor(final String pageToken) {
+        return dispatchRemoteLibrarySessionTask(COMMAND_CODE_LIBRARY_GET_CHILDREN,
+                new RemoteLibrarySessionTask() {
+                    @Override
+                    public void run(IMediaSession iSession, int seq) throws RemoteException {
+                        iSession.closeChildrenCursor(mControllerStub, seq, pageToken);
+                    }
+                });
+    }
+
     @Override
     public ListenableFuture<BrowserResult> getItem(final String mediaId) {
         return dispatchRemoteLibrarySessionTask(COMMAND_CODE_LIBRARY_GET_ITEM,
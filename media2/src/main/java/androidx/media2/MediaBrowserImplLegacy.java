@@ -54,6 +54,7 @@ import java.util.concurrent.Executor;
  */
 class MediaBrowserImplLegacy extends MediaControllerImplLegacy implements MediaBrowserImpl {
     private static final String TAG = "MB2ImplLegacy";
+    private static final String PAGE_TOKEN_SEPARATOR = "/";
 
     @GuardedBy("mLock")
     @SuppressWarnings("WeakerAccess") /* synthetic access */
@@ -172,6 +173,45 @@ class MediaBrowserImplLegacy extends MediaControllerImplLegacy implements MediaB
         return future;
     }
 
+    @Override
+    public ListenableFuture<BrowserResult> getChildrenPage(@NonNull String parentId,
+            @Nullable String pageToken, int pageSize, @Nullable LibraryParams params) {
+        MediaBrowserCompat browserCompat = getBrowserCompat();
+        if (browserCompat == null) {
+            return BrowserResult.createFutureWithResult(RESULT_CODE_DISCONNECTED);
+        }
+
+        // Legacy services only support page numbers, so the page token is the number and the
+        // size of the next page. The size of the first page is kept so that pages don't overlap.
+        int page = 0;
+        if (pageToken != null) {
+            int separator = pageToken.indexOf(PAGE_TOKEN_SEPARATOR);
+            try {
+                if (separator <= 0) {
+                    throw new NumberFormatException();
+                }
+                page = Integer.parseInt(pageToken.substring(0, separator));
+                pageSize = Integer.parseInt(pageToken.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                Log.w(TAG, "getChildrenPage(): Ignoring invalid page token " + pageToken);
+                return BrowserResult.createFutureWithResult(RESULT_CODE_BAD_VALUE);
+            }
+        }
+        final ResolvableFuture<BrowserResult> future = ResolvableFuture.create();
+        Bundle options = createBundle(params);
+        options.putInt(MediaBrowserCompat.EXTRA_PAGE, page);
+        options.putInt(MediaBrowserCompat.EXTRA_PAGE_SIZE, pageSize);
+        browserCompat.subscribe(parentId, options, new GetChildrenCallback(future, parentId,
+                (page + 1) + PAGE_TOKEN_SEPARATOR + pageSize, pageSize));
+        return future;
+    }
+
+    @Override
+    public ListenableFuture<BrowserResult> closeChildrenCursor(@NonNull String pageToken) {
+        // Nothing is kept by the legacy service between pages.
+        return BrowserResult.createFutureWithResult(RESULT_CODE_SUCCESS);
+    }
+
     @Override
     public ListenableFuture<BrowserResult> getItem(@NonNull final String mediaId) {
         MediaBrowserCompat browserCompat = getBrowserCompat();
@@ -416,11 +456,21 @@ class MediaBrowserImplLegacy extends MediaControllerImplLegacy implements MediaB
     private class GetChildrenCallback extends SubscriptionCallback {
         final ResolvableFuture<BrowserResult> mFuture;
         final String mParentId;
+        // Token of the next page and size of this page, when getting a page of children.
+        final String mNextPageToken;
+        final int mPageSize;
 
         GetChildrenCallback(ResolvableFuture<BrowserResult> future, String parentId) {
+            this(future, parentId, null, 0);
+        }
+
+        GetChildrenCallback(ResolvableFuture<BrowserResult> future, String parentId,
+                String nextPageToken, int pageSize) {
             super();
             mFuture = future;
             mParentId = parentId;
+            mNextPageToken = nextPageToken;
+            mPageSize = pageSize;
         }
 
         @Override
@@ -464,7 +514,11 @@ class MediaBrowserImplLegacy extends MediaControllerImplLegacy implements MediaB
                 // API and new API as follows.
                 // - Old API: Extra/Option specified with subscribe().
                 // - New API: Extra from MediaLibraryService to MediaBrowser
-                mFuture.set(new BrowserResult(RESULT_CODE_SUCCESS, items, null));
+                BrowserResult result = new BrowserResult(RESULT_CODE_SUCCESS, items, null);
+                if (mNextPageToken != null && items.size() >= mPageSize) {
+                    result.mNextPageToken = mNextPageToken;
+                }
+                mFuture.set(result);
             }
         }
     }
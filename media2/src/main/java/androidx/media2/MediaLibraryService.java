@@ -46,6 +46,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Executor;
 
@@ -160,6 +161,40 @@ public abstract class MediaLibraryService extends MediaSessionService {
                 return new LibraryResult(RESULT_CODE_NOT_SUPPORTED);
             }
 
+            /**
+             * Called when a browser starts reading the children of the given parent page by page
+             * with {@link androidx.media2.MediaBrowser#getChildrenPage(String, String, int,
+             * LibraryParams)}.
+             * <p>
+             * Return an iterator over all the children. The session keeps the iterator and reads
+             * only as many items as needed for each page the browser asks for, so the children
+             * don't need to be in memory at once. Each page is kept small enough to be sent in a
+             * single transaction, regardless of the page size requested by the browser. The
+             * iterator is dropped when all the items are read, when the browser closes it with
+             * {@link androidx.media2.MediaBrowser#closeChildrenCursor(String)}, when the browser
+             * opens too many others, when the browser disconnects or when the session is closed.
+             * An iterator that implements {@link java.io.Closeable} is closed then, on the
+             * callback executor.
+             * <p>
+             * The iterator is called on the callback executor, and items must be valid as for
+             * {@link #onGetChildren}. The default implementation returns {@code null}, in which
+             * case the pages are read with {@link #onGetChildren}.
+             *
+             * @param session the session for this event
+             * @param controller controller
+             * @param parentId non-empty parent id to get children
+             * @param params library params
+             * @return an iterator over the children, or {@code null} to read them with
+             *         {@link #onGetChildren}
+             * @see SessionCommand#COMMAND_CODE_LIBRARY_GET_CHILDREN
+             * @see LibraryParams
+             */
+            public @Nullable Iterator<MediaItem> onGetChildrenIterator(
+                    @NonNull MediaLibrarySession session, @NonNull ControllerInfo controller,
+                    @NonNull String parentId, @Nullable LibraryParams params) {
+                return null;
+            }
+
             /**
              * Called when a controller subscribes to the parent.
              * <p>
@@ -414,6 +449,11 @@ public abstract class MediaLibraryService extends MediaSessionService {
             LibraryResult onGetChildrenOnExecutor(@NonNull ControllerInfo controller,
                     @NonNull String parentId, int page, int pageSize,
                     @Nullable LibraryParams params);
+            LibraryResult onGetChildrenPageOnExecutor(@NonNull ControllerInfo controller,
+                    @NonNull String parentId, @Nullable String pageToken, int pageSize,
+                    @Nullable LibraryParams params);
+            int onCloseChildrenCursorOnExecutor(@NonNull ControllerInfo controller,
+                    @NonNull String pageToken);
             int onSubscribeOnExecutor(@NonNull ControllerInfo controller,
                     @NonNull String parentId, @Nullable LibraryParams params);
             int onUnsubscribeOnExecutor(@NonNull ControllerInfo controller,
@@ -683,6 +723,8 @@ public abstract class MediaLibraryService extends MediaSessionService {
         List<MediaItem> mItemList;
         @ParcelField(5)
         ParcelImplListSlice mItemListSlice;
+        @ParcelField(6)
+        String mNextPageToken;
 
         // For versioned parcelable
         LibraryResult() {
@@ -768,6 +810,10 @@ public abstract class MediaLibraryService extends MediaSessionService {
             return mParams;
         }
 
+        String getNextPageToken() {
+            return mNextPageToken;
+        }
+
         /**
          * @hide
          */
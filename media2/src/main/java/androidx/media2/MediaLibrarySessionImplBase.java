@@ -16,11 +16,13 @@
 
 package androidx.media2;
 
+import static androidx.media2.MediaLibraryService.LibraryResult.RESULT_CODE_BAD_VALUE;
 import static androidx.media2.MediaLibraryService.LibraryResult.RESULT_CODE_SUCCESS;
 import static androidx.media2.MediaLibraryService.LibraryResult.RESULT_CODE_UNKNOWN_ERROR;
 
 import android.app.PendingIntent;
 import android.content.Context;
+import android.os.Parcel;
 import android.os.RemoteException;
 import android.support.v4.media.session.MediaSessionCompat.Token;
 import android.text.TextUtils;
@@ -39,14 +41,31 @@ import androidx.media2.MediaSession.ControllerInfo;
 import androidx.media2.MediaSession.SessionCallback;
 import androidx.versionedparcelable.ParcelImpl;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Executor;
 
 class MediaLibrarySessionImplBase extends MediaSessionImplBase implements MediaLibrarySessionImpl {
+    // Upper bound of the parcelled size of the items in a page of children. Kept below the size
+    // that ParcelImplListSlice sends inline, so that a page never needs synchronous binder calls.
+    private static final int CHILDREN_PAGE_SIZE_LIMIT_IN_BYTES = 32 * 1024;
+    // Number of children cursors kept open per controller. The oldest is closed beyond this.
+    // Cursors are also closed when their controller disconnects or the session is closed.
+    private static final int MAX_CHILDREN_CURSORS_PER_CONTROLLER = 8;
+
     @GuardedBy("mLock")
     private final ArrayMap<ControllerCb, Set<String>> mSubscriptions = new ArrayMap<>();
+    @GuardedBy("mLock")
+    private final ArrayMap<ControllerInfo, LinkedHashMap<String, ChildrenCursor>>
+            mChildrenCursors = new ArrayMap<>();
+    @GuardedBy("mLock")
+    private int mNextChildrenCursorId;
 
     MediaLibrarySessionImplBase(MediaSession instance, Context context, String id,
             SessionPlayer player, PendingIntent sessionActivity, Executor callbackExecutor,
@@ -179,7 +198,8 @@ class MediaLibrarySessionImplBase extends MediaSessionImplBase implements MediaL
         return returnedResult;
     }
 
-    private boolean isValidItem(MediaItem item) {
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    boolean isValidItem(MediaItem item) {
         if (item == null) {
             throw new RuntimeException("Item shouldn't be null for the success");
         }
@@ -236,6 +256,138 @@ class MediaLibrarySessionImplBase extends MediaSessionImplBase implements MediaL
         return ensureNonNullResultWithValidList(result, pageSize);
     }
 
+    @Override
+    public LibraryResult onGetChildrenPageOnExecutor(ControllerInfo controller,
+            String parentId, String pageToken, int pageSize, LibraryParams params) {
+        ChildrenCursor cursor;
+        if (pageToken == null) {
+            Iterator<MediaItem> iterator = getCallback().onGetChildrenIterator(getInstance(),
+                    controller, parentId, params);
+            cursor = new ChildrenCursor(parentId, params, iterator, pageSize);
+            pageToken = addChildrenCursor(controller, cursor);
+        } else {
+            synchronized (mLock) {
+                LinkedHashMap<String, ChildrenCursor> cursors = mChildrenCursors.get(controller);
+                cursor = cursors != null ? cursors.get(pageToken) : null;
+            }
+            if (cursor == null || !cursor.mParentId.equals(parentId)) {
+                Log.w(TAG, "getChildrenPage(): Ignoring unknown page token from " + controller);
+                return new LibraryResult(RESULT_CODE_BAD_VALUE);
+            }
+        }
+
+        LibraryResult result;
+        synchronized (cursor) {
+            if (cursor.mClosed) {
+                // Closed by another request since it was looked up.
+                return new LibraryResult(RESULT_CODE_BAD_VALUE);
+            }
+            result = cursor.nextPage(controller, pageSize);
+        }
+        if (result.getResultCode() == RESULT_CODE_SUCCESS && cursor.hasNext()) {
+            result.mNextPageToken = pageToken;
+        } else {
+            removeChildrenCursor(controller, pageToken);
+        }
+        return result;
+    }
+
+    @Override
+    public int onCloseChildrenCursorOnExecutor(ControllerInfo controller, String pageToken) {
+        return removeChildrenCursor(controller, pageToken)
+                ? RESULT_CODE_SUCCESS : RESULT_CODE_BAD_VALUE;
+    }
+
+    /**
+     * Keeps the cursor for the controller, closing its oldest cursor if it has too many.
+     *
+     * @return the page token of the cursor
+     */
+    private String addChildrenCursor(ControllerInfo controller, ChildrenCursor cursor) {
+        String pageToken;
+        List<ChildrenCursor> closed = new ArrayList<>();
+        synchronized (mLock) {
+            pageToken = String.valueOf(mNextChildrenCursorId++);
+            // Drop the cursors of the controllers that disconnected since, in case the cursor of
+            // a request was added after its controller was removed.
+            for (int i = mChildrenCursors.size() - 1; i >= 0; i--) {
+                if (!isConnected(mChildrenCursors.keyAt(i))) {
+                    closed.addAll(mChildrenCursors.removeAt(i).values());
+                }
+            }
+            LinkedHashMap<String, ChildrenCursor> cursors = mChildrenCursors.get(controller);
+            if (cursors == null) {
+                cursors = new LinkedHashMap<>();
+                mChildrenCursors.put(controller, cursors);
+            }
+            if (cursors.size() >= MAX_CHILDREN_CURSORS_PER_CONTROLLER) {
+                Iterator<ChildrenCursor> oldest = cursors.values().iterator();
+                closed.add(oldest.next());
+                oldest.remove();
+            }
+            cursors.put(pageToken, cursor);
+        }
+        for (int i = 0; i < closed.size(); i++) {
+            closed.get(i).close();
+        }
+        return pageToken;
+    }
+
+    private boolean removeChildrenCursor(ControllerInfo controller, String pageToken) {
+        ChildrenCursor cursor;
+        synchronized (mLock) {
+            LinkedHashMap<String, ChildrenCursor> cursors = mChildrenCursors.get(controller);
+            cursor = cursors != null ? cursors.remove(pageToken) : null;
+            if (cursor == null) {
+                return false;
+            }
+            if (cursors.isEmpty()) {
+                mChildrenCursors.remove(controller);
+            }
+        }
+        cursor.close();
+        return true;
+    }
+
+    @Override
+    public void onControllerDisconnected(ControllerInfo controller) {
+        super.onControllerDisconnected(controller);
+        final LinkedHashMap<String, ChildrenCursor> cursors;
+        synchronized (mLock) {
+            cursors = mChildrenCursors.remove(controller);
+        }
+        if (cursors != null) {
+            closeChildrenCursorsOnExecutor(new ArrayList<>(cursors.values()));
+        }
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        final List<ChildrenCursor> cursors = new ArrayList<>();
+        synchronized (mLock) {
+            for (int i = 0; i < mChildrenCursors.size(); i++) {
+                cursors.addAll(mChildrenCursors.valueAt(i).values());
+            }
+            mChildrenCursors.clear();
+        }
+        if (!cursors.isEmpty()) {
+            closeChildrenCursorsOnExecutor(cursors);
+        }
+    }
+
+    private void closeChildrenCursorsOnExecutor(final List<ChildrenCursor> cursors) {
+        // Iterators are only used on the callback executor.
+        getCallbackExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < cursors.size(); i++) {
+                    cursors.get(i).close();
+                }
+            }
+        });
+    }
+
     @Override
     public int onSubscribeOnExecutor(ControllerInfo controller, String parentId,
             LibraryParams params) {
@@ -283,14 +435,141 @@ class MediaLibrarySessionImplBase extends MediaSessionImplBase implements MediaL
     }
 
     @Override
-    void dispatchRemoteControllerCallbackTask(RemoteControllerCallbackTask task) {
-        super.dispatchRemoteControllerCallbackTask(task);
+    void dispatchRemoteControllerCallbackTask(int eventType, RemoteControllerCallbackTask task) {
+        super.dispatchRemoteControllerCallbackTask(eventType, task);
         MediaLibraryServiceLegacyStub legacyStub = getLegacyBrowserService();
         if (legacyStub != null) {
             dispatchRemoteControllerCallbackTask(legacyStub.getControllersForAll(), task);
         }
     }
 
+    /**
+     * Position of a controller in the children of a parent, read page by page. Reads the
+     * children from the iterator given by the callback, or page by page with
+     * {@link MediaLibrarySessionCallback#onGetChildren} if there is none.
+     */
+    private class ChildrenCursor {
+        final String mParentId;
+        final LibraryParams mParams;
+        final Iterator<MediaItem> mIterator;
+
+        // Used when reading with onGetChildren(): the page size, which stays the one of the
+        // first request so that page numbers keep matching, the items of the last page that
+        // weren't sent yet, the number of the next page and whether the last page was the end.
+        final int mFetchPageSize;
+        List<MediaItem> mPageItems;
+        int mPageIndex;
+        int mNextPage;
+        boolean mLastPage;
+
+        // Item read from the iterator that didn't fit in the previous page.
+        MediaItem mPendingItem;
+
+        // Whether the cursor was closed, guarded by the cursor itself.
+        boolean mClosed;
+
+        ChildrenCursor(String parentId, LibraryParams params, Iterator<MediaItem> iterator,
+                int fetchPageSize) {
+            mParentId = parentId;
+            mParams = params;
+            mIterator = iterator;
+            mFetchPageSize = fetchPageSize;
+        }
+
+        /**
+         * Closes the iterator if it is {@link Closeable}. Waits for a page being read to be
+         * done first.
+         */
+        synchronized void close() {
+            if (mClosed) {
+                return;
+            }
+            mClosed = true;
+            if (mIterator instanceof Closeable) {
+                try {
+                    ((Closeable) mIterator).close();
+                } catch (IOException e) {
+                    Log.w(TAG, "Failed to close the children iterator of " + mParentId, e);
+                }
+            }
+        }
+
+        boolean hasNext() {
+            if (mPendingItem != null) {
+                return true;
+            }
+            if (mIterator != null) {
+                return mIterator.hasNext();
+            }
+            return (mPageItems != null && mPageIndex < mPageItems.size()) || !mLastPage;
+        }
+
+        /**
+         * Reads the next page of at most pageSize items, stopping earlier if the page would be
+         * too large for a single transaction.
+         */
+        LibraryResult nextPage(ControllerInfo controller, int pageSize) {
+            List<MediaItem> items = new ArrayList<>();
+            Parcel parcel = Parcel.obtain();
+            try {
+                while (items.size() < pageSize) {
+                    MediaItem item = mPendingItem;
+                    mPendingItem = null;
+                    if (item == null) {
+                        if (mIterator == null) {
+                            LibraryResult error = fillPage(controller);
+                            if (error != null) {
+                                if (items.isEmpty()) {
+                                    return error;
+                                }
+                                break;
+                            }
+                            if (mPageIndex >= mPageItems.size()) {
+                                break;
+                            }
+                            item = mPageItems.get(mPageIndex++);
+                        } else if (mIterator.hasNext()) {
+                            item = mIterator.next();
+                            isValidItem(item);
+                        } else {
+                            break;
+                        }
+                    }
+                    parcel.writeParcelable(MediaUtils.toParcelable(item), 0);
+                    if (parcel.dataSize() > CHILDREN_PAGE_SIZE_LIMIT_IN_BYTES
+                            && !items.isEmpty()) {
+                        mPendingItem = item;
+                        break;
+                    }
+                    items.add(item);
+                }
+            } finally {
+                parcel.recycle();
+            }
+            return new LibraryResult(RESULT_CODE_SUCCESS, items, mParams);
+        }
+
+        /**
+         * Gets the next page from onGetChildren() if all the items of the current one were
+         * read. Returns the result of onGetChildren() if it failed, null otherwise.
+         */
+        private LibraryResult fillPage(ControllerInfo controller) {
+            if (mLastPage || (mPageItems != null && mPageIndex < mPageItems.size())) {
+                return null;
+            }
+            LibraryResult result = onGetChildrenOnExecutor(controller, mParentId, mNextPage++,
+                    mFetchPageSize, mParams);
+            if (result.getResultCode() != RESULT_CODE_SUCCESS) {
+                mLastPage = true;
+                return result;
+            }
+            mPageItems = result.getMediaItems();
+            mPageIndex = 0;
+            mLastPage = mPageItems.size() < mFetchPageSize;
+            return null;
+        }
+    }
+
     @SuppressWarnings("WeakerAccess") /* synthetic access */
     boolean isSubscribed(ControllerCb callback, String parentId) {
         synchronized (mLock) {
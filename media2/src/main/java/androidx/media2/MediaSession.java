@@ -1119,6 +1119,7 @@ public class MediaSession implements AutoCloseable {
         PendingIntent getSessionActivity();
         IBinder getLegacyBrowserServiceBinder();
         void connectFromService(IMediaController caller, String packageName, int pid, int uid);
+        void onControllerDisconnected(ControllerInfo controller);
     }
 
     /**
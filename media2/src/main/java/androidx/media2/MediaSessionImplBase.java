@@ -17,6 +17,17 @@
 package androidx.media2;
 
 import static androidx.media2.BaseResult.RESULT_CODE_BAD_VALUE;
+import static androidx.media2.ControllerEventFanOut.EVENT_BUFFERING_STATE;
+import static androidx.media2.ControllerEventFanOut.EVENT_CURRENT_MEDIA_ITEM;
+import static androidx.media2.ControllerEventFanOut.EVENT_NONE;
+import static androidx.media2.ControllerEventFanOut.EVENT_PLAYBACK_INFO;
+import static androidx.media2.ControllerEventFanOut.EVENT_PLAYBACK_SPEED;
+import static androidx.media2.ControllerEventFanOut.EVENT_PLAYER_STATE;
+import static androidx.media2.ControllerEventFanOut.EVENT_PLAYLIST;
+import static androidx.media2.ControllerEventFanOut.EVENT_PLAYLIST_METADATA;
+import static androidx.media2.ControllerEventFanOut.EVENT_REPEAT_MODE;
+import static androidx.media2.ControllerEventFanOut.EVENT_SEEK_COMPLETED;
+import static androidx.media2.ControllerEventFanOut.EVENT_SHUFFLE_MODE;
 import static androidx.media2.MediaMetadata.BROWSABLE_TYPE_NONE;
 import static androidx.media2.MediaMetadata.METADATA_KEY_BROWSABLE;
 import static androidx.media2.MediaMetadata.METADATA_KEY_DURATION;
@@ -99,6 +110,7 @@ class MediaSessionImplBase implements MediaSessionImpl {
     private final MediaSessionCompat mSessionCompat;
     private final MediaSessionStub mSessionStub;
     private final MediaSessionLegacyStub mSessionLegacyStub;
+    private final ControllerEventFanOut mEventFanOut;
     @SuppressWarnings("WeakerAccess") /* synthetic access */
     final Executor mCallbackExecutor;
     @SuppressWarnings("WeakerAccess") /* synthetic access */
@@ -130,6 +142,24 @@ class MediaSessionImplBase implements MediaSessionImpl {
         mHandler = new Handler(mHandlerThread.getLooper());
 
         mSessionStub = new MediaSessionStub(this);
+        mEventFanOut = new ControllerEventFanOut(new ControllerEventFanOut.Target() {
+            @Override
+            public void deliver(@NonNull ControllerInfo controller,
+                    @NonNull RemoteControllerCallbackTask task) {
+                deliverRemoteControllerCallbackTask(controller, task);
+            }
+
+            @Override
+            public void onControllerStalled(@NonNull final ControllerInfo controller) {
+                // Called from dispatch(), possibly with mLock held.
+                mCallbackExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        MediaSessionImplBase.this.onControllerStalled(controller);
+                    }
+                });
+            }
+        });
         mSessionActivity = sessionActivity;
 
         mCallback = callback;
@@ -305,6 +335,8 @@ class MediaSessionImplBase implements MediaSessionImpl {
                     callback.onDisconnected();
                 }
             });
+            // Already queued events, including the disconnection above, are still delivered.
+            mEventFanOut.close();
             mHandler.removeCallbacksAndMessages(null);
             if (mHandlerThread.isAlive()) {
                 if (Build.VERSION.SDK_INT >= 18) {
@@ -343,6 +375,15 @@ class MediaSessionImplBase implements MediaSessionImpl {
         return controllers;
     }
 
+    /**
+     * Called when a controller is removed from the connected controllers, before
+     * {@link SessionCallback#onDisconnected} is posted.
+     */
+    @Override
+    public void onControllerDisconnected(ControllerInfo controller) {
+        // Nothing is kept per controller in a plain session.
+    }
+
     @Override
     public boolean isConnected(ControllerInfo controller) {
         if (controller == null) {
@@ -936,54 +977,60 @@ class MediaSessionImplBase implements MediaSessionImpl {
         List<MediaItem> oldPlaylist = oldPlayer.getPlaylist();
         final List<MediaItem> newPlaylist = getPlaylistOrNull();
         if (!ObjectsCompat.equals(oldPlaylist, newPlaylist)) {
-            dispatchRemoteControllerCallbackTask(new RemoteControllerCallbackTask() {
-                @Override
-                public void run(ControllerCb callback) throws RemoteException {
-                    callback.onPlaylistChanged(
-                            newPlaylist, getPlaylistMetadata(), getCurrentMediaItemIndex(),
-                            getPreviousMediaItemIndex(), getNextMediaItemIndex());
-                }
-            });
+            dispatchRemoteControllerCallbackTask(EVENT_PLAYLIST,
+                    new RemoteControllerCallbackTask() {
+                        @Override
+                        public void run(ControllerCb callback) throws RemoteException {
+                            callback.onPlaylistChanged(
+                                    newPlaylist, getPlaylistMetadata(), getCurrentMediaItemIndex(),
+                                    getPreviousMediaItemIndex(), getNextMediaItemIndex());
+                        }
+                    });
         } else {
             MediaMetadata oldMetadata = oldPlayer.getPlaylistMetadata();
             final MediaMetadata newMetadata = getPlaylistMetadata();
             if (!ObjectsCompat.equals(oldMetadata, newMetadata)) {
-                dispatchRemoteControllerCallbackTask(new RemoteControllerCallbackTask() {
-                    @Override
-                    public void run(ControllerCb callback) throws RemoteException {
-                        callback.onPlaylistMetadataChanged(newMetadata);
-                    }
-                });
+                dispatchRemoteControllerCallbackTask(EVENT_PLAYLIST_METADATA,
+                        new RemoteControllerCallbackTask() {
+                            @Override
+                            public void run(ControllerCb callback) throws RemoteException {
+                                callback.onPlaylistMetadataChanged(newMetadata);
+                            }
+                        });
             }
         }
         MediaItem oldCurrentItem = oldPlayer.getCurrentMediaItem();
         final MediaItem newCurrentItem = getCurrentMediaItemOrNull();
         if (!ObjectsCompat.equals(oldCurrentItem, newCurrentItem)) {
-            dispatchRemoteControllerCallbackTask(new RemoteControllerCallbackTask() {
-                @Override
-                public void run(ControllerCb callback) throws RemoteException {
-                    callback.onCurrentMediaItemChanged(newCurrentItem, getCurrentMediaItemIndex(),
-                            getPreviousMediaItemIndex(), getNextMediaItemIndex());
-                }
-            });
+            dispatchRemoteControllerCallbackTask(EVENT_CURRENT_MEDIA_ITEM,
+                    new RemoteControllerCallbackTask() {
+                        @Override
+                        public void run(ControllerCb callback) throws RemoteException {
+                            callback.onCurrentMediaItemChanged(newCurrentItem,
+                                    getCurrentMediaItemIndex(), getPreviousMediaItemIndex(),
+                                    getNextMediaItemIndex());
+                        }
+                    });
         }
         final @SessionPlayer.RepeatMode int repeatMode = getRepeatMode();
         if (oldPlayer.getRepeatMode() != repeatMode) {
-            dispatchRemoteControllerCallbackTask(new RemoteControllerCallbackTask() {
-                @Override
-                public void run(ControllerCb callback) throws RemoteException {
-                    callback.onRepeatModeChanged(repeatMode);
-                }
-            });
+            dispatchRemoteControllerCallbackTask(EVENT_REPEAT_MODE,
+                    new RemoteControllerCallbackTask() {
+                        @Override
+                        public void run(ControllerCb callback) throws RemoteException {
+                            callback.onRepeatModeChanged(repeatMode);
+                        }
+                    });
         }
         final @SessionPlayer.ShuffleMode int shuffleMode = getShuffleMode();
         if (oldPlayer.getShuffleMode() != shuffleMode) {
-            dispatchRemoteControllerCallbackTask(new RemoteControllerCallbackTask() {
-                @Override
-                public void run(ControllerCb callback) throws RemoteException {
-                    callback.onShuffleModeChanged(shuffleMode);
-                }
-            });
+            dispatchRemoteControllerCallbackTask(EVENT_SHUFFLE_MODE,
+                    new RemoteControllerCallbackTask() {
+                        @Override
+                        public void run(ControllerCb callback) throws RemoteException {
+                            callback.onShuffleModeChanged(shuffleMode);
+                        }
+                    });
         }
 
         // Always forcefully send the player state and buffered state to send the current position
@@ -991,47 +1038,78 @@ class MediaSessionImplBase implements MediaSessionImpl {
         final long currentTimeMs = SystemClock.elapsedRealtime();
         final long positionMs = getCurrentPosition();
         final int playerState = getPlayerState();
-        dispatchRemoteControllerCallbackTask(new RemoteControllerCallbackTask() {
-            @Override
-            public void run(ControllerCb callback) throws RemoteException {
-                callback.onPlayerStateChanged(currentTimeMs, positionMs, playerState);
-            }
-        });
+        dispatchRemoteControllerCallbackTask(EVENT_PLAYER_STATE,
+                new RemoteControllerCallbackTask() {
+                    @Override
+                    public void run(ControllerCb callback) throws RemoteException {
+                        callback.onPlayerStateChanged(currentTimeMs, positionMs, playerState);
+                    }
+                });
         final MediaItem item = getCurrentMediaItemOrNull();
         if (item != null) {
             final int bufferingState = getBufferingState();
             final long bufferedPositionMs = getBufferedPosition();
-            dispatchRemoteControllerCallbackTask(new RemoteControllerCallbackTask() {
-                @Override
-                public void run(ControllerCb callback) throws RemoteException {
-                    callback.onBufferingStateChanged(item, bufferingState, bufferedPositionMs);
-                }
-            });
+            dispatchRemoteControllerCallbackTask(EVENT_BUFFERING_STATE,
+                    new RemoteControllerCallbackTask() {
+                        @Override
+                        public void run(ControllerCb callback) throws RemoteException {
+                            callback.onBufferingStateChanged(item, bufferingState,
+                                    bufferedPositionMs);
+                        }
+                    });
         }
         final float speed = getPlaybackSpeed();
         if (speed != oldPlayer.getPlaybackSpeed()) {
-            dispatchRemoteControllerCallbackTask(new RemoteControllerCallbackTask() {
-                @Override
-                public void run(ControllerCb callback) throws RemoteException {
-                    callback.onPlaybackSpeedChanged(currentTimeMs, positionMs, speed);
-                }
-            });
+            dispatchRemoteControllerCallbackTask(EVENT_PLAYBACK_SPEED,
+                    new RemoteControllerCallbackTask() {
+                        @Override
+                        public void run(ControllerCb callback) throws RemoteException {
+                            callback.onPlaybackSpeedChanged(currentTimeMs, positionMs, speed);
+                        }
+                    });
         }
         // Note: AudioInfo is updated outside of this API.
     }
 
     @SuppressWarnings("WeakerAccess") /* synthetic access */
     void notifyPlaybackInfoChangedNotLocked(final PlaybackInfo info) {
-        dispatchRemoteControllerCallbackTask(new RemoteControllerCallbackTask() {
-            @Override
-            public void run(ControllerCb callback) throws RemoteException {
-                callback.onPlaybackInfoChanged(info);
-            }
-        });
+        dispatchRemoteControllerCallbackTask(EVENT_PLAYBACK_INFO,
+                new RemoteControllerCallbackTask() {
+                    @Override
+                    public void run(ControllerCb callback) throws RemoteException {
+                        callback.onPlaybackInfoChanged(info);
+                    }
+                });
     }
 
     void dispatchRemoteControllerCallbackTask(@NonNull ControllerInfo controller,
             @NonNull RemoteControllerCallbackTask task) {
+        mEventFanOut.dispatch(controller, EVENT_NONE, task);
+    }
+
+    void dispatchRemoteControllerCallbackTask(@NonNull RemoteControllerCallbackTask task) {
+        dispatchRemoteControllerCallbackTask(EVENT_NONE, task);
+    }
+
+    /**
+     * Sends an event to all the connected controllers through the {@link ControllerEventFanOut}.
+     * Pending events of the same type, other than {@link ControllerEventFanOut#EVENT_NONE},
+     * are replaced by the new one for the controllers that haven't received them yet.
+     */
+    void dispatchRemoteControllerCallbackTask(int eventType,
+            @NonNull RemoteControllerCallbackTask task) {
+        List<ControllerInfo> controllers =
+                mSessionStub.getConnectedControllersManager().getConnectedControllers();
+        controllers.add(mSessionLegacyStub.getControllersForAll());
+        mEventFanOut.dispatch(controllers, eventType, task);
+    }
+
+    /**
+     * Runs the task with the controller's callback on the calling thread. Called by the
+     * {@link ControllerEventFanOut}.
+     */
+    void deliverRemoteControllerCallbackTask(@NonNull ControllerInfo controller,
+            @NonNull RemoteControllerCallbackTask task) {
         if (!isConnected(controller)) {
             // Do not send command to an unconnected controller.
             return;
@@ -1050,15 +1128,6 @@ class MediaSessionImplBase implements MediaSessionImpl {
         }
     }
 
-    void dispatchRemoteControllerCallbackTask(@NonNull RemoteControllerCallbackTask task) {
-        List<ControllerInfo> controllers =
-                mSessionStub.getConnectedControllersManager().getConnectedControllers();
-        controllers.add(mSessionLegacyStub.getControllersForAll());
-        for (int i = 0; i < controllers.size(); i++) {
-            dispatchRemoteControllerCallbackTask(controllers.get(i), task);
-        }
-    }
-
     private ListenableFuture<SessionResult> dispatchRemoteControllerTask(
             @NonNull ControllerInfo controller, @NonNull RemoteControllerTask task) {
         if (!isConnected(controller)) {
@@ -1145,6 +1214,26 @@ class MediaSessionImplBase implements MediaSessionImpl {
         mSessionStub.getConnectedControllersManager().removeController(controller);
     }
 
+    /**
+     * Removes controller that is too far behind the events of this session. Called by the
+     * {@link ControllerEventFanOut}.
+     */
+    void onControllerStalled(ControllerInfo controller) {
+        // Note: Legacy controllers are never stalled, because calls to the legacy stubs are
+        //       handled in this process.
+        // Tell the controller, so that it doesn't keep waiting for events that won't come. Its
+        // callback is oneway, so this doesn't block on the stalled controller.
+        ControllerCb callback = controller.getControllerCb();
+        if (callback != null) {
+            try {
+                callback.onDisconnected();
+            } catch (RemoteException e) {
+                Log.w(TAG, "Exception in " + controller.toString(), e);
+            }
+        }
+        mSessionStub.getConnectedControllersManager().removeController(controller);
+    }
+
     ///////////////////////////////////////////////////
     // Inner classes
     ///////////////////////////////////////////////////
@@ -1195,13 +1284,16 @@ class MediaSessionImplBase implements MediaSessionImpl {
 
             // Note: No sanity check whether the item is in the playlist.
             updateDurationIfNeeded(player, item);
-            session.dispatchRemoteControllerCallbackTask(new RemoteControllerCallbackTask() {
-                @Override
-                public void run(ControllerCb callback) throws RemoteException {
-                    callback.onCurrentMediaItemChanged(item, session.getCurrentMediaItemIndex(),
-                            session.getPreviousMediaItemIndex(), session.getNextMediaItemIndex());
-                }
-            });
+            session.dispatchRemoteControllerCallbackTask(EVENT_CURRENT_MEDIA_ITEM,
+                    new RemoteControllerCallbackTask() {
+                        @Override
+                        public void run(ControllerCb callback) throws RemoteException {
+                            callback.onCurrentMediaItemChanged(item,
+                                    session.getCurrentMediaItemIndex(),
+                                    session.getPreviousMediaItemIndex(),
+                                    session.getNextMediaItemIndex());
+                        }
+                    });
         }
 
         @Override
@@ -1212,47 +1304,57 @@ class MediaSessionImplBase implements MediaSessionImpl {
             }
             session.getCallback().onPlayerStateChanged(session.getInstance(), state);
             updateDurationIfNeeded(player, player.getCurrentMediaItem());
-            session.dispatchRemoteControllerCallbackTask(new RemoteControllerCallbackTask() {
-                @Override
-                public void run(ControllerCb callback) throws RemoteException {
-                    callback.onPlayerStateChanged(SystemClock.elapsedRealtime(),
-                            player.getCurrentPosition(), state);
-                }
-            });
+            // Read the position here rather than in the task, so it's only read once for all
+            // the controllers and matches the time of the event.
+            final long eventTimeMs = SystemClock.elapsedRealtime();
+            final long positionMs = player.getCurrentPosition();
+            session.dispatchRemoteControllerCallbackTask(EVENT_PLAYER_STATE,
+                    new RemoteControllerCallbackTask() {
+                        @Override
+                        public void run(ControllerCb callback) throws RemoteException {
+                            callback.onPlayerStateChanged(eventTimeMs, positionMs, state);
+                        }
+                    });
         }
 
         @Override
         public void onBufferingStateChanged(final SessionPlayer player,
                 final MediaItem item, final int state) {
             updateDurationIfNeeded(player, item);
-            dispatchRemoteControllerTask(player, new RemoteControllerCallbackTask() {
-                @Override
-                public void run(ControllerCb callback) throws RemoteException {
-                    callback.onBufferingStateChanged(item, state, player.getBufferedPosition());
-                }
-            });
+            final long bufferedPositionMs = player.getBufferedPosition();
+            dispatchRemoteControllerTask(player, EVENT_BUFFERING_STATE,
+                    new RemoteControllerCallbackTask() {
+                        @Override
+                        public void run(ControllerCb callback) throws RemoteException {
+                            callback.onBufferingStateChanged(item, state, bufferedPositionMs);
+                        }
+                    });
         }
 
         @Override
         public void onPlaybackSpeedChanged(final SessionPlayer player, final float speed) {
-            dispatchRemoteControllerTask(player, new RemoteControllerCallbackTask() {
-                @Override
-                public void run(ControllerCb callback) throws RemoteException {
-                    callback.onPlaybackSpeedChanged(SystemClock.elapsedRealtime(),
-                            player.getCurrentPosition(), speed);
-                }
-            });
+            final long eventTimeMs = SystemClock.elapsedRealtime();
+            final long positionMs = player.getCurrentPosition();
+            dispatchRemoteControllerTask(player, EVENT_PLAYBACK_SPEED,
+                    new RemoteControllerCallbackTask() {
+                        @Override
+                        public void run(ControllerCb callback) throws RemoteException {
+                            callback.onPlaybackSpeedChanged(eventTimeMs, positionMs, speed);
+                        }
+                    });
         }
 
         @Override
         public void onSeekCompleted(final SessionPlayer player, final long position) {
-            dispatchRemoteControllerTask(player, new RemoteControllerCallbackTask() {
-                @Override
-                public void run(ControllerCb callback) throws RemoteException {
-                    callback.onSeekCompleted(SystemClock.elapsedRealtime(),
-                            player.getCurrentPosition(), position);
-                }
-            });
+            final long eventTimeMs = SystemClock.elapsedRealtime();
+            final long positionMs = player.getCurrentPosition();
+            dispatchRemoteControllerTask(player, EVENT_SEEK_COMPLETED,
+                    new RemoteControllerCallbackTask() {
+                        @Override
+                        public void run(ControllerCb callback) throws RemoteException {
+                            callback.onSeekCompleted(eventTimeMs, positionMs, position);
+                        }
+                    });
         }
 
         @Override
@@ -1277,49 +1379,55 @@ class MediaSessionImplBase implements MediaSessionImpl {
                 mList = list;
             }
 
-            dispatchRemoteControllerTask(player, new RemoteControllerCallbackTask() {
-                @Override
-                public void run(ControllerCb callback) throws RemoteException {
-                    callback.onPlaylistChanged(list, metadata, session.getCurrentMediaItemIndex(),
-                            session.getPreviousMediaItemIndex(), session.getNextMediaItemIndex());
-                }
-            });
+            dispatchRemoteControllerTask(player, EVENT_PLAYLIST,
+                    new RemoteControllerCallbackTask() {
+                        @Override
+                        public void run(ControllerCb callback) throws RemoteException {
+                            callback.onPlaylistChanged(list, metadata,
+                                    session.getCurrentMediaItemIndex(),
+                                    session.getPreviousMediaItemIndex(),
+                                    session.getNextMediaItemIndex());
+                        }
+                    });
         }
 
         @Override
         public void onPlaylistMetadataChanged(final SessionPlayer player,
                 final MediaMetadata metadata) {
-            dispatchRemoteControllerTask(player, new RemoteControllerCallbackTask() {
-                @Override
-                public void run(ControllerCb callback) throws RemoteException {
-                    callback.onPlaylistMetadataChanged(metadata);
-                }
-            });
+            dispatchRemoteControllerTask(player, EVENT_PLAYLIST_METADATA,
+                    new RemoteControllerCallbackTask() {
+                        @Override
+                        public void run(ControllerCb callback) throws RemoteException {
+                            callback.onPlaylistMetadataChanged(metadata);
+                        }
+                    });
         }
 
         @Override
         public void onRepeatModeChanged(final SessionPlayer player, final int repeatMode) {
-            dispatchRemoteControllerTask(player, new RemoteControllerCallbackTask() {
-                @Override
-                public void run(ControllerCb callback) throws RemoteException {
-                    callback.onRepeatModeChanged(repeatMode);
-                }
-            });
+            dispatchRemoteControllerTask(player, EVENT_REPEAT_MODE,
+                    new RemoteControllerCallbackTask() {
+                        @Override
+                        public void run(ControllerCb callback) throws RemoteException {
+                            callback.onRepeatModeChanged(repeatMode);
+                        }
+                    });
         }
 
         @Override
         public void onShuffleModeChanged(final SessionPlayer player, final int shuffleMode) {
-            dispatchRemoteControllerTask(player, new RemoteControllerCallbackTask() {
-                @Override
-                public void run(ControllerCb callback) throws RemoteException {
-                    callback.onShuffleModeChanged(shuffleMode);
-                }
-            });
+            dispatchRemoteControllerTask(player, EVENT_SHUFFLE_MODE,
+                    new RemoteControllerCallbackTask() {
+                        @Override
+                        public void run(ControllerCb callback) throws RemoteException {
+                            callback.onShuffleModeChanged(shuffleMode);
+                        }
+                    });
         }
 
         @Override
         public void onPlaybackCompleted(SessionPlayer player) {
-            dispatchRemoteControllerTask(player, new RemoteControllerCallbackTask() {
+            dispatchRemoteControllerTask(player, EVENT_NONE, new RemoteControllerCallbackTask() {
                 @Override
                 public void run(ControllerCb callback) throws RemoteException {
                     callback.onPlaybackCompleted();
@@ -1353,13 +1461,13 @@ class MediaSessionImplBase implements MediaSessionImpl {
             return session;
         }
 
-        private void dispatchRemoteControllerTask(@NonNull SessionPlayer player,
+        private void dispatchRemoteControllerTask(@NonNull SessionPlayer player, int eventType,
                 @NonNull RemoteControllerCallbackTask task) {
             final MediaSessionImplBase session = getSession();
             if (session == null || session.getPlayer() != player || player == null) {
                 return;
             }
-            session.dispatchRemoteControllerCallbackTask(task);
+            session.dispatchRemoteControllerCallbackTask(eventType, task);
         }
 
         private void updateDurationIfNeeded(@NonNull final SessionPlayer player,
@@ -1408,16 +1516,17 @@ class MediaSessionImplBase implements MediaSessionImpl {
             if (metadata != null) {
                 final MediaSessionImplBase session = getSession();
                 item.setMetadata(metadata);
-                dispatchRemoteControllerTask(player, new RemoteControllerCallbackTask() {
-                    @Override
-                    public void run(ControllerCb callback) throws RemoteException {
-                        callback.onPlaylistChanged(
-                                player.getPlaylist(), player.getPlaylistMetadata(),
-                                session.getCurrentMediaItemIndex(),
-                                session.getPreviousMediaItemIndex(),
-                                session.getNextMediaItemIndex());
-                    }
-                });
+                dispatchRemoteControllerTask(player, EVENT_PLAYLIST,
+                        new RemoteControllerCallbackTask() {
+                            @Override
+                            public void run(ControllerCb callback) throws RemoteException {
+                                callback.onPlaylistChanged(
+                                        player.getPlaylist(), player.getPlaylistMetadata(),
+                                        session.getCurrentMediaItemIndex(),
+                                        session.getPreviousMediaItemIndex(),
+                                        session.getNextMediaItemIndex());
+                            }
+                        });
             }
         }
     }
@@ -1437,15 +1546,16 @@ class MediaSessionImplBase implements MediaSessionImpl {
             }
             final MediaItem currentItem = session.getCurrentMediaItem();
             if (currentItem != null && item.equals(currentItem)) {
-                session.dispatchRemoteControllerCallbackTask(new RemoteControllerCallbackTask() {
-                    @Override
-                    public void run(ControllerCb callback) throws RemoteException {
-                        callback.onCurrentMediaItemChanged(item,
-                                session.getCurrentMediaItemIndex(),
-                                session.getPreviousMediaItemIndex(),
-                                session.getNextMediaItemIndex());
-                    }
-                });
+                session.dispatchRemoteControllerCallbackTask(EVENT_CURRENT_MEDIA_ITEM,
+                        new RemoteControllerCallbackTask() {
+                            @Override
+                            public void run(ControllerCb callback) throws RemoteException {
+                                callback.onCurrentMediaItemChanged(item,
+                                        session.getCurrentMediaItemIndex(),
+                                        session.getPreviousMediaItemIndex(),
+                                        session.getNextMediaItemIndex());
+                            }
+                        });
             }
         }
     }
@@ -1469,7 +1579,7 @@ class MediaSessionImplBase implements MediaSessionImpl {
             }
             for (int i = 0; i < list.size(); i++) {
                 if (item.equals(list.get(i))) {
-                    session.dispatchRemoteControllerCallbackTask(
+                    session.dispatchRemoteControllerCallbackTask(EVENT_PLAYLIST,
                             new RemoteControllerCallbackTask() {
                                 @Override
                                 public void run(ControllerCb callback) throws RemoteException {
@@ -1101,6 +1101,55 @@ class MediaSessionStub extends IMediaSession.Stub {
                 });
     }
 
+    @Override
+    public void getChildrenPage(final IMediaController caller, int seq, final String parentId,
+            final String pageToken, final int pageSize, final ParcelImpl libraryParams)
+            throws RuntimeException {
+        if (caller == null || libraryParams == null) {
+            return;
+        }
+        dispatchLibrarySessionTask(caller, seq, SessionCommand.COMMAND_CODE_LIBRARY_GET_CHILDREN,
+                new LibrarySessionCallbackTask<LibraryResult>() {
+                    @Override
+                    public LibraryResult run(ControllerInfo controller) {
+                        if (TextUtils.isEmpty(parentId)) {
+                            Log.w(TAG, "getChildrenPage(): Ignoring empty parentId from "
+                                    + controller);
+                            return new LibraryResult(LibraryResult.RESULT_CODE_BAD_VALUE);
+                        }
+                        if (pageSize < 1) {
+                            Log.w(TAG, "getChildrenPage(): Ignoring pageSize less than 1 from "
+                                    + controller);
+                            return new LibraryResult(LibraryResult.RESULT_CODE_BAD_VALUE);
+                        }
+                        return getLibrarySession().onGetChildrenPageOnExecutor(controller,
+                                parentId, pageToken, pageSize,
+                                (LibraryParams) MediaUtils.fromParcelable(libraryParams));
+                    }
+                });
+    }
+
+    @Override
+    public void closeChildrenCursor(final IMediaController caller, int seq,
+            final String pageToken) {
+        if (caller == null) {
+            return;
+        }
+        dispatchLibrarySessionTask(caller, seq, SessionCommand.COMMAND_CODE_LIBRARY_GET_CHILDREN,
+                new LibrarySessionCallbackTask<Integer>() {
+                    @Override
+                    public Integer run(ControllerInfo controller) {
+                        if (TextUtils.isEmpty(pageToken)) {
+                            Log.w(TAG, "closeChildrenCursor(): Ignoring empty pageToken from "
+                                    + controller);
+                            return LibraryResult.RESULT_CODE_BAD_VALUE;
+                        }
+                        return getLibrarySession().onCloseChildrenCursorOnExecutor(controller,
+                                pageToken);
+                    }
+                });
+    }
+
     @Override
     public void search(IMediaController caller, int seq, final String query,
             final ParcelImpl libraryParams) {
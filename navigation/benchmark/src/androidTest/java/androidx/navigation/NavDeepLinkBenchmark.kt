@@ -0,0 +1,127 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.navigation
+
+import android.net.Uri
+import androidx.benchmark.BenchmarkRule
+import androidx.navigation.testing.TestNavigator
+import androidx.navigation.testing.TestNavigatorProvider
+import androidx.test.filters.LargeTest
+import androidx.test.runner.AndroidJUnit4
+import org.junit.Assert.assertNotNull
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+@LargeTest
+class NavDeepLinkBenchmark {
+
+    companion object {
+        private const val DESTINATION_COUNT = 600
+        private const val DEEP_LINK_COUNT = 1500
+    }
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val provider = TestNavigatorProvider()
+
+    // Each destination gets two or three of the deep link patterns below, spread over 30 hosts
+    private val graph = provider.getNavigator(NavGraphNavigator::class.java)
+        .createDestination().apply {
+            val navigator = provider.getNavigator(TestNavigator::class.java)
+            var deepLinkIndex = 0
+            for (destinationIndex in 0 until DESTINATION_COUNT) {
+                addDestination(navigator.createDestination().apply {
+                    id = destinationIndex + 1
+                    val end = DEEP_LINK_COUNT * (destinationIndex + 1) / DESTINATION_COUNT
+                    while (deepLinkIndex < end) {
+                        addDeepLink(createDeepLink(deepLinkIndex++))
+                    }
+                })
+            }
+        }
+
+    private val firstUri = Uri.parse(createUri(0))
+    private val lastUri = Uri.parse(createUri(DEEP_LINK_COUNT - 1))
+    private val noMatchUri = Uri.parse("https://www.example.com/unknown/path")
+
+    private fun createDeepLink(index: Int): String {
+        val host = "www.example${index % 30}.com"
+        return when (index % 3) {
+            0 -> "$host/users/$index"
+            1 -> "$host/users/$index/posts/{postId}"
+            else -> "$host/items/$index/.*"
+        }
+    }
+
+    private fun createUri(index: Int) = "https://" + createDeepLink(index)
+        .replace("{postId}", "42")
+        .replace(".*", "details")
+
+    private fun matchLinear(uri: Uri): Any? {
+        // Same as matching against each destination in turn without an index
+        for (destination in graph) {
+            val result = destination.matchDeepLink(uri)
+            if (result != null) {
+                return result
+            }
+        }
+        return null
+    }
+
+    @Test
+    fun matchFirst() {
+        val state = benchmarkRule.state
+        while (state.keepRunning()) {
+            assertNotNull(graph.matchDeepLink(firstUri))
+        }
+    }
+
+    @Test
+    fun matchLast() {
+        val state = benchmarkRule.state
+        while (state.keepRunning()) {
+            assertNotNull(graph.matchDeepLink(lastUri))
+        }
+    }
+
+    @Test
+    fun matchNone() {
+        val state = benchmarkRule.state
+        while (state.keepRunning()) {
+            graph.matchDeepLink(noMatchUri)
+        }
+    }
+
+    @Test
+    fun matchLastLinear() {
+        val state = benchmarkRule.state
+        while (state.keepRunning()) {
+            assertNotNull(matchLinear(lastUri))
+        }
+    }
+
+    @Test
+    fun buildIndexAndMatchLast() {
+        val state = benchmarkRule.state
+        while (state.keepRunning()) {
+            assertNotNull(NavDeepLinkIndex(graph).match(lastUri))
+        }
+    }
+}
@@ -51,4 +51,22 @@ class NavInflaterBenchmark {
             navInflater.inflate(androidx.navigation.benchmark.test.R.navigation.nav_deep_link)
         }
     }
+
+    @Test
+    fun inflateCompiledSimple() {
+        val state = benchmarkRule.state
+        while (state.keepRunning()) {
+            navInflater.inflateCompiled(
+                androidx.navigation.benchmark.test.R.raw.navgraph_nav_simple)
+        }
+    }
+
+    @Test
+    fun inflateCompiledDeepLink() {
+        val state = benchmarkRule.state
+        while (state.keepRunning()) {
+            navInflater.inflateCompiled(
+                androidx.navigation.benchmark.test.R.raw.navgraph_nav_deep_link)
+        }
+    }
 }
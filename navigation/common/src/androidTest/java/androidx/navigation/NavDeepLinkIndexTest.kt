@@ -0,0 +1,182 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.navigation
+
+import android.net.Uri
+import androidx.test.filters.SmallTest
+import com.google.common.truth.Truth.assertThat
+import org.junit.Before
+import org.junit.Test
+
+@SmallTest
+class NavDeepLinkIndexTest {
+
+    companion object {
+        private const val DEEP_LINK_BASE = "www.example.com"
+    }
+
+    private lateinit var noOpNavigator: NoOpNavigator
+    private lateinit var navGraphNavigator: NavGraphNavigator
+
+    @Before
+    fun setup() {
+        NavigatorProvider().apply {
+            addNavigator(NoOpNavigator().also { noOpNavigator = it })
+            addNavigator(NavGraphNavigator(this).also { navGraphNavigator = it })
+        }
+    }
+
+    private fun createDestination(destinationId: Int, vararg deepLinks: String) =
+        noOpNavigator.createDestination().apply {
+            id = destinationId
+            deepLinks.forEach { addDeepLink(it) }
+        }
+
+    @Test
+    fun matchExact() {
+        val destination = createDestination(1, "$DEEP_LINK_BASE/users")
+        val graph = navGraphNavigator.createDestination().apply {
+            addDestination(destination)
+        }
+
+        val result = graph.matchDeepLink(Uri.parse("https://$DEEP_LINK_BASE/users"))
+        assertThat(result?.first).isSameAs(destination)
+        assertThat(result?.second?.isEmpty).isTrue()
+        assertThat(graph.matchDeepLink(Uri.parse("https://$DEEP_LINK_BASE/user")))
+            .isNull()
+        assertThat(graph.matchDeepLink(Uri.parse("https://$DEEP_LINK_BASE/users/2")))
+            .isNull()
+    }
+
+    @Test
+    fun matchArgument() {
+        val destination = createDestination(1, "$DEEP_LINK_BASE/users/{id}/posts")
+        val graph = navGraphNavigator.createDestination().apply {
+            addDestination(createDestination(2, "$DEEP_LINK_BASE/users/{id}"))
+            addDestination(destination)
+        }
+
+        val result = graph.matchDeepLink(Uri.parse("http://$DEEP_LINK_BASE/users/2/posts"))
+        assertThat(result?.first).isSameAs(destination)
+        assertThat(result?.second?.getString("id")).isEqualTo("2")
+    }
+
+    @Test
+    fun matchSameOrderAsGraph() {
+        val graph = navGraphNavigator.createDestination().apply {
+            addDestination(createDestination(1, "$DEEP_LINK_BASE/.*"))
+            addDestination(createDestination(2, "$DEEP_LINK_BASE/users/{id}"))
+            addDestination(createDestination(3, "$DEEP_LINK_BASE/users/2"))
+        }
+
+        val result = graph.matchDeepLink(Uri.parse("http://$DEEP_LINK_BASE/users/2"))
+        assertThat(result?.first?.id).isEqualTo(1)
+    }
+
+    @Test
+    fun matchGraphBeforeChildren() {
+        val graph = navGraphNavigator.createDestination().apply {
+            addDestination(createDestination(1, "$DEEP_LINK_BASE/users"))
+            addDeepLink("$DEEP_LINK_BASE/users")
+        }
+
+        val result = graph.matchDeepLink(Uri.parse("http://$DEEP_LINK_BASE/users"))
+        assertThat(result?.first).isSameAs(graph)
+    }
+
+    @Test
+    fun matchNestedGraph() {
+        val destination = createDestination(2, "myapp://host/{path}")
+        val graph = navGraphNavigator.createDestination().apply {
+            addDestination(navGraphNavigator.createDestination().apply {
+                id = 1
+                addDestination(destination)
+            })
+        }
+
+        val result = graph.matchDeepLink(Uri.parse("myapp://host/settings"))
+        assertThat(result?.first).isSameAs(destination)
+        assertThat(result?.second?.getString("path")).isEqualTo("settings")
+    }
+
+    @Test
+    fun matchAfterAddingDeepLink() {
+        val destination = createDestination(2)
+        val nestedGraph = navGraphNavigator.createDestination().apply {
+            id = 1
+            addDestination(destination)
+        }
+        val graph = navGraphNavigator.createDestination().apply {
+            addDestination(nestedGraph)
+        }
+        val uri = Uri.parse("http://$DEEP_LINK_BASE/users")
+        assertThat(graph.matchDeepLink(uri)).isNull()
+
+        destination.addDeepLink("$DEEP_LINK_BASE/users")
+        assertThat(graph.matchDeepLink(uri)?.first).isSameAs(destination)
+    }
+
+    @Test
+    fun matchAfterRemovingDestination() {
+        val destination = createDestination(1, "$DEEP_LINK_BASE/users")
+        val graph = navGraphNavigator.createDestination().apply {
+            addDestination(destination)
+        }
+        val uri = Uri.parse("http://$DEEP_LINK_BASE/users")
+        assertThat(graph.matchDeepLink(uri)?.first).isSameAs(destination)
+
+        graph.remove(destination)
+        assertThat(graph.matchDeepLink(uri)).isNull()
+    }
+
+    @Test
+    fun matchDoesNotAddPendingDestinations() {
+        val destination = createDestination(1, "$DEEP_LINK_BASE/users")
+        val nestedGraph = navGraphNavigator.createDestination().apply {
+            id = 2
+            setPendingDestinations(Runnable {
+                addDestination(createDestination(3, "$DEEP_LINK_BASE/posts"))
+            })
+        }
+        val graph = navGraphNavigator.createDestination().apply {
+            addDestination(destination)
+            addDestination(nestedGraph)
+        }
+
+        val result = graph.matchDeepLink(Uri.parse("http://$DEEP_LINK_BASE/users"))
+        assertThat(result?.first).isSameAs(destination)
+        assertThat(nestedGraph.hasPendingDestinations()).isTrue()
+    }
+
+    @Test
+    fun matchPendingDestinations() {
+        val destination = createDestination(3, "$DEEP_LINK_BASE/posts")
+        val nestedGraph = navGraphNavigator.createDestination().apply {
+            id = 1
+            setPendingDestinations(Runnable { addDestination(destination) })
+        }
+        val graph = navGraphNavigator.createDestination().apply {
+            addDestination(nestedGraph)
+            addDestination(createDestination(2, "$DEEP_LINK_BASE/.*"))
+        }
+
+        val uri = Uri.parse("http://$DEEP_LINK_BASE/posts")
+        assertThat(graph.matchDeepLink(uri)?.first).isSameAs(destination)
+        assertThat(nestedGraph.hasPendingDestinations()).isFalse()
+        assertThat(graph.matchDeepLink(uri)?.first).isSameAs(destination)
+    }
+}
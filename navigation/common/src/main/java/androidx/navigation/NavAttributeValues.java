@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.navigation;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.RestrictTo;
+
+import java.util.HashMap;
+
+/**
+ * Resolves the raw attribute values of a compiled navigation graph, as written in the
+ * navigation XML file.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public final class NavAttributeValues {
+    private static final String VALUE_NULL = "@null";
+
+    // Resource ids are only assigned when the app is linked, after the graphs are compiled, so
+    // they are looked up by name the first time a graph references them. Keyed by package and
+    // resource name, such as "com.example:id/home".
+    private static final HashMap<String, Integer> sResourceIds = new HashMap<>();
+
+    private NavAttributeValues() {
+    }
+
+    /**
+     * Returns whether the given value is a reference to a resource, such as
+     * <code>@id/name</code>.
+     */
+    public static boolean isReference(@Nullable String value) {
+        return value != null && value.length() > 1 && value.charAt(0) == '@'
+                && !VALUE_NULL.equals(value);
+    }
+
+    /**
+     * Returns the id of the resource referenced by the given value.
+     *
+     * @param context Context used to look up the resource
+     * @param value A reference such as <code>@+id/name</code>, <code>@id/name</code> or
+     *              <code>@android:id/name</code>, or null
+     * @param defaultValue The value to return if the value is null
+     * @return the resource id
+     * @throws IllegalArgumentException if the value is not a reference or the resource does not
+     * exist
+     */
+    public static int getResourceId(@NonNull Context context, @Nullable String value,
+            int defaultValue) {
+        if (value == null || VALUE_NULL.equals(value)) {
+            return defaultValue;
+        }
+        if (!isReference(value)) {
+            throw new IllegalArgumentException("Invalid resource reference " + value);
+        }
+        String name = value.substring(value.charAt(1) == '+' ? 2 : 1);
+        String packageName = context.getPackageName();
+        String key = packageName + ":" + name;
+        synchronized (sResourceIds) {
+            Integer id = sResourceIds.get(key);
+            if (id != null) {
+                return id;
+            }
+        }
+        Resources res = context.getResources();
+        int id = res.getIdentifier(name, null, packageName);
+        if (id == 0) {
+            throw new IllegalArgumentException("Unknown resource " + value);
+        }
+        synchronized (sResourceIds) {
+            sResourceIds.put(key, id);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the given value, or the text of the string resource it references.
+     */
+    @Nullable
+    public static CharSequence getText(@NonNull Context context, @Nullable String value) {
+        if (!isReference(value)) {
+            return value;
+        }
+        return context.getResources().getText(getResourceId(context, value, 0));
+    }
+
+    /**
+     * Returns the given value, or the string resource it references.
+     */
+    @Nullable
+    public static String getString(@NonNull Context context, @Nullable String value) {
+        CharSequence text = getText(context, value);
+        return text != null ? text.toString() : null;
+    }
+
+    /**
+     * Returns the given value as a boolean, resolving a reference to a boolean resource.
+     */
+    public static boolean getBoolean(@NonNull Context context, @Nullable String value,
+            boolean defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        if (isReference(value)) {
+            return context.getResources().getBoolean(getResourceId(context, value, 0));
+        }
+        return Boolean.parseBoolean(value);
+    }
+}
@@ -33,6 +33,11 @@ class NavDeepLink {
 
     private final ArrayList<String> mArguments = new ArrayList<>();
     private final Pattern mPattern;
+    private final boolean mHasScheme;
+    // Literal text every matching Uri starts and ends with, used by NavDeepLinkIndex
+    private final String mLiteralPrefix;
+    private final String mLiteralSuffix;
+    private final boolean mExactMatch;
 
     /**
      * NavDestinations should be created via {@link Navigator#createDestination}.
@@ -40,13 +45,18 @@ class NavDeepLink {
     NavDeepLink(@NonNull String uri) {
         StringBuilder uriRegex = new StringBuilder("^");
 
-        if (!SCHEME_PATTERN.matcher(uri).find()) {
+        mHasScheme = SCHEME_PATTERN.matcher(uri).find();
+        if (!mHasScheme) {
             uriRegex.append("http[s]?://");
         }
         Pattern fillInPattern = Pattern.compile("\\{(.+?)\\}");
         Matcher matcher = fillInPattern.matcher(uri);
         int appendPos = 0;
+        int prefixEnd = uri.length();
         while (matcher.find()) {
+            if (mArguments.isEmpty()) {
+                prefixEnd = matcher.start();
+            }
             String argName = matcher.group(1);
             mArguments.add(argName);
             // Use Pattern.quote() to treat the input string as a literal
@@ -58,6 +68,14 @@ class NavDeepLink {
             // Use Pattern.quote() to treat the input string as a literal
             uriRegex.append(Pattern.quote(uri.substring(appendPos)));
         }
+        int wildcard = uri.indexOf(".*");
+        if (wildcard >= 0 && wildcard < prefixEnd) {
+            prefixEnd = wildcard;
+        }
+        mExactMatch = prefixEnd == uri.length();
+        mLiteralPrefix = uri.substring(0, prefixEnd);
+        int suffixStart = Math.max(appendPos, uri.lastIndexOf(".*") + 2);
+        mLiteralSuffix = mExactMatch ? "" : uri.substring(Math.min(suffixStart, uri.length()));
         // Since we've used Pattern.quote() above, we need to
         // specifically escape any .* instances to ensure
         // they are still treated as wildcards in our final regex
@@ -65,6 +83,39 @@ class NavDeepLink {
         mPattern = Pattern.compile(finalRegex);
     }
 
+    /**
+     * Returns whether the Uri pattern starts with a scheme. Patterns without one match both
+     * <code>http://</code> and <code>https://</code> Uris.
+     */
+    boolean hasScheme() {
+        return mHasScheme;
+    }
+
+    /**
+     * Returns the literal text before the first argument or wildcard of the Uri pattern, not
+     * including the implicit scheme.
+     */
+    @NonNull
+    String getLiteralPrefix() {
+        return mLiteralPrefix;
+    }
+
+    /**
+     * Returns the literal text after the last argument or wildcard of the Uri pattern.
+     */
+    @NonNull
+    String getLiteralSuffix() {
+        return mLiteralSuffix;
+    }
+
+    /**
+     * Returns whether the Uri pattern has no arguments or wildcards, in which case a Uri matches
+     * it only if it is equal to the {@link #getLiteralPrefix() literal prefix}.
+     */
+    boolean isExactMatch() {
+        return mExactMatch;
+    }
+
     boolean matches(@NonNull Uri deepLink) {
         return mPattern.matcher(deepLink.toString()).matches();
     }
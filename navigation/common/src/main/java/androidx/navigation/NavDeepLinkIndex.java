@@ -0,0 +1,248 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.navigation;
+
+import android.net.Uri;
+import android.os.Bundle;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.util.Pair;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+
+/**
+ * Index of all of the deep links of a {@link NavGraph} and of the destinations below it.
+ *
+ * <p>Deep links without arguments or wildcards are kept in a map and matched by their exact
+ * Uri. All other deep links are stored in a trie of the path segments of their literal prefix,
+ * so that only the deep links whose prefix and suffix match the Uri have their regular
+ * expression evaluated.</p>
+ *
+ * <p>When several deep links match a Uri, the same one is returned as when searching the
+ * graph itself: deep links of a graph come before the deep links of its children, and
+ * children are searched in order.</p>
+ *
+ * <p>The destinations of nested graphs that have not been added yet are not indexed, so that
+ * building the index does not inflate them. Such a graph is only searched when no deep link
+ * that comes before it matches the Uri.</p>
+ */
+final class NavDeepLinkIndex {
+    private static final String[] IMPLICIT_SCHEMES = new String[] {"http://", "https://"};
+
+    private static final Comparator<Entry> PRIORITY_COMPARATOR = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry first, Entry second) {
+            return first.mPriority < second.mPriority ? -1
+                    : (first.mPriority == second.mPriority ? 0 : 1);
+        }
+    };
+
+    private static final class Entry {
+        final NavDestination mDestination;
+        final NavDeepLink mDeepLink;
+        final int mPriority;
+        // The part of the literal prefix after its last '/'
+        final String mRemainder;
+
+        Entry(NavDestination destination, NavDeepLink deepLink, int priority, String remainder) {
+            mDestination = destination;
+            mDeepLink = deepLink;
+            mPriority = priority;
+            mRemainder = remainder;
+        }
+    }
+
+    private static final class Node {
+        HashMap<String, Node> mChildren;
+        ArrayList<Entry> mEntries;
+
+        Node getOrCreateChild(String segment) {
+            if (mChildren == null) {
+                mChildren = new HashMap<>();
+            }
+            Node child = mChildren.get(segment);
+            if (child == null) {
+                child = new Node();
+                mChildren.put(segment, child);
+            }
+            return child;
+        }
+
+        void addEntry(Entry entry) {
+            if (mEntries == null) {
+                mEntries = new ArrayList<>();
+            }
+            mEntries.add(entry);
+        }
+    }
+
+    private final HashMap<String, Entry> mExactMatches = new HashMap<>();
+    private final Node mRoot = new Node();
+    // Nested graphs whose destinations have not been added yet, in priority order. The deep
+    // link and the remainder of these entries are null.
+    private final ArrayList<Entry> mPendingGraphs = new ArrayList<>();
+    private final NavGraph mGraph;
+    private int mSize;
+
+    NavDeepLinkIndex(@NonNull NavGraph graph) {
+        mGraph = graph;
+        addDestination(graph);
+    }
+
+    private void addDestination(NavDestination destination) {
+        ArrayList<NavDeepLink> deepLinks = destination.getDeepLinks();
+        if (deepLinks != null) {
+            for (NavDeepLink deepLink : deepLinks) {
+                addDeepLink(destination, deepLink, mSize++);
+            }
+        }
+        if (destination instanceof NavGraph) {
+            NavGraph graph = (NavGraph) destination;
+            if (graph != mGraph && graph.hasPendingDestinations()) {
+                mPendingGraphs.add(new Entry(graph, null, mSize++, null));
+                return;
+            }
+            for (NavDestination child : graph) {
+                addDestination(child);
+            }
+        }
+    }
+
+    private void addDeepLink(NavDestination destination, NavDeepLink deepLink, int priority) {
+        if (deepLink.hasScheme()) {
+            addPrefix(destination, deepLink, priority, deepLink.getLiteralPrefix());
+        } else {
+            for (String scheme : IMPLICIT_SCHEMES) {
+                addPrefix(destination, deepLink, priority, scheme + deepLink.getLiteralPrefix());
+            }
+        }
+    }
+
+    private void addPrefix(NavDestination destination, NavDeepLink deepLink, int priority,
+            String prefix) {
+        if (deepLink.isExactMatch()) {
+            // Only the first deep link for a given Uri can ever be returned
+            if (!mExactMatches.containsKey(prefix)) {
+                mExactMatches.put(prefix, new Entry(destination, deepLink, priority, prefix));
+            }
+            return;
+        }
+        Node node = mRoot;
+        int start = 0;
+        int end = prefix.indexOf('/');
+        while (end >= 0) {
+            node = node.getOrCreateChild(prefix.substring(start, end));
+            start = end + 1;
+            end = prefix.indexOf('/', start);
+        }
+        node.addEntry(new Entry(destination, deepLink, priority, prefix.substring(start)));
+    }
+
+    /**
+     * Returns the destination with the first deep link matching the given Uri, along with the
+     * arguments extracted from the Uri, or null if no deep link matches.
+     */
+    @Nullable
+    Pair<NavDestination, Bundle> match(@NonNull Uri uri) {
+        String uriString = uri.toString();
+        Entry exactMatch = mExactMatches.get(uriString);
+        ArrayList<Entry> candidates = findCandidates(uriString);
+        if (candidates != null) {
+            if (candidates.size() > 1) {
+                Collections.sort(candidates, PRIORITY_COMPARATOR);
+            }
+            for (Entry candidate : candidates) {
+                if (exactMatch != null && exactMatch.mPriority < candidate.mPriority) {
+                    break;
+                }
+                if (!uriString.endsWith(candidate.mDeepLink.getLiteralSuffix())) {
+                    continue;
+                }
+                Bundle matchingArguments = candidate.mDeepLink.getMatchingArguments(uri);
+                if (matchingArguments != null) {
+                    Pair<NavDestination, Bundle> result =
+                            matchPendingGraphs(uri, candidate.mPriority);
+                    if (result != null) {
+                        return result;
+                    }
+                    return Pair.create(candidate.mDestination, matchingArguments);
+                }
+            }
+        }
+        Pair<NavDestination, Bundle> result = matchPendingGraphs(uri,
+                exactMatch != null ? exactMatch.mPriority : Integer.MAX_VALUE);
+        if (result != null) {
+            return result;
+        }
+        if (exactMatch != null) {
+            return Pair.create(exactMatch.mDestination, new Bundle());
+        }
+        return null;
+    }
+
+    /**
+     * Searches the nested graphs whose destinations have not been added yet and that come
+     * before the given priority, adding their destinations.
+     */
+    @Nullable
+    private Pair<NavDestination, Bundle> matchPendingGraphs(@NonNull Uri uri, int priority) {
+        for (int i = 0; i < mPendingGraphs.size(); i++) {
+            Entry pendingGraph = mPendingGraphs.get(i);
+            if (pendingGraph.mPriority >= priority) {
+                break;
+            }
+            Pair<NavDestination, Bundle> result = pendingGraph.mDestination.matchDeepLink(uri);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns all of the entries whose literal prefix the given Uri starts with.
+     */
+    @Nullable
+    private ArrayList<Entry> findCandidates(String uriString) {
+        ArrayList<Entry> candidates = null;
+        Node node = mRoot;
+        int start = 0;
+        while (node != null) {
+            int end = uriString.indexOf('/', start);
+            String segment = uriString.substring(start, end >= 0 ? end : uriString.length());
+            if (node.mEntries != null) {
+                for (Entry entry : node.mEntries) {
+                    if (segment.startsWith(entry.mRemainder)) {
+                        if (candidates == null) {
+                            candidates = new ArrayList<>();
+                        }
+                        candidates.add(entry);
+                    }
+                }
+            }
+            if (end < 0 || node.mChildren == null) {
+                break;
+            }
+            node = node.mChildren.get(segment);
+            start = end + 1;
+        }
+        return candidates;
+    }
+}
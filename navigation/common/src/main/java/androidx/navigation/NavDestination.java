@@ -40,6 +40,7 @@ import java.lang.annotation.Target;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * NavDestination represents one node within an overall navigation graph.
@@ -171,6 +172,31 @@ public class NavDestination {
         a.recycle();
     }
 
+    /**
+     * Called when inflating a destination from a navigation graph compiled at build time,
+     * see {@code NavInflater#inflateCompiled(int)}.
+     * <p>
+     * The attributes are the raw values written in the navigation XML file. Attributes in the
+     * <code>android</code> namespace are prefixed with <code>android:</code>, attributes in the
+     * application namespace are only keyed by their name. References to resources, such as
+     * <code>@string/label</code>, are not resolved.
+     * <p>
+     * The default implementation only reads <code>android:id</code> and
+     * <code>android:label</code>, and this method is not forwarded to
+     * {@link #onInflate(Context, AttributeSet)}. Destinations that read additional attributes
+     * in {@link #onInflate(Context, AttributeSet)} must override this method and read the same
+     * attributes here, otherwise they are silently ignored when the graph is compiled.
+     *
+     * @param context local context performing inflation
+     * @param attrs the raw attribute values of the destination, keyed by name
+     */
+    @CallSuper
+    public void onInflate(@NonNull Context context, @NonNull Map<String, String> attrs) {
+        setId(NavAttributeValues.getResourceId(context, attrs.get("android:id"), 0));
+        mIdName = getDisplayName(context, mId);
+        setLabel(NavAttributeValues.getText(context, attrs.get("android:label")));
+    }
+
     final void setParent(NavGraph parent) {
         mParent = parent;
     }
@@ -306,6 +332,25 @@ public class NavDestination {
             mDeepLinks = new ArrayList<>();
         }
         mDeepLinks.add(new NavDeepLink(uriPattern));
+        invalidateDeepLinkIndex();
+    }
+
+    /**
+     * Returns the deep links added via {@link #addDeepLink(String)}, or null if there are none.
+     */
+    @Nullable
+    ArrayList<NavDeepLink> getDeepLinks() {
+        return mDeepLinks;
+    }
+
+    /**
+     * Called when the deep links of this destination or of any destination below it change so
+     * that the {@link NavDeepLinkIndex} of each enclosing {@link NavGraph} gets rebuilt.
+     */
+    void invalidateDeepLinkIndex() {
+        if (mParent != null) {
+            mParent.invalidateDeepLinkIndex();
+        }
     }
 
     /**
@@ -31,6 +31,7 @@ import androidx.navigation.common.R;
 
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
 /**
@@ -45,6 +46,8 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
     final SparseArrayCompat<NavDestination> mNodes = new SparseArrayCompat<>();
     private int mStartDestId;
     private String mStartDestIdName;
+    private NavDeepLinkIndex mDeepLinkIndex;
+    private Runnable mPendingDestinations;
 
     /**
      * Construct a new NavGraph. This NavGraph is not valid until you
@@ -71,22 +74,29 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
         a.recycle();
     }
 
+    @Override
+    public void onInflate(@NonNull Context context, @NonNull Map<String, String> attrs) {
+        super.onInflate(context, attrs);
+        setStartDestination(NavAttributeValues.getResourceId(context,
+                attrs.get("startDestination"), 0));
+        mStartDestIdName = getDisplayName(context, mStartDestId);
+    }
+
     @Override
     @Nullable
     Pair<NavDestination, Bundle> matchDeepLink(@NonNull Uri uri) {
-        // First search through any deep links directly added to this NavGraph
-        Pair<NavDestination, Bundle> result = super.matchDeepLink(uri);
-        if (result != null) {
-            return result;
+        // The index is built on first use and dropped whenever a deep link or a destination
+        // is added to or removed from this graph or any graph nested in it
+        if (mDeepLinkIndex == null) {
+            mDeepLinkIndex = new NavDeepLinkIndex(this);
         }
-        // Then search through all child destinations for a matching deep link
-        for (NavDestination child : this) {
-            Pair<NavDestination, Bundle> childResult = child.matchDeepLink(uri);
-            if (childResult != null) {
-                return childResult;
-            }
-        }
-        return null;
+        return mDeepLinkIndex.match(uri);
+    }
+
+    @Override
+    void invalidateDeepLinkIndex() {
+        mDeepLinkIndex = null;
+        super.invalidateDeepLinkIndex();
     }
 
     /**
@@ -100,6 +110,7 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
      * @param node destination to add
      */
     public final void addDestination(@NonNull NavDestination node) {
+        addPendingDestinations();
         if (node.getId() == 0) {
             throw new IllegalArgumentException("Destinations must have an id."
                     + " Call setId() or include an android:id in your navigation XML.");
@@ -117,6 +128,7 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
         }
         node.setParent(this);
         mNodes.put(node.getId(), node);
+        invalidateDeepLinkIndex();
     }
 
     /**
@@ -172,6 +184,7 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
 
     @Nullable
     final NavDestination findNode(@IdRes int resid, boolean searchParents) {
+        addPendingDestinations();
         NavDestination destination = mNodes.get(resid);
         // Search the parent for the NavDestination if it is not a child of this navigation graph
         // and searchParents is true
@@ -183,6 +196,7 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
     @NonNull
     @Override
     public final Iterator<NavDestination> iterator() {
+        addPendingDestinations();
         return new Iterator<NavDestination>() {
             private int mIndex = -1;
             private boolean mWentToNext = false;
@@ -209,6 +223,7 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
                 }
                 mNodes.valueAt(mIndex).setParent(null);
                 mNodes.removeAt(mIndex);
+                invalidateDeepLinkIndex();
                 mIndex--;
                 mWentToNext = false;
             }
@@ -237,10 +252,12 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
      * @param node the destination to remove.
      */
     public final void remove(@NonNull NavDestination node) {
+        addPendingDestinations();
         int index = mNodes.indexOfKey(node.getId());
         if (index >= 0) {
             mNodes.valueAt(index).setParent(null);
             mNodes.removeAt(index);
+            invalidateDeepLinkIndex();
         }
     }
 
@@ -255,6 +272,31 @@ public class NavGraph extends NavDestination implements Iterable<NavDestination>
         }
     }
 
+    /**
+     * Sets the destinations of this graph to add the first time they are needed, e.g. when
+     * navigating to this graph. Used to inflate nested graphs lazily.
+     *
+     * @param pendingDestinations adds the destinations to this graph when run
+     */
+    void setPendingDestinations(@Nullable Runnable pendingDestinations) {
+        mPendingDestinations = pendingDestinations;
+    }
+
+    /**
+     * Returns whether the destinations of this graph have not been added yet.
+     */
+    boolean hasPendingDestinations() {
+        return mPendingDestinations != null;
+    }
+
+    private void addPendingDestinations() {
+        if (mPendingDestinations != null) {
+            Runnable pendingDestinations = mPendingDestinations;
+            mPendingDestinations = null;
+            pendingDestinations.run();
+        }
+    }
+
     @NonNull
     @Override
     String getDisplayName() {
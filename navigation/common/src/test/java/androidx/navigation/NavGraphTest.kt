@@ -228,4 +228,19 @@ class NavGraphTest {
         assertThat(secondDestination.parent).isNull()
         assertThat(graph.findNode(SECOND_DESTINATION_ID)).isNull()
     }
+
+    @Test
+    fun pendingDestinationsAddedWhenFirstNeeded() {
+        val graph = navGraphNavigator.createDestination()
+        var added = 0
+        graph.setPendingDestinations(Runnable {
+            added++
+            graph.addDestination(createFirstDestination())
+        })
+        assertThat(added).isEqualTo(0)
+
+        assertThat(graph.findNode(FIRST_DESTINATION_ID)).isNotNull()
+        assertThat(graph.iterator().hasNext()).isTrue()
+        assertThat(added).isEqualTo(1)
+    }
 }
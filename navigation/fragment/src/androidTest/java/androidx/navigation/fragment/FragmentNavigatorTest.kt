@@ -546,6 +546,26 @@ class FragmentNavigatorTest {
         verify(backPressListener).onPopBackStack(fragmentNavigator)
         verifyNoMoreInteractions(backPressListener)
     }
+
+    @Test
+    fun testInflateCompiledClassNameReference() {
+        val fragmentNavigator = FragmentNavigator(emptyActivity, fragmentManager, R.id.container)
+        val destination = fragmentNavigator.createDestination()
+        destination.onInflate(emptyActivity,
+            mapOf("android:name" to "@string/empty_fragment_class_name"))
+
+        assertThat(destination.className).isEqualTo(EmptyFragment::class.java.name)
+    }
+
+    @Test
+    fun testInflateCompiledClassName() {
+        val fragmentNavigator = FragmentNavigator(emptyActivity, fragmentManager, R.id.container)
+        val destination = fragmentNavigator.createDestination()
+        destination.onInflate(emptyActivity,
+            mapOf("android:name" to EmptyFragment::class.java.name))
+
+        assertThat(destination.className).isEqualTo(EmptyFragment::class.java.name)
+    }
 }
 
 class EmptyActivity : FragmentActivity() {
@@ -30,6 +30,7 @@ import android.util.AttributeSet;
 import android.util.Log;
 import android.view.View;
 
+import androidx.navigation.NavAttributeValues;
 import androidx.navigation.NavController;
 import androidx.navigation.NavDestination;
 import androidx.navigation.NavOptions;
@@ -339,6 +340,16 @@ public class FragmentNavigator extends Navigator<FragmentNavigator.Destination>
             a.recycle();
         }
 
+        @CallSuper
+        @Override
+        public void onInflate(@NonNull Context context, @NonNull Map<String, String> attrs) {
+            super.onInflate(context, attrs);
+            String className = NavAttributeValues.getString(context, attrs.get("android:name"));
+            if (className != null) {
+                setClassName(className);
+            }
+        }
+
         /**
          * Set the Fragment class name associated with this destination
          * @param className The class name of the Fragment to show when you navigate to this
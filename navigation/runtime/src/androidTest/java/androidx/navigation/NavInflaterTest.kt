@@ -19,6 +19,7 @@ package androidx.navigation
 import android.app.Instrumentation
 import android.net.Uri
 import android.os.Bundle
+import android.support.annotation.NavigationRes
 
 import androidx.navigation.test.R
 import androidx.navigation.test.TestEnum
@@ -30,6 +31,7 @@ import org.junit.Assert.assertEquals
 import org.junit.Assert.assertFalse
 import org.junit.Assert.assertNotNull
 import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
 
 import org.junit.Before
 import org.junit.Test
@@ -145,10 +147,102 @@ class NavInflaterTest {
             defaultArguments.getSerializable("test_relative_classname"))
     }
 
-    private fun inflateDefaultArgumentsFromGraph(): Bundle {
+    @Test
+    fun testDefaultArgumentsShortColor() {
+        val defaultArguments = inflateDefaultArgumentsFromGraph(R.navigation.nav_short_colors)
+
+        assertEquals(0xffff8800.toInt(), defaultArguments.getInt("test_color"))
+        assertEquals(0x88ff8800.toInt(), defaultArguments.getInt("test_color2"))
+    }
+
+    @Test
+    fun testInflateCompiledSimple() {
+        val context = InstrumentationRegistry.getTargetContext()
+        val navInflater = NavInflater(context, TestNavigatorProvider())
+        val graph = navInflater.inflate(R.navigation.nav_simple)
+        val compiledGraph = navInflater.inflateCompiled(R.raw.navgraph_nav_simple)
+
+        assertSameDestination(graph, compiledGraph)
+        val deepLink = Uri.parse("android-app://" +
+                instrumentation.targetContext.packageName + "/test")
+        assertEquals(graph.matchDeepLink(deepLink)?.first?.id,
+            compiledGraph.matchDeepLink(deepLink)?.first?.id)
+    }
+
+    @Test
+    fun testInflateCompiledDefaultArguments() {
+        val context = InstrumentationRegistry.getTargetContext()
+        val navInflater = NavInflater(context, TestNavigatorProvider())
+
+        assertSameDestination(navInflater.inflate(R.navigation.nav_default_arguments),
+            navInflater.inflateCompiled(R.raw.navgraph_nav_default_arguments))
+        assertSameDestination(navInflater.inflate(R.navigation.nav_short_colors),
+            navInflater.inflateCompiled(R.raw.navgraph_nav_short_colors))
+    }
+
+    @Test
+    fun testInflateCompiledNestedGraphs() {
+        val context = InstrumentationRegistry.getTargetContext()
+        val navInflater = NavInflater(context, TestNavigatorProvider())
+
+        assertSameDestination(navInflater.inflate(R.navigation.nav_start_destination),
+            navInflater.inflateCompiled(R.raw.navgraph_nav_start_destination))
+        assertSameDestination(navInflater.inflate(R.navigation.nav_nested_start_destination),
+            navInflater.inflateCompiled(R.raw.navgraph_nav_nested_start_destination))
+        assertSameDestination(navInflater.inflate(R.navigation.nav_arguments),
+            navInflater.inflateCompiled(R.raw.navgraph_nav_arguments))
+    }
+
+    /**
+     * Asserts that a graph inflated from its compiled form is the same as the one inflated
+     * from XML.
+     */
+    private fun assertSameDestination(expected: NavDestination, actual: NavDestination) {
+        assertEquals(expected.id, actual.id)
+        assertEquals(expected.navigatorName, actual.navigatorName)
+        assertEquals(expected.label?.toString(), actual.label?.toString())
+
+        val expectedArguments = expected.defaultArguments
+        val actualArguments = actual.defaultArguments
+        assertEquals(expectedArguments.keySet(), actualArguments.keySet())
+        for (key in expectedArguments.keySet()) {
+            assertEquals("Default value of $key", expectedArguments.get(key),
+                actualArguments.get(key))
+        }
+
+        for (actionId in R.id::class.java.fields.map { it.getInt(null) }) {
+            val expectedAction = expected.getAction(actionId)
+            val actualAction = actual.getAction(actionId)
+            assertEquals(expectedAction?.destinationId, actualAction?.destinationId)
+            val expectedOptions = expectedAction?.navOptions
+            val actualOptions = actualAction?.navOptions
+            assertEquals(expectedOptions?.shouldLaunchSingleTop(),
+                actualOptions?.shouldLaunchSingleTop())
+            assertEquals(expectedOptions?.popUpTo, actualOptions?.popUpTo)
+            assertEquals(expectedOptions?.isPopUpToInclusive, actualOptions?.isPopUpToInclusive)
+            assertEquals(expectedOptions?.enterAnim, actualOptions?.enterAnim)
+            assertEquals(expectedOptions?.exitAnim, actualOptions?.exitAnim)
+            assertEquals(expectedOptions?.popEnterAnim, actualOptions?.popEnterAnim)
+            assertEquals(expectedOptions?.popExitAnim, actualOptions?.popExitAnim)
+        }
+
+        if (expected is NavGraph) {
+            assertTrue(actual is NavGraph)
+            actual as NavGraph
+            assertEquals(expected.startDestination, actual.startDestination)
+            assertEquals(expected.map { it.id }, actual.map { it.id })
+            expected.zip(actual).forEach { (expectedChild, actualChild) ->
+                assertSameDestination(expectedChild, actualChild)
+            }
+        }
+    }
+
+    private fun inflateDefaultArgumentsFromGraph(
+        @NavigationRes graphResId: Int = R.navigation.nav_default_arguments
+    ): Bundle {
         val context = InstrumentationRegistry.getTargetContext()
         val navInflater = NavInflater(context, TestNavigatorProvider())
-        val graph = navInflater.inflate(R.navigation.nav_default_arguments)
+        val graph = navInflater.inflate(graphResId)
 
         val startDestination = graph.findNode(graph.startDestination)
         val defaultArguments = startDestination?.defaultArguments
@@ -32,6 +32,7 @@ import android.support.v4.app.ActivityOptionsCompat;
 import android.text.TextUtils;
 import android.util.AttributeSet;
 
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -213,6 +214,23 @@ public class ActivityNavigator extends Navigator<ActivityNavigator.Destination>
             a.recycle();
         }
 
+        @CallSuper
+        @Override
+        public void onInflate(@NonNull Context context, @NonNull Map<String, String> attrs) {
+            super.onInflate(context, attrs);
+            String className = NavAttributeValues.getString(context, attrs.get("android:name"));
+            if (className != null) {
+                setComponentName(new ComponentName(context,
+                        parseClassFromName(context, className, Activity.class)));
+            }
+            setAction(NavAttributeValues.getString(context, attrs.get("action")));
+            String data = NavAttributeValues.getString(context, attrs.get("data"));
+            if (data != null) {
+                setData(Uri.parse(data));
+            }
+            setDataPattern(NavAttributeValues.getString(context, attrs.get("dataPattern")));
+        }
+
         /**
          * Set the Intent to start when navigating to this destination.
          * @param intent Intent to associated with this destination.
@@ -0,0 +1,359 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.navigation;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Color;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.RawRes;
+import android.text.TextUtils;
+import android.util.TypedValue;
+
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Inflates a {@link NavGraph} from a navigation graph compiled by the Safe Args Gradle plugin,
+ * see {@link NavInflater#inflateCompiled(int)}.
+ *
+ * <p>The compiled graph is the element tree of the navigation XML file, where each element is
+ * prefixed with its size so that it can be skipped. The destinations of nested graphs are
+ * only inflated when the nested graph first accesses them.</p>
+ */
+final class CompiledNavGraphInflater {
+    // "NAVG", must match the Safe Args Gradle plugin
+    private static final int MAGIC = 0x4E415647;
+    private static final int VERSION = 1;
+    private static final String COMPILED_GRAPH_PREFIX = "navgraph_";
+
+    private static final String ATTR_ID = "android:id";
+    private static final String ATTR_NAME = "android:name";
+    private static final String ATTR_DEFAULT_VALUE = "android:defaultValue";
+
+    private static final Pattern DIMENSION_PATTERN =
+            Pattern.compile("^(-?[0-9]*\\.?[0-9]+)(px|dp|dip|sp|pt|in|mm)$");
+    private static final Pattern FLOAT_PATTERN =
+            Pattern.compile("^[-+]?([0-9]*\\.[0-9]+|[0-9]+\\.?)([eE][-+]?[0-9]+)?$");
+
+    private final NavInflater mNavInflater;
+    private final Context mContext;
+    private final NavigatorProvider mNavigatorProvider;
+    @RawRes
+    private final int mGraphResId;
+    private final byte[] mData;
+    private final String[] mStrings;
+    private final int mRootOffset;
+
+    CompiledNavGraphInflater(@NonNull NavInflater navInflater, @NonNull Context context,
+            @NonNull NavigatorProvider navigatorProvider, @RawRes int graphResId)
+            throws IOException {
+        mNavInflater = navInflater;
+        mContext = context;
+        mNavigatorProvider = navigatorProvider;
+        mGraphResId = graphResId;
+        mData = readFully(context.getResources().openRawResource(graphResId));
+
+        ByteArrayInputStream byteStream = new ByteArrayInputStream(mData);
+        DataInputStream input = new DataInputStream(byteStream);
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Not a compiled navigation graph");
+        }
+        int version = input.readUnsignedShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported compiled navigation graph version " + version);
+        }
+        mStrings = new String[input.readUnsignedShort()];
+        for (int i = 0; i < mStrings.length; i++) {
+            mStrings[i] = input.readUTF();
+        }
+        mRootOffset = mData.length - byteStream.available();
+    }
+
+    /**
+     * Inflates the graph.
+     *
+     * @param lazy whether the destinations of the graph itself should only be inflated when
+     *             first accessed, the destinations of nested graphs always are
+     */
+    @NonNull
+    NavGraph inflate(boolean lazy) throws XmlPullParserException {
+        NavDestination destination = inflate(mRootOffset, lazy);
+        if (!(destination instanceof NavGraph)) {
+            throw new IllegalArgumentException("Root element <" + readTag(mRootOffset) + ">"
+                    + " did not inflate into a NavGraph");
+        }
+        return (NavGraph) destination;
+    }
+
+    @NonNull
+    private NavDestination inflate(int offset, boolean lazy) throws XmlPullParserException {
+        ByteBuffer buffer = ByteBuffer.wrap(mData);
+        buffer.position(offset + 4);
+        Navigator navigator = mNavigatorProvider.getNavigator(readString(buffer));
+        final NavDestination dest = navigator.createDestination();
+        dest.onInflate(mContext, readAttributes(buffer));
+
+        int childCount = buffer.getShort() & 0xffff;
+        int[] pendingOffsets = null;
+        int pendingCount = 0;
+        for (int i = 0; i < childCount; i++) {
+            int childOffset = buffer.position();
+            int childEnd = childOffset + 4 + buffer.getInt();
+            String tag = readString(buffer);
+            if (NavInflater.TAG_ARGUMENT.equals(tag)) {
+                inflateArgument(dest, readAttributes(buffer));
+            } else if (NavInflater.TAG_DEEP_LINK.equals(tag)) {
+                inflateDeepLink(dest, readAttributes(buffer));
+            } else if (NavInflater.TAG_ACTION.equals(tag)) {
+                inflateAction(dest, readAttributes(buffer));
+            } else if (dest instanceof NavGraph) {
+                if (lazy) {
+                    if (pendingOffsets == null) {
+                        pendingOffsets = new int[childCount - i];
+                    }
+                    pendingOffsets[pendingCount++] = childOffset;
+                } else {
+                    ((NavGraph) dest).addDestination(inflateChild(childOffset, tag));
+                }
+            }
+            buffer.position(childEnd);
+        }
+        if (pendingOffsets != null) {
+            final int[] offsets = pendingOffsets;
+            final int count = pendingCount;
+            ((NavGraph) dest).setPendingDestinations(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < count; i++) {
+                        try {
+                            ((NavGraph) dest).addDestination(
+                                    inflateChild(offsets[i], readTag(offsets[i])));
+                        } catch (Exception e) {
+                            throw new RuntimeException("Exception inflating "
+                                    + mContext.getResources().getResourceName(mGraphResId), e);
+                        }
+                    }
+                }
+            });
+        }
+        return dest;
+    }
+
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    @NonNull
+    NavDestination inflateChild(int offset, @NonNull String tag)
+            throws XmlPullParserException {
+        if (NavInflater.TAG_INCLUDE.equals(tag)) {
+            ByteBuffer buffer = ByteBuffer.wrap(mData);
+            buffer.position(offset + 6);
+            return inflateInclude(readAttributes(buffer).get("graph"));
+        }
+        // Only the destinations of the root graph are inflated right away
+        return inflate(offset, true);
+    }
+
+    @NonNull
+    private NavGraph inflateInclude(@Nullable String graph) throws XmlPullParserException {
+        Resources res = mContext.getResources();
+        int graphResId = NavAttributeValues.getResourceId(mContext, graph, 0);
+        int compiledGraphResId = res.getIdentifier(
+                COMPILED_GRAPH_PREFIX + res.getResourceEntryName(graphResId), "raw",
+                res.getResourcePackageName(graphResId));
+        if (compiledGraphResId == 0) {
+            return mNavInflater.inflate(graphResId);
+        }
+        try {
+            return new CompiledNavGraphInflater(mNavInflater, mContext, mNavigatorProvider,
+                    compiledGraphResId).inflate(true);
+        } catch (IOException e) {
+            throw new XmlPullParserException("Cannot read included graph " + graph
+                    + ": " + e.getMessage());
+        }
+    }
+
+    private void inflateArgument(@NonNull NavDestination dest, @NonNull Map<String, String> attrs)
+            throws XmlPullParserException {
+        String name = attrs.get(ATTR_NAME);
+        String argType = attrs.get("argType");
+        String defaultValue = attrs.get(ATTR_DEFAULT_VALUE);
+        if (defaultValue == null || "@null".equals(defaultValue)) {
+            return;
+        }
+        if ("string".equals(argType)) {
+            dest.getDefaultArguments()
+                    .putString(name, NavAttributeValues.getString(mContext, defaultValue));
+            return;
+        }
+        Resources res = mContext.getResources();
+        Matcher dimension = DIMENSION_PATTERN.matcher(defaultValue);
+        if (dimension.matches()) {
+            dest.getDefaultArguments().putInt(name, (int) TypedValue.applyDimension(
+                    getDimensionUnit(dimension.group(2)), Float.parseFloat(dimension.group(1)),
+                    res.getDisplayMetrics()));
+            return;
+        }
+        TypedValue value = new TypedValue();
+        resolveValue(defaultValue, value);
+        mNavInflater.inflateDefaultArgument(res, dest, name, argType, value, mGraphResId);
+    }
+
+    /**
+     * Fills in the given TypedValue the same way as the resources compiler would for the
+     * given attribute value.
+     */
+    private void resolveValue(@NonNull String rawValue, @NonNull TypedValue value) {
+        if (NavAttributeValues.isReference(rawValue)) {
+            int id = NavAttributeValues.getResourceId(mContext, rawValue, 0);
+            if ("id".equals(mContext.getResources().getResourceTypeName(id))) {
+                value.type = TypedValue.TYPE_REFERENCE;
+                value.data = id;
+            } else {
+                mContext.getResources().getValue(id, value, true);
+            }
+        } else if ("true".equals(rawValue) || "false".equals(rawValue)) {
+            value.type = TypedValue.TYPE_INT_BOOLEAN;
+            value.data = "true".equals(rawValue) ? -1 : 0;
+        } else if (rawValue.startsWith("#")) {
+            value.type = TypedValue.TYPE_INT_COLOR_ARGB8;
+            value.data = Color.parseColor(rawValue);
+        } else if (rawValue.startsWith("0x") && parseHex(rawValue, value)) {
+            value.type = TypedValue.TYPE_INT_HEX;
+        } else if (FLOAT_PATTERN.matcher(rawValue).matches()) {
+            try {
+                value.type = TypedValue.TYPE_INT_DEC;
+                value.data = Integer.parseInt(rawValue);
+            } catch (NumberFormatException e) {
+                value.type = TypedValue.TYPE_FLOAT;
+                value.data = Float.floatToIntBits(Float.parseFloat(rawValue));
+            }
+        } else {
+            value.type = TypedValue.TYPE_STRING;
+            value.string = rawValue;
+        }
+    }
+
+    private static boolean parseHex(@NonNull String rawValue, @NonNull TypedValue value) {
+        try {
+            value.data = (int) Long.parseLong(rawValue.substring(2), 16);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static int getDimensionUnit(@NonNull String unit) {
+        switch (unit) {
+            case "px":
+                return TypedValue.COMPLEX_UNIT_PX;
+            case "sp":
+                return TypedValue.COMPLEX_UNIT_SP;
+            case "pt":
+                return TypedValue.COMPLEX_UNIT_PT;
+            case "in":
+                return TypedValue.COMPLEX_UNIT_IN;
+            case "mm":
+                return TypedValue.COMPLEX_UNIT_MM;
+            default:
+                return TypedValue.COMPLEX_UNIT_DIP;
+        }
+    }
+
+    private void inflateDeepLink(@NonNull NavDestination dest,
+            @NonNull Map<String, String> attrs) {
+        String uri = NavAttributeValues.getString(mContext, attrs.get("uri"));
+        if (TextUtils.isEmpty(uri)) {
+            throw new IllegalArgumentException("Every <" + NavInflater.TAG_DEEP_LINK
+                    + "> must include an app:uri");
+        }
+        uri = uri.replace(NavInflater.APPLICATION_ID_PLACEHOLDER, mContext.getPackageName());
+        dest.addDeepLink(uri);
+    }
+
+    private void inflateAction(@NonNull NavDestination dest, @NonNull Map<String, String> attrs) {
+        final int id = NavAttributeValues.getResourceId(mContext, attrs.get(ATTR_ID), 0);
+        final int destId = NavAttributeValues.getResourceId(mContext,
+                attrs.get("destination"), 0);
+        NavAction action = new NavAction(destId);
+
+        NavOptions.Builder builder = new NavOptions.Builder();
+        builder.setLaunchSingleTop(NavAttributeValues.getBoolean(mContext,
+                attrs.get("launchSingleTop"), false));
+        builder.setPopUpTo(NavAttributeValues.getResourceId(mContext, attrs.get("popUpTo"), 0),
+                NavAttributeValues.getBoolean(mContext, attrs.get("popUpToInclusive"), false));
+        builder.setEnterAnim(
+                NavAttributeValues.getResourceId(mContext, attrs.get("enterAnim"), -1));
+        builder.setExitAnim(
+                NavAttributeValues.getResourceId(mContext, attrs.get("exitAnim"), -1));
+        builder.setPopEnterAnim(
+                NavAttributeValues.getResourceId(mContext, attrs.get("popEnterAnim"), -1));
+        builder.setPopExitAnim(
+                NavAttributeValues.getResourceId(mContext, attrs.get("popExitAnim"), -1));
+        action.setNavOptions(builder.build());
+
+        dest.putAction(id, action);
+    }
+
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    @NonNull
+    String readTag(int offset) {
+        return mStrings[ByteBuffer.wrap(mData).getShort(offset + 4) & 0xffff];
+    }
+
+    @NonNull
+    private String readString(@NonNull ByteBuffer buffer) {
+        return mStrings[buffer.getShort() & 0xffff];
+    }
+
+    @NonNull
+    private Map<String, String> readAttributes(@NonNull ByteBuffer buffer) {
+        int count = buffer.getShort() & 0xffff;
+        HashMap<String, String> attrs = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            String name = readString(buffer);
+            attrs.put(name, readString(buffer));
+        }
+        return attrs;
+    }
+
+    @NonNull
+    private static byte[] readFully(@NonNull InputStream input) throws IOException {
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream(
+                    Math.max(input.available(), 1024));
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        } finally {
+            input.close();
+        }
+    }
+}
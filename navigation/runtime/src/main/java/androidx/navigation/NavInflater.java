@@ -24,6 +24,7 @@ import android.content.res.XmlResourceParser;
 import android.support.annotation.NavigationRes;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.support.annotation.RawRes;
 import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.util.TypedValue;
@@ -38,11 +39,11 @@ import java.io.IOException;
  * Class which translates a navigation XML file into a {@link NavGraph}
  */
 public final class NavInflater {
-    private static final String TAG_ARGUMENT = "argument";
-    private static final String TAG_DEEP_LINK = "deepLink";
-    private static final String TAG_ACTION = "action";
-    private static final String TAG_INCLUDE = "include";
-    private static final String APPLICATION_ID_PLACEHOLDER = "${applicationId}";
+    static final String TAG_ARGUMENT = "argument";
+    static final String TAG_DEEP_LINK = "deepLink";
+    static final String TAG_ACTION = "action";
+    static final String TAG_INCLUDE = "include";
+    static final String APPLICATION_ID_PLACEHOLDER = "${applicationId}";
 
     private static final ThreadLocal<TypedValue> sTmpValue = new ThreadLocal<>();
 
@@ -92,6 +93,36 @@ public final class NavInflater {
         }
     }
 
+    /**
+     * Inflate a NavGraph from a navigation graph compiled at build time, which is faster than
+     * inflating it from XML.
+     * <p>
+     * When the <code>androidx.navigation.compileNavGraphs</code> Gradle property is set to
+     * true, the Safe Args Gradle plugin compiles each navigation XML file into a raw resource
+     * named <code>navgraph_</code> followed by the name of the XML file, e.g.
+     * <code>R.raw.navgraph_main</code> for <code>R.navigation.main</code>.
+     * <p>
+     * The destinations of the nested graphs are only inflated when they are first needed,
+     * e.g. when navigating to the nested graph. Destinations are inflated with
+     * {@link NavDestination#onInflate(Context, java.util.Map)}, not with
+     * {@link NavDestination#onInflate(Context, AttributeSet)}. Graphs that use destinations
+     * of custom {@link Navigator Navigators} should only be compiled if those destinations
+     * override both methods, otherwise their custom attributes are ignored.
+     *
+     * @param compiledGraphResId the raw resource of the compiled navigation graph
+     * @return the inflated graph
+     */
+    @NonNull
+    public NavGraph inflateCompiled(@RawRes int compiledGraphResId) {
+        try {
+            return new CompiledNavGraphInflater(this, mContext, mNavigatorProvider,
+                    compiledGraphResId).inflate(false);
+        } catch (Exception e) {
+            throw new RuntimeException("Exception inflating "
+                    + mContext.getResources().getResourceName(compiledGraphResId), e);
+        }
+    }
+
     @NonNull
     private NavDestination inflate(@NonNull Resources res, @NonNull XmlResourceParser parser,
             @NonNull AttributeSet attrs, int graphResId)
@@ -151,87 +182,98 @@ public final class NavInflater {
                 dest.getDefaultArguments()
                         .putString(name, a.getString(R.styleable.NavArgument_android_defaultValue));
             } else {
-                switch (value.type) {
-                    case TypedValue.TYPE_STRING:
-                        String stringValue = value.string.toString();
-                        if (argType == null) {
-                            Long longValue = parseLongValue(stringValue);
-                            if (longValue != null) {
-                                dest.getDefaultArguments().putLong(name, longValue);
-                                break;
-                            }
-                        } else if ("long".equals(argType)) {
-                            Long longValue = parseLongValue(stringValue);
-                            if (longValue != null) {
-                                dest.getDefaultArguments().putLong(name, longValue);
-                                break;
-                            }
-                            throw new XmlPullParserException(
-                                    "unsupported long value " + value.string);
-                        } else { //this might be an Enum
-                            Class<?> cls = null;
-                            String className;
-                            if (argType.startsWith(".")) {
-                                className = res.getResourcePackageName(graphResId) + argType;
-                            } else {
-                                className = argType;
-                            }
-                            try {
-                                cls = Class.forName(className);
-                            } catch (ClassNotFoundException e) {
-                                e.printStackTrace();
-                            }
-                            if (cls != null && cls.isEnum()) {
-                                boolean found = false;
-                                for (Object constant : cls.getEnumConstants()) {
-                                    if (((Enum) constant).name().equals(stringValue)) {
-                                        dest.getDefaultArguments()
-                                                .putSerializable(name, (Enum) constant);
-                                        found = true;
-                                        break;
-                                    }
-                                }
-                                if (!found) {
-                                    throw new XmlPullParserException(
-                                            "Cannot find Enum value '" + stringValue + "' for "
-                                                    + "'" + className + "'");
-                                }
-                                break; //from switch statement
-                            } else {
-                                throw new XmlPullParserException(
-                                        "Unsupported argument type '" + argType + "' with "
-                                                + "non-null defaultValue. Class '" + className
-                                                + " does not exist or is not an Enum.");
-                            }
-                        }
-                        dest.getDefaultArguments().putString(name, stringValue);
-                        break;
-                    case TypedValue.TYPE_DIMENSION:
-                        dest.getDefaultArguments().putInt(name,
-                                (int) value.getDimension(res.getDisplayMetrics()));
-                        break;
-                    case TypedValue.TYPE_FLOAT:
-                        dest.getDefaultArguments().putFloat(name, value.getFloat());
+                inflateDefaultArgument(res, dest, name, argType, value, graphResId);
+            }
+        }
+        a.recycle();
+    }
+
+    /**
+     * Adds the default value of an argument that is not a string to the destination.
+     *
+     * @param value the resolved default value of the argument
+     */
+    void inflateDefaultArgument(@NonNull Resources res, @NonNull NavDestination dest,
+            @NonNull String name, @Nullable String argType, @NonNull TypedValue value,
+            int graphResId) throws XmlPullParserException {
+        switch (value.type) {
+            case TypedValue.TYPE_STRING:
+                String stringValue = value.string.toString();
+                if (argType == null) {
+                    Long longValue = parseLongValue(stringValue);
+                    if (longValue != null) {
+                        dest.getDefaultArguments().putLong(name, longValue);
                         break;
-                    case TypedValue.TYPE_REFERENCE:
-                        dest.getDefaultArguments().putInt(name, value.data);
+                    }
+                } else if ("long".equals(argType)) {
+                    Long longValue = parseLongValue(stringValue);
+                    if (longValue != null) {
+                        dest.getDefaultArguments().putLong(name, longValue);
                         break;
-                    default:
-                        if (value.type >= TypedValue.TYPE_FIRST_INT
-                                && value.type <= TypedValue.TYPE_LAST_INT) {
-                            if (value.type == TypedValue.TYPE_INT_BOOLEAN) {
-                                dest.getDefaultArguments().putBoolean(name, value.data != 0);
-                            } else {
-                                dest.getDefaultArguments().putInt(name, value.data);
+                    }
+                    throw new XmlPullParserException(
+                            "unsupported long value " + value.string);
+                } else { //this might be an Enum
+                    Class<?> cls = null;
+                    String className;
+                    if (argType.startsWith(".")) {
+                        className = res.getResourcePackageName(graphResId) + argType;
+                    } else {
+                        className = argType;
+                    }
+                    try {
+                        cls = Class.forName(className);
+                    } catch (ClassNotFoundException e) {
+                        e.printStackTrace();
+                    }
+                    if (cls != null && cls.isEnum()) {
+                        boolean found = false;
+                        for (Object constant : cls.getEnumConstants()) {
+                            if (((Enum) constant).name().equals(stringValue)) {
+                                dest.getDefaultArguments()
+                                        .putSerializable(name, (Enum) constant);
+                                found = true;
+                                break;
                             }
-                        } else {
+                        }
+                        if (!found) {
                             throw new XmlPullParserException(
-                                    "Unsupported argument type " + value.type);
+                                    "Cannot find Enum value '" + stringValue + "' for "
+                                            + "'" + className + "'");
                         }
+                        break; //from switch statement
+                    } else {
+                        throw new XmlPullParserException(
+                                "Unsupported argument type '" + argType + "' with "
+                                        + "non-null defaultValue. Class '" + className
+                                        + " does not exist or is not an Enum.");
+                    }
+                }
+                dest.getDefaultArguments().putString(name, stringValue);
+                break;
+            case TypedValue.TYPE_DIMENSION:
+                dest.getDefaultArguments().putInt(name,
+                        (int) value.getDimension(res.getDisplayMetrics()));
+                break;
+            case TypedValue.TYPE_FLOAT:
+                dest.getDefaultArguments().putFloat(name, value.getFloat());
+                break;
+            case TypedValue.TYPE_REFERENCE:
+                dest.getDefaultArguments().putInt(name, value.data);
+                break;
+            default:
+                if (value.type >= TypedValue.TYPE_FIRST_INT
+                        && value.type <= TypedValue.TYPE_LAST_INT) {
+                    if (value.type == TypedValue.TYPE_INT_BOOLEAN) {
+                        dest.getDefaultArguments().putBoolean(name, value.data != 0);
+                    } else {
+                        dest.getDefaultArguments().putInt(name, value.data);
+                    }
+                } else {
+                    throw new XmlPullParserException(
+                            "Unsupported argument type " + value.type);
                 }
-            }
         }
-        a.recycle();
     }
 
     private @Nullable Long parseLongValue(String value) {
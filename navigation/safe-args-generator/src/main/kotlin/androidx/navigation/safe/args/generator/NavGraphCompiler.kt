@@ -0,0 +1,246 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.navigation.safe.args.generator
+
+import org.xmlpull.v1.XmlPullParser
+import org.xmlpull.v1.XmlPullParserFactory
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+import java.io.File
+import java.io.FileReader
+
+/**
+ * Magic number at the start of every compiled navigation graph, "NAVG".
+ */
+const val COMPILED_NAV_GRAPH_MAGIC = 0x4E415647
+const val COMPILED_NAV_GRAPH_VERSION = 1
+
+/**
+ * Prefix of the name of the raw resource a navigation graph is compiled into, followed by the
+ * name of the navigation resource.
+ */
+const val COMPILED_NAV_GRAPH_PREFIX = "navgraph_"
+
+/**
+ * Name of the raw resource with the keep rules of the compiled navigation graphs, see
+ * [writeResourceKeepRules].
+ */
+const val COMPILED_NAV_GRAPH_KEEP_RULES = "navigation_keep"
+
+private const val NAMESPACE_RES_AUTO = "http://schemas.android.com/apk/res-auto"
+private const val NAMESPACE_ANDROID = "http://schemas.android.com/apk/res/android"
+private const val ANDROID_PREFIX = "android:"
+
+private const val TAG_ARGUMENT = "argument"
+private const val ATTRIBUTE_ARG_TYPE = "argType"
+private const val ATTRIBUTE_DEFAULT_VALUE = "${ANDROID_PREFIX}defaultValue"
+
+private const val MAX_STRINGS = 0xffff
+
+private val SHORT_COLOR = Regex("#[0-9a-fA-F]{3,4}")
+
+// A reference to a resource of the app, such as @id/home or @+id/home
+private val RESOURCE_REFERENCE = Regex("@\\+?([a-z]+/[A-Za-z0-9_.]+)")
+
+/**
+ * Compiles the given navigation XML file into the binary format read by
+ * `NavInflater.inflateCompiled()`, so that the graph is not parsed from XML at runtime.
+ *
+ * The format is the element tree of the XML file, with all strings in a single pool:
+ *
+ * ```
+ * int     magic, COMPILED_NAV_GRAPH_MAGIC
+ * short   version, COMPILED_NAV_GRAPH_VERSION
+ * short   number of strings, followed by the strings in modified UTF-8
+ * element root element
+ *
+ * element:
+ * int     size in bytes of the rest of the element, so that it can be skipped
+ * short   tag name, as an index in the string pool
+ * short   number of attributes, followed by pairs of name and value indices
+ * short   number of child elements, followed by the child elements
+ * ```
+ *
+ * Only attributes in the android and in the application namespaces are kept. Attribute
+ * names in the android namespace are prefixed with `android:`, application attributes are
+ * stored by their name only. Values are stored as written in the XML, references to
+ * resources are resolved at runtime. The only exception are the `#RGB` and `#ARGB` colors
+ * used as default values of non-string arguments, which are expanded to `#RRGGBB` and
+ * `#AARRGGBB`, the forms that `Color.parseColor()` accepts.
+ *
+ * Since the values are resolved by name, every resource the graph references is added to
+ * [references], in the `@type/name` form, so that they can be kept by [writeResourceKeepRules].
+ *
+ * @return the errors found while compiling, the output is not written if there are any
+ */
+fun compileNavGraph(
+    navigationXml: File,
+    outputFile: File,
+    references: MutableSet<String> = mutableSetOf()
+): List<ErrorMessage> {
+    val logger = NavLogger()
+    val root = FileReader(navigationXml).use { reader ->
+        val parser = XmlPullParserFactory.newInstance().newPullParser().apply {
+            setFeature(XmlPullParser.FEATURE_PROCESS_NAMESPACES, true)
+            setInput(reader)
+        }
+        while (parser.next() != XmlPullParser.START_TAG) {
+            if (parser.eventType == XmlPullParser.END_DOCUMENT) {
+                logger.error("No start tag found", XmlPosition(navigationXml.path, 0, 0))
+                return logger.allMessages()
+            }
+        }
+        parseElement(parser)
+    }
+
+    val strings = LinkedHashMap<String, Int>()
+    root.collectStrings(strings)
+    if (strings.size > MAX_STRINGS) {
+        logger.error("Navigation graph has more than $MAX_STRINGS distinct strings",
+            XmlPosition(navigationXml.path, 0, 0))
+        return logger.allMessages()
+    }
+
+    outputFile.parentFile?.mkdirs()
+    DataOutputStream(outputFile.outputStream().buffered()).use { out ->
+        out.writeInt(COMPILED_NAV_GRAPH_MAGIC)
+        out.writeShort(COMPILED_NAV_GRAPH_VERSION)
+        out.writeShort(strings.size)
+        strings.keys.forEach { out.writeUTF(it) }
+        out.write(root.encode(strings))
+    }
+    root.collectReferences(references)
+    return logger.allMessages()
+}
+
+/**
+ * Writes the `tools:keep` rules for the resources referenced by compiled navigation graphs.
+ *
+ * `NavInflater.inflateCompiled()` looks resources up by name, both the ones the graphs
+ * reference and the compiled graphs of included graphs, so resource shrinking must neither
+ * remove nor rename them.
+ *
+ * @param references the resources referenced by the graphs, as collected by [compileNavGraph]
+ */
+fun writeResourceKeepRules(references: Collection<String>, outputFile: File) {
+    val keep = listOf("@raw/$COMPILED_NAV_GRAPH_PREFIX*") + references.sorted()
+    outputFile.parentFile?.mkdirs()
+    outputFile.writeText("""<?xml version="1.0" encoding="utf-8"?>
+        |<resources xmlns:tools="http://schemas.android.com/tools"
+        |    tools:keep="${keep.joinToString(",")}" />
+        |""".trimMargin())
+}
+
+private class Element(
+    val tag: String,
+    val attributes: List<Pair<String, String>>,
+    val children: List<Element>
+) {
+    fun collectStrings(strings: MutableMap<String, Int>) {
+        strings.getOrPut(tag) { strings.size }
+        attributes.forEach { (name, value) ->
+            strings.getOrPut(name) { strings.size }
+            strings.getOrPut(value) { strings.size }
+        }
+        children.forEach { it.collectStrings(strings) }
+    }
+
+    fun collectReferences(references: MutableSet<String>) {
+        attributes.forEach { (_, value) ->
+            RESOURCE_REFERENCE.matchEntire(value)?.let { references.add("@${it.groupValues[1]}") }
+        }
+        children.forEach { it.collectReferences(references) }
+    }
+
+    fun encode(strings: Map<String, Int>): ByteArray {
+        val content = ByteArrayOutputStream()
+        DataOutputStream(content).use { out ->
+            out.writeShort(strings.getValue(tag))
+            out.writeShort(attributes.size)
+            attributes.forEach { (name, value) ->
+                out.writeShort(strings.getValue(name))
+                out.writeShort(strings.getValue(value))
+            }
+            out.writeShort(children.size)
+            children.forEach { out.write(it.encode(strings)) }
+        }
+        val element = ByteArrayOutputStream(content.size() + 4)
+        DataOutputStream(element).use { out ->
+            out.writeInt(content.size())
+            content.writeTo(out)
+        }
+        return element.toByteArray()
+    }
+}
+
+private fun parseElement(parser: XmlPullParser): Element {
+    val tag = parser.name
+    val attributes = (0 until parser.attributeCount).mapNotNull { index ->
+        val name = parser.getAttributeName(index)
+        when (parser.getAttributeNamespace(index)) {
+            NAMESPACE_ANDROID -> "$ANDROID_PREFIX$name"
+            NAMESPACE_RES_AUTO -> name
+            else -> null
+        }?.let { it to parser.getAttributeValue(index) }
+    }
+    val children = mutableListOf<Element>()
+    while (parser.next() != XmlPullParser.END_TAG) {
+        if (parser.eventType == XmlPullParser.START_TAG) {
+            children.add(parseElement(parser))
+        }
+    }
+    return Element(tag, if (tag == TAG_ARGUMENT) expandColors(attributes) else attributes,
+        children)
+}
+
+private fun expandColors(attributes: List<Pair<String, String>>): List<Pair<String, String>> {
+    if (attributes.any { (name, value) -> name == ATTRIBUTE_ARG_TYPE && value == "string" }) {
+        return attributes
+    }
+    return attributes.map { (name, value) ->
+        if (name == ATTRIBUTE_DEFAULT_VALUE && SHORT_COLOR.matches(value)) {
+            name to value.drop(1).fold("#") { color, digit -> "$color$digit$digit" }
+        } else {
+            name to value
+        }
+    }
+}
+
+/**
+ * Compiles the navigation XML files of the directory given as first argument into the
+ * directory given as second argument, with the names used by the navigation plugin.
+ * Used by builds that compile graphs without the plugin, such as the ones of tests.
+ */
+fun main(args: Array<String>) {
+    if (args.size != 2) {
+        System.err.println("Usage: NavGraphCompiler <navigation dir> <output dir>")
+        System.exit(1)
+    }
+    val outputDir = File(args[1])
+    val references = mutableSetOf<String>()
+    val errors = File(args[0]).listFiles { file -> file.extension == "xml" }.orEmpty()
+        .flatMap { file ->
+            compileNavGraph(file,
+                File(outputDir, "$COMPILED_NAV_GRAPH_PREFIX${file.nameWithoutExtension}"),
+                references)
+        }
+    if (errors.isNotEmpty()) {
+        errors.forEach { System.err.println(it) }
+        System.exit(1)
+    }
+    writeResourceKeepRules(references, File(outputDir, "$COMPILED_NAV_GRAPH_KEEP_RULES.xml"))
+}
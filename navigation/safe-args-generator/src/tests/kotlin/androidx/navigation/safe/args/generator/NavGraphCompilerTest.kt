@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.navigation.safe.args.generator
+
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+import java.io.DataInputStream
+import java.io.File
+
+@RunWith(JUnit4::class)
+class NavGraphCompilerTest {
+
+    @Suppress("MemberVisibilityCanBePrivate")
+    @get:Rule
+    val workingDir = TemporaryFolder()
+
+    private class Element(
+        val tag: String,
+        val attributes: Map<String, String>,
+        val children: List<Element>
+    )
+
+    @Test
+    fun compileNested() {
+        val output = File(workingDir.root, "navgraph_nested_login_test.bin")
+        val errors = compileNavGraph(testData("nested_login_test.xml"), output)
+        assertThat(errors.isEmpty(), `is`(true))
+
+        val root = readCompiledGraph(output)
+        assertThat(root.tag, `is`("navigation"))
+        assertThat(root.attributes, `is`(mapOf("startDestination" to "@id/main_fragment")))
+        assertThat(root.children.map { it.tag }, `is`(listOf("fragment", "navigation")))
+
+        val mainFragment = root.children[0]
+        assertThat(mainFragment.attributes, `is`(mapOf(
+            "android:id" to "@+id/main_fragment",
+            "android:name" to ".MainFragment")))
+        assertThat(mainFragment.children.single().attributes, `is`(mapOf(
+            "android:id" to "@+id/start_login",
+            "destination" to "@id/login")))
+
+        val login = root.children[1]
+        assertThat(login.children.map { it.tag }, `is`(listOf("action", "fragment", "fragment")))
+        assertThat(login.children[2].attributes["android:name"], `is`(".RegisterFragment"))
+        assertThat(login.children[2].children.isEmpty(), `is`(true))
+    }
+
+    @Test
+    fun compileShortColors() {
+        val output = File(workingDir.root, "navgraph_colors_test.bin")
+        val errors = compileNavGraph(testData("colors_test.xml"), output)
+        assertThat(errors.isEmpty(), `is`(true))
+
+        val defaultValues = readCompiledGraph(output).children.single().children.associate {
+            it.attributes.getValue("android:name") to it.attributes["android:defaultValue"]
+        }
+        assertThat(defaultValues, `is`(mapOf(
+            "rgb" to "#ff8800",
+            "argb" to "#88ff8800",
+            "rrggbb" to "#ff8800",
+            // String arguments are kept as written.
+            "text" to "#f80")))
+    }
+
+    @Test
+    fun keepReferencedResources() {
+        val references = mutableSetOf<String>()
+        val errors = compileNavGraph(testData("nested_login_test.xml"),
+            File(workingDir.root, "navgraph_nested_login_test.bin"), references)
+        assertThat(errors.isEmpty(), `is`(true))
+        assertThat(references, `is`(setOf("@id/main_fragment", "@id/start_login", "@id/login",
+            "@id/login_fragment", "@id/action_done", "@id/register", "@id/register_fragment")))
+
+        val output = File(workingDir.root, "navigation_keep.xml")
+        writeResourceKeepRules(references, output)
+        assertThat(output.readText(), `is`(
+            "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" +
+                "<resources xmlns:tools=\"http://schemas.android.com/tools\"\n" +
+                "    tools:keep=\"@raw/navgraph_*,@id/action_done,@id/login,@id/login_fragment," +
+                "@id/main_fragment,@id/register,@id/register_fragment,@id/start_login\" />\n"))
+    }
+
+    private fun readCompiledGraph(file: File): Element {
+        DataInputStream(file.inputStream().buffered()).use { input ->
+            assertThat(input.readInt(), `is`(COMPILED_NAV_GRAPH_MAGIC))
+            assertThat(input.readShort().toInt(), `is`(COMPILED_NAV_GRAPH_VERSION))
+            val strings = List(input.readUnsignedShort()) { input.readUTF() }
+            val root = readElement(input, strings)
+            assertThat(input.read(), `is`(-1))
+            return root
+        }
+    }
+
+    private fun readElement(input: DataInputStream, strings: List<String>): Element {
+        val size = input.readInt()
+        val start = input.available()
+        val tag = strings[input.readUnsignedShort()]
+        val attributes = (0 until input.readUnsignedShort()).associate {
+            strings[input.readUnsignedShort()] to strings[input.readUnsignedShort()]
+        }
+        val children = List(input.readUnsignedShort()) { readElement(input, strings) }
+        assertThat(start - input.available(), `is`(size))
+        return Element(tag, attributes, children)
+    }
+}
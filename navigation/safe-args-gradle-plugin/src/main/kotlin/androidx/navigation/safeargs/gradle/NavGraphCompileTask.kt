@@ -0,0 +1,66 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.navigation.safeargs.gradle
+
+import androidx.navigation.safe.args.generator.COMPILED_NAV_GRAPH_KEEP_RULES
+import androidx.navigation.safe.args.generator.COMPILED_NAV_GRAPH_PREFIX
+import androidx.navigation.safe.args.generator.compileNavGraph
+import androidx.navigation.safe.args.generator.writeResourceKeepRules
+import org.gradle.api.DefaultTask
+import org.gradle.api.GradleException
+import org.gradle.api.tasks.InputFiles
+import org.gradle.api.tasks.OutputDirectory
+import org.gradle.api.tasks.TaskAction
+import java.io.File
+
+/**
+ * Compiles navigation graphs into raw resources that are read with
+ * `NavInflater.inflateCompiled()`, skipping the XML parsing at runtime.
+ *
+ * The graph in `navigation/foo.xml` is compiled into `raw/navgraph_foo`. The resources that the
+ * compiled graphs look up by name are kept from resource shrinking by `raw/navigation_keep.xml`.
+ */
+open class NavGraphCompileTask : DefaultTask() {
+    @get:InputFiles
+    var navigationFiles: List<File> = emptyList()
+
+    @get:OutputDirectory
+    lateinit var outputDir: File
+
+    @Suppress("unused")
+    @TaskAction
+    internal fun taskAction() {
+        if (outputDir.exists() && !outputDir.deleteRecursively()) {
+            project.logger.warn("Failed to clear directory for compiled navigation graphs")
+        }
+        val rawDir = File(outputDir, "raw")
+        if (!rawDir.exists() && !rawDir.mkdirs()) {
+            throw GradleException("Failed to create directory for compiled navigation graphs")
+        }
+        val references = mutableSetOf<String>()
+        val errors = navigationFiles.flatMap { file ->
+            val name = "$COMPILED_NAV_GRAPH_PREFIX${file.nameWithoutExtension}"
+            compileNavGraph(file, File(rawDir, name), references)
+        }
+        if (errors.isNotEmpty()) {
+            throw GradleException(
+                    "androidx.navigation.safeargs plugin failed to compile navigation graphs.\n" +
+                            errors.joinToString("\n"))
+        }
+        writeResourceKeepRules(references, File(rawDir, "$COMPILED_NAV_GRAPH_KEEP_RULES.xml"))
+    }
+}
@@ -30,6 +30,10 @@ import java.io.File
 private const val PLUGIN_DIRNAME = "navigation-args"
 internal const val GENERATED_PATH = "generated/source/$PLUGIN_DIRNAME"
 internal const val INCREMENTAL_PATH = "intermediates/incremental"
+internal const val COMPILED_GRAPHS_PATH = "generated/res/navigation-graphs"
+
+// Opt-in, compiles the navigation graphs for NavInflater.inflateCompiled()
+private const val COMPILE_GRAPHS_PROPERTY = "androidx.navigation.compileNavGraphs"
 
 @Suppress("unused")
 class SafeArgsPlugin : Plugin<Project> {
@@ -62,6 +66,18 @@ class SafeArgsPlugin : Plugin<Project> {
                 task.useAndroidX = (project.findProperty("android.useAndroidX") == "true")
             }
             variant.registerJavaGeneratingTask(task, task.outputDir)
+
+            if (project.findProperty(COMPILE_GRAPHS_PROPERTY) == "true") {
+                val compileTask = project.tasks.create(
+                        "compileNavGraphs${variant.name.capitalize()}",
+                        NavGraphCompileTask::class.java) { compileTask ->
+                    compileTask.navigationFiles = navigationFiles(variant)
+                    compileTask.outputDir =
+                            File(project.buildDir, "$COMPILED_GRAPHS_PATH/${variant.dirName}")
+                }
+                variant.registerGeneratedResFolders(
+                        project.files(compileTask.outputDir).builtBy(compileTask))
+            }
         }
     }
 }
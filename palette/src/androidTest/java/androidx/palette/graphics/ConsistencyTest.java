@@ -17,6 +17,8 @@
 package androidx.palette.graphics;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import android.graphics.Bitmap;
 
@@ -26,6 +28,9 @@ import androidx.test.runner.AndroidJUnit4;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 @RunWith(AndroidJUnit4.class)
 public class ConsistencyTest {
 
@@ -46,6 +51,67 @@ public class ConsistencyTest {
         }
     }
 
+    @Test
+    @MediumTest
+    public void testParallelHistogramConsistency() {
+        final Bitmap bitmap = TestUtils.loadSampleBitmap();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            // Disable resizing so that the bitmap is large enough to be processed in parallel
+            final Palette sequential = Palette.from(bitmap).resizeBitmapArea(0).generate();
+            final Palette parallel = Palette.from(bitmap).resizeBitmapArea(0)
+                    .setHistogramExecutor(executor).generate();
+            assetPalettesEqual(sequential, parallel);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @MediumTest
+    public void testCache() {
+        final Bitmap bitmap = TestUtils.loadSampleBitmap().copy(Bitmap.Config.ARGB_8888, true);
+        final PaletteCache cache = new PaletteCache(2);
+
+        final Palette first = Palette.from(bitmap).setCache(cache).generate();
+        assertSame(first, Palette.from(bitmap).setCache(cache).generate());
+
+        // Palettes are only shared by the same bitmap
+        final Bitmap copy = bitmap.copy(Bitmap.Config.ARGB_8888, true);
+        assertNotSame(first, Palette.from(copy).setCache(cache).generate());
+        assertSame(first, Palette.from(bitmap).setCache(cache).generate());
+
+        // Modifying the bitmap changes its generation ID
+        bitmap.eraseColor(0xFF00FF00);
+        final Palette modified = Palette.from(bitmap).setCache(cache).generate();
+        assertNotSame(first, modified);
+
+        cache.evictAll();
+        assertNotSame(modified, Palette.from(bitmap).setCache(cache).generate());
+    }
+
+    @Test
+    @MediumTest
+    public void testCacheKeyedBySettings() {
+        final Bitmap bitmap = TestUtils.loadSampleBitmap();
+        final PaletteCache cache = new PaletteCache(10);
+
+        final Palette first = Palette.from(bitmap).setCache(cache).generate();
+        assertNotSame(first, Palette.from(bitmap).maximumColorCount(4).setCache(cache).generate());
+        assertNotSame(first, Palette.from(bitmap).resizeBitmapArea(0).setCache(cache).generate());
+        assertNotSame(first, Palette.from(bitmap).clearFilters().setCache(cache).generate());
+        assertNotSame(first, Palette.from(bitmap).clearTargets().setCache(cache).generate());
+
+        final Palette region = Palette.from(bitmap).setRegion(0, 0, 10, 10)
+                .setCache(cache).generate();
+        assertNotSame(first, region);
+        // The region is scaled down during generation, but the key holds the requested one
+        assertSame(region, Palette.from(bitmap).setRegion(0, 0, 10, 10)
+                .setCache(cache).generate());
+
+        assertSame(first, Palette.from(bitmap).setCache(cache).generate());
+    }
+
     private static void assetPalettesEqual(Palette p1, Palette p2) {
         assertEquals(p1.getVibrantSwatch(), p2.getVibrantSwatch());
         assertEquals(p1.getLightVibrantSwatch(), p2.getLightVibrantSwatch());
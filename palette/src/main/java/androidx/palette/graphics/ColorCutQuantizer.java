@@ -21,6 +21,7 @@ import android.util.TimingLogger;
 
 import androidx.annotation.Nullable;
 import androidx.core.graphics.ColorUtils;
+import androidx.core.util.Pools;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -28,6 +29,8 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 
 /**
  * An color quantizer based on the Median-cut algorithm, but optimized for picking out distinct
@@ -54,8 +57,23 @@ final class ColorCutQuantizer {
     private static final int QUANTIZE_WORD_WIDTH = 5;
     private static final int QUANTIZE_WORD_MASK = (1 << QUANTIZE_WORD_WIDTH) - 1;
 
+    private static final int HISTOGRAM_SIZE = 1 << (QUANTIZE_WORD_WIDTH * 3);
+
+    /**
+     * Below this number of pixels the histogram is always built on the calling thread, since
+     * handing the work to other threads costs more than it saves.
+     */
+    private static final int PARALLEL_HISTOGRAM_MIN_PIXELS = 1 << 16;
+    private static final int PARALLEL_HISTOGRAM_MAX_CHUNKS = 4;
+
+    /**
+     * Histograms are 128KB each, so they are recycled between quantizers instead of being
+     * allocated for every palette. Arrays in the pool are always zeroed.
+     */
+    private static final Pools.SynchronizedPool<int[]> sHistogramPool =
+            new Pools.SynchronizedPool<>(PARALLEL_HISTOGRAM_MAX_CHUNKS + 1);
+
     final int[] mColors;
-    final int[] mHistogram;
     final List<Palette.Swatch> mQuantizedColors;
     @Nullable final TimingLogger mTimingLogger;
     final Palette.Filter[] mFilters;
@@ -69,20 +87,44 @@ final class ColorCutQuantizer {
      * @param maxColors The maximum number of colors that should be in the result palette.
      * @param filters Set of filters to use in the quantization stage
      */
-    @SuppressWarnings("NullAway") // mTimingLogger initialization and access guarded by LOG_TIMINGS.
     ColorCutQuantizer(final int[] pixels, final int maxColors, final Palette.Filter[] filters) {
+        this(pixels, maxColors, filters, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param pixels histogram representing an image's pixel data
+     * @param maxColors The maximum number of colors that should be in the result palette.
+     * @param filters Set of filters to use in the quantization stage
+     * @param histogramExecutor Executor used to build the histogram of large images in parallel,
+     *                          or null to build it on the calling thread
+     */
+    @SuppressWarnings("NullAway") // mTimingLogger initialization and access guarded by LOG_TIMINGS.
+    ColorCutQuantizer(final int[] pixels, final int maxColors, final Palette.Filter[] filters,
+            @Nullable final Executor histogramExecutor) {
         mTimingLogger = LOG_TIMINGS ? new TimingLogger(LOG_TAG, "Creation") : null;
         mFilters = filters;
 
-        final int[] hist = mHistogram = new int[1 << (QUANTIZE_WORD_WIDTH * 3)];
-        for (int i = 0; i < pixels.length; i++) {
-            final int quantizedColor = quantizeFromRgb888(pixels[i]);
-            // Now update the pixel value to the quantized value
-            pixels[i] = quantizedColor;
-            // And update the histogram
-            hist[quantizedColor]++;
+        // The histogram is returned to sHistogramPool once the colors are quantized, so it is only
+        // passed down to the code that runs until then and never kept in a field.
+        final int[] hist = obtainHistogram();
+        try {
+            buildHistogram(pixels, hist, histogramExecutor);
+            mColors = quantize(hist);
+            mQuantizedColors = createQuantizedColors(maxColors, hist);
+        } finally {
+            releaseHistogram(hist);
         }
+    }
 
+    /**
+     * Removes filtered colors from the histogram.
+     *
+     * @return the distinct colors that remain
+     */
+    @SuppressWarnings("NullAway") // mTimingLogger initialization and access guarded by LOG_TIMINGS.
+    private int[] quantize(final int[] hist) {
         if (LOG_TIMINGS) {
             mTimingLogger.addSplit("Histogram created");
         }
@@ -105,7 +147,7 @@ final class ColorCutQuantizer {
         }
 
         // Now lets go through create an array consisting of only distinct colors
-        final int[] colors = mColors = new int[distinctColorCount];
+        final int[] colors = new int[distinctColorCount];
         int distinctColorIndex = 0;
         for (int color = 0; color < hist.length; color++) {
             if (hist[color] > 0) {
@@ -116,12 +158,18 @@ final class ColorCutQuantizer {
         if (LOG_TIMINGS) {
             mTimingLogger.addSplit("Distinct colors copied into array");
         }
+        return colors;
+    }
 
-        if (distinctColorCount <= maxColors) {
+    @SuppressWarnings("NullAway") // mTimingLogger initialization and access guarded by LOG_TIMINGS.
+    private List<Palette.Swatch> createQuantizedColors(final int maxColors, final int[] hist) {
+        final List<Palette.Swatch> quantizedColors;
+        if (mColors.length <= maxColors) {
             // The image has fewer colors than the maximum requested, so just return the colors
-            mQuantizedColors = new ArrayList<>();
-            for (int color : colors) {
-                mQuantizedColors.add(new Palette.Swatch(approximateToRgb888(color), hist[color]));
+            quantizedColors = new ArrayList<>();
+            for (int color : mColors) {
+                quantizedColors.add(
+                        new Palette.Swatch(approximateToRgb888(color), hist[color]));
             }
 
             if (LOG_TIMINGS) {
@@ -130,13 +178,91 @@ final class ColorCutQuantizer {
             }
         } else {
             // We need use quantization to reduce the number of colors
-            mQuantizedColors = quantizePixels(maxColors);
+            quantizedColors = quantizePixels(maxColors, hist);
 
             if (LOG_TIMINGS) {
                 mTimingLogger.addSplit("Quantized colors computed");
                 mTimingLogger.dumpToLog();
             }
         }
+        return quantizedColors;
+    }
+
+    /**
+     * Quantizes {@code pixels} in place and counts them into {@code hist}. Large images are split
+     * into chunks which are counted into separate histograms on {@code executor} and merged.
+     */
+    private static void buildHistogram(final int[] pixels, final int[] hist,
+            @Nullable final Executor executor) {
+        final int chunkCount = Math.min(PARALLEL_HISTOGRAM_MAX_CHUNKS,
+                Runtime.getRuntime().availableProcessors());
+        if (executor == null || chunkCount < 2 || pixels.length < PARALLEL_HISTOGRAM_MIN_PIXELS) {
+            buildHistogram(pixels, 0, pixels.length, hist);
+            return;
+        }
+
+        final int chunkSize = (pixels.length + chunkCount - 1) / chunkCount;
+        final int[][] partialHistograms = new int[chunkCount - 1][];
+        final CountDownLatch latch = new CountDownLatch(chunkCount - 1);
+        for (int i = 1; i < chunkCount; i++) {
+            final int start = i * chunkSize;
+            final int end = Math.min(start + chunkSize, pixels.length);
+            final int[] partialHistogram = partialHistograms[i - 1] = obtainHistogram();
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        buildHistogram(pixels, start, end, partialHistogram);
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            });
+        }
+        // The first chunk is counted on the calling thread while the others are running
+        buildHistogram(pixels, 0, Math.min(chunkSize, pixels.length), hist);
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                // The partial histograms are needed to finish, keep waiting
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (int[] partialHistogram : partialHistograms) {
+            for (int color = 0; color < HISTOGRAM_SIZE; color++) {
+                hist[color] += partialHistogram[color];
+            }
+            releaseHistogram(partialHistogram);
+        }
+    }
+
+    private static void buildHistogram(final int[] pixels, final int start, final int end,
+            final int[] hist) {
+        for (int i = start; i < end; i++) {
+            final int quantizedColor = quantizeFromRgb888(pixels[i]);
+            // Now update the pixel value to the quantized value
+            pixels[i] = quantizedColor;
+            // And update the histogram
+            hist[quantizedColor]++;
+        }
+    }
+
+    private static int[] obtainHistogram() {
+        final int[] hist = sHistogramPool.acquire();
+        return hist != null ? hist : new int[HISTOGRAM_SIZE];
+    }
+
+    private static void releaseHistogram(final int[] hist) {
+        Arrays.fill(hist, 0);
+        sHistogramPool.release(hist);
     }
 
     /**
@@ -146,13 +272,13 @@ final class ColorCutQuantizer {
         return mQuantizedColors;
     }
 
-    private List<Palette.Swatch> quantizePixels(int maxColors) {
+    private List<Palette.Swatch> quantizePixels(int maxColors, int[] hist) {
         // Create the priority queue which is sorted by volume descending. This means we always
         // split the largest box in the queue
         final PriorityQueue<Vbox> pq = new PriorityQueue<>(maxColors, VBOX_COMPARATOR_VOLUME);
 
         // To start, offer a box which contains all of the colors
-        pq.offer(new Vbox(0, mColors.length - 1));
+        pq.offer(new Vbox(hist, 0, mColors.length - 1));
 
         // Now go through the boxes, splitting them until we have reached maxColors or there are no
         // more boxes to split
@@ -212,6 +338,8 @@ final class ColorCutQuantizer {
      * Represents a tightly fitting box around a color space.
      */
     private class Vbox {
+        // Histogram of the colors, shared by all the boxes of the quantization
+        private final int[] mHist;
         // lower and upper index are inclusive
         private int mLowerIndex;
         private int mUpperIndex;
@@ -222,7 +350,8 @@ final class ColorCutQuantizer {
         private int mMinGreen, mMaxGreen;
         private int mMinBlue, mMaxBlue;
 
-        Vbox(int lowerIndex, int upperIndex) {
+        Vbox(int[] hist, int lowerIndex, int upperIndex) {
+            mHist = hist;
             mLowerIndex = lowerIndex;
             mUpperIndex = upperIndex;
             fitBox();
@@ -246,7 +375,7 @@ final class ColorCutQuantizer {
          */
         final void fitBox() {
             final int[] colors = mColors;
-            final int[] hist = mHistogram;
+            final int[] hist = mHist;
 
             // Reset the min and max to opposite values
             int minRed, minGreen, minBlue;
@@ -304,7 +433,7 @@ final class ColorCutQuantizer {
             // find median along the longest dimension
             final int splitPoint = findSplitPoint();
 
-            Vbox newBox = new Vbox(splitPoint + 1, mUpperIndex);
+            Vbox newBox = new Vbox(mHist, splitPoint + 1, mUpperIndex);
 
             // Now change this box's upperIndex and recompute the color boundaries
             mUpperIndex = splitPoint;
@@ -342,7 +471,7 @@ final class ColorCutQuantizer {
         final int findSplitPoint() {
             final int longestDimension = getLongestColorDimension();
             final int[] colors = mColors;
-            final int[] hist = mHistogram;
+            final int[] hist = mHist;
 
             // We need to sort the colors in this box based on the longest color dimension.
             // As we can't use a Comparator to define the sort logic, we modify each color so that
@@ -373,7 +502,7 @@ final class ColorCutQuantizer {
          */
         final Palette.Swatch getAverageColor() {
             final int[] colors = mColors;
-            final int[] hist = mHistogram;
+            final int[] hist = mHist;
             int redSum = 0;
             int greenSum = 0;
             int blueSum = 0;
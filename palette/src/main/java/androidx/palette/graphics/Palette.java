@@ -36,6 +36,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * A helper class to extract prominent colors from an image.
@@ -603,6 +604,9 @@ public final class Palette {
         private final List<Filter> mFilters = new ArrayList<>();
         @Nullable private Rect mRegion;
 
+        @Nullable private Executor mHistogramExecutor;
+        @Nullable private PaletteCache mCache;
+
         /**
          * Construct a new {@link Builder} using a source {@link Bitmap}
          */
@@ -747,6 +751,36 @@ public final class Palette {
             return this;
         }
 
+        /**
+         * Set an {@link Executor} which is used to build the color histogram of large bitmaps in
+         * parallel, e.g. when resizing is disabled. Small bitmaps are always processed on the
+         * calling thread.
+         * <p>
+         * {@link #generate()} blocks until the tasks posted to the executor are done, so it must
+         * not be called from a thread of the same bounded executor.
+         *
+         * @param executor the executor to use, or {@code null} to build the histogram on the
+         *                 calling thread.
+         */
+        @NonNull
+        public Builder setHistogramExecutor(@Nullable Executor executor) {
+            mHistogramExecutor = executor;
+            return this;
+        }
+
+        /**
+         * Set a cache to look up and store palettes generated from the source {@link Bitmap}.
+         * <p>This only works when the original input is a {@link Bitmap}.</p>
+         *
+         * @param cache the cache to use, or {@code null} to always generate a new palette.
+         * @see PaletteCache
+         */
+        @NonNull
+        public Builder setCache(@Nullable PaletteCache cache) {
+            mCache = cache;
+            return this;
+        }
+
         /**
          * Add a target profile to be generated in the palette.
          *
@@ -783,6 +817,18 @@ public final class Palette {
 
             List<Swatch> swatches;
 
+            final PaletteCache cache = mCache;
+            PaletteCache.Settings settings = null;
+            if (mBitmap != null && cache != null) {
+                // Captured before the region is scaled down below
+                settings = new PaletteCache.Settings(mMaxColors, mResizeArea, mResizeMaxDimension,
+                        mRegion, mFilters, mTargets);
+                final Palette cached = cache.get(mBitmap, settings);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+
             if (mBitmap != null) {
                 // We have a Bitmap so we need to use quantization to reduce the number of colors
 
@@ -810,7 +856,8 @@ public final class Palette {
                 final ColorCutQuantizer quantizer = new ColorCutQuantizer(
                         getPixelsFromBitmap(bitmap),
                         mMaxColors,
-                        mFilters.isEmpty() ? null : mFilters.toArray(new Filter[mFilters.size()]));
+                        mFilters.isEmpty() ? null : mFilters.toArray(new Filter[mFilters.size()]),
+                        mHistogramExecutor);
 
                 // If created a new bitmap, recycle it
                 if (bitmap != mBitmap) {
@@ -840,6 +887,10 @@ public final class Palette {
                 logger.dumpToLog();
             }
 
+            if (mBitmap != null && cache != null && settings != null) {
+                cache.put(mBitmap, settings, p);
+            }
+
             return p;
         }
 
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.palette.graphics;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.LruCache;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A cache of generated {@link Palette} instances, keyed by the identity of their {@link Bitmap},
+ * its {@link Bitmap#getGenerationId()} and the {@link Palette.Builder} settings they were
+ * generated with.
+ * <p>
+ * The generation ID of a bitmap changes whenever its pixels are modified, so a cached palette is
+ * never returned for content it was not generated from. Bitmaps are only weakly referenced, and
+ * the palettes of the bitmaps that have been garbage collected are dropped. Palettes generated
+ * from the same bitmap with a different region, color count, resize setting, filters or targets
+ * are cached separately. Filters and targets are compared with {@link Object#equals(Object)}, so
+ * builders sharing a cache should reuse the same instances.
+ *
+ * @see Palette.Builder#setCache(PaletteCache)
+ */
+public final class PaletteCache {
+
+    private final LruCache<Key, Palette> mCache;
+    private final ReferenceQueue<Bitmap> mCollectedBitmaps = new ReferenceQueue<>();
+
+    /**
+     * @param maxSize the maximum number of palettes to keep
+     */
+    public PaletteCache(int maxSize) {
+        mCache = new LruCache<>(maxSize);
+    }
+
+    @Nullable
+    Palette get(@NonNull Bitmap bitmap, @NonNull Settings settings) {
+        removeCollected();
+        return mCache.get(new Key(bitmap, settings, null));
+    }
+
+    void put(@NonNull Bitmap bitmap, @NonNull Settings settings, @NonNull Palette palette) {
+        removeCollected();
+        mCache.put(new Key(bitmap, settings, mCollectedBitmaps), palette);
+    }
+
+    /**
+     * Removes all the cached palettes.
+     */
+    public void evictAll() {
+        mCache.evictAll();
+        removeCollected();
+    }
+
+    private void removeCollected() {
+        Reference<? extends Bitmap> key;
+        while ((key = mCollectedBitmaps.poll()) != null) {
+            mCache.remove((Key) key);
+        }
+    }
+
+    /**
+     * A snapshot of the {@link Palette.Builder} settings which affect the generated palette.
+     */
+    static final class Settings {
+        private final int mMaxColors;
+        private final int mResizeArea;
+        private final int mResizeMaxDimension;
+        @Nullable private final Rect mRegion;
+        private final List<Palette.Filter> mFilters;
+        private final List<Target> mTargets;
+
+        Settings(int maxColors, int resizeArea, int resizeMaxDimension, @Nullable Rect region,
+                @NonNull List<Palette.Filter> filters, @NonNull List<Target> targets) {
+            mMaxColors = maxColors;
+            mResizeArea = resizeArea;
+            mResizeMaxDimension = resizeMaxDimension;
+            mRegion = region != null ? new Rect(region) : null;
+            mFilters = new ArrayList<>(filters);
+            mTargets = new ArrayList<>(targets);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Settings)) {
+                return false;
+            }
+            final Settings other = (Settings) o;
+            return mMaxColors == other.mMaxColors
+                    && mResizeArea == other.mResizeArea
+                    && mResizeMaxDimension == other.mResizeMaxDimension
+                    && (mRegion != null ? mRegion.equals(other.mRegion) : other.mRegion == null)
+                    && mFilters.equals(other.mFilters)
+                    && mTargets.equals(other.mTargets);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = mMaxColors;
+            result = 31 * result + mResizeArea;
+            result = 31 * result + mResizeMaxDimension;
+            result = 31 * result + (mRegion != null ? mRegion.hashCode() : 0);
+            result = 31 * result + mFilters.hashCode();
+            result = 31 * result + mTargets.hashCode();
+            return result;
+        }
+    }
+
+    /**
+     * Weakly references a bitmap and holds its generation ID at the time the key was created,
+     * along with the settings the palette was generated with. Keys are equal if they reference
+     * the same bitmap, compared by identity, with the same generation ID and settings.
+     */
+    private static final class Key extends WeakReference<Bitmap> {
+        private final int mGenerationId;
+        private final Settings mSettings;
+        private final int mHash;
+
+        Key(Bitmap bitmap, Settings settings, @Nullable ReferenceQueue<Bitmap> queue) {
+            super(bitmap, queue);
+            mGenerationId = bitmap.getGenerationId();
+            mSettings = settings;
+            mHash = 31 * (31 * System.identityHashCode(bitmap) + mGenerationId)
+                    + settings.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            final Bitmap bitmap = get();
+            // Two keys whose bitmaps have been collected are not the same.
+            return bitmap != null && bitmap == other.get() && mGenerationId == other.mGenerationId
+                    && mSettings.equals(other.mSettings);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHash;
+        }
+    }
+}
@@ -17,12 +17,15 @@
 package androidx.recyclerview.benchmark
 
 import android.graphics.Color
+import android.os.SystemClock
 import android.view.LayoutInflater
+import android.view.MotionEvent
 import android.view.View
 import android.view.ViewGroup
 import androidx.benchmark.BenchmarkRule
 import androidx.recyclerview.benchmark.test.R
 import androidx.recyclerview.widget.RecyclerView
+import androidx.test.InstrumentationRegistry
 import androidx.test.annotation.UiThreadTest
 import androidx.test.filters.LargeTest
 import androidx.test.rule.ActivityTestRule
@@ -31,6 +34,7 @@ import org.junit.Before
 import org.junit.Rule
 import org.junit.Test
 import org.junit.runner.RunWith
+import java.util.concurrent.Executors
 
 @LargeTest
 @RunWith(AndroidJUnit4::class)
@@ -116,6 +120,81 @@ class ScrollBenchmark {
             rv.scrollBy(0, 100)
         }
     }
+
+    @Test
+    fun inflateBindDrag() {
+        drag(backgroundCreation = false)
+    }
+
+    @Test
+    fun inflateBindDragBackgroundCreation() {
+        drag(backgroundCreation = true)
+    }
+
+    /**
+     * Drags by one item per iteration, and lets prefetch run in between as it would in the idle
+     * time of a frame. Only the drag is measured, which inflates the revealed item unless
+     * prefetch managed to create it ahead of time - on the UI thread, or with
+     * [RecyclerView.setBackgroundCreationExecutor] on a background thread.
+     */
+    private fun drag(backgroundCreation: Boolean) {
+        val state = benchmarkRule.state
+        val instrumentation = InstrumentationRegistry.getInstrumentation()
+        val executor = Executors.newSingleThreadExecutor()
+        val rv = activityRule.activity.recyclerView
+        val downTime = SystemClock.uptimeMillis()
+        var y = 10000f
+
+        activityRule.runOnUiThread {
+            trivialAdapter.disableReuse = true
+            trivialAdapter.backgroundCreation = backgroundCreation
+            rv.setRecycledViewPool(UnboundOnlyPool())
+            if (backgroundCreation) {
+                rv.setBackgroundCreationExecutor(executor)
+            }
+            rv.dispatchTouch(downTime, MotionEvent.ACTION_DOWN, y)
+            // get past touch slop
+            y -= 100
+            rv.dispatchTouch(downTime, MotionEvent.ACTION_MOVE, y)
+        }
+
+        try {
+            while (state.keepRunning()) {
+                y -= 100
+                val moveY = y
+                activityRule.runOnUiThread {
+                    // each drag should reveal a new item
+                    rv.dispatchTouch(downTime, MotionEvent.ACTION_MOVE, moveY)
+                }
+
+                state.pauseTiming()
+                // let GapWorker prefetch, and any background creation land in the pool
+                instrumentation.waitForIdleSync()
+                executor.submit {}.get()
+                instrumentation.waitForIdleSync()
+                state.resumeTiming()
+            }
+        } finally {
+            executor.shutdown()
+        }
+    }
+}
+
+private fun RecyclerView.dispatchTouch(downTime: Long, action: Int, y: Float) {
+    val event = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), action, 50f, y, 0)
+    onTouchEvent(event)
+    event.recycle()
+}
+
+/**
+ * Drops bound views, like [ZeroSizePool], but keeps the unbound ones created in the background.
+ */
+private class UnboundOnlyPool : RecyclerView.RecycledViewPool() {
+    override fun putRecycledView(scrap: RecyclerView.ViewHolder) {
+        if (scrap.itemView.tag == null) {
+            super.putRecycledView(scrap)
+        }
+    }
 }
 
 private class ZeroSizePool : RecyclerView.RecycledViewPool() {
@@ -132,6 +211,7 @@ private class TrivialViewHolder(view: View) : RecyclerView.ViewHolder(view)
 private class TrivialAdapter : RecyclerView.Adapter<TrivialViewHolder>() {
     var disableReuse = false
     var createInCode = false
+    var backgroundCreation = false
 
     var inflater: (ViewGroup) -> View = {
         LayoutInflater.from(it.context).inflate(
@@ -145,8 +225,11 @@ private class TrivialAdapter : RecyclerView.Adapter<TrivialViewHolder>() {
     override fun onBindViewHolder(holder: TrivialViewHolder, position: Int) {
         val color = position % 256
         holder.itemView.setBackgroundColor(Color.rgb(color, color, color))
+        holder.itemView.tag = position
     }
 
+    override fun canCreateViewHolderInBackground(viewType: Int) = backgroundCreation
+
     override fun getItemViewType(position: Int): Int {
         return if (disableReuse) position else 0
     }
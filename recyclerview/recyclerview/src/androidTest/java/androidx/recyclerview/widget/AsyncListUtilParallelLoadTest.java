@@ -0,0 +1,183 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.recyclerview.widget;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.os.Looper;
+import android.util.SparseArray;
+
+import androidx.test.filters.MediumTest;
+import androidx.test.rule.ActivityTestRule;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests {@link AsyncListUtil} loading tiles in parallel on a tile load executor.
+ */
+@RunWith(AndroidJUnit4.class)
+@MediumTest
+public class AsyncListUtilParallelLoadTest {
+    @Rule
+    public ActivityTestRule<TestActivity> mActivityRule =
+            new ActivityTestRule<>(TestActivity.class);
+
+    private static final int TILE_SIZE = 10;
+    private static final int TILE_COUNT = 3;
+    private static final int ITEM_COUNT = TILE_SIZE * TILE_COUNT;
+    private static final long TIMEOUT_MS = 2000;
+
+    private final CountDownLatch mTilesStarted = new CountDownLatch(TILE_COUNT);
+    private final CountDownLatch mDataRefreshed = new CountDownLatch(1);
+    // Latches that let the load of the tile at each start position finish.
+    private final SparseArray<CountDownLatch> mTileReleases = new SparseArray<>();
+    // Latches counting down the items of the tile at each start position as they are loaded.
+    private final SparseArray<CountDownLatch> mTileItemsLoaded = new SparseArray<>();
+    private final List<Integer> mLoadedPositions =
+            Collections.synchronizedList(new ArrayList<Integer>());
+    private final List<Thread> mLoadedThreads =
+            Collections.synchronizedList(new ArrayList<Thread>());
+
+    private ExecutorService mExecutor;
+    AsyncListUtil<String> mAsyncListUtil;
+
+    @Before
+    public void setup() {
+        for (int i = 0; i < TILE_COUNT; i++) {
+            mTileReleases.put(i * TILE_SIZE, new CountDownLatch(1));
+            mTileItemsLoaded.put(i * TILE_SIZE, new CountDownLatch(TILE_SIZE));
+        }
+        mExecutor = Executors.newFixedThreadPool(TILE_COUNT);
+    }
+
+    @After
+    public void tearDown() {
+        for (int i = 0; i < mTileReleases.size(); i++) {
+            mTileReleases.valueAt(i).countDown();
+        }
+        mExecutor.shutdown();
+    }
+
+    @Test
+    public void tilesLoadInParallelAndArriveInOrder() throws Throwable {
+        mActivityRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mAsyncListUtil = new AsyncListUtil<>(String.class, TILE_SIZE,
+                        new BlockingDataCallback(), new FullRangeViewCallback(), mExecutor,
+                        TILE_COUNT);
+            }
+        });
+
+        // None of the loads can finish before it is released, so all of the tiles are being
+        // loaded at the same time.
+        assertTrue("tiles did not load in parallel",
+                mTilesStarted.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertTrue(mDataRefreshed.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        // Finish the loads out of order, each result is delivered on the main thread as soon as
+        // its load is done, with the items of the tile in order.
+        final int[] completionOrder = {20, 0, 10};
+        final List<Integer> expectedPositions = new ArrayList<>();
+        for (int start : completionOrder) {
+            mTileReleases.get(start).countDown();
+            assertTrue("items of tile @" + start + " not loaded",
+                    mTileItemsLoaded.get(start).await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+            for (int i = 0; i < TILE_SIZE; i++) {
+                expectedPositions.add(start + i);
+            }
+        }
+        assertEquals(expectedPositions, mLoadedPositions);
+        for (Thread thread : mLoadedThreads) {
+            assertSame(Looper.getMainLooper().getThread(), thread);
+        }
+
+        mActivityRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < ITEM_COUNT; i++) {
+                    assertEquals("item #" + i, mAsyncListUtil.getItem(i));
+                }
+            }
+        });
+    }
+
+    private class BlockingDataCallback extends AsyncListUtil.DataCallback<String> {
+        @Override
+        public int refreshData() {
+            return ITEM_COUNT;
+        }
+
+        @Override
+        public void fillData(String[] data, int startPosition, int itemCount) {
+            mTilesStarted.countDown();
+            try {
+                mTileReleases.get(startPosition).await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (int i = 0; i < itemCount; i++) {
+                data[i] = "item #" + (startPosition + i);
+            }
+        }
+    }
+
+    private class FullRangeViewCallback extends AsyncListUtil.ViewCallback {
+        @Override
+        public void getItemRangeInto(int[] outRange) {
+            outRange[0] = 0;
+            outRange[1] = ITEM_COUNT - 1;
+        }
+
+        @Override
+        public void extendRangeInto(int[] range, int[] outRange, int scrollHint) {
+            outRange[0] = range[0];
+            outRange[1] = range[1];
+        }
+
+        @Override
+        public void onDataRefresh() {
+            // Ask for every item, so that all of them are reported when their tile is loaded.
+            for (int i = 0; i < ITEM_COUNT; i++) {
+                mAsyncListUtil.getItem(i);
+            }
+            mDataRefreshed.countDown();
+        }
+
+        @Override
+        public void onItemLoaded(int position) {
+            mLoadedThreads.add(Thread.currentThread());
+            mLoadedPositions.add(position);
+            mTileItemsLoaded.get(position - position % TILE_SIZE).countDown();
+        }
+    }
+}
@@ -21,7 +21,9 @@ import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import android.content.Context;
 import android.view.View;
@@ -90,6 +92,85 @@ public class RecycledViewPoolTest {
         assertEquals(0, pool.getRecycledViewCount(3));
     }
 
+    @Test
+    public void hitAndMissCounts() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.putRecycledView(makeHolder(1));
+
+        assertNotNull(pool.getRecycledView(1));
+        assertNull(pool.getRecycledView(1));
+        assertNull(pool.getRecycledView(2));
+
+        assertEquals(1, pool.getRecycledViewHitCount(1));
+        assertEquals(1, pool.getRecycledViewMissCount(1));
+        assertEquals(0, pool.getRecycledViewHitCount(2));
+        assertEquals(1, pool.getRecycledViewMissCount(2));
+    }
+
+    @Test
+    public void queriesDoNotAddViewTypes() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        assertNull(pool.getRecycledView(1));
+        assertEquals(0, pool.getRecycledViewCount(2));
+        assertEquals(5, pool.getMaxRecycledViews(3));
+        assertTrue(pool.willCreateInTime(4, 0, 1));
+        assertTrue(pool.willBindInTime(5, 0, 1));
+
+        assertEquals(0, pool.mScrap.size());
+        assertEquals(1, pool.getRecycledViewMissCount(1));
+    }
+
+    @Test
+    public void adaptiveSizing_growsAfterDiscardAndMiss() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setAdaptiveSizingEnabled(true);
+        pool.setMaxRecycledViews(1, 1);
+        pool.putRecycledView(makeHolder(1));
+        // discarded, the heap is full
+        pool.putRecycledView(makeHolder(1));
+
+        assertNotNull(pool.getRecycledView(1));
+        assertNull(pool.getRecycledView(1));
+
+        assertEquals(2, pool.getMaxRecycledViews(1));
+    }
+
+    @Test
+    public void adaptiveSizing_disabledDoesNotGrow() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setMaxRecycledViews(1, 1);
+        pool.putRecycledView(makeHolder(1));
+        pool.putRecycledView(makeHolder(1));
+
+        assertNotNull(pool.getRecycledView(1));
+        assertNull(pool.getRecycledView(1));
+
+        assertEquals(1, pool.getMaxRecycledViews(1));
+    }
+
+    @Test
+    public void adaptiveSizing_staysWithinBudget() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setAdaptiveSizingEnabled(true);
+        pool.setAdaptiveMaxTotalRecycledViews(3);
+        pool.setMaxRecycledViews(1, 1);
+        pool.setMaxRecycledViews(2, 2);
+        pool.factorInCreateTime(1, 1000);
+        pool.factorInCreateTime(2, 10);
+        pool.putRecycledView(makeHolder(2));
+        pool.putRecycledView(makeHolder(2));
+        pool.putRecycledView(makeHolder(1));
+        pool.putRecycledView(makeHolder(1));
+
+        assertNotNull(pool.getRecycledView(1));
+        assertNull(pool.getRecycledView(1));
+
+        // type 1 is more expensive to create, so type 2 gives up capacity
+        assertEquals(2, pool.getMaxRecycledViews(1));
+        assertEquals(1, pool.getMaxRecycledViews(2));
+        assertEquals(1, pool.getRecycledViewCount(2));
+    }
+
     @Test
     public void onAdapterChanged_attachedToOneOldAdapterNotNullNotCompatWithPrev_clears() {
         onAdapterChanged(1, true, true, true);
@@ -20,6 +20,10 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 import android.os.Build;
+import android.os.Looper;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
 
 import androidx.test.filters.SdkSuppress;
 import androidx.test.filters.SmallTest;
@@ -29,7 +33,12 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 @SmallTest
@@ -100,4 +109,151 @@ public class RecyclerViewPrefetchTest extends BaseRecyclerViewInstrumentationTes
         assertThat(cachedViews().size(), is(1));
         assertThat(cachedViews().get(0).getAdapterPosition(), is(6));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void prefetchCreatesInBackground() throws Throwable {
+        final CountDownLatch createdLatch = new CountDownLatch(1);
+        final boolean[] createdOnMainThread = new boolean[1];
+        RecyclerView recyclerView = new RecyclerView(getActivity());
+        recyclerView.setAdapter(new TestAdapter(50) {
+            @Override
+            public TestViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+                TestViewHolder holder = super.onCreateViewHolder(parent, viewType);
+                if (Looper.myLooper() != Looper.getMainLooper()) {
+                    createdLatch.countDown();
+                } else if (createdLatch.getCount() == 0) {
+                    createdOnMainThread[0] = true;
+                }
+                return holder;
+            }
+
+            @Override
+            public boolean canCreateViewHolderInBackground(int viewType) {
+                return true;
+            }
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        recyclerView.setBackgroundCreationExecutor(executor);
+        PrefetchLayoutManager layout = new PrefetchLayoutManager();
+        recyclerView.setLayoutManager(layout);
+
+        try {
+            layout.expectLayouts(1);
+            setRecyclerView(recyclerView);
+            layout.waitForLayout(10);
+
+            smoothScrollBy(50);
+            layout.waitForPrefetch(10);
+            assertThat(createdLatch.await(10, TimeUnit.SECONDS), is(true));
+
+            // let the created ViewHolder be posted back to the pool
+            getInstrumentation().waitForIdleSync();
+            assertThat(mRecyclerView.getRecycledViewPool().getRecycledViewCount(0)
+                    + cachedViews().size(), is(1));
+            assertThat(createdOnMainThread[0], is(false));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void backgroundCreationRejectedFallsBackToUiThread() throws Throwable {
+        final RecyclerView recyclerView = createBackgroundCreationRecyclerView(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException();
+            }
+        });
+        mActivityRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                assertThat(recyclerView.mBackgroundViewHolderCreator.requestCreate(3, 0),
+                        is(false));
+            }
+        });
+    }
+
+    @Test
+    public void backgroundCreationPooledAfterDataChange() throws Throwable {
+        final List<Runnable> tasks = new ArrayList<>();
+        final RecyclerView recyclerView = createBackgroundCreationRecyclerView(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        });
+        mActivityRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                final BackgroundViewHolderCreator creator =
+                        recyclerView.mBackgroundViewHolderCreator;
+                final RecyclerView.Adapter adapter = recyclerView.getAdapter();
+                final RecyclerView.RecycledViewPool pool = recyclerView.getRecycledViewPool();
+                assertThat(creator.requestCreate(3, 0), is(true));
+                assertThat(creator.requestCreate(3, 0), is(true));
+                assertThat(tasks.size(), is(1));
+
+                adapter.notifyItemChanged(3);
+                // the position is requested again, for the item it now refers to
+                assertThat(creator.requestCreate(3, 0), is(true));
+                assertThat(tasks.size(), is(2));
+
+                // the view type is the same, so the first ViewHolder is still parked, but the
+                // position stays pending until the second one is created
+                creator.onCreated(3, 0, 0, 0, adapter.createViewHolder(recyclerView, 0));
+                assertThat(pool.getRecycledViewCount(0), is(1));
+                assertThat(creator.requestCreate(3, 0), is(true));
+                assertThat(tasks.size(), is(2));
+
+                creator.onCreated(3, 0, 1, 0, adapter.createViewHolder(recyclerView, 0));
+                assertThat(pool.getRecycledViewCount(0), is(2));
+                assertThat(creator.requestCreate(3, 0), is(true));
+                assertThat(tasks.size(), is(3));
+            }
+        });
+    }
+
+    @Test
+    public void backgroundCreationDroppedAfterAdapterChange() throws Throwable {
+        final List<Runnable> tasks = new ArrayList<>();
+        final RecyclerView recyclerView = createBackgroundCreationRecyclerView(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        });
+        mActivityRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                final BackgroundViewHolderCreator creator =
+                        recyclerView.mBackgroundViewHolderCreator;
+                final RecyclerView.Adapter adapter = recyclerView.getAdapter();
+                final RecyclerView.RecycledViewPool pool = recyclerView.getRecycledViewPool();
+                assertThat(creator.requestCreate(3, 0), is(true));
+                assertThat(creator.requestCreate(4, 0), is(true));
+
+                // a compatible adapter keeps the view types
+                recyclerView.swapAdapter(new TestAdapter(50), false);
+                creator.onCreated(3, 0, 0, 0, adapter.createViewHolder(recyclerView, 0));
+                assertThat(pool.getRecycledViewCount(0), is(1));
+
+                recyclerView.setAdapter(new TestAdapter(50));
+                creator.onCreated(4, 0, 1, 0, adapter.createViewHolder(recyclerView, 0));
+                assertThat(pool.getRecycledViewCount(0), is(0));
+            }
+        });
+    }
+
+    private RecyclerView createBackgroundCreationRecyclerView(Executor executor) {
+        RecyclerView recyclerView = new RecyclerView(getActivity());
+        recyclerView.setLayoutManager(new LinearLayoutManager(getActivity()));
+        recyclerView.setAdapter(new TestAdapter(50) {
+            @Override
+            public boolean canCreateViewHolderInBackground(int viewType) {
+                return true;
+            }
+        });
+        recyclerView.setBackgroundCreationExecutor(executor);
+        return recyclerView;
+    }
+}
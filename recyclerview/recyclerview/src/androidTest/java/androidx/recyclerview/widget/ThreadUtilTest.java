@@ -100,6 +100,13 @@ public class ThreadUtilTest {
                                 setResultData("loadTile", position, scrollHint);
                             }
 
+                            @Override
+                            public void onTileLoaded(int generation, TileList.Tile<Integer> tile,
+                                    int scrollHint) {
+                                assertBackgroundThread();
+                                setResultData("onTileLoaded", generation, tile, scrollHint);
+                            }
+
                             @Override
                             public void recycleTile(TileList.Tile<Integer> data) {
                                 assertBackgroundThread();
@@ -163,6 +170,15 @@ public class ThreadUtilTest {
         assertThat(data, is(new Object[]{2, 1}));
     }
 
+    @Test
+    public void onTileLoaded() throws InterruptedException {
+        initWait("onTileLoaded");
+        TileList.Tile<Integer> tile = new TileList.Tile<Integer>(Integer.class, 10);
+        mBackgroundProxy.onTileLoaded(3, tile, 2);
+        Object[] data = waitFor("onTileLoaded");
+        assertThat(data, is(new Object[]{3, tile, 2}));
+    }
+
     @Test
     public void recycleTile() throws InterruptedException {
         initWait("recycleTile");
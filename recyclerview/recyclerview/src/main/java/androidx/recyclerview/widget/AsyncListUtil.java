@@ -25,6 +25,9 @@ import androidx.annotation.Nullable;
 import androidx.annotation.UiThread;
 import androidx.annotation.WorkerThread;
 
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+
 /**
  * A utility class that supports asynchronous content loading.
  * <p>
@@ -39,8 +42,11 @@ import androidx.annotation.WorkerThread;
  * {@link ViewCallback} when the data is loaded. It may load some extra items for smoother
  * scrolling.
  * <p>
- * Note that this class uses a single thread to load the data, so it suitable to load data from
- * secondary storage such as disk, but not from network.
+ * Note that by default this class uses a single thread to load the data, so it suitable to load
+ * data from secondary storage such as disk, but not from network. If a single tile takes long to
+ * load, e.g. from a slow content provider, use
+ * {@link #AsyncListUtil(Class, int, DataCallback, ViewCallback, Executor, int)} to load several
+ * tiles in parallel.
  * <p>
  * This class is designed to work with {@link RecyclerView}, but it does
  * not depend on it and can be used with other list views.
@@ -56,6 +62,10 @@ public class AsyncListUtil<T> {
     final DataCallback<T> mDataCallback;
     final ViewCallback mViewCallback;
 
+    @Nullable
+    final Executor mTileLoadExecutor;
+    final int mMaxParallelTileLoads;
+
     final TileList<T> mTileList;
 
     final ThreadUtil.MainThreadCallback<T> mMainThreadProxy;
@@ -89,10 +99,46 @@ public class AsyncListUtil<T> {
      */
     public AsyncListUtil(@NonNull Class<T> klass, int tileSize,
             @NonNull DataCallback<T> dataCallback, @NonNull ViewCallback viewCallback) {
+        this(klass, tileSize, dataCallback, viewCallback, 1, null);
+    }
+
+    /**
+     * Creates an AsyncListUtil which loads up to <code>maxParallelTileLoads</code> tiles at once.
+     * <p>
+     * Tiles are started in the order of the scroll hint, the visible ones first. Tiles which are
+     * no longer in the range returned by {@link ViewCallback#extendRangeInto} by the time they
+     * would start are not loaded at all. Other than that, and
+     * {@link DataCallback#fillData(Object[], int, int)} being called from the threads of
+     * <code>tileLoadExecutor</code>, the tiles are loaded and cached the same way as with a single
+     * loader thread.
+     *
+     * @param klass Class of the data item.
+     * @param tileSize Number of item per chunk loaded at once.
+     * @param dataCallback Data access callback.
+     * @param viewCallback Callback for querying visible item range and update notifications.
+     * @param tileLoadExecutor Executor to call {@link DataCallback#fillData} on. It should have
+     *                         at least <code>maxParallelTileLoads</code> threads.
+     * @param maxParallelTileLoads Maximum number of tiles being loaded at the same time.
+     */
+    public AsyncListUtil(@NonNull Class<T> klass, int tileSize,
+            @NonNull DataCallback<T> dataCallback, @NonNull ViewCallback viewCallback,
+            @NonNull Executor tileLoadExecutor, int maxParallelTileLoads) {
+        this(klass, tileSize, dataCallback, viewCallback, maxParallelTileLoads,
+                tileLoadExecutor);
+    }
+
+    private AsyncListUtil(Class<T> klass, int tileSize, DataCallback<T> dataCallback,
+            ViewCallback viewCallback, int maxParallelTileLoads,
+            @Nullable Executor tileLoadExecutor) {
+        if (maxParallelTileLoads < 1) {
+            throw new IllegalArgumentException("maxParallelTileLoads must be positive");
+        }
         mTClass = klass;
         mTileSize = tileSize;
         mDataCallback = dataCallback;
         mViewCallback = viewCallback;
+        mTileLoadExecutor = tileLoadExecutor;
+        mMaxParallelTileLoads = maxParallelTileLoads;
 
         mTileList = new TileList<T>(mTileSize);
 
@@ -297,16 +343,37 @@ public class AsyncListUtil<T> {
 
         final SparseBooleanArray mLoadedTiles = new SparseBooleanArray();
 
-        private int mGeneration;
+        // Only used with a tile load executor: the tiles being loaded, and the requested tiles
+        // which could not start yet because mMaxParallelTileLoads were already being loaded, in
+        // the order they were requested.
+        final SparseBooleanArray mLoadingTiles = new SparseBooleanArray();
+        final ArrayList<Integer> mDeferredTiles = new ArrayList<>();
+        private int mDeferredScrollHint;
+        private boolean mRefreshPending;
+
+        // Read by the tile load executor to skip tiles which are no longer needed.
+        volatile int mGeneration;
         private int mItemCount;
 
-        private int mFirstRequiredTileStart;
-        private int mLastRequiredTileStart;
+        volatile int mFirstRequiredTileStart;
+        volatile int mLastRequiredTileStart;
 
         @Override
         public void refresh(int generation) {
             mGeneration = generation;
             mLoadedTiles.clear();
+            mDeferredTiles.clear();
+            if (mLoadingTiles.size() > 0) {
+                // Don't refresh the data while it is being read, refresh once the tiles which
+                // already started loading are done.
+                mRefreshPending = true;
+                return;
+            }
+            refreshData();
+        }
+
+        private void refreshData() {
+            mRefreshPending = false;
             mItemCount = mDataCallback.refreshData();
             mMainThreadProxy.updateItemCount(mGeneration, mItemCount);
         }
@@ -328,6 +395,7 @@ public class AsyncListUtil<T> {
 
             mFirstRequiredTileStart = getTileStart(extRangeStart);
             mLastRequiredTileStart = getTileStart(extRangeEnd);
+            mDeferredTiles.clear();
             if (DEBUG) {
                 log("requesting tile range: %d..%d",
                         mFirstRequiredTileStart, mLastRequiredTileStart);
@@ -369,6 +437,10 @@ public class AsyncListUtil<T> {
                 }
                 return;
             }
+            if (mTileLoadExecutor != null) {
+                loadTileAsync(position, scrollHint);
+                return;
+            }
             TileList.Tile<T> tile = acquireTile();
             tile.mStartPosition = position;
             tile.mItemCount = Math.min(mTileSize, mItemCount - tile.mStartPosition);
@@ -377,6 +449,71 @@ public class AsyncListUtil<T> {
             addTile(tile);
         }
 
+        private void loadTileAsync(int position, final int scrollHint) {
+            if (mRefreshPending || mLoadingTiles.get(position)) {
+                return;
+            }
+            if (mLoadingTiles.size() >= mMaxParallelTileLoads) {
+                if (DEBUG) {
+                    log("deferring tile @%d", position);
+                }
+                mDeferredTiles.add(position);
+                mDeferredScrollHint = scrollHint;
+                return;
+            }
+            final TileList.Tile<T> tile = acquireTile();
+            tile.mStartPosition = position;
+            tile.mItemCount = Math.min(mTileSize, mItemCount - tile.mStartPosition);
+            final int generation = mGeneration;
+            mLoadingTiles.put(position, true);
+            mTileLoadExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (generation != mGeneration || !isTileRequired(tile.mStartPosition)) {
+                        // Scrolled out of range or refreshed before the load could start.
+                        tile.mItemCount = 0;
+                    } else {
+                        mDataCallback.fillData(tile.mItems, tile.mStartPosition, tile.mItemCount);
+                    }
+                    mBackgroundProxy.onTileLoaded(generation, tile, scrollHint);
+                }
+            });
+        }
+
+        @Override
+        public void onTileLoaded(int generation, TileList.Tile<T> tile, int scrollHint) {
+            final int position = tile.mStartPosition;
+            mLoadingTiles.delete(position);
+            if (generation != mGeneration) {
+                if (DEBUG) {
+                    log("discarding tile @%d of generation #%d", position, generation);
+                }
+                recycleTile(tile);
+            } else if (tile.mItemCount == 0) {
+                recycleTile(tile);
+                // The range may have moved back since the load was skipped.
+                if (!mRefreshPending && isTileRequired(position)) {
+                    loadTile(position, scrollHint);
+                }
+            } else {
+                flushTileCache(scrollHint);
+                addTile(tile);
+            }
+
+            if (mRefreshPending) {
+                if (mLoadingTiles.size() == 0) {
+                    refreshData();
+                }
+                return;
+            }
+            while (!mDeferredTiles.isEmpty() && mLoadingTiles.size() < mMaxParallelTileLoads) {
+                final int deferredPosition = mDeferredTiles.remove(0);
+                if (isTileRequired(deferredPosition)) {
+                    loadTile(deferredPosition, mDeferredScrollHint);
+                }
+            }
+        }
+
         @Override
         public void recycleTile(TileList.Tile<T> tile) {
             if (DEBUG) {
@@ -401,6 +538,10 @@ public class AsyncListUtil<T> {
             return mLoadedTiles.get(position);
         }
 
+        boolean isTileRequired(int position) {
+            return mFirstRequiredTileStart <= position && position <= mLastRequiredTileStart;
+        }
+
         private void addTile(TileList.Tile<T> tile) {
             mLoadedTiles.put(tile.mStartPosition, true);
             mMainThreadProxy.addTile(mGeneration, tile);
@@ -468,6 +609,10 @@ public class AsyncListUtil<T> {
          * <p>
          * The provided tile might be a recycled tile, in which case it will already have objects.
          * It is suggested to re-use these objects if possible in your use case.
+         * <p>
+         * If the AsyncListUtil was created with a tile load executor, this method is called on
+         * its threads and may be called for several tiles at the same time. It is never called
+         * while {@link #refreshData()} runs.
          *
          * @param startPosition The start position in the list.
          * @param itemCount The data item count.
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.recyclerview.widget;
+
+import android.util.Log;
+import android.util.SparseBooleanArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Creates prefetched ViewHolders on an {@link Executor} instead of the UI thread, and parks them
+ * in the {@link RecyclerView.RecycledViewPool} so that only binding is left for the UI thread.
+ * <p>
+ * Like {@code AsyncLayoutInflater}, a view type which fails to be created off the UI thread is
+ * not retried in the background; it is created by the regular prefetch path from then on. The
+ * same path creates the ViewHolder when the executor rejects the task.
+ * <p>
+ * When the adapter notifies a change, the positions with a creation in flight are forgotten, as
+ * they may now refer to other items, but the ViewHolders are still parked once created since
+ * their view type is unaffected. They are only dropped if the adapter is replaced by one whose
+ * view types are not compatible.
+ * <p>
+ * All the bookkeeping happens on the UI thread, the executor only runs
+ * {@link RecyclerView.Adapter#createViewHolder(android.view.ViewGroup, int)}.
+ */
+final class BackgroundViewHolderCreator {
+    private static final String TAG = "RecyclerView";
+
+    final RecyclerView mRecyclerView;
+    final Executor mExecutor;
+
+    /**
+     * Adapter positions which have a creation in flight, so that consecutive prefetch passes
+     * don't create more than one ViewHolder for the same item.
+     */
+    private final SparseBooleanArray mPendingPositions = new SparseBooleanArray();
+
+    /**
+     * View types which threw while being created in the background.
+     */
+    private final SparseBooleanArray mFailedViewTypes = new SparseBooleanArray();
+
+    /**
+     * Incremented whenever the adapter notifies a change, to recognize the creations whose
+     * position is no longer pending.
+     */
+    private int mPositionGeneration;
+
+    /**
+     * Incremented whenever the adapter is replaced by an incompatible one, to recognize the
+     * ViewHolders which can't be used anymore.
+     */
+    private int mViewTypeGeneration;
+
+    BackgroundViewHolderCreator(@NonNull RecyclerView recyclerView, @NonNull Executor executor) {
+        mRecyclerView = recyclerView;
+        mExecutor = executor;
+    }
+
+    /**
+     * Schedules a ViewHolder of the given type to be created in the background, if the adapter
+     * allows it.
+     *
+     * @return true if a ViewHolder for the position is being created in the background, and the
+     * caller should not create one itself.
+     */
+    boolean requestCreate(final int position, final int viewType) {
+        final RecyclerView.Adapter adapter = mRecyclerView.mAdapter;
+        if (adapter == null
+                || mFailedViewTypes.get(viewType)
+                || !adapter.canCreateViewHolderInBackground(viewType)
+                || mRecyclerView.getRecycledViewPool().getMaxRecycledViews(viewType) <= 0) {
+            return false;
+        }
+        if (mPendingPositions.get(position)) {
+            return true;
+        }
+        final int positionGeneration = mPositionGeneration;
+        final int viewTypeGeneration = mViewTypeGeneration;
+        try {
+            mExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    RecyclerView.ViewHolder holder = null;
+                    try {
+                        holder = adapter.createViewHolder(mRecyclerView, viewType);
+                    } catch (RuntimeException e) {
+                        Log.w(TAG, "Failed to create ViewHolder of type " + viewType
+                                + " in the background, falling back to the UI thread", e);
+                    }
+                    final RecyclerView.ViewHolder result = holder;
+                    mRecyclerView.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            onCreated(position, viewType, positionGeneration,
+                                    viewTypeGeneration, result);
+                        }
+                    });
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // e.g. the app has shut its executor down, the caller creates the ViewHolder instead
+            return false;
+        }
+        mPendingPositions.put(position, true);
+        return true;
+    }
+
+    /**
+     * Forgets the positions with a creation in flight, called when the adapter notifies a change.
+     */
+    void onAdapterDataChanged() {
+        mPendingPositions.clear();
+        mPositionGeneration++;
+    }
+
+    /**
+     * Called when the adapter is replaced. Unless the new adapter is compatible with the
+     * previous one, the ViewHolders still being created are dropped.
+     */
+    void onAdapterChanged(boolean compatibleWithPrevious) {
+        onAdapterDataChanged();
+        if (!compatibleWithPrevious) {
+            mFailedViewTypes.clear();
+            mViewTypeGeneration++;
+        }
+    }
+
+    void onCreated(int position, int viewType, int positionGeneration, int viewTypeGeneration,
+            @Nullable RecyclerView.ViewHolder holder) {
+        if (viewTypeGeneration != mViewTypeGeneration
+                || mRecyclerView.mBackgroundViewHolderCreator != this) {
+            // stale, the view type may not mean the same thing anymore
+            return;
+        }
+        if (positionGeneration == mPositionGeneration) {
+            mPendingPositions.delete(position);
+        }
+        if (holder == null) {
+            mFailedViewTypes.put(viewType, true);
+            return;
+        }
+        if (RecyclerView.ALLOW_THREAD_GAP_WORK) {
+            RecyclerView innerView = RecyclerView.findNestedRecyclerView(holder.itemView);
+            if (innerView != null) {
+                holder.mNestedRecyclerView = new WeakReference<>(innerView);
+            }
+        }
+        mRecyclerView.getRecycledViewPool().putRecycledView(holder);
+    }
+}
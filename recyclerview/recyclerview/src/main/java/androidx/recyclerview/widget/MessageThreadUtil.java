@@ -93,6 +93,7 @@ class MessageThreadUtil<T> implements ThreadUtil<T> {
             static final int UPDATE_RANGE = 2;
             static final int LOAD_TILE = 3;
             static final int RECYCLE_TILE = 4;
+            static final int TILE_LOADED = 5;
 
             @Override
             public void refresh(int generation) {
@@ -111,6 +112,12 @@ class MessageThreadUtil<T> implements ThreadUtil<T> {
                 sendMessage(SyncQueueItem.obtainMessage(LOAD_TILE, position, scrollHint));
             }
 
+            @Override
+            public void onTileLoaded(int generation, TileList.Tile<T> tile, int scrollHint) {
+                sendMessage(SyncQueueItem.obtainMessage(TILE_LOADED,
+                        generation, scrollHint, 0, 0, 0, tile));
+            }
+
             @Override
             public void recycleTile(TileList.Tile<T> tile) {
                 sendMessage(SyncQueueItem.obtainMessage(RECYCLE_TILE, 0, tile));
@@ -154,6 +161,11 @@ class MessageThreadUtil<T> implements ThreadUtil<T> {
                             case LOAD_TILE:
                                 callback.loadTile(msg.arg1, msg.arg2);
                                 break;
+                            case TILE_LOADED:
+                                //noinspection unchecked
+                                callback.onTileLoaded(
+                                        msg.arg1, (TileList.Tile<T>) msg.data, msg.arg2);
+                                break;
                             case RECYCLE_TILE:
                                 //noinspection unchecked
                                 callback.recycleTile((TileList.Tile<T>) msg.data);
@@ -41,6 +41,7 @@ import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.util.SparseArray;
+import android.util.SparseIntArray;
 import android.view.Display;
 import android.view.FocusFinder;
 import android.view.InputDevice;
@@ -89,6 +90,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * A flexible view for providing a limited window into a large data set.
@@ -543,6 +545,7 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
     final ViewFlinger mViewFlinger = new ViewFlinger();
 
     GapWorker mGapWorker;
+    BackgroundViewHolderCreator mBackgroundViewHolderCreator;
     GapWorker.LayoutPrefetchRegistryImpl mPrefetchRegistry =
             ALLOW_THREAD_GAP_WORK ? new GapWorker.LayoutPrefetchRegistryImpl() : null;
 
@@ -1204,6 +1207,9 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             mLayout.onAdapterChanged(oldAdapter, mAdapter);
         }
         mRecycler.onAdapterChanged(oldAdapter, mAdapter, compatibleWithPrevious);
+        if (mBackgroundViewHolderCreator != null) {
+            mBackgroundViewHolderCreator.onAdapterChanged(compatibleWithPrevious);
+        }
         mState.mStructureChanged = true;
     }
 
@@ -1491,6 +1497,41 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         mRecycler.setRecycledViewPool(pool);
     }
 
+    /**
+     * Sets the executor used to create prefetched ViewHolders off the UI thread.
+     * <p>
+     * When set, prefetching creates ViewHolders of the view types for which
+     * {@link Adapter#canCreateViewHolderInBackground(int)} returns true on this executor and
+     * parks them in the {@link #getRecycledViewPool() recycled view pool}, so that a later
+     * prefetch or layout pass only has to bind them. This is useful for item layouts which are
+     * too expensive to be inflated in the idle time of a frame. Creation of other view types, and
+     * any creation that is needed for the current frame, stays on the UI thread.
+     *
+     * @param executor The executor to create ViewHolders on, or null to create all ViewHolders on
+     *                 the UI thread, which is the default.
+     * @see Adapter#canCreateViewHolderInBackground(int)
+     */
+    public void setBackgroundCreationExecutor(@Nullable Executor executor) {
+        if (executor == null) {
+            mBackgroundViewHolderCreator = null;
+        } else if (mBackgroundViewHolderCreator == null
+                || mBackgroundViewHolderCreator.mExecutor != executor) {
+            mBackgroundViewHolderCreator = new BackgroundViewHolderCreator(this, executor);
+        }
+    }
+
+    /**
+     * Returns the executor set with {@link #setBackgroundCreationExecutor(Executor)}.
+     *
+     * @return The executor used to create prefetched ViewHolders, or null if they are created on
+     * the UI thread.
+     */
+    @Nullable
+    public Executor getBackgroundCreationExecutor() {
+        return mBackgroundViewHolderCreator == null
+                ? null : mBackgroundViewHolderCreator.mExecutor;
+    }
+
     /**
      * Sets a new {@link ViewCacheExtension} to be used by the Recycler.
      *
@@ -5375,6 +5416,7 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         @Override
         public void onChanged() {
             assertNotInLayoutOrScroll(null);
+            clearPendingBackgroundCreations();
             mState.mStructureChanged = true;
 
             processDataSetCompletelyChanged(true);
@@ -5386,6 +5428,7 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         @Override
         public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
             assertNotInLayoutOrScroll(null);
+            clearPendingBackgroundCreations();
             if (mAdapterHelper.onItemRangeChanged(positionStart, itemCount, payload)) {
                 triggerUpdateProcessor();
             }
@@ -5394,6 +5437,7 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         @Override
         public void onItemRangeInserted(int positionStart, int itemCount) {
             assertNotInLayoutOrScroll(null);
+            clearPendingBackgroundCreations();
             if (mAdapterHelper.onItemRangeInserted(positionStart, itemCount)) {
                 triggerUpdateProcessor();
             }
@@ -5402,6 +5446,7 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         @Override
         public void onItemRangeRemoved(int positionStart, int itemCount) {
             assertNotInLayoutOrScroll(null);
+            clearPendingBackgroundCreations();
             if (mAdapterHelper.onItemRangeRemoved(positionStart, itemCount)) {
                 triggerUpdateProcessor();
             }
@@ -5410,11 +5455,18 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         @Override
         public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
             assertNotInLayoutOrScroll(null);
+            clearPendingBackgroundCreations();
             if (mAdapterHelper.onItemRangeMoved(fromPosition, toPosition, itemCount)) {
                 triggerUpdateProcessor();
             }
         }
 
+        void clearPendingBackgroundCreations() {
+            if (mBackgroundViewHolderCreator != null) {
+                mBackgroundViewHolderCreator.onAdapterDataChanged();
+            }
+        }
+
         void triggerUpdateProcessor() {
             if (POST_UPDATES_ON_ANIMATION && mHasFixedSize && mIsAttached) {
                 ViewCompat.postOnAnimation(RecyclerView.this, mUpdateChildViewsRunnable);
@@ -5476,6 +5528,16 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
     public static class RecycledViewPool {
         private static final int DEFAULT_MAX_SCRAP = 5;
 
+        /**
+         * Upper bound for the scrap heap of a single type when the pool sizes itself.
+         */
+        private static final int ADAPTIVE_MAX_SCRAP_LIMIT = 25;
+
+        /**
+         * Default budget for the total number of pooled ViewHolders when the pool sizes itself.
+         */
+        private static final int DEFAULT_ADAPTIVE_MAX_TOTAL_SCRAP = 50;
+
         /**
          * Tracks both pooled holders, as well as create/bind timing metadata for the given type.
          *
@@ -5495,11 +5557,19 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             int mMaxScrap = DEFAULT_MAX_SCRAP;
             long mCreateRunningAverageNs = 0;
             long mBindRunningAverageNs = 0;
+            int mHitCount = 0;
+            // Number of holders discarded because the heap was full, since mMaxScrap last grew.
+            int mDiscardCount = 0;
         }
         SparseArray<ScrapData> mScrap = new SparseArray<>();
+        // Kept apart from mScrap, which only holds the types that are pooled or timed.
+        private final SparseIntArray mMissCounts = new SparseIntArray();
 
         private int mAttachCount = 0;
 
+        private boolean mAdaptiveSizingEnabled = false;
+        private int mAdaptiveMaxTotalScrap = DEFAULT_ADAPTIVE_MAX_TOTAL_SCRAP;
+
         /**
          * Discard all ViewHolders.
          */
@@ -5529,7 +5599,62 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
          * Returns the current number of Views held by the RecycledViewPool of the given view type.
          */
         public int getRecycledViewCount(int viewType) {
-            return getScrapDataForType(viewType).mScrapHeap.size();
+            final ScrapData scrapData = mScrap.get(viewType);
+            return scrapData == null ? 0 : scrapData.mScrapHeap.size();
+        }
+
+        /**
+         * Enables or disables adaptive sizing of the pool.
+         * <p>
+         * When enabled, the maximum number of ViewHolders held for a view type grows whenever
+         * {@link #getRecycledView(int)} has to return {@code null} for a type whose holders were
+         * previously discarded because its scrap heap was full. To stay within the budget set by
+         * {@link #setAdaptiveMaxTotalRecycledViews(int)}, the types which are cheapest to create
+         * give up capacity first.
+         * <p>
+         * Limits set through {@link #setMaxRecycledViews(int, int)} are used as starting points.
+         *
+         * @param enabled {@code true} to let the pool size itself
+         */
+        public void setAdaptiveSizingEnabled(boolean enabled) {
+            mAdaptiveSizingEnabled = enabled;
+        }
+
+        /**
+         * Sets the maximum total number of ViewHolders, across all view types, that adaptive
+         * sizing may grow the pool to. Defaults to 50.
+         *
+         * @param max Maximum number of ViewHolders
+         * @see #setAdaptiveSizingEnabled(boolean)
+         */
+        public void setAdaptiveMaxTotalRecycledViews(int max) {
+            mAdaptiveMaxTotalScrap = max;
+        }
+
+        /**
+         * Returns the number of times {@link #getRecycledView(int)} returned a ViewHolder of the
+         * given view type.
+         */
+        public int getRecycledViewHitCount(int viewType) {
+            final ScrapData scrapData = mScrap.get(viewType);
+            return scrapData == null ? 0 : scrapData.mHitCount;
+        }
+
+        /**
+         * Returns the number of times {@link #getRecycledView(int)} could not return a ViewHolder
+         * of the given view type, forcing a new one to be created.
+         */
+        public int getRecycledViewMissCount(int viewType) {
+            return mMissCounts.get(viewType);
+        }
+
+        /**
+         * Returns the maximum number of ViewHolders of the given view type that the pool
+         * currently holds before discarding, including changes made by adaptive sizing.
+         */
+        public int getMaxRecycledViews(int viewType) {
+            final ScrapData scrapData = mScrap.get(viewType);
+            return scrapData == null ? DEFAULT_MAX_SCRAP : scrapData.mMaxScrap;
         }
 
         /**
@@ -5547,13 +5672,60 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
                 final ArrayList<ViewHolder> scrapHeap = scrapData.mScrapHeap;
                 for (int i = scrapHeap.size() - 1; i >= 0; i--) {
                     if (!scrapHeap.get(i).isAttachedToTransitionOverlay()) {
+                        scrapData.mHitCount++;
                         return scrapHeap.remove(i);
                     }
                 }
             }
+            mMissCounts.put(viewType, mMissCounts.get(viewType) + 1);
+            if (mAdaptiveSizingEnabled && scrapData != null && scrapData.mDiscardCount > 0) {
+                // A holder of this type was thrown away earlier and now a new one has to be
+                // created, so the heap was too small.
+                growScrapHeap(scrapData);
+            }
             return null;
         }
 
+        private void growScrapHeap(ScrapData grown) {
+            grown.mDiscardCount = 0;
+            if (grown.mMaxScrap == 0 || grown.mMaxScrap >= ADAPTIVE_MAX_SCRAP_LIMIT) {
+                // A type that was explicitly set to never be pooled stays that way.
+                return;
+            }
+            grown.mMaxScrap++;
+
+            int totalMaxScrap = 0;
+            for (int i = 0; i < mScrap.size(); i++) {
+                totalMaxScrap += mScrap.valueAt(i).mMaxScrap;
+            }
+            while (totalMaxScrap > mAdaptiveMaxTotalScrap) {
+                // Take capacity away from the type that is cheapest to create.
+                ScrapData victim = null;
+                for (int i = 0; i < mScrap.size(); i++) {
+                    final ScrapData scrapData = mScrap.valueAt(i);
+                    if (scrapData != grown && scrapData.mMaxScrap > 1 && (victim == null
+                            || scrapData.mCreateRunningAverageNs
+                            < victim.mCreateRunningAverageNs)) {
+                        victim = scrapData;
+                    }
+                }
+                if (victim == null
+                        || victim.mCreateRunningAverageNs > grown.mCreateRunningAverageNs) {
+                    // Nothing cheaper to shrink, undo the growth.
+                    victim = grown;
+                }
+                victim.mMaxScrap--;
+                final ArrayList<ViewHolder> scrapHeap = victim.mScrapHeap;
+                while (scrapHeap.size() > victim.mMaxScrap) {
+                    scrapHeap.remove(scrapHeap.size() - 1);
+                }
+                totalMaxScrap--;
+                if (victim == grown) {
+                    return;
+                }
+            }
+        }
+
         /**
          * Total number of ViewHolders held by the pool.
          *
@@ -5579,8 +5751,10 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
          */
         public void putRecycledView(ViewHolder scrap) {
             final int viewType = scrap.getItemViewType();
-            final ArrayList<ViewHolder> scrapHeap = getScrapDataForType(viewType).mScrapHeap;
-            if (mScrap.get(viewType).mMaxScrap <= scrapHeap.size()) {
+            final ScrapData scrapData = getScrapDataForType(viewType);
+            final ArrayList<ViewHolder> scrapHeap = scrapData.mScrapHeap;
+            if (scrapData.mMaxScrap <= scrapHeap.size()) {
+                scrapData.mDiscardCount++;
                 return;
             }
             if (DEBUG && scrapHeap.contains(scrap)) {
@@ -5610,12 +5784,14 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         }
 
         boolean willCreateInTime(int viewType, long approxCurrentNs, long deadlineNs) {
-            long expectedDurationNs = getScrapDataForType(viewType).mCreateRunningAverageNs;
+            final ScrapData scrapData = mScrap.get(viewType);
+            long expectedDurationNs = scrapData == null ? 0 : scrapData.mCreateRunningAverageNs;
             return expectedDurationNs == 0 || (approxCurrentNs + expectedDurationNs < deadlineNs);
         }
 
         boolean willBindInTime(int viewType, long approxCurrentNs, long deadlineNs) {
-            long expectedDurationNs = getScrapDataForType(viewType).mBindRunningAverageNs;
+            final ScrapData scrapData = mScrap.get(viewType);
+            long expectedDurationNs = scrapData == null ? 0 : scrapData.mBindRunningAverageNs;
             return expectedDurationNs == 0 || (approxCurrentNs + expectedDurationNs < deadlineNs);
         }
 
@@ -6066,6 +6242,12 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
                     }
                 }
                 if (holder == null) {
+                    if (deadlineNs != FOREVER_NS && mBackgroundViewHolderCreator != null
+                            && mBackgroundViewHolderCreator.requestCreate(offsetPosition, type)) {
+                        // prefetch only - the ViewHolder is parked in the pool once created, and
+                        // bound by a later prefetch or layout
+                        return null;
+                    }
                     long start = getNanoTime();
                     if (deadlineNs != FOREVER_NS
                             && !mRecyclerPool.willCreateInTime(type, start, deadlineNs)) {
@@ -6954,6 +7136,27 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             return 0;
         }
 
+        /**
+         * Returns whether ViewHolders of the given type may be created off the UI thread.
+         * <p>
+         * If this returns true and the RecyclerView has an executor set with
+         * {@link RecyclerView#setBackgroundCreationExecutor(Executor)}, prefetching calls
+         * {@link #onCreateViewHolder(ViewGroup, int)} for this type on that executor, and only
+         * binds the created ViewHolders on the UI thread. Only return true for types whose
+         * creation does not touch state owned by the UI thread, e.g. layouts inflated with
+         * {@link android.view.LayoutInflater} which don't create Handlers or read mutable fields
+         * of the Activity. If creating a ViewHolder throws in the background, the type is
+         * created on the UI thread from then on.
+         * <p>
+         * The default implementation returns false.
+         *
+         * @param viewType The view type, as returned by {@link #getItemViewType(int)}.
+         * @return true if ViewHolders of the type can be created on a background thread.
+         */
+        public boolean canCreateViewHolderInBackground(int viewType) {
+            return false;
+        }
+
         /**
          * Indicates whether each item in the data set can be represented with a unique identifier
          * of type {@link java.lang.Long}.
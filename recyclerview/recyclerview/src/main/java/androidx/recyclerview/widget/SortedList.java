@@ -16,13 +16,20 @@
 
 package androidx.recyclerview.widget;
 
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 
 import java.lang.reflect.Array;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.concurrent.Executor;
 
 /**
  * A Sorted list implementation that can keep items in order and also notify for changes in the
@@ -49,6 +56,15 @@ public class SortedList<T> {
     private static final int INSERTION = 1;
     private static final int DELETION = 1 << 1;
     private static final int LOOKUP = 1 << 2;
+
+    /**
+     * Inputs of {@link #replaceAllAsync} at least this large are sorted with
+     * {@link Arrays#parallelSort(Object[], Comparator)} where available.
+     */
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+
+    private static Executor sMainThreadExecutor;
+
     T[] mData;
 
     /**
@@ -81,6 +97,18 @@ public class SortedList<T> {
     private int mSize;
     private final Class<T> mTClass;
 
+    /**
+     * Incremented by every mutation, so that {@link #replaceAllAsync} can tell whether the list
+     * changed while it computed the changes in the background.
+     */
+    private int mModCount;
+
+    /**
+     * Generation of the latest {@link #replaceAllAsync} call. Results of earlier calls are
+     * dropped.
+     */
+    private int mMaxScheduledGeneration;
+
     /**
      * Creates a new SortedList of type T.
      *
@@ -248,10 +276,141 @@ public class SortedList<T> {
         replaceAll(items.toArray(copy), true);
     }
 
+    /**
+     * Replaces the current items with the new items like {@link #replaceAll(Collection)}, but
+     * sorts the new items and computes the changes on the given executor. Large inputs are sorted
+     * with {@link Arrays#parallelSort(Object[], Comparator)} on API 24 and above.
+     * <p>
+     * Once the changes are computed, the new items are set and the resulting
+     * {@link ListUpdateCallback} events are dispatched on the main thread, already coalesced like
+     * {@link BatchedCallback} would. If this method is called again before the changes are
+     * applied, only the latest call takes effect. If the list is modified in the meantime, the
+     * items replace the modified list when they are ready, as if {@link #replaceAll(Collection)}
+     * was called at that point.
+     * <p>
+     * The {@link Callback#compare(Object, Object)}, {@link Callback#areItemsTheSame(Object,
+     * Object)}, {@link Callback#areContentsTheSame(Object, Object)} and
+     * {@link Callback#getChangePayload(Object, Object)} methods are called on the executor, so
+     * they must be safe to call off the main thread. This method must be called on the main
+     * thread.
+     *
+     * @param items Collection of items to replace current items. Not modified or retained.
+     * @param backgroundExecutor Executor to sort the items and compute the changes on.
+     * @param commitCallback Optional runnable that is run on the main thread once the items are
+     *                       set and the events are dispatched.
+     * @see #replaceAll(Collection)
+     */
+    public void replaceAllAsync(@NonNull Collection<T> items, @NonNull Executor backgroundExecutor,
+            @Nullable Runnable commitCallback) {
+        if (sMainThreadExecutor == null) {
+            sMainThreadExecutor = new MainThreadExecutor();
+        }
+        replaceAllAsync(items, backgroundExecutor, sMainThreadExecutor, commitCallback);
+    }
+
+    @VisibleForTesting
+    void replaceAllAsync(@NonNull Collection<T> items, @NonNull Executor backgroundExecutor,
+            @NonNull final Executor mainThreadExecutor, @Nullable final Runnable commitCallback) {
+        throwIfInMutationOperation();
+        final T[] newData = items.toArray((T[]) Array.newInstance(mTClass, items.size()));
+        // The list may be modified while the changes are computed, so they are computed against
+        // a snapshot. The modification count tells whether they still apply.
+        final T[] oldData = Arrays.copyOf(mData, mSize);
+        final int oldSize = mSize;
+        final int modCount = mModCount;
+        final int generation = ++mMaxScheduledGeneration;
+        final Callback<T> callback = mCallback;
+
+        backgroundExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final ReplaceAllResult<T> result = computeReplaceAll(callback, mTClass,
+                        oldData, oldSize, newData);
+                mainThreadExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation != mMaxScheduledGeneration) {
+                            return;
+                        }
+                        if (modCount == mModCount) {
+                            applyReplaceAll(result);
+                        } else {
+                            // The computed events don't match the list anymore, merge again.
+                            // The items are sorted already, which makes sorting them cheap.
+                            replaceAllInternal(result.mData);
+                        }
+                        if (commitCallback != null) {
+                            commitCallback.run();
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Computes the new data and the events of a replaceAll without touching the list. Only uses
+     * the callback, so it can run off the main thread.
+     */
+    static <T> ReplaceAllResult<T> computeReplaceAll(Callback<T> callback, Class<T> klass,
+            T[] oldData, int oldSize, T[] newData) {
+        final int newSize = sortAndDedup(newData, callback, true);
+        final T[] data = (T[]) Array.newInstance(klass, newSize);
+        final ReplaceAllResult<T> result = new ReplaceAllResult<>(data);
+        final BatchingListUpdateCallback updates = new BatchingListUpdateCallback(result);
+
+        // Same walk as replaceAllInternal, positions are relative to the partially updated list.
+        int oldIndex = 0;
+        int newIndex = 0;
+        while (newIndex < newSize || oldIndex < oldSize) {
+            if (oldIndex >= oldSize) {
+                System.arraycopy(newData, newIndex, data, newIndex, newSize - newIndex);
+                updates.onInserted(newIndex, newSize - newIndex);
+                break;
+            }
+            if (newIndex >= newSize) {
+                updates.onRemoved(newIndex, oldSize - oldIndex);
+                break;
+            }
+
+            T oldItem = oldData[oldIndex];
+            T newItem = newData[newIndex];
+            int compare = callback.compare(oldItem, newItem);
+            if (compare < 0) {
+                oldIndex++;
+                updates.onRemoved(newIndex, 1);
+            } else if (compare > 0) {
+                data[newIndex++] = newItem;
+                updates.onInserted(newIndex - 1, 1);
+            } else if (!callback.areItemsTheSame(oldItem, newItem)) {
+                oldIndex++;
+                updates.onRemoved(newIndex, 1);
+                data[newIndex++] = newItem;
+                updates.onInserted(newIndex - 1, 1);
+            } else {
+                data[newIndex++] = newItem;
+                oldIndex++;
+                if (!callback.areContentsTheSame(oldItem, newItem)) {
+                    updates.onChanged(newIndex - 1, 1, callback.getChangePayload(oldItem, newItem));
+                }
+            }
+        }
+        updates.dispatchLastEvent();
+        return result;
+    }
+
+    private void applyReplaceAll(ReplaceAllResult<T> result) {
+        mModCount++;
+        mData = result.mData;
+        mSize = result.mData.length;
+        result.dispatchUpdatesTo(mCallback);
+    }
+
     private void addAllInternal(T[] newItems) {
         if (newItems.length < 1) {
             return;
         }
+        mModCount++;
 
         final int newSize = sortAndDedup(newItems);
 
@@ -265,6 +424,7 @@ public class SortedList<T> {
     }
 
     private void replaceAllInternal(@NonNull T[] newData) {
+        mModCount++;
         final boolean forceBatchedUpdates = !(mCallback instanceof BatchedCallback);
         if (forceBatchedUpdates) {
             beginBatchedUpdates();
@@ -350,12 +510,22 @@ public class SortedList<T> {
      * @return Number of deduplicated items at the beginning of the array.
      */
     private int sortAndDedup(@NonNull T[] items) {
+        return sortAndDedup(items, mCallback, false);
+    }
+
+    private static <T> int sortAndDedup(@NonNull T[] items, @NonNull Callback<T> callback,
+            boolean allowParallelSort) {
         if (items.length == 0) {
             return 0;
         }
 
-        // Arrays.sort is stable.
-        Arrays.sort(items, mCallback);
+        // Arrays.sort and Arrays.parallelSort are stable.
+        if (allowParallelSort && items.length >= PARALLEL_SORT_THRESHOLD
+                && Build.VERSION.SDK_INT >= 24) {
+            Arrays.parallelSort(items, callback);
+        } else {
+            Arrays.sort(items, callback);
+        }
 
         // Keep track of the range of equal items at the end of the output.
         // Start with the range containing just the first item.
@@ -365,11 +535,12 @@ public class SortedList<T> {
         for (int i = 1; i < items.length; ++i) {
             T currentItem = items[i];
 
-            int compare = mCallback.compare(items[rangeStart], currentItem);
+            int compare = callback.compare(items[rangeStart], currentItem);
 
             if (compare == 0) {
                 // The range of equal items continues, update it.
-                final int sameItemPos = findSameItem(currentItem, items, rangeStart, rangeEnd);
+                final int sameItemPos =
+                        findSameItem(currentItem, items, rangeStart, rangeEnd, callback);
                 if (sameItemPos != INVALID_POSITION) {
                     // Replace the duplicate item.
                     items[sameItemPos] = currentItem;
@@ -392,9 +563,10 @@ public class SortedList<T> {
     }
 
 
-    private int findSameItem(T item, T[] items, int from, int to) {
+    private static <T> int findSameItem(T item, T[] items, int from, int to,
+            Callback<T> callback) {
         for (int pos = from; pos < to; pos++) {
-            if (mCallback.areItemsTheSame(items[pos], item)) {
+            if (callback.areItemsTheSame(items[pos], item)) {
                 return pos;
             }
         }
@@ -539,6 +711,7 @@ public class SortedList<T> {
     }
 
     private int add(T item, boolean notify) {
+        mModCount++;
         int index = findIndexOf(item, mData, 0, mSize, INSERTION);
         if (index == INVALID_POSITION) {
             index = 0;
@@ -599,6 +772,7 @@ public class SortedList<T> {
     }
 
     private void removeItemAtIndex(int index, boolean notify) {
+        mModCount++;
         System.arraycopy(mData, index + 1, mData, index, mSize - index - 1);
         mSize--;
         mData[mSize] = null;
@@ -629,6 +803,7 @@ public class SortedList<T> {
      */
     public void updateItemAt(int index, T item) {
         throwIfInMutationOperation();
+        mModCount++;
         final T existing = get(index);
         // assume changed if the same object is given back
         boolean contentsChanged = existing == item || !mCallback.areContentsTheSame(existing, item);
@@ -823,12 +998,97 @@ public class SortedList<T> {
         if (mSize == 0) {
             return;
         }
+        mModCount++;
         final int prevSize = mSize;
         Arrays.fill(mData, 0, prevSize, null);
         mSize = 0;
         mCallback.onRemoved(0, prevSize);
     }
 
+    /**
+     * New data and coalesced events computed by {@link #replaceAllAsync}.
+     */
+    static class ReplaceAllResult<T> implements ListUpdateCallback {
+        private static final int INSERTED = 0;
+        private static final int REMOVED = 1;
+        private static final int MOVED = 2;
+        private static final int CHANGED = 3;
+
+        final T[] mData;
+        // Triples of type, position and count (or target position for moves).
+        private int[] mEvents = new int[3 * 4];
+        private int mEventCount;
+        private final ArrayList<Object> mPayloads = new ArrayList<>();
+
+        ReplaceAllResult(T[] data) {
+            mData = data;
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            addEvent(INSERTED, position, count, null);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            addEvent(REMOVED, position, count, null);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            addEvent(MOVED, fromPosition, toPosition, null);
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            addEvent(CHANGED, position, count, payload);
+        }
+
+        private void addEvent(int type, int position, int count, Object payload) {
+            if (mEventCount * 3 == mEvents.length) {
+                mEvents = Arrays.copyOf(mEvents, mEvents.length * 2);
+            }
+            mEvents[mEventCount * 3] = type;
+            mEvents[mEventCount * 3 + 1] = position;
+            mEvents[mEventCount * 3 + 2] = count;
+            mPayloads.add(payload);
+            mEventCount++;
+        }
+
+        void dispatchUpdatesTo(ListUpdateCallback callback) {
+            for (int i = 0; i < mEventCount; i++) {
+                final int position = mEvents[i * 3 + 1];
+                final int count = mEvents[i * 3 + 2];
+                switch (mEvents[i * 3]) {
+                    case INSERTED:
+                        callback.onInserted(position, count);
+                        break;
+                    case REMOVED:
+                        callback.onRemoved(position, count);
+                        break;
+                    case MOVED:
+                        callback.onMoved(position, count);
+                        break;
+                    default:
+                        callback.onChanged(position, count, mPayloads.get(i));
+                        break;
+                }
+            }
+        }
+    }
+
+    private static class MainThreadExecutor implements Executor {
+        final Handler mHandler = new Handler(Looper.getMainLooper());
+
+        MainThreadExecutor() {
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            mHandler.post(command);
+        }
+    }
+
     /**
      * The class that controls the behavior of the {@link SortedList}.
      * <p>
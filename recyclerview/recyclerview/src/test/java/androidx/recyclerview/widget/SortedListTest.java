@@ -42,6 +42,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
 import java.util.Random;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @RunWith(JUnit4.class)
@@ -976,6 +977,119 @@ public class SortedListTest {
         assertTrue(mCallbackRunnables.isEmpty());
     }
 
+    @Test
+    public void replaceAllAsync_dispatchesSameEventsAsReplaceAll() {
+        Item[] items1 = createItemsFromInts(1, 3, 5);
+        Item[] items2 = createItemsFromInts(2, 4);
+        mList.addAll(items1);
+        mEvents.clear();
+
+        final List<Runnable> background = new ArrayList<>();
+        final List<Runnable> main = new ArrayList<>();
+        final AtomicInteger commits = new AtomicInteger();
+        mList.replaceAllAsync(Arrays.asList(items2), queueExecutor(background),
+                queueExecutor(main), new Runnable() {
+                    @Override
+                    public void run() {
+                        commits.incrementAndGet();
+                    }
+                });
+
+        runAll(background);
+        assertEquals(0, mEvents.size());
+        assertTrue(sortedListEquals(mList, items1));
+
+        runAll(main);
+        assertEquals(new Event(TYPE.REMOVE, 0, 1), mEvents.get(0));
+        assertEquals(new Event(TYPE.ADD, 0, 1), mEvents.get(1));
+        assertEquals(new Event(TYPE.REMOVE, 1, 1), mEvents.get(2));
+        assertEquals(new Event(TYPE.ADD, 1, 1), mEvents.get(3));
+        assertEquals(new Event(TYPE.REMOVE, 2, 1), mEvents.get(4));
+        assertEquals(5, mEvents.size());
+        assertTrue(sortedListEquals(mList, items2));
+        assertEquals(1, commits.get());
+    }
+
+    @Test
+    public void replaceAllAsync_onlyLatestCallIsApplied() {
+        mList.addAll(createItemsFromInts(1, 2));
+        mEvents.clear();
+
+        final List<Runnable> background = new ArrayList<>();
+        final List<Runnable> main = new ArrayList<>();
+        mList.replaceAllAsync(Arrays.asList(createItemsFromInts(3)), queueExecutor(background),
+                queueExecutor(main), null);
+        Item[] latest = createItemsFromInts(1, 2, 4);
+        mList.replaceAllAsync(Arrays.asList(latest), queueExecutor(background),
+                queueExecutor(main), null);
+        runAll(background);
+        runAll(main);
+
+        assertEquals(new Event(TYPE.ADD, 2, 1), mEvents.get(0));
+        assertEquals(1, mEvents.size());
+        assertTrue(sortedListEquals(mList, latest));
+    }
+
+    @Test
+    public void replaceAllAsync_listModifiedMeanwhile_mergesAgain() {
+        mList.addAll(createItemsFromInts(1, 2));
+
+        final List<Runnable> background = new ArrayList<>();
+        final List<Runnable> main = new ArrayList<>();
+        Item[] items2 = createItemsFromInts(2, 3);
+        mList.replaceAllAsync(Arrays.asList(items2), queueExecutor(background),
+                queueExecutor(main), null);
+        runAll(background);
+        mList.add(new Item(0));
+        mEvents.clear();
+        runAll(main);
+
+        assertEquals(new Event(TYPE.REMOVE, 0, 2), mEvents.get(0));
+        assertEquals(new Event(TYPE.ADD, 1, 1), mEvents.get(1));
+        assertEquals(2, mEvents.size());
+        assertTrue(sortedListEquals(mList, items2));
+    }
+
+    @Test
+    public void replaceAllAsync_listModifiedWhilePending_diffsSnapshot() {
+        mList.addAll(createItemsFromInts(1, 2, 3, 4));
+
+        final List<Runnable> background = new ArrayList<>();
+        final List<Runnable> main = new ArrayList<>();
+        Item[] items2 = createItemsFromInts(2, 5);
+        mList.replaceAllAsync(Arrays.asList(items2), queueExecutor(background),
+                queueExecutor(main), null);
+        // Shrink and grow the list before the changes are computed in the background.
+        mList.removeItemAt(3);
+        mList.removeItemAt(2);
+        mList.add(new Item(0));
+        mList.updateItemAt(1, new Item(1));
+        runAll(background);
+        assertTrue(sortedListEquals(mList, createItemsFromInts(0, 1, 2)));
+
+        mEvents.clear();
+        runAll(main);
+        assertTrue(sortedListEquals(mList, items2));
+        assertEquals(new Event(TYPE.REMOVE, 0, 2), mEvents.get(0));
+        assertEquals(new Event(TYPE.ADD, 1, 1), mEvents.get(1));
+        assertEquals(2, mEvents.size());
+    }
+
+    private static Executor queueExecutor(final List<Runnable> queue) {
+        return new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                queue.add(command);
+            }
+        };
+    }
+
+    private static void runAll(List<Runnable> queue) {
+        while (!queue.isEmpty()) {
+            queue.remove(0).run();
+        }
+    }
+
     @Test
     public void replaceAll_removalsAndAdds2_worksCorrectly() {
         Item[] items1 = createItemsFromInts(2, 4);
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.recyclerview.selection;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.filters.SmallTest;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+
+@RunWith(AndroidJUnit4.class)
+@SmallTest
+public final class LongRangeSetTest {
+
+    private LongRangeSet mSet;
+
+    @Before
+    public void setUp() {
+        mSet = new LongRangeSet();
+    }
+
+    @Test
+    public void testAddMergesAdjacentKeys() {
+        assertTrue(mSet.add(1L));
+        assertTrue(mSet.add(3L));
+        assertTrue(mSet.add(2L));
+        assertFalse(mSet.add(2L));
+
+        assertEquals(3, mSet.size());
+        assertEquals(1, mSet.getRangeCount());
+        assertArrayEquals(new long[] {1, 3}, mSet.toRangeArray());
+    }
+
+    @Test
+    public void testAddRangeMergesOverlappingRanges() {
+        mSet.addRange(0, 9);
+        mSet.addRange(20, 29);
+        assertTrue(mSet.addRange(5, 24));
+        assertFalse(mSet.addRange(10, 19));
+
+        assertEquals(30, mSet.size());
+        assertArrayEquals(new long[] {0, 29}, mSet.toRangeArray());
+    }
+
+    @Test
+    public void testRemoveSplitsRange() {
+        mSet.addRange(0, 999999);
+        assertTrue(mSet.remove(500L));
+        assertFalse(mSet.remove(500L));
+
+        assertEquals(999999, mSet.size());
+        assertFalse(mSet.contains(500L));
+        assertTrue(mSet.contains(499L));
+        assertTrue(mSet.contains(501L));
+        assertArrayEquals(new long[] {0, 499, 501, 999999}, mSet.toRangeArray());
+    }
+
+    @Test
+    public void testRemoveRange() {
+        mSet.addRange(0, 9);
+        mSet.addRange(20, 29);
+        assertTrue(mSet.removeRange(5, 24));
+
+        assertEquals(10, mSet.size());
+        assertArrayEquals(new long[] {0, 4, 25, 29}, mSet.toRangeArray());
+    }
+
+    @Test
+    public void testContains() {
+        mSet.addRange(10, 19);
+        mSet.addRange(30, 39);
+
+        assertFalse(mSet.contains(9L));
+        assertTrue(mSet.contains(10L));
+        assertTrue(mSet.contains(19L));
+        assertFalse(mSet.contains(20L));
+        assertTrue(mSet.contains(35L));
+        assertFalse(mSet.contains(40L));
+        assertFalse(mSet.contains("10"));
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        mSet.addRange(0, 5);
+        for (Iterator<Long> iterator = mSet.iterator(); iterator.hasNext(); ) {
+            if (iterator.next() % 2 == 0) {
+                iterator.remove();
+            }
+        }
+
+        assertEquals(new HashSet<>(Arrays.asList(1L, 3L, 5L)), mSet);
+    }
+
+    @Test
+    public void testEqualsOtherSets() {
+        mSet.addRange(1, 3);
+
+        assertEquals(new HashSet<>(Arrays.asList(1L, 2L, 3L)), mSet);
+        assertEquals(mSet, new HashSet<>(Arrays.asList(1L, 2L, 3L)));
+        assertEquals(new HashSet<>(Arrays.asList(1L, 2L, 3L)).hashCode(), mSet.hashCode());
+    }
+
+    @Test
+    public void testRangeArrayRoundTrip() {
+        mSet.addRange(-5, 5);
+        mSet.add(100L);
+
+        LongRangeSet restored = new LongRangeSet();
+        restored.addRanges(mSet.toRangeArray());
+        assertEquals(mSet, restored);
+    }
+}
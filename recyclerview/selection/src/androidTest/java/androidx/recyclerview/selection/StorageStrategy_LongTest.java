@@ -17,6 +17,7 @@
 package androidx.recyclerview.selection;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import android.os.Bundle;
 
@@ -51,4 +52,32 @@ public final class StorageStrategy_LongTest {
 
         assertEquals(orig, restored);
     }
+
+    @Test
+    public void testWritesRanges() {
+        Selection<Long> orig = mStorage.createSelection();
+        ((LongRangeSet) orig.mSelection).addRange(0, 999999);
+        orig.mSelection.remove(500L);
+
+        Bundle bundle = mStorage.asBundle(orig);
+        assertEquals(4, bundle.getLongArray(StorageStrategy.SELECTION_RANGES).length);
+        assertNull(bundle.getLongArray(StorageStrategy.SELECTION_ENTRIES));
+
+        Selection<Long> restored = mStorage.asSelection(Bundles.forceParceling(bundle));
+        assertEquals(orig, restored);
+        assertEquals(999999, restored.size());
+    }
+
+    @Test
+    public void testReadsEntries() {
+        Bundle bundle = new Bundle();
+        bundle.putString(StorageStrategy.SELECTION_KEY_TYPE, Long.class.getCanonicalName());
+        bundle.putLongArray(StorageStrategy.SELECTION_ENTRIES, new long[] {5, 10, 15});
+
+        MutableSelection<Long> expected = new MutableSelection<>();
+        expected.add(5L);
+        expected.add(10L);
+        expected.add(15L);
+        assertEquals(expected, mStorage.asSelection(bundle));
+    }
 }
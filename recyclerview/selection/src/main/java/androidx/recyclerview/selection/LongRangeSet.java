@@ -0,0 +1,336 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.recyclerview.selection;
+
+import static androidx.core.util.Preconditions.checkArgument;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Set of {@link Long} keys stored as sorted, inclusive ranges of consecutive keys.
+ *
+ * <p>
+ * Selecting every item of a list with contiguous stable ids, or every item except a few, takes
+ * a handful of ranges instead of one boxed key per item. Lookups are a binary search over the
+ * ranges. The ranges can be written to and read from a {@code long[]} for saved state.
+ */
+final class LongRangeSet extends AbstractSet<Long> {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    // Pairs of [start, end] keys, inclusive. Ranges are sorted, and neither overlap nor touch,
+    // so every set of keys has exactly one representation.
+    private long[] mRanges = new long[INITIAL_CAPACITY * 2];
+    private int mRangeCount;
+    private long mKeyCount;
+
+    /**
+     * Adds the keys of the given ranges, as returned by {@link #toRangeArray()}.
+     */
+    void addRanges(@NonNull long[] ranges) {
+        checkArgument(ranges.length % 2 == 0);
+        for (int i = 0; i < ranges.length; i += 2) {
+            addRange(ranges[i], ranges[i + 1]);
+        }
+    }
+
+    /**
+     * @return the ranges of the set as [start, end] pairs, inclusive and sorted.
+     */
+    @NonNull
+    long[] toRangeArray() {
+        return Arrays.copyOf(mRanges, mRangeCount * 2);
+    }
+
+    /**
+     * @return the number of ranges needed to represent the set.
+     */
+    int getRangeCount() {
+        return mRangeCount;
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(mKeyCount, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return mRangeCount == 0;
+    }
+
+    @Override
+    public boolean contains(@Nullable Object o) {
+        return o instanceof Long && indexOf((Long) o) >= 0;
+    }
+
+    @Override
+    public boolean add(@NonNull Long key) {
+        return addRange(key, key);
+    }
+
+    @Override
+    public boolean remove(@Nullable Object o) {
+        return o instanceof Long && removeRange((Long) o, (Long) o);
+    }
+
+    @Override
+    public boolean addAll(@NonNull Collection<? extends Long> keys) {
+        if (!(keys instanceof LongRangeSet)) {
+            return super.addAll(keys);
+        }
+        LongRangeSet other = (LongRangeSet) keys;
+        boolean changed = false;
+        for (int i = 0; i < other.mRangeCount; i++) {
+            changed |= addRange(other.start(i), other.end(i));
+        }
+        return changed;
+    }
+
+    @Override
+    public void clear() {
+        mRangeCount = 0;
+        mKeyCount = 0;
+    }
+
+    /**
+     * Adds all keys from {@code first} to {@code last}, inclusive.
+     *
+     * @return true if the set changed.
+     */
+    boolean addRange(long first, long last) {
+        checkArgument(first <= last);
+        // Ranges which overlap or touch [first, last] are merged with it.
+        int from = firstRangeEndingAtOrAfter(first == Long.MIN_VALUE ? first : first - 1);
+        int to = firstRangeStartingAfter(last == Long.MAX_VALUE ? last : last + 1);
+        if (from == to) {
+            splice(from, to, 1);
+            setRange(from, first, last);
+            mKeyCount += last - first + 1;
+            return true;
+        }
+
+        long start = Math.min(first, start(from));
+        long end = Math.max(last, end(to - 1));
+        long previousCount = countKeys(from, to);
+        splice(from, to, 1);
+        setRange(from, start, end);
+        long added = (end - start + 1) - previousCount;
+        mKeyCount += added;
+        return added != 0;
+    }
+
+    /**
+     * Removes all keys from {@code first} to {@code last}, inclusive.
+     *
+     * @return true if the set changed.
+     */
+    boolean removeRange(long first, long last) {
+        checkArgument(first <= last);
+        int from = firstRangeEndingAtOrAfter(first);
+        int to = firstRangeStartingAfter(last);
+        if (from >= to) {
+            return false;
+        }
+
+        long headStart = start(from);
+        long tailEnd = end(to - 1);
+        boolean keepHead = headStart < first;
+        boolean keepTail = tailEnd > last;
+        long previousCount = countKeys(from, to);
+
+        int pieces = (keepHead ? 1 : 0) + (keepTail ? 1 : 0);
+        splice(from, to, pieces);
+        long remaining = 0;
+        int index = from;
+        if (keepHead) {
+            setRange(index++, headStart, first - 1);
+            remaining += first - headStart;
+        }
+        if (keepTail) {
+            setRange(index, last + 1, tailEnd);
+            remaining += tailEnd - last;
+        }
+        mKeyCount -= previousCount - remaining;
+        return true;
+    }
+
+    @NonNull
+    @Override
+    public Iterator<Long> iterator() {
+        return new KeyIterator();
+    }
+
+    @Override
+    public boolean equals(@Nullable Object other) {
+        if (other instanceof LongRangeSet) {
+            LongRangeSet that = (LongRangeSet) other;
+            if (mRangeCount != that.mRangeCount) {
+                return false;
+            }
+            for (int i = 0; i < mRangeCount * 2; i++) {
+                if (mRanges[i] != that.mRanges[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buffer = new StringBuilder(mRangeCount * 16 + 2);
+        buffer.append('[');
+        for (int i = 0; i < mRangeCount; i++) {
+            if (i > 0) {
+                buffer.append(", ");
+            }
+            buffer.append(start(i));
+            if (end(i) != start(i)) {
+                buffer.append("..").append(end(i));
+            }
+        }
+        return buffer.append(']').toString();
+    }
+
+    long start(int range) {
+        return mRanges[range * 2];
+    }
+
+    long end(int range) {
+        return mRanges[range * 2 + 1];
+    }
+
+    private void setRange(int range, long start, long end) {
+        mRanges[range * 2] = start;
+        mRanges[range * 2 + 1] = end;
+    }
+
+    /**
+     * @return index of the range containing the key, or a negative value if none does.
+     */
+    int indexOf(long key) {
+        int range = firstRangeEndingAtOrAfter(key);
+        return range < mRangeCount && start(range) <= key ? range : -1;
+    }
+
+    private int firstRangeEndingAtOrAfter(long key) {
+        int low = 0;
+        int high = mRangeCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (end(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int firstRangeStartingAfter(long key) {
+        int low = 0;
+        int high = mRangeCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (start(mid) <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long countKeys(int from, int to) {
+        long count = 0;
+        for (int i = from; i < to; i++) {
+            count += end(i) - start(i) + 1;
+        }
+        return count;
+    }
+
+    /**
+     * Replaces the ranges [from, to) with {@code count} ranges, which the caller must set.
+     */
+    private void splice(int from, int to, int count) {
+        int newRangeCount = mRangeCount - (to - from) + count;
+        if (newRangeCount * 2 > mRanges.length) {
+            mRanges = Arrays.copyOf(mRanges, Math.max(newRangeCount * 2, mRanges.length * 2));
+        }
+        System.arraycopy(mRanges, to * 2, mRanges, (from + count) * 2, (mRangeCount - to) * 2);
+        mRangeCount = newRangeCount;
+    }
+
+    private final class KeyIterator implements Iterator<Long> {
+        private int mRange;
+        private long mNext;
+        private long mLast;
+        private boolean mCanRemove;
+
+        KeyIterator() {
+            if (mRangeCount > 0) {
+                mNext = start(0);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return mRange < mRangeCount;
+        }
+
+        @Override
+        public Long next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            mLast = mNext;
+            mCanRemove = true;
+            if (mNext < end(mRange)) {
+                mNext++;
+            } else if (++mRange < mRangeCount) {
+                mNext = start(mRange);
+            }
+            return mLast;
+        }
+
+        @Override
+        public void remove() {
+            if (!mCanRemove) {
+                throw new IllegalStateException();
+            }
+            mCanRemove = false;
+            boolean hadNext = hasNext();
+            removeRange(mLast, mLast);
+            // Removing a key can split a range or remove it, find the next key again.
+            mRange = hadNext ? indexOf(mNext) : mRangeCount;
+        }
+    }
+}
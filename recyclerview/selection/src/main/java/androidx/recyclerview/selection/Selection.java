@@ -77,6 +77,14 @@ public class Selection<K> implements Iterable<K> {
         mProvisionalSelection = new HashSet<>();
     }
 
+    /**
+     * Used by {@link StorageStrategy} to back the selection with key type specific sets.
+     */
+    Selection(@NonNull Set<K> selection, @NonNull Set<K> provisionalSelection) {
+        mSelection = selection;
+        mProvisionalSelection = provisionalSelection;
+    }
+
     /**
      * @param key
      * @return true if the position is currently selected.
@@ -53,6 +53,9 @@ public abstract class StorageStrategy<K> {
     @VisibleForTesting
     static final String SELECTION_KEY_TYPE = "androidx.recyclerview.selection.type";
 
+    @VisibleForTesting
+    static final String SELECTION_RANGES = "androidx.recyclerview.selection.ranges";
+
     private final Class<K> mType;
 
     /**
@@ -85,6 +88,14 @@ public abstract class StorageStrategy<K> {
         return mType.getCanonicalName();
     }
 
+    /**
+     * @return a new, empty selection, backed by sets suitable for the key type.
+     */
+    @NonNull
+    Selection<K> createSelection() {
+        return new Selection<>();
+    }
+
     /**
      * @return StorageStrategy suitable for use with {@link Parcelable} keys
      * (like {@link android.net.Uri}).
@@ -159,14 +170,22 @@ public abstract class StorageStrategy<K> {
                 return null;
             }
 
+            Selection<Long> selection = createSelection();
+            LongRangeSet keys = (LongRangeSet) selection.mSelection;
+
+            @Nullable long[] ranges = state.getLongArray(SELECTION_RANGES);
+            if (ranges != null) {
+                keys.addRanges(ranges);
+                return selection;
+            }
+
+            // Saved by a version which stored every key.
             @Nullable long[] stored = state.getLongArray(SELECTION_ENTRIES);
             if (stored == null) {
                 return null;
             }
-
-            Selection<Long> selection = new Selection<>();
             for (long key : stored) {
-                selection.mSelection.add(key);
+                keys.add(key);
             }
             return selection;
         }
@@ -177,15 +196,25 @@ public abstract class StorageStrategy<K> {
             Bundle bundle = new Bundle();
             bundle.putString(SELECTION_KEY_TYPE, getKeyTypeName());
 
-            long[] value = new long[selection.size()];
-            int i = 0;
-            for (Long key : selection) {
-                value[i++] = key;
+            LongRangeSet keys;
+            if (selection.mSelection instanceof LongRangeSet) {
+                keys = (LongRangeSet) selection.mSelection;
+            } else {
+                keys = new LongRangeSet();
+                keys.addAll(selection.mSelection);
             }
-            bundle.putLongArray(SELECTION_ENTRIES, value);
+            bundle.putLongArray(SELECTION_RANGES, keys.toRangeArray());
 
             return bundle;
         }
+
+        @Override
+        @NonNull
+        Selection<Long> createSelection() {
+            // Band and range selection go through the provisional selection, so it can get as
+            // large as the primary one.
+            return new Selection<>(new LongRangeSet(), new LongRangeSet());
+        }
     }
 
     private static class ParcelableStorageStrategy<K extends Parcelable>
@@ -25,12 +25,16 @@ import static junit.framework.Assert.assertEquals;
 
 import static org.junit.Assert.assertNotNull;
 
+import android.app.Activity;
 import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.net.Uri;
+import android.os.Bundle;
+import android.os.Debug;
+import android.util.Log;
 
 import androidx.benchmark.BenchmarkRule;
 import androidx.benchmark.BenchmarkState;
@@ -60,6 +64,7 @@ import java.util.List;
 @SdkSuppress(minSdkVersion = 19)
 public class SliceSerializeMetrics {
 
+    private static final String TAG = "SliceSerializeMetrics";
     private static final boolean WRITE_SAMPLE_FILE = false;
 
     @Rule
@@ -67,6 +72,12 @@ public class SliceSerializeMetrics {
 
     private final Context mContext = InstrumentationRegistry.getContext();
 
+    private final SliceItem.ActionHandler mActionHandler = new SliceItem.ActionHandler() {
+        @Override
+        public void onAction(SliceItem item, Context context, Intent intent) {
+        }
+    };
+
     @Test
     public void testSerialization() throws Exception {
         final BenchmarkState state = mBenchmarkRule.getState();
@@ -135,6 +146,116 @@ public class SliceSerializeMetrics {
         assertEquivalentRoot(before, after);
     }
 
+    @Test
+    public void testBind() throws IOException, SliceUtils.SliceParseException {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(1024 * 1024);
+        SliceUtils.serializeSlice(createBindSlice(), mContext, outputStream,
+                new SliceUtils.SerializeOptions()
+                        .setImageMode(SliceUtils.SerializeOptions.MODE_CONVERT)
+                        .setActionMode(SliceUtils.SerializeOptions.MODE_CONVERT));
+        final byte[] bytes = outputStream.toByteArray();
+        final SliceUtils.SliceActionListener listener = new SliceUtils.SliceActionListener() {
+            @Override
+            public void onSliceAction(Uri actionUri, Context context, Intent intent) {
+            }
+        };
+
+        while (state.keepRunning()) {
+            bindFirstRow(SliceUtils.parseSlice(mContext, new ByteArrayInputStream(bytes),
+                    "UTF-8", listener));
+        }
+        reportAllocations("bind", new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    bindFirstRow(SliceUtils.parseSlice(mContext,
+                            new ByteArrayInputStream(bytes), "UTF-8", listener));
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testFlatBind() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        final byte[] bytes = FlatSlice.flatten(createBindSlice());
+
+        while (state.keepRunning()) {
+            bindFirstRow(FlatSlice.inflate(bytes, mActionHandler));
+        }
+        reportAllocations("flatBind", new Runnable() {
+            @Override
+            public void run() {
+                bindFirstRow(FlatSlice.inflate(bytes, mActionHandler));
+            }
+        });
+    }
+
+    @Test
+    public void testFlatDeserialization() {
+        final BenchmarkState state = mBenchmarkRule.getState();
+        Slice before = createSlice(mContext, Uri.parse("context://pkg/slice"), 3, 3, 6);
+        byte[] bytes = FlatSlice.flatten(before);
+
+        Slice after = FlatSlice.inflate(bytes, mActionHandler);
+        while (state.keepRunning()) {
+            after = FlatSlice.inflate(bytes, mActionHandler);
+            // Decode everything, to compare with the eager deserialization.
+            after.toString();
+        }
+
+        assertEquals(before.getUri(), after.getUri());
+        assertEquals(before.getHints(), after.getHints());
+        assertEquals(before.getItems().size(), after.getItems().size());
+        for (int i = 0; i < before.getItems().size(); i++) {
+            assertEquivalent(before.getItems().get(i), after.getItems().get(i));
+        }
+    }
+
+    /**
+     * Creates the slice bound by {@link #testBind()} and {@link #testFlatBind()}, so that both
+     * formats are measured with the same content.
+     */
+    private Slice createBindSlice() {
+        return createSlice(mContext, Uri.parse("context://pkg/slice"), 3, 3, 6);
+    }
+
+    /**
+     * Reads what a SliceView needs to show the first row of the slice.
+     */
+    private static void bindFirstRow(Slice slice) {
+        for (SliceItem item : slice.getItemArray()) {
+            if (FORMAT_SLICE.equals(item.getFormat())) {
+                for (SliceItem child : item.getSlice().getItemArray()) {
+                    child.getFormat();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reports the number and size of the allocations made by the given code on this thread.
+     */
+    @SuppressWarnings("deprecation")
+    private static void reportAllocations(String name, Runnable runnable) {
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        runnable.run();
+        Debug.stopAllocCounting();
+        int count = Debug.getThreadAllocCount();
+        int size = Debug.getThreadAllocSize();
+
+        Log.i(TAG, name + " allocations: " + count + ", bytes: " + size);
+        Bundle status = new Bundle();
+        status.putInt(name + "_allocationCount", count);
+        status.putInt(name + "_allocationSize", size);
+        InstrumentationRegistry.getInstrumentation().sendStatus(Activity.RESULT_OK, status);
+    }
+
     private static final int BUF_SIZE = 0x1000; // 4K
 
     public static long copy(InputStream from, OutputStream to) throws IOException {
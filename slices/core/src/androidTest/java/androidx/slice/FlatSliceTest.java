@@ -0,0 +1,143 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.slice;
+
+import static android.app.slice.Slice.HINT_LIST;
+import static android.app.slice.Slice.HINT_TITLE;
+import static android.app.slice.SliceItem.FORMAT_ACTION;
+import static android.app.slice.SliceItem.FORMAT_IMAGE;
+import static android.app.slice.SliceItem.FORMAT_INT;
+import static android.app.slice.SliceItem.FORMAT_LONG;
+import static android.app.slice.SliceItem.FORMAT_SLICE;
+import static android.app.slice.SliceItem.FORMAT_TEXT;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+
+import androidx.core.graphics.drawable.IconCompat;
+import androidx.slice.core.test.R;
+import androidx.test.InstrumentationRegistry;
+import androidx.test.filters.SdkSuppress;
+import androidx.test.filters.SmallTest;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+@RunWith(AndroidJUnit4.class)
+@SmallTest
+@SdkSuppress(minSdkVersion = 19)
+public class FlatSliceTest {
+
+    private static final Uri BASE_URI = Uri.parse("content://androidx.slice.core.test/");
+    private final Context mContext = InstrumentationRegistry.getContext();
+
+    private final SliceItem.ActionHandler mActionHandler = new SliceItem.ActionHandler() {
+        @Override
+        public void onAction(SliceItem item, Context context, Intent intent) {
+        }
+    };
+
+    @Test
+    public void testRoundTrip() {
+        Slice.Builder builder = new Slice.Builder(BASE_URI)
+                .setSpec(new SliceSpec("androidx.slice.LIST", 1))
+                .addHints(HINT_LIST);
+        Slice row = new Slice.Builder(builder)
+                .addText("Title", null, HINT_TITLE)
+                .addInt(0xff00ff00, "color")
+                .addLong(42L, null)
+                .build();
+        PendingIntent pi = PendingIntent.getActivity(mContext, 0, new Intent(), 0);
+        Slice action = new Slice.Builder(BASE_URI.buildUpon().appendPath("action").build())
+                .addText("Action", null)
+                .build();
+        Slice before = builder.addSubSlice(row, "row")
+                .addAction(pi, action, null)
+                .addIcon(IconCompat.createWithResource(mContext, R.drawable.size_48x48), null)
+                .build();
+
+        byte[] data = FlatSlice.flatten(before);
+        assertTrue(FlatSlice.isFlatSlice(data));
+        Slice after = FlatSlice.inflate(data, mActionHandler);
+
+        assertEquals(BASE_URI, after.getUri());
+        assertEquals(before.getSpec(), after.getSpec());
+        assertEquals(Arrays.asList(HINT_LIST), after.getHints());
+        assertEquals(3, after.getItems().size());
+
+        SliceItem rowItem = after.getItems().get(0);
+        assertEquals(FORMAT_SLICE, rowItem.getFormat());
+        assertEquals("row", rowItem.getSubType());
+        assertEquals(row.getUri(), rowItem.getSlice().getUri());
+        SliceItem[] rowItems = rowItem.getSlice().getItemArray();
+        assertEquals(FORMAT_TEXT, rowItems[0].getFormat());
+        assertEquals("Title", String.valueOf(rowItems[0].getText()));
+        assertTrue(rowItems[0].hasHint(HINT_TITLE));
+        assertEquals(FORMAT_INT, rowItems[1].getFormat());
+        assertEquals("color", rowItems[1].getSubType());
+        assertEquals(0xff00ff00, rowItems[1].getInt());
+        assertEquals(FORMAT_LONG, rowItems[2].getFormat());
+        assertNull(rowItems[2].getSubType());
+        assertEquals(42L, rowItems[2].getLong());
+
+        SliceItem actionItem = after.getItems().get(1);
+        assertEquals(FORMAT_ACTION, actionItem.getFormat());
+        assertEquals(action.getUri(), actionItem.getSlice().getUri());
+        assertEquals("Action", String.valueOf(
+                actionItem.getSlice().getItems().get(0).getText()));
+
+        SliceItem iconItem = after.getItems().get(2);
+        assertEquals(FORMAT_IMAGE, iconItem.getFormat());
+        assertEquals(R.drawable.size_48x48, iconItem.getIcon().getResId());
+    }
+
+    @Test
+    public void testHintsAreShared() {
+        Slice.Builder builder = new Slice.Builder(BASE_URI);
+        for (int i = 0; i < 3; i++) {
+            builder.addSubSlice(new Slice.Builder(builder)
+                    .addHints(HINT_TITLE, HINT_LIST)
+                    .addText("Row", null, HINT_TITLE, HINT_LIST)
+                    .build());
+        }
+        Slice after = FlatSlice.inflate(FlatSlice.flatten(builder.build()), mActionHandler);
+
+        SliceItem[] items = after.getItemArray();
+        String[] hints = items[0].getSlice().getHintArray();
+        for (SliceItem item : items) {
+            assertSame(hints, item.getSlice().getHintArray());
+            assertSame(hints, item.getSlice().getItemArray()[0].getHintArray());
+        }
+    }
+
+    @Test
+    public void testNotFlatSlice() {
+        assertFalse(FlatSlice.isFlatSlice(new byte[0]));
+        assertFalse(FlatSlice.isFlatSlice("androidx.slice.Slice".getBytes()));
+    }
+}
@@ -0,0 +1,408 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.slice;
+
+import static android.app.slice.SliceItem.FORMAT_ACTION;
+import static android.app.slice.SliceItem.FORMAT_IMAGE;
+import static android.app.slice.SliceItem.FORMAT_INT;
+import static android.app.slice.SliceItem.FORMAT_LONG;
+import static android.app.slice.SliceItem.FORMAT_REMOTE_INPUT;
+import static android.app.slice.SliceItem.FORMAT_SLICE;
+import static android.app.slice.SliceItem.FORMAT_TEXT;
+
+import android.text.Spanned;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RequiresApi;
+import androidx.annotation.RestrictTo;
+import androidx.core.text.HtmlCompat;
+import androidx.core.util.Pair;
+import androidx.versionedparcelable.ParcelUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A flat serialized form of a {@link Slice} that is decoded on demand.
+ * <p>
+ * All the strings of the slice (uris, formats, sub-types, hints and text) are stored once in a
+ * shared string table, and every distinct set of hints once in a hint table, so that reading
+ * a slice allocates a single instance of each. Slices and items are stored as records that
+ * reference each other by offset: {@link #inflate} only reads the root slice, the items of a
+ * slice are decoded the first time they are accessed.
+ * <p>
+ * The format, with all values big endian:
+ * <pre>
+ * header:
+ * int     magic, {@link #MAGIC}
+ * int     version, {@link #VERSION}
+ * int     offset of the string table
+ * int     offset of the hint table
+ * int     offset of the root slice
+ *
+ * slice:
+ * int     uri, as an index in the string table
+ * int     spec type, as an index in the string table, or -1
+ * int     spec revision
+ * int     hints, as an index in the hint table
+ * int     number of items, followed by the offset of each item
+ *
+ * item:
+ * int     format, as an index in the string table
+ * int     sub-type, as an index in the string table, or -1
+ * int     hints, as an index in the hint table
+ * ...     value, depending on the format:
+ *         text: int index in the string table of the html of the text
+ *         int, long: the value
+ *         slice, action: int offset of the slice
+ *         image: int length, followed by the icon as a VersionedParcel
+ *
+ * string table:
+ * int     number of strings, followed by the offset of each string
+ * ...     strings, as an int length followed by the UTF-8 bytes
+ *
+ * hint table:
+ * int     number of hint sets, followed by the offset of each set
+ * ...     hint sets, as an int count followed by the index of each hint in the string table
+ * </pre>
+ * <p>
+ * Pending intents, action callbacks and remote inputs cannot be flattened: remote inputs are
+ * dropped, and all actions are read back with the {@link SliceItem.ActionHandler} passed to
+ * {@link #inflate}.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+@RequiresApi(19)
+public final class FlatSlice {
+
+    /**
+     * Magic number at the start of every flat slice, "SLCF".
+     */
+    static final int MAGIC = 0x534C4346;
+    static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 5 * 4;
+    private static final int NONE = -1;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final byte[] mData;
+    private final ByteBuffer mBuffer;
+    private final int mStringTable;
+    private final int mHintTable;
+    private final String[] mStrings;
+    private final String[][] mHints;
+    private final SliceItem.ActionHandler mActionHandler;
+
+    private FlatSlice(byte[] data, SliceItem.ActionHandler actionHandler) {
+        mData = data;
+        mBuffer = ByteBuffer.wrap(data);
+        mActionHandler = actionHandler;
+        if (data.length < HEADER_SIZE || mBuffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a flat slice");
+        }
+        if (mBuffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported flat slice version "
+                    + mBuffer.getInt(4));
+        }
+        mStringTable = mBuffer.getInt(8);
+        mHintTable = mBuffer.getInt(12);
+        mStrings = new String[mBuffer.getInt(mStringTable)];
+        mHints = new String[mBuffer.getInt(mHintTable)][];
+    }
+
+    /**
+     * Returns whether the given data starts with the header of a flat slice.
+     */
+    public static boolean isFlatSlice(@NonNull byte[] data) {
+        return data.length >= HEADER_SIZE && ByteBuffer.wrap(data).getInt(0) == MAGIC;
+    }
+
+    /**
+     * Writes the given slice in the flat format.
+     *
+     * @throws IllegalArgumentException if the slice contains an icon that cannot be serialized.
+     */
+    public static @NonNull byte[] flatten(@NonNull Slice slice) {
+        try {
+            return new Writer().write(slice);
+        } catch (IOException e) {
+            // Only written to memory.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reads a slice written by {@link #flatten}. Only the root slice is decoded, the items of
+     * every slice are decoded when first accessed. The data must not be modified afterwards.
+     *
+     * @param actionHandler The handler of all the actions in the slice.
+     * @throws IllegalArgumentException if the data is not a flat slice.
+     */
+    public static @NonNull Slice inflate(@NonNull byte[] data,
+            @NonNull SliceItem.ActionHandler actionHandler) {
+        FlatSlice flatSlice = new FlatSlice(data, actionHandler);
+        return flatSlice.readSlice(flatSlice.mBuffer.getInt(16));
+    }
+
+    private Slice readSlice(int offset) {
+        String uri = getString(mBuffer.getInt(offset));
+        int specType = mBuffer.getInt(offset + 4);
+        SliceSpec spec = specType != NONE
+                ? new SliceSpec(getString(specType), mBuffer.getInt(offset + 8))
+                : null;
+        return new Slice(this, offset + 16, getHints(mBuffer.getInt(offset + 12)), uri, spec);
+    }
+
+    /**
+     * Decodes the items of a slice, from the item count of its record. Synchronized as the
+     * string and hint tables are shared by all the slices read from the same data.
+     */
+    synchronized SliceItem[] readItems(int offset) {
+        int count = mBuffer.getInt(offset);
+        if (count == 0) {
+            return Slice.NO_ITEMS;
+        }
+        SliceItem[] items = new SliceItem[count];
+        for (int i = 0; i < count; i++) {
+            items[i] = readItem(mBuffer.getInt(offset + 4 + i * 4));
+        }
+        return items;
+    }
+
+    private SliceItem readItem(int offset) {
+        String format = getString(mBuffer.getInt(offset));
+        int subType = mBuffer.getInt(offset + 4);
+        String[] hints = getHints(mBuffer.getInt(offset + 8));
+        int value = offset + 12;
+        Object obj;
+        switch (format) {
+            case FORMAT_TEXT:
+                String html = getString(mBuffer.getInt(value));
+                obj = html.length() == 0 ? ""
+                        : HtmlCompat.fromHtml(html, HtmlCompat.FROM_HTML_MODE_LEGACY);
+                break;
+            case FORMAT_INT:
+                obj = mBuffer.getInt(value);
+                break;
+            case FORMAT_LONG:
+                obj = mBuffer.getLong(value);
+                break;
+            case FORMAT_SLICE:
+                obj = readSlice(mBuffer.getInt(value));
+                break;
+            case FORMAT_ACTION:
+                obj = new Pair<Object, Slice>(mActionHandler, readSlice(mBuffer.getInt(value)));
+                break;
+            case FORMAT_IMAGE:
+                obj = ParcelUtils.fromByteBuffer(
+                        ByteBuffer.wrap(mData, value + 4, mBuffer.getInt(value)));
+                break;
+            default:
+                throw new IllegalArgumentException("Unrecognized format " + format);
+        }
+        return new SliceItem(obj, format, subType != NONE ? getString(subType) : null, hints);
+    }
+
+    private String getString(int index) {
+        String string = mStrings[index];
+        if (string == null) {
+            int offset = mBuffer.getInt(mStringTable + 4 + index * 4);
+            string = new String(mData, offset + 4, mBuffer.getInt(offset), UTF_8);
+            mStrings[index] = string;
+        }
+        return string;
+    }
+
+    private String[] getHints(int index) {
+        String[] hints = mHints[index];
+        if (hints == null) {
+            int offset = mBuffer.getInt(mHintTable + 4 + index * 4);
+            int count = mBuffer.getInt(offset);
+            hints = count == 0 ? Slice.NO_HINTS : new String[count];
+            for (int i = 0; i < count; i++) {
+                hints[i] = getString(mBuffer.getInt(offset + 4 + i * 4));
+            }
+            mHints[index] = hints;
+        }
+        return hints;
+    }
+
+    private static class Writer {
+        private final ByteArrayOutputStream mBytes = new ByteArrayOutputStream();
+        private final DataOutputStream mOut = new DataOutputStream(mBytes);
+        private final HashMap<String, Integer> mStrings = new HashMap<>();
+        private final ArrayList<String> mStringList = new ArrayList<>();
+        private final HashMap<List<String>, Integer> mHints = new HashMap<>();
+        private final ArrayList<String[]> mHintList = new ArrayList<>();
+
+        byte[] write(Slice slice) throws IOException {
+            // Leave room for the header, written last.
+            mOut.write(new byte[HEADER_SIZE]);
+            int root = writeSlice(slice);
+            int stringTable = mOut.size();
+            writeStrings();
+            int hintTable = mOut.size();
+            writeHints();
+            mOut.flush();
+
+            byte[] data = mBytes.toByteArray();
+            ByteBuffer.wrap(data)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(stringTable)
+                    .putInt(hintTable)
+                    .putInt(root);
+            return data;
+        }
+
+        /**
+         * Writes the children of the slice, then its items and its record, so that the offset
+         * of everything a record references is known when it is written.
+         */
+        private int writeSlice(Slice slice) throws IOException {
+            SliceItem[] items = slice.getItemArray();
+            int[] children = new int[items.length];
+            for (int i = 0; i < items.length; i++) {
+                String format = items[i].getFormat();
+                if (FORMAT_SLICE.equals(format) || FORMAT_ACTION.equals(format)) {
+                    children[i] = writeSlice(items[i].getSlice());
+                }
+            }
+            int[] itemOffsets = new int[items.length];
+            int count = 0;
+            for (int i = 0; i < items.length; i++) {
+                if (FORMAT_REMOTE_INPUT.equals(items[i].getFormat())) {
+                    continue;
+                }
+                itemOffsets[count++] = writeItem(items[i], children[i]);
+            }
+
+            int offset = mOut.size();
+            SliceSpec spec = slice.getSpec();
+            mOut.writeInt(string(slice.getUri().toString()));
+            mOut.writeInt(spec != null ? string(spec.getType()) : NONE);
+            mOut.writeInt(spec != null ? spec.getRevision() : 0);
+            mOut.writeInt(hints(slice.getHintArray()));
+            mOut.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                mOut.writeInt(itemOffsets[i]);
+            }
+            return offset;
+        }
+
+        private int writeItem(SliceItem item, int child) throws IOException {
+            int offset = mOut.size();
+            String format = item.getFormat();
+            mOut.writeInt(string(format));
+            mOut.writeInt(item.getSubType() != null ? string(item.getSubType()) : NONE);
+            mOut.writeInt(hints(item.getHintArray()));
+            switch (format) {
+                case FORMAT_TEXT:
+                    CharSequence text = item.getText();
+                    mOut.writeInt(string(text instanceof Spanned
+                            ? HtmlCompat.toHtml((Spanned) text,
+                                    HtmlCompat.TO_HTML_PARAGRAPH_LINES_CONSECUTIVE)
+                            : String.valueOf(text)));
+                    break;
+                case FORMAT_INT:
+                    mOut.writeInt(item.getInt());
+                    break;
+                case FORMAT_LONG:
+                    mOut.writeLong(item.getLong());
+                    break;
+                case FORMAT_SLICE:
+                case FORMAT_ACTION:
+                    mOut.writeInt(child);
+                    break;
+                case FORMAT_IMAGE:
+                    byte[] icon = ParcelUtils.toByteArray(item.getIcon());
+                    mOut.writeInt(icon.length);
+                    mOut.write(icon);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unrecognized format " + format);
+            }
+            return offset;
+        }
+
+        private int string(String string) {
+            Integer index = mStrings.get(string);
+            if (index == null) {
+                index = mStringList.size();
+                mStrings.put(string, index);
+                mStringList.add(string);
+            }
+            return index;
+        }
+
+        private int hints(String[] hints) {
+            List<String> key = Arrays.asList(hints);
+            Integer index = mHints.get(key);
+            if (index == null) {
+                index = mHintList.size();
+                mHints.put(key, index);
+                mHintList.add(hints);
+                // Intern the hints themselves before the string table is written.
+                for (String hint : hints) {
+                    string(hint);
+                }
+            }
+            return index;
+        }
+
+        private void writeStrings() throws IOException {
+            int size = mStringList.size();
+            byte[][] encoded = new byte[size][];
+            int offset = mOut.size() + 4 + size * 4;
+            mOut.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                encoded[i] = mStringList.get(i).getBytes(UTF_8);
+                mOut.writeInt(offset);
+                offset += 4 + encoded[i].length;
+            }
+            for (byte[] string : encoded) {
+                mOut.writeInt(string.length);
+                mOut.write(string);
+            }
+        }
+
+        private void writeHints() throws IOException {
+            int size = mHintList.size();
+            int offset = mOut.size() + 4 + size * 4;
+            mOut.writeInt(size);
+            for (String[] hints : mHintList) {
+                mOut.writeInt(offset);
+                offset += 4 + hints.length * 4;
+            }
+            for (String[] hints : mHintList) {
+                mOut.writeInt(hints.length);
+                for (String hint : hints) {
+                    mOut.writeInt(mStrings.get(hint));
+                }
+            }
+        }
+    }
+}
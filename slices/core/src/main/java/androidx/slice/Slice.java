@@ -67,6 +67,7 @@ import androidx.core.graphics.drawable.IconCompat;
 import androidx.core.util.Preconditions;
 import androidx.slice.compat.SliceProviderCompat;
 import androidx.versionedparcelable.CustomVersionedParcelable;
+import androidx.versionedparcelable.NonParcelField;
 import androidx.versionedparcelable.ParcelField;
 import androidx.versionedparcelable.VersionedParcelable;
 import androidx.versionedparcelable.VersionedParcelize;
@@ -144,6 +145,12 @@ public final class Slice extends CustomVersionedParcelable implements VersionedP
     @ParcelField(value = 4, defaultValue = "null")
     String mUri = null;
 
+    // Source of the items until they are first accessed, for slices read from a FlatSlice.
+    @NonParcelField
+    private volatile FlatSlice mFlatSlice;
+    @NonParcelField
+    private int mFlatItems;
+
     /**
      * @hide
      */
@@ -156,6 +163,18 @@ public final class Slice extends CustomVersionedParcelable implements VersionedP
         mSpec = spec;
     }
 
+    /**
+     * Creates a slice whose items are decoded from the given flat slice when first accessed.
+     */
+    Slice(FlatSlice flatSlice, int items, @SliceHint String[] hints, String uri,
+            SliceSpec spec) {
+        mFlatSlice = flatSlice;
+        mFlatItems = items;
+        mHints = hints;
+        mUri = uri;
+        mSpec = spec;
+    }
+
     /**
      * Used for VersionedParcelable
      * @hide
@@ -190,9 +209,10 @@ public final class Slice extends CustomVersionedParcelable implements VersionedP
     public Bundle toBundle() {
         Bundle b = new Bundle();
         b.putStringArray(HINTS, mHints);
-        Parcelable[] p = new Parcelable[mItems.length];
-        for (int i = 0; i < mItems.length; i++) {
-            p[i] = mItems[i].toBundle();
+        SliceItem[] items = getItemArray();
+        Parcelable[] p = new Parcelable[items.length];
+        for (int i = 0; i < items.length; i++) {
+            p[i] = items[i].toBundle();
         }
         b.putParcelableArray(ITEMS, p);
         b.putParcelable(URI, Uri.parse(mUri));
@@ -223,7 +243,7 @@ public final class Slice extends CustomVersionedParcelable implements VersionedP
      * @return All child {@link SliceItem}s that this Slice contains.
      */
     public List<SliceItem> getItems() {
-        return Arrays.asList(mItems);
+        return Arrays.asList(getItemArray());
     }
 
     /**
@@ -232,6 +252,15 @@ public final class Slice extends CustomVersionedParcelable implements VersionedP
      */
     @RestrictTo(LIBRARY)
     public SliceItem[] getItemArray() {
+        if (mFlatSlice != null) {
+            synchronized (this) {
+                FlatSlice flatSlice = mFlatSlice;
+                if (flatSlice != null) {
+                    mItems = flatSlice.readItems(mFlatItems);
+                    mFlatSlice = null;
+                }
+            }
+        }
         return mItems;
     }
 
@@ -264,6 +293,8 @@ public final class Slice extends CustomVersionedParcelable implements VersionedP
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
     @Override
     public void onPreParceling(boolean isStream) {
+        // Decode the items of a flat slice before they are written.
+        getItemArray();
     }
 
     /**
@@ -573,8 +604,9 @@ public final class Slice extends CustomVersionedParcelable implements VersionedP
         sb.append(mUri);
         sb.append("] {\n");
         final String nextIndent = indent + "  ";
-        for (int i = 0; i < mItems.length; i++) {
-            SliceItem item = mItems[i];
+        SliceItem[] items = getItemArray();
+        for (int i = 0; i < items.length; i++) {
+            SliceItem item = items[i];
             sb.append(item.toString(nextIndent));
         }
         sb.append(indent);
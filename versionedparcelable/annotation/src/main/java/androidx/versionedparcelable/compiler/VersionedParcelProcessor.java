@@ -16,12 +16,16 @@
 package androidx.versionedparcelable.compiler;
 
 import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -41,6 +45,7 @@ import javax.annotation.processing.Messager;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
 import javax.annotation.processing.SupportedSourceVersion;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.AnnotationMirror;
@@ -61,8 +66,15 @@ import javax.tools.Diagnostic;
         VersionedParcelProcessor.PARCEL_FIELD,
         VersionedParcelProcessor.NON_PARCEL_FIELD})
 @SupportedSourceVersion(SourceVersion.RELEASE_8)
+@SupportedOptions(VersionedParcelProcessor.REGISTRY_OPTION)
 public class VersionedParcelProcessor extends AbstractProcessor {
 
+    /**
+     * Fully qualified name of a ParcelizerRegistry to generate for the public VersionedParcelables
+     * of the compilation.
+     */
+    static final String REGISTRY_OPTION = "versionedparcelable.registry";
+
     static final String VERSIONED_PARCELIZE = "androidx.versionedparcelable.VersionedParcelize";
     static final String PARCEL_FIELD = "androidx.versionedparcelable.ParcelField";
     static final String NON_PARCEL_FIELD = "androidx.versionedparcelable.NonParcelField";
@@ -71,6 +83,10 @@ public class VersionedParcelProcessor extends AbstractProcessor {
     private static final ClassName RESTRICT_TO_SCOPE = RESTRICT_TO.nestedClass("Scope");
     private static final ClassName VERSIONED_PARCEL =
             ClassName.get("androidx.versionedparcelable", "VersionedParcel");
+    private static final ClassName VERSIONED_PARCELABLE =
+            ClassName.get("androidx.versionedparcelable", "VersionedParcelable");
+    private static final ClassName PARCELIZER_REGISTRY =
+            ClassName.get("androidx.versionedparcelable", "ParcelizerRegistry");
 
     private static final String GEN_SUFFIX = "Parcelizer";
     private static final String READ = "read";
@@ -79,6 +95,8 @@ public class VersionedParcelProcessor extends AbstractProcessor {
     private Messager mMessager;
     private ProcessingEnvironment mEnv;
     private Map<Pattern, String> mMethodLookup = new HashMap<>();
+    private List<TypeElement> mRegisteredTypes = new ArrayList<>();
+    private boolean mRegistryWritten;
 
     @Override
     public synchronized void init(ProcessingEnvironment processingEnvironment) {
@@ -118,7 +136,17 @@ public class VersionedParcelProcessor extends AbstractProcessor {
 
     @Override
     public boolean process(Set<? extends TypeElement> set, RoundEnvironment roundEnvironment) {
-        if (set.isEmpty()) return true;
+        if (roundEnvironment.processingOver()) return true;
+        if (set.isEmpty()) {
+            // The first round without new VersionedParcelables, usually the one compiling the
+            // parcelizers. Files must not be generated in the final round.
+            String registry = mEnv.getOptions().get(REGISTRY_OPTION);
+            if (registry != null && !mRegistryWritten) {
+                generateRegistry(registry);
+                mRegistryWritten = true;
+            }
+            return true;
+        }
         TypeElement cls = findAnnotation(set, VERSIONED_PARCELIZE);
         TypeElement field = findAnnotation(set, PARCEL_FIELD);
         TypeElement nonField = findAnnotation(set, NON_PARCEL_FIELD);
@@ -194,6 +222,16 @@ public class VersionedParcelProcessor extends AbstractProcessor {
             }
             generateSerialization(versionedParcelable, f,
                     allowSerialization, ignoreParcelables, isCustom, jetifyAs, factoryClass);
+            if (isPubliclyAccessible(versionedParcelable)) {
+                if (mRegistryWritten) {
+                    // Still found by name by ParcelUtils.
+                    mMessager.printMessage(Diagnostic.Kind.WARNING, "VersionedParcelProcessor - "
+                            + versionedParcelable + " is not in the registry, as it was "
+                            + "generated after the registry", versionedParcelable);
+                } else {
+                    mRegisteredTypes.add((TypeElement) versionedParcelable);
+                }
+            }
         }
 
         return true;
@@ -341,6 +379,108 @@ public class VersionedParcelProcessor extends AbstractProcessor {
         }
     }
 
+    /**
+     * Generates a ParcelizerRegistry which reads and writes each registered type through a switch
+     * on its type id, instead of VersionedParcel finding the Parcelizer methods by reflection.
+     */
+    private void generateRegistry(String qualifiedName) {
+        ClassName registryName = ClassName.bestGuess(qualifiedName);
+        TypeName classArray = ArrayTypeName.of(ParameterizedTypeName.get(
+                ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)));
+        CodeBlock.Builder names = CodeBlock.builder().add("{");
+        CodeBlock.Builder classes = CodeBlock.builder().add("{");
+        MethodSpec.Builder read = MethodSpec.methodBuilder(READ)
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(VERSIONED_PARCELABLE)
+                .addParameter(TypeName.INT, "typeId")
+                .addParameter(VERSIONED_PARCEL, "parcel")
+                .beginControlFlow("switch (typeId)");
+        MethodSpec.Builder write = MethodSpec.methodBuilder(WRITE)
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(TypeName.INT, "typeId")
+                .addParameter(VERSIONED_PARCELABLE, "obj")
+                .addParameter(VERSIONED_PARCEL, "parcel")
+                .beginControlFlow("switch (typeId)");
+        for (int i = 0; i < mRegisteredTypes.size(); i++) {
+            TypeElement type = mRegisteredTypes.get(i);
+            String pkg = getPkg(type);
+            ClassName parcelizer = ClassName.get(pkg, type.getSimpleName() + GEN_SUFFIX);
+            String separator = i == 0 ? "" : ", ";
+            names.add("$L$S", separator, pkg + "." + parcelizer.simpleName());
+            classes.add("$L$T.class", separator, ClassName.get(type));
+            read.addCode("case $L:\n", i)
+                    .addStatement("$>return $T.read(parcel)$<", parcelizer);
+            write.addCode("case $L:\n", i)
+                    .addStatement("$>$T.write(($T) obj, parcel)", parcelizer, ClassName.get(type))
+                    .addStatement("return$<");
+        }
+        read.addCode("default:\n")
+                .addStatement("$>throw new $T($S + typeId)$<", IllegalArgumentException.class,
+                        "Unknown type id ")
+                .endControlFlow();
+        write.addCode("default:\n")
+                .addStatement("$>throw new $T($S + typeId)$<", IllegalArgumentException.class,
+                        "Unknown type id ")
+                .endControlFlow();
+
+        FieldSpec namesField = FieldSpec.builder(String[].class, "PARCELIZER_NAMES",
+                Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(names.add("}").build())
+                .build();
+        FieldSpec classesField = FieldSpec.builder(classArray, "VERSIONED_PARCELABLE_CLASSES",
+                Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(classes.add("}").build())
+                .build();
+        TypeSpec registry = TypeSpec.classBuilder(registryName.simpleName())
+                .addJavadoc("@hide\n")
+                .addAnnotation(AnnotationSpec.builder(RESTRICT_TO)
+                        .addMember("value", "$T.LIBRARY", RESTRICT_TO_SCOPE)
+                        .build())
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addSuperinterface(PARCELIZER_REGISTRY)
+                .addField(namesField)
+                .addField(classesField)
+                .addMethod(MethodSpec.methodBuilder("install")
+                        .addJavadoc("Registers the Parcelizers with VersionedParcel.\n")
+                        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                        .addStatement("$T.registerParcelizers(new $T())", VERSIONED_PARCEL,
+                                registryName)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("getParcelizerNames")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(String[].class)
+                        .addStatement("return $N", namesField)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("getVersionedParcelableClasses")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(classArray)
+                        .addStatement("return $N", classesField)
+                        .build())
+                .addMethod(read.build())
+                .addMethod(write.build())
+                .build();
+        try {
+            JavaFile.builder(registryName.packageName(), registry).build()
+                    .writeTo(mEnv.getFiler());
+        } catch (IOException e) {
+            error("Exception writing " + e);
+        }
+    }
+
+    private boolean isPubliclyAccessible(Element element) {
+        while (element != null && element.getKind() == ElementKind.CLASS) {
+            if (!element.getModifiers().contains(Modifier.PUBLIC)) {
+                return false;
+            }
+            element = element.getEnclosingElement();
+        }
+        return true;
+    }
+
     private String strip(String s) {
         if (!s.startsWith("\"")) return s;
         return s.substring(1, s.length() - 1);
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.versionedparcelable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.filters.SmallTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+@SmallTest
+public class ParcelizerRegistryTest {
+
+    private int mReads;
+    private int mWrites;
+
+    @Before
+    public void setup() {
+        VersionedParcel.clearParcelizerRegistries();
+    }
+
+    @After
+    public void tearDown() {
+        VersionedParcel.clearParcelizerRegistries();
+    }
+
+    @Test
+    public void testGeneratedRegistry() {
+        ParcelizerRegistry registry = new TestParcelizerRegistry();
+        String[] names = registry.getParcelizerNames();
+        Class<?>[] classes = registry.getVersionedParcelableClasses();
+        assertEquals(names.length, classes.length);
+        int typeId = Arrays.asList(classes).indexOf(
+                VersionedParcelIntegTest.ParcelizableImpl.class);
+        assertTrue(typeId >= 0);
+        assertEquals("androidx.versionedparcelable.ParcelizableImplParcelizer", names[typeId]);
+    }
+
+    @Test
+    public void testRegisteredTypesSkipReflection() {
+        VersionedParcel.registerParcelizers(new CountingRegistry(new TestParcelizerRegistry()));
+
+        VersionedParcelIntegTest.ParcelizableImpl obj =
+                new VersionedParcelIntegTest.ParcelizableImpl();
+        obj.mInt = 42;
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ParcelUtils.toOutputStream(obj, outputStream);
+        VersionedParcelIntegTest.ParcelizableImpl other = ParcelUtils.fromInputStream(
+                new ByteArrayInputStream(outputStream.toByteArray()));
+
+        assertEquals(42, other.mInt);
+        assertEquals(1, mWrites);
+        assertEquals(1, mReads);
+    }
+
+    private class CountingRegistry implements ParcelizerRegistry {
+        private final ParcelizerRegistry mRegistry;
+
+        CountingRegistry(ParcelizerRegistry registry) {
+            mRegistry = registry;
+        }
+
+        @Override
+        public String[] getParcelizerNames() {
+            return mRegistry.getParcelizerNames();
+        }
+
+        @Override
+        public Class<?>[] getVersionedParcelableClasses() {
+            return mRegistry.getVersionedParcelableClasses();
+        }
+
+        @Override
+        public VersionedParcelable read(int typeId, VersionedParcel parcel) {
+            mReads++;
+            return mRegistry.read(typeId, parcel);
+        }
+
+        @Override
+        public void write(int typeId, VersionedParcelable obj, VersionedParcel parcel) {
+            mWrites++;
+            mRegistry.write(typeId, obj, parcel);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.versionedparcelable;
+
+import static androidx.versionedparcelable.ParcelUtils.fromInputStream;
+import static androidx.versionedparcelable.ParcelUtils.fromParcelable;
+import static androidx.versionedparcelable.ParcelUtils.toOutputStream;
+import static androidx.versionedparcelable.ParcelUtils.toParcelable;
+
+import static org.junit.Assert.assertEquals;
+
+import android.os.Parcel;
+
+import androidx.benchmark.BenchmarkRule;
+import androidx.benchmark.BenchmarkState;
+import androidx.test.filters.LargeTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures a round trip of {@link #ITEM_COUNT} small VersionedParcelables through
+ * {@link VersionedParcelParcel} and {@link VersionedParcelStream}, with the Parcelizers looked up
+ * through reflection or dispatched by the generated {@code TestParcelizerRegistry}.
+ */
+@LargeTest
+@RunWith(Parameterized.class)
+public class VersionedParcelBenchmark {
+
+    private static final int ITEM_COUNT = 100;
+
+    @Parameterized.Parameters(name = "useStream={0}, useRegistry={1}")
+    public static Iterable<? extends Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {false, false}, {false, true}, {true, false}, {true, true}});
+    }
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private final boolean mUseStream;
+    private final boolean mUseRegistry;
+
+    public VersionedParcelBenchmark(boolean useStream, boolean useRegistry) {
+        mUseStream = useStream;
+        mUseRegistry = useRegistry;
+    }
+
+    @Before
+    public void setup() {
+        VersionedParcel.clearParcelizerRegistries();
+        if (mUseRegistry) {
+            TestParcelizerRegistry.install();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        VersionedParcel.clearParcelizerRegistries();
+    }
+
+    @Test
+    public void roundTrip() {
+        final ItemList list = new ItemList();
+        list.mItems = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            Item item = new Item();
+            item.mId = "item" + i;
+            item.mIndex = i;
+            item.mTimestamp = 1000L * i;
+            list.mItems.add(item);
+        }
+        assertEquals(ITEM_COUNT, copy(list).mItems.size());
+
+        final BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            copy(list);
+        }
+    }
+
+    private ItemList copy(ItemList list) {
+        if (mUseStream) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            toOutputStream(list, outputStream);
+            return fromInputStream(new ByteArrayInputStream(outputStream.toByteArray()));
+        }
+        Parcel p = Parcel.obtain();
+        try {
+            p.writeParcelable(toParcelable(list), 0);
+            p.setDataPosition(0);
+            return fromParcelable(p.readParcelable(getClass().getClassLoader()));
+        } finally {
+            p.recycle();
+        }
+    }
+
+    @VersionedParcelize(allowSerialization = true)
+    public static class ItemList implements VersionedParcelable {
+        @ParcelField(1)
+        public List<Item> mItems;
+    }
+
+    @VersionedParcelize(allowSerialization = true)
+    public static class Item implements VersionedParcelable {
+        @ParcelField(1)
+        public String mId;
+        @ParcelField(2)
+        public int mIndex;
+        @ParcelField(3)
+        public long mTimestamp;
+    }
+}
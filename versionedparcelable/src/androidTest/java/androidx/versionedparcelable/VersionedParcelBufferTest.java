@@ -0,0 +1,179 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.versionedparcelable;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import androidx.test.InstrumentationRegistry;
+import androidx.test.filters.SmallTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+@SmallTest
+public class VersionedParcelBufferTest {
+
+    private VersionedParcelBuffer mOutputParcel;
+
+    @Before
+    public void setup() {
+        mOutputParcel = VersionedParcelBuffer.obtain();
+    }
+
+    @After
+    public void tearDown() {
+        mOutputParcel.recycle();
+    }
+
+    @Test
+    public void testInt() {
+        mOutputParcel.writeInt(42, 0);
+        assertEquals(42, createInputParcel().readInt(0, 0));
+    }
+
+    @Test
+    public void testBoolean() {
+        mOutputParcel.writeBoolean(true, 0);
+        assertEquals(true, createInputParcel().readBoolean(false, 0));
+    }
+
+    @Test
+    public void testByte() {
+        mOutputParcel.writeByte((byte) 5, 0);
+        assertEquals((byte) 5, createInputParcel().readByte((byte) 0, 0));
+    }
+
+    @Test
+    public void testString() {
+        mOutputParcel.writeString("My string", 0);
+        assertEquals("My string", createInputParcel().readString(null, 0));
+    }
+
+    @Test
+    public void testNoException() {
+        mOutputParcel.writeException(null, 0);
+        assertNull(createInputParcel().readException(null, 0));
+    }
+
+    @Test
+    public void testIllegalArgumentException() {
+        mOutputParcel.writeException(new IllegalArgumentException(), 0);
+        assertEquals(IllegalArgumentException.class,
+                createInputParcel().readException(null, 0).getClass());
+    }
+
+    @Test
+    public void testMissingField() {
+        mOutputParcel.writeInt(42, 2);
+        VersionedParcelBuffer input = createInputParcel();
+        assertEquals(-1, input.readInt(-1, 1));
+        assertEquals(42, input.readInt(0, 2));
+        assertEquals(-1, input.readInt(-1, 3));
+    }
+
+    @Test
+    public void testLargeField() {
+        // Sizes of 0xffff and above are written in an extended header.
+        byte[] large = new byte[0x10000];
+        large[large.length - 1] = 1;
+        mOutputParcel.writeByteArray(large, 0);
+        mOutputParcel.writeInt(42, 1);
+        VersionedParcelBuffer input = createInputParcel();
+        assertArrayEquals(large, input.readByteArray(null, 0));
+        assertEquals(42, input.readInt(0, 1));
+    }
+
+    @Test
+    public void testSameFormatAsStream() {
+        Item item = createItem();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        VersionedParcelStream stream = new VersionedParcelStream(null, output);
+        stream.writeVersionedParcelable(item);
+        stream.closeField();
+
+        mOutputParcel.writeVersionedParcelable(item);
+        mOutputParcel.closeField();
+        byte[] bytes = mOutputParcel.toByteArray();
+        assertArrayEquals(output.toByteArray(), bytes);
+
+        Item read = new VersionedParcelStream(new ByteArrayInputStream(bytes), null)
+                .readVersionedParcelable();
+        assertItem(item, read);
+    }
+
+    @Test
+    public void testMappedFile() throws IOException {
+        Item item = createItem();
+        File file = new File(InstrumentationRegistry.getContext().getCacheDir(), "item");
+        FileOutputStream output = new FileOutputStream(file);
+        try {
+            ParcelUtils.toOutputStream(item, output);
+        } finally {
+            output.close();
+        }
+        try {
+            Item read = ParcelUtils.fromFile(file);
+            assertItem(item, read);
+        } finally {
+            file.delete();
+        }
+    }
+
+    private VersionedParcelBuffer createInputParcel() {
+        mOutputParcel.closeField();
+        return new VersionedParcelBuffer(ByteBuffer.wrap(mOutputParcel.toByteArray()));
+    }
+
+    private static Item createItem() {
+        Item child = new Item();
+        child.mName = "child";
+        child.mValue = 2;
+        Item item = new Item();
+        item.mName = "parent";
+        item.mValue = 1;
+        item.mChild = child;
+        return item;
+    }
+
+    private static void assertItem(Item expected, Item actual) {
+        assertEquals(expected.mName, actual.mName);
+        assertEquals(expected.mValue, actual.mValue);
+        assertEquals(expected.mChild.mName, actual.mChild.mName);
+        assertEquals(expected.mChild.mValue, actual.mChild.mValue);
+        assertNull(actual.mChild.mChild);
+    }
+
+    @VersionedParcelize(allowSerialization = true)
+    public static class Item implements VersionedParcelable {
+        @ParcelField(1)
+        public String mName;
+        @ParcelField(2)
+        public int mValue;
+        @ParcelField(3)
+        public Item mChild;
+    }
+}
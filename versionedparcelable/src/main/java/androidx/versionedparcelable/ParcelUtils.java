@@ -25,8 +25,13 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 /**
  * Utilities for managing {@link VersionedParcelable}s.
@@ -65,9 +70,33 @@ public class ParcelUtils {
      */
     @RestrictTo(LIBRARY_GROUP)
     public static void toOutputStream(VersionedParcelable obj, OutputStream output) {
-        VersionedParcelStream stream = new VersionedParcelStream(null, output);
-        stream.writeVersionedParcelable(obj);
-        stream.closeField();
+        VersionedParcelBuffer parcel = VersionedParcelBuffer.obtain();
+        try {
+            parcel.writeVersionedParcelable(obj);
+            parcel.closeField();
+            parcel.writeTo(output);
+        } catch (IOException e) {
+            throw new VersionedParcel.ParcelException(e);
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    /**
+     * Write a VersionedParcelable into a byte array, in the format read by
+     * {@link #fromInputStream(InputStream)} and {@link #fromByteBuffer(ByteBuffer)}.
+     * @hide
+     */
+    @RestrictTo(LIBRARY_GROUP)
+    public static byte[] toByteArray(VersionedParcelable obj) {
+        VersionedParcelBuffer parcel = VersionedParcelBuffer.obtain();
+        try {
+            parcel.writeVersionedParcelable(obj);
+            parcel.closeField();
+            return parcel.toByteArray();
+        } finally {
+            parcel.recycle();
+        }
     }
 
     /**
@@ -81,6 +110,35 @@ public class ParcelUtils {
         return stream.readVersionedParcelable();
     }
 
+    /**
+     * Read a VersionedParcelable from the remaining bytes of a ByteBuffer, without modifying the
+     * buffer.
+     * @hide
+     */
+    @SuppressWarnings("TypeParameterUnusedInFormals")
+    @RestrictTo(LIBRARY_GROUP)
+    public static <T extends VersionedParcelable> T fromByteBuffer(ByteBuffer input) {
+        return new VersionedParcelBuffer(input).readVersionedParcelable();
+    }
+
+    /**
+     * Read a VersionedParcelable written to a file by {@link #toOutputStream}, mapping the
+     * file in memory instead of reading it through a stream.
+     * @hide
+     */
+    @SuppressWarnings("TypeParameterUnusedInFormals")
+    @RestrictTo(LIBRARY_GROUP)
+    public static <T extends VersionedParcelable> T fromFile(File file) throws IOException {
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = input.getChannel();
+            // The mapping stays valid after the channel is closed.
+            return fromByteBuffer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            input.close();
+        }
+    }
+
     /**
      * Add a VersionedParcelable to an existing Bundle.
      */
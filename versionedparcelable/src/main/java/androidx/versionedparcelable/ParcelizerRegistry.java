@@ -0,0 +1,56 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.versionedparcelable;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP;
+
+import androidx.annotation.RestrictTo;
+
+/**
+ * Registry of generated Parcelizers, created by the VersionedParcelable processor when the
+ * {@code versionedparcelable.registry} option is set.
+ * <p>
+ * Each Parcelizer gets an integer type id, so {@link VersionedParcel} can read and write
+ * registered types with a switch instead of looking up the Parcelizer methods through
+ * reflection. Parcels still contain the Parcelizer name, the ids are not persisted.
+ *
+ * @hide
+ */
+@RestrictTo(LIBRARY_GROUP)
+public interface ParcelizerRegistry {
+
+    /**
+     * @return the names of the registered Parcelizers, as written to parcels. The index of a name
+     * is its type id.
+     */
+    String[] getParcelizerNames();
+
+    /**
+     * @return the classes handled by the registered Parcelizers, in type id order.
+     */
+    Class<?>[] getVersionedParcelableClasses();
+
+    /**
+     * Reads an object of the given type from the parcel.
+     */
+    VersionedParcelable read(int typeId, VersionedParcel parcel);
+
+    /**
+     * Writes an object of the given type to the parcel.
+     */
+    void write(int typeId, VersionedParcelable obj, VersionedParcel parcel);
+}
@@ -33,6 +33,7 @@ import android.util.SparseBooleanArray;
 import androidx.annotation.NonNull;
 import androidx.annotation.RequiresApi;
 import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
 import androidx.collection.ArrayMap;
 import androidx.collection.ArraySet;
 
@@ -47,6 +48,8 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -77,6 +80,13 @@ public abstract class VersionedParcel {
     private static final int TYPE_INTEGER = 7;
     private static final int TYPE_FLOAT = 8;
 
+    private static final Object sRegistryLock = new Object();
+    // Replaced instead of modified when a registry is added, so lookups don't need the lock.
+    private static volatile Map<String, RegisteredType> sRegisteredNames =
+            Collections.emptyMap();
+    private static volatile Map<Class<?>, RegisteredType> sRegisteredClasses =
+            Collections.emptyMap();
+
     protected final ArrayMap<String, Method> mReadCache;
     protected final ArrayMap<String, Method> mWriteCache;
     protected final ArrayMap<String, Class> mParcelizerCache;
@@ -89,6 +99,34 @@ public abstract class VersionedParcel {
         mParcelizerCache = parcelizerCache;
     }
 
+    /**
+     * Registers generated Parcelizers, so that their types are read and written without
+     * reflection. Types which are not registered keep being looked up by name.
+     */
+    public static void registerParcelizers(@NonNull ParcelizerRegistry registry) {
+        String[] names = registry.getParcelizerNames();
+        Class<?>[] classes = registry.getVersionedParcelableClasses();
+        synchronized (sRegistryLock) {
+            Map<String, RegisteredType> registeredNames = new HashMap<>(sRegisteredNames);
+            Map<Class<?>, RegisteredType> registeredClasses = new HashMap<>(sRegisteredClasses);
+            for (int i = 0; i < names.length; i++) {
+                RegisteredType type = new RegisteredType(registry, i, names[i]);
+                registeredNames.put(names[i], type);
+                registeredClasses.put(classes[i], type);
+            }
+            sRegisteredNames = registeredNames;
+            sRegisteredClasses = registeredClasses;
+        }
+    }
+
+    @VisibleForTesting
+    static void clearParcelizerRegistries() {
+        synchronized (sRegistryLock) {
+            sRegisteredNames = Collections.emptyMap();
+            sRegisteredClasses = Collections.emptyMap();
+        }
+    }
+
     /**
      * Whether this VersionedParcel is serializing into a stream and will not accept Parcelables.
      */
@@ -1037,6 +1075,11 @@ public abstract class VersionedParcel {
     }
 
     private void writeVersionedParcelableCreator(VersionedParcelable p) {
+        RegisteredType type = sRegisteredClasses.get(p.getClass());
+        if (type != null) {
+            writeString(type.mName);
+            return;
+        }
         Class name = null;
         try {
             name = findParcelClass(p.getClass());
@@ -1561,6 +1604,10 @@ public abstract class VersionedParcel {
     @SuppressWarnings({"unchecked", "TypeParameterUnusedInFormals"})
     protected <T extends VersionedParcelable> T readFromParcel(
             String parcelCls, VersionedParcel versionedParcel) {
+        RegisteredType type = sRegisteredNames.get(parcelCls);
+        if (type != null) {
+            return (T) type.mRegistry.read(type.mTypeId, versionedParcel);
+        }
         try {
             Method m = getReadMethod(parcelCls);
             return (T) m.invoke(null, versionedParcel);
@@ -1582,6 +1629,11 @@ public abstract class VersionedParcel {
      */
     protected <T extends VersionedParcelable> void writeToParcel(T val,
             VersionedParcel versionedParcel) {
+        RegisteredType type = sRegisteredClasses.get(val.getClass());
+        if (type != null) {
+            type.mRegistry.write(type.mTypeId, val, versionedParcel);
+            return;
+        }
         try {
             Method m = getWriteMethod(val.getClass());
             m.invoke(null, val, versionedParcel);
@@ -1635,6 +1687,18 @@ public abstract class VersionedParcel {
         return ret;
     }
 
+    private static final class RegisteredType {
+        final ParcelizerRegistry mRegistry;
+        final int mTypeId;
+        final String mName;
+
+        RegisteredType(ParcelizerRegistry registry, int typeId, String name) {
+            mRegistry = registry;
+            mTypeId = typeId;
+            mName = name;
+        }
+    }
+
     /**
      */
     public static class ParcelException extends RuntimeException {
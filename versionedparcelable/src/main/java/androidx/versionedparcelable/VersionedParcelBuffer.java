@@ -0,0 +1,448 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.versionedparcelable;
+
+import android.os.Bundle;
+import android.os.IBinder;
+import android.os.IInterface;
+import android.os.Parcelable;
+
+import androidx.annotation.RestrictTo;
+import androidx.collection.ArrayMap;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+
+/**
+ * A VersionedParcel backed by a {@link ByteBuffer}, using the same format as
+ * {@link VersionedParcelStream}.
+ * <p>
+ * When writing, the header of each field is reserved in place and patched once the field is
+ * closed, instead of buffering every field separately. The buffers used for writing are pooled
+ * and reused across parcels, call {@link #recycle()} once the output has been consumed.
+ * <p>
+ * When reading, nothing is copied out of the buffer except the values themselves, so a
+ * {@link java.nio.MappedByteBuffer} of a file can be read directly.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+class VersionedParcelBuffer extends VersionedParcel {
+
+    private static final Charset UTF_16 = Charset.forName("UTF-16");
+
+    // Field header, with the size in the low 16 bits, or SIZE_EXTENDED followed by an int size.
+    private static final int HEADER_SIZE = 4;
+    private static final int SIZE_EXTENDED = 0xffff;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_POOL_SIZE = 4;
+    // Larger buffers are dropped instead of being held on to by the pool.
+    private static final int MAX_POOLED_CAPACITY = 64 * 1024;
+
+    private static final Object sPoolLock = new Object();
+    private static final ByteBuffer[] sPool = new ByteBuffer[MAX_POOL_SIZE];
+    private static int sPoolSize;
+
+    private final Data mData;
+    private final int mLimit;
+    private boolean mIgnoreParcelables;
+
+    // Position of the header of the field being written, -1 if no field is open.
+    private int mFieldStart = -1;
+    private int mFieldId = -1;
+    // End of the field being read, -1 if no field was read.
+    private int mFieldEnd = -1;
+
+    /**
+     * Creates a VersionedParcel reading from the remaining bytes of the given buffer. The buffer
+     * itself is not modified.
+     */
+    VersionedParcelBuffer(ByteBuffer input) {
+        this(new Data(input.duplicate().order(ByteOrder.BIG_ENDIAN)), input.limit(),
+                new ArrayMap<String, Method>(), new ArrayMap<String, Method>(),
+                new ArrayMap<String, Class>());
+    }
+
+    private VersionedParcelBuffer(Data data, int limit,
+            ArrayMap<String, Method> readCache,
+            ArrayMap<String, Method> writeCache,
+            ArrayMap<String, Class> parcelizerCache) {
+        super(readCache, writeCache, parcelizerCache);
+        mData = data;
+        mLimit = limit;
+    }
+
+    /**
+     * Returns a VersionedParcel writing into a pooled buffer.
+     */
+    static VersionedParcelBuffer obtain() {
+        ByteBuffer buffer = null;
+        synchronized (sPoolLock) {
+            if (sPoolSize > 0) {
+                buffer = sPool[--sPoolSize];
+                sPool[sPoolSize] = null;
+            }
+        }
+        if (buffer == null) {
+            buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+        }
+        return new VersionedParcelBuffer(new Data(buffer), Integer.MAX_VALUE,
+                new ArrayMap<String, Method>(), new ArrayMap<String, Method>(),
+                new ArrayMap<String, Class>());
+    }
+
+    /**
+     * Returns the buffer of a parcel from {@link #obtain()} to the pool. Neither the parcel nor
+     * its sub-parcels can be used afterwards.
+     */
+    void recycle() {
+        ByteBuffer buffer = mData.mBuffer;
+        mData.mBuffer = null;
+        if (buffer == null || buffer.capacity() > MAX_POOLED_CAPACITY) {
+            return;
+        }
+        buffer.clear();
+        synchronized (sPoolLock) {
+            if (sPoolSize < MAX_POOL_SIZE) {
+                sPool[sPoolSize++] = buffer;
+            }
+        }
+    }
+
+    /**
+     * Writes everything written so far to the given stream, in a single write.
+     */
+    void writeTo(OutputStream output) throws IOException {
+        ByteBuffer buffer = mData.mBuffer;
+        output.write(buffer.array(), buffer.arrayOffset(), buffer.position());
+    }
+
+    /**
+     * Returns a copy of everything written so far.
+     */
+    byte[] toByteArray() {
+        ByteBuffer buffer = mData.mBuffer;
+        byte[] bytes = new byte[buffer.position()];
+        System.arraycopy(buffer.array(), buffer.arrayOffset(), bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    @Override
+    public boolean isStream() {
+        return true;
+    }
+
+    @Override
+    public void setSerializationFlags(boolean allowSerialization, boolean ignoreParcelables) {
+        if (!allowSerialization) {
+            throw new RuntimeException("Serialization of this object is not allowed");
+        }
+        mIgnoreParcelables = ignoreParcelables;
+    }
+
+    @Override
+    public void closeField() {
+        if (mFieldStart < 0) {
+            return;
+        }
+        ByteBuffer buffer = mData.mBuffer;
+        int bodyStart = mFieldStart + HEADER_SIZE;
+        int size = buffer.position() - bodyStart;
+        if (size == 0) {
+            // Empty fields are not written at all, drop the reserved header.
+            buffer.position(mFieldStart);
+        } else if (size < SIZE_EXTENDED) {
+            buffer.putInt(mFieldStart, (mFieldId << 16) | size);
+        } else {
+            // Rare enough that moving the field is cheaper than always reserving 8 bytes.
+            buffer = mData.ensureCapacity(4);
+            byte[] array = buffer.array();
+            int offset = buffer.arrayOffset();
+            System.arraycopy(array, offset + bodyStart, array, offset + bodyStart + 4, size);
+            buffer.putInt(mFieldStart, (mFieldId << 16) | SIZE_EXTENDED);
+            buffer.putInt(bodyStart, size);
+            buffer.position(bodyStart + 4 + size);
+        }
+        mFieldStart = -1;
+    }
+
+    @Override
+    protected VersionedParcel createSubParcel() {
+        // A child read from inside a field cannot go past the end of that field.
+        return new VersionedParcelBuffer(mData, mFieldEnd >= 0 ? mFieldEnd : mLimit,
+                mReadCache, mWriteCache, mParcelizerCache);
+    }
+
+    @Override
+    public boolean readField(int fieldId) {
+        ByteBuffer buffer = mData.mBuffer;
+        while (true) {
+            if (mFieldId == fieldId) {
+                return true;
+            }
+            if (String.valueOf(mFieldId).compareTo(String.valueOf(fieldId)) > 0) {
+                return false;
+            }
+            if (mFieldEnd >= 0) {
+                buffer.position(mFieldEnd);
+            }
+            mFieldId = -1;
+            mFieldEnd = -1;
+            if (mLimit - buffer.position() < HEADER_SIZE) {
+                return false;
+            }
+            int fieldInfo = buffer.getInt();
+            int size = fieldInfo & 0xffff;
+            if (size == SIZE_EXTENDED) {
+                if (mLimit - buffer.position() < 4) {
+                    return false;
+                }
+                size = buffer.getInt();
+            }
+            mFieldId = (fieldInfo >> 16) & 0xffff;
+            mFieldEnd = Math.min(buffer.position() + size, mLimit);
+        }
+    }
+
+    @Override
+    public void setOutputField(int fieldId) {
+        closeField();
+        ByteBuffer buffer = mData.ensureCapacity(HEADER_SIZE);
+        mFieldStart = buffer.position();
+        mFieldId = fieldId;
+        buffer.position(mFieldStart + HEADER_SIZE);
+    }
+
+    @Override
+    public void writeByteArray(byte[] b) {
+        if (b != null) {
+            writeByteArray(b, 0, b.length);
+        } else {
+            writeInt(-1);
+        }
+    }
+
+    @Override
+    public void writeByteArray(byte[] b, int offset, int len) {
+        if (b != null) {
+            mData.ensureCapacity(4 + len).putInt(len).put(b, offset, len);
+        } else {
+            writeInt(-1);
+        }
+    }
+
+    @Override
+    protected void writeCharSequence(CharSequence charSequence) {
+        if (!mIgnoreParcelables) {
+            throw new RuntimeException("CharSequence cannot be written to an OutputStream");
+        }
+    }
+
+    @Override
+    public void writeInt(int val) {
+        mData.ensureCapacity(4).putInt(val);
+    }
+
+    @Override
+    public void writeLong(long val) {
+        mData.ensureCapacity(8).putLong(val);
+    }
+
+    @Override
+    public void writeFloat(float val) {
+        mData.ensureCapacity(4).putFloat(val);
+    }
+
+    @Override
+    public void writeDouble(double val) {
+        mData.ensureCapacity(8).putDouble(val);
+    }
+
+    @Override
+    public void writeString(String val) {
+        if (val != null) {
+            byte[] bytes = val.getBytes(UTF_16);
+            mData.ensureCapacity(4 + bytes.length).putInt(bytes.length).put(bytes);
+        } else {
+            writeInt(-1);
+        }
+    }
+
+    @Override
+    public void writeBoolean(boolean val) {
+        mData.ensureCapacity(1).put((byte) (val ? 1 : 0));
+    }
+
+    @Override
+    public void writeStrongBinder(IBinder val) {
+        if (!mIgnoreParcelables) {
+            throw new RuntimeException("Binders cannot be written to an OutputStream");
+        }
+    }
+
+    @Override
+    public void writeParcelable(Parcelable p) {
+        if (!mIgnoreParcelables) {
+            throw new RuntimeException("Parcelables cannot be written to an OutputStream");
+        }
+    }
+
+    @Override
+    public void writeStrongInterface(IInterface val) {
+        if (!mIgnoreParcelables) {
+            throw new RuntimeException("Binders cannot be written to an OutputStream");
+        }
+    }
+
+    @Override
+    public IBinder readStrongBinder() {
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("TypeParameterUnusedInFormals")
+    public <T extends Parcelable> T readParcelable() {
+        return null;
+    }
+
+    @Override
+    public int readInt() {
+        try {
+            return mData.mBuffer.getInt();
+        } catch (BufferUnderflowException e) {
+            throw new ParcelException(e);
+        }
+    }
+
+    @Override
+    public long readLong() {
+        try {
+            return mData.mBuffer.getLong();
+        } catch (BufferUnderflowException e) {
+            throw new ParcelException(e);
+        }
+    }
+
+    @Override
+    public float readFloat() {
+        try {
+            return mData.mBuffer.getFloat();
+        } catch (BufferUnderflowException e) {
+            throw new ParcelException(e);
+        }
+    }
+
+    @Override
+    public double readDouble() {
+        try {
+            return mData.mBuffer.getDouble();
+        } catch (BufferUnderflowException e) {
+            throw new ParcelException(e);
+        }
+    }
+
+    @Override
+    public String readString() {
+        ByteBuffer buffer = mData.mBuffer;
+        int len = readInt();
+        if (len <= 0) {
+            return null;
+        }
+        if (len > buffer.remaining()) {
+            throw new ParcelException(new BufferUnderflowException());
+        }
+        if (!buffer.hasArray()) {
+            // Mapped and direct buffers have to be copied out before decoding.
+            byte[] bytes = new byte[len];
+            buffer.get(bytes);
+            return new String(bytes, UTF_16);
+        }
+        String val = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), len,
+                UTF_16);
+        buffer.position(buffer.position() + len);
+        return val;
+    }
+
+    @Override
+    public byte[] readByteArray() {
+        int len = readInt();
+        if (len <= 0) {
+            return null;
+        }
+        byte[] bytes = new byte[len];
+        try {
+            mData.mBuffer.get(bytes);
+        } catch (BufferUnderflowException e) {
+            throw new ParcelException(e);
+        }
+        return bytes;
+    }
+
+    @Override
+    protected CharSequence readCharSequence() {
+        return null;
+    }
+
+    @Override
+    public boolean readBoolean() {
+        try {
+            return mData.mBuffer.get() != 0;
+        } catch (BufferUnderflowException e) {
+            throw new ParcelException(e);
+        }
+    }
+
+    @Override
+    public void writeBundle(Bundle val) {
+        VersionedParcelStream.writeBundleValues(this, val);
+    }
+
+    @Override
+    public Bundle readBundle() {
+        return VersionedParcelStream.readBundleValues(this);
+    }
+
+    /**
+     * The buffer shared by a parcel and its sub-parcels, which is replaced when it grows.
+     */
+    private static class Data {
+        ByteBuffer mBuffer;
+
+        Data(ByteBuffer buffer) {
+            mBuffer = buffer;
+        }
+
+        ByteBuffer ensureCapacity(int bytes) {
+            ByteBuffer buffer = mBuffer;
+            if (buffer.remaining() >= bytes) {
+                return buffer;
+            }
+            int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+            ByteBuffer grown = ByteBuffer.allocate(capacity);
+            buffer.flip();
+            grown.put(buffer);
+            mBuffer = grown;
+            return grown;
+        }
+    }
+}
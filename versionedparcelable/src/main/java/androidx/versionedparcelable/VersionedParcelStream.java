@@ -407,130 +407,141 @@ class VersionedParcelStream extends VersionedParcel {
 
     @Override
     public void writeBundle(Bundle val) {
-        try {
-            if (val != null) {
-                Set<String> keys = val.keySet();
-                mCurrentOutput.writeInt(keys.size());
-                for (String key : keys) {
-                    writeString(key);
-                    Object o = val.get(key);
-                    writeObject(o);
-                }
-            } else {
-                mCurrentOutput.writeInt(-1);
-            }
-        } catch (IOException e) {
-            throw new ParcelException(e);
-        }
+        writeBundleValues(this, val);
     }
 
     @Override
     public Bundle readBundle() {
-        int size = readInt();
+        return readBundleValues(this);
+    }
+
+    /**
+     * Writes the entries of a Bundle as typed values, shared by the stream based
+     * VersionedParcels.
+     */
+    static void writeBundleValues(VersionedParcel parcel, Bundle val) {
+        if (val != null) {
+            Set<String> keys = val.keySet();
+            parcel.writeInt(keys.size());
+            for (String key : keys) {
+                parcel.writeString(key);
+                Object o = val.get(key);
+                writeObject(parcel, o);
+            }
+        } else {
+            parcel.writeInt(-1);
+        }
+    }
+
+    /**
+     * Reads a Bundle written by {@link #writeBundleValues(VersionedParcel, Bundle)}.
+     */
+    static Bundle readBundleValues(VersionedParcel parcel) {
+        int size = parcel.readInt();
         if (size < 0) {
             return null;
         }
         Bundle b = new Bundle();
         for (int i = 0; i < size; i++) {
-            String key = readString();
-            readObject(readInt(), key, b);
+            String key = parcel.readString();
+            readObject(parcel, parcel.readInt(), key, b);
         }
         return b;
     }
 
-    private void writeObject(Object o) {
+    private static void writeObject(VersionedParcel parcel, Object o) {
         if (o == null) {
-            writeInt(TYPE_NULL);
+            parcel.writeInt(TYPE_NULL);
         } else if (o instanceof Bundle) {
-            writeInt(TYPE_SUB_BUNDLE);
-            writeBundle((Bundle) o);
+            parcel.writeInt(TYPE_SUB_BUNDLE);
+            writeBundleValues(parcel, (Bundle) o);
         } else if (o instanceof String) {
-            writeInt(TYPE_STRING);
-            writeString((String) o);
+            parcel.writeInt(TYPE_STRING);
+            parcel.writeString((String) o);
         } else if (o instanceof String[]) {
-            writeInt(TYPE_STRING_ARRAY);
-            writeArray((String[]) o);
+            parcel.writeInt(TYPE_STRING_ARRAY);
+            parcel.writeArray((String[]) o);
         } else if (o instanceof Boolean) {
-            writeInt(TYPE_BOOLEAN);
-            writeBoolean((Boolean) o);
+            parcel.writeInt(TYPE_BOOLEAN);
+            parcel.writeBoolean((Boolean) o);
         } else if (o instanceof boolean[]) {
-            writeInt(TYPE_BOOLEAN_ARRAY);
-            writeBooleanArray((boolean[]) o);
+            parcel.writeInt(TYPE_BOOLEAN_ARRAY);
+            parcel.writeBooleanArray((boolean[]) o);
         } else if (o instanceof Double) {
-            writeInt(TYPE_DOUBLE);
-            writeDouble((Double) o);
+            parcel.writeInt(TYPE_DOUBLE);
+            parcel.writeDouble((Double) o);
         } else if (o instanceof double[]) {
-            writeInt(TYPE_DOUBLE_ARRAY);
-            writeDoubleArray((double[]) o);
+            parcel.writeInt(TYPE_DOUBLE_ARRAY);
+            parcel.writeDoubleArray((double[]) o);
         } else if (o instanceof Integer) {
-            writeInt(TYPE_INT);
-            writeInt((Integer) o);
+            parcel.writeInt(TYPE_INT);
+            parcel.writeInt((Integer) o);
         } else if (o instanceof int[]) {
-            writeInt(TYPE_INT_ARRAY);
-            writeIntArray((int[]) o);
+            parcel.writeInt(TYPE_INT_ARRAY);
+            parcel.writeIntArray((int[]) o);
         } else if (o instanceof Long) {
-            writeInt(TYPE_LONG);
-            writeLong((Long) o);
+            parcel.writeInt(TYPE_LONG);
+            parcel.writeLong((Long) o);
         } else if (o instanceof long[]) {
-            writeInt(TYPE_LONG_ARRAY);
-            writeLongArray((long[]) o);
+            parcel.writeInt(TYPE_LONG_ARRAY);
+            parcel.writeLongArray((long[]) o);
         } else if (o instanceof Float) {
-            writeInt(TYPE_FLOAT);
-            writeFloat((Float) o);
+            parcel.writeInt(TYPE_FLOAT);
+            parcel.writeFloat((Float) o);
         } else if (o instanceof float[]) {
-            writeInt(TYPE_FLOAT_ARRAY);
-            writeFloatArray((float[]) o);
+            parcel.writeInt(TYPE_FLOAT_ARRAY);
+            parcel.writeFloatArray((float[]) o);
         } else {
             throw new IllegalArgumentException("Unsupported type " + o.getClass());
         }
     }
 
-    private void readObject(int type, String key, Bundle b) {
+    private static void readObject(VersionedParcel parcel, int type, String key, Bundle b) {
         switch (type) {
             case TYPE_NULL:
                 b.putParcelable(key, null);
                 break;
             case TYPE_SUB_BUNDLE:
-                b.putBundle(key, readBundle());
+                b.putBundle(key, readBundleValues(parcel));
                 break;
             case TYPE_SUB_PERSISTABLE_BUNDLE:
-                b.putBundle(key, readBundle());
+                b.putBundle(key, readBundleValues(parcel));
                 break;
             case TYPE_STRING:
-                b.putString(key, readString());
+                b.putString(key, parcel.readString());
                 break;
             case TYPE_STRING_ARRAY:
-                b.putStringArray(key, readArray(new String[0]));
+                b.putStringArray(key, parcel.readArray(new String[0]));
                 break;
             case TYPE_BOOLEAN:
-                b.putBoolean(key, readBoolean());
+                b.putBoolean(key, parcel.readBoolean());
                 break;
             case TYPE_BOOLEAN_ARRAY:
-                b.putBooleanArray(key, readBooleanArray());
+                b.putBooleanArray(key, parcel.readBooleanArray());
                 break;
             case TYPE_DOUBLE:
-                b.putDouble(key, readDouble());
+                b.putDouble(key, parcel.readDouble());
                 break;
             case TYPE_DOUBLE_ARRAY:
-                b.putDoubleArray(key, readDoubleArray());
+                b.putDoubleArray(key, parcel.readDoubleArray());
                 break;
             case TYPE_INT:
-                b.putInt(key, readInt());
+                b.putInt(key, parcel.readInt());
                 break;
             case TYPE_INT_ARRAY:
-                b.putIntArray(key, readIntArray());
+                b.putIntArray(key, parcel.readIntArray());
                 break;
             case TYPE_LONG:
-                b.putLong(key, readLong());
+                b.putLong(key, parcel.readLong());
                 break;
             case TYPE_LONG_ARRAY:
-                b.putLongArray(key, readLongArray());
+                b.putLongArray(key, parcel.readLongArray());
                 break;
             case TYPE_FLOAT:
-                b.putFloat(key, readFloat());
+                b.putFloat(key, parcel.readFloat());
                 break;
             case TYPE_FLOAT_ARRAY:
-                b.putFloatArray(key, readFloatArray());
+                b.putFloatArray(key, parcel.readFloatArray());
                 break;
             default:
                 throw new RuntimeException("Unknown type " + type);